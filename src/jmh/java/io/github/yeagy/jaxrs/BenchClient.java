@@ -0,0 +1,451 @@
+package io.github.yeagy.jaxrs;
+
+import javax.ws.rs.client.AsyncInvoker;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.Invocation;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.Application;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.Configuration;
+import javax.ws.rs.core.Cookie;
+import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.Link;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriBuilder;
+import javax.ws.rs.core.Variant;
+import javax.ws.rs.ext.RuntimeDelegate;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * JAX-RS client that does no I/O, so benchmarks measure the generated code rather than a transport. Targets and
+ * builders return themselves, and every invocation returns the same entity, or the same response for methods that
+ * return Response.
+ */
+class BenchClient {
+    static {
+        //Entity.entity parses the media type through the RuntimeDelegate
+        RuntimeDelegate.setInstance(new BenchRuntimeDelegate());
+    }
+
+    private final Object entity;
+    private final Response response;
+
+    BenchClient(Object entity, Response response) {
+        this.entity = entity;
+        this.response = response;
+    }
+
+    Client create() {
+        final WebTarget target = new Target();
+        return (Client) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{Client.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("target")) {
+                    return target;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private class Target implements WebTarget {
+        private final URI uri = URI.create("http://localhost/bench");
+        private final Invocation.Builder builder = new Builder();
+
+        @Override
+        public URI getUri() {
+            return uri;
+        }
+
+        @Override
+        public UriBuilder getUriBuilder() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public WebTarget path(String path) {
+            return this;
+        }
+
+        @Override
+        public WebTarget resolveTemplate(String name, Object value) {
+            return this;
+        }
+
+        @Override
+        public WebTarget resolveTemplate(String name, Object value, boolean encodeSlashInPath) {
+            return this;
+        }
+
+        @Override
+        public WebTarget resolveTemplateFromEncoded(String name, Object value) {
+            return this;
+        }
+
+        @Override
+        public WebTarget resolveTemplates(Map<String, Object> templateValues) {
+            return this;
+        }
+
+        @Override
+        public WebTarget resolveTemplates(Map<String, Object> templateValues, boolean encodeSlashInPath) {
+            return this;
+        }
+
+        @Override
+        public WebTarget resolveTemplatesFromEncoded(Map<String, Object> templateValues) {
+            return this;
+        }
+
+        @Override
+        public WebTarget matrixParam(String name, Object... values) {
+            return this;
+        }
+
+        @Override
+        public WebTarget queryParam(String name, Object... values) {
+            return this;
+        }
+
+        @Override
+        public Invocation.Builder request() {
+            return builder;
+        }
+
+        @Override
+        public Invocation.Builder request(String... acceptedResponseTypes) {
+            return builder;
+        }
+
+        @Override
+        public Invocation.Builder request(MediaType... acceptedResponseTypes) {
+            return builder;
+        }
+
+        @Override
+        public Configuration getConfiguration() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public WebTarget property(String name, Object value) {
+            return this;
+        }
+
+        @Override
+        public WebTarget register(Class<?> componentClass) {
+            return this;
+        }
+
+        @Override
+        public WebTarget register(Class<?> componentClass, int priority) {
+            return this;
+        }
+
+        @Override
+        public WebTarget register(Class<?> componentClass, Class<?>... contracts) {
+            return this;
+        }
+
+        @Override
+        public WebTarget register(Class<?> componentClass, Map<Class<?>, Integer> contracts) {
+            return this;
+        }
+
+        @Override
+        public WebTarget register(Object component) {
+            return this;
+        }
+
+        @Override
+        public WebTarget register(Object component, int priority) {
+            return this;
+        }
+
+        @Override
+        public WebTarget register(Object component, Class<?>... contracts) {
+            return this;
+        }
+
+        @Override
+        public WebTarget register(Object component, Map<Class<?>, Integer> contracts) {
+            return this;
+        }
+    }
+
+    private class Builder implements Invocation.Builder {
+        @SuppressWarnings("unchecked")
+        private <T> T entity() {
+            return (T) entity;
+        }
+
+        @Override
+        public Invocation build(String method) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Invocation build(String method, Entity<?> entity) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Invocation buildGet() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Invocation buildDelete() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Invocation buildPost(Entity<?> entity) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Invocation buildPut(Entity<?> entity) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AsyncInvoker async() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Invocation.Builder accept(String... mediaTypes) {
+            return this;
+        }
+
+        @Override
+        public Invocation.Builder accept(MediaType... mediaTypes) {
+            return this;
+        }
+
+        @Override
+        public Invocation.Builder acceptLanguage(Locale... locales) {
+            return this;
+        }
+
+        @Override
+        public Invocation.Builder acceptLanguage(String... locales) {
+            return this;
+        }
+
+        @Override
+        public Invocation.Builder acceptEncoding(String... encodings) {
+            return this;
+        }
+
+        @Override
+        public Invocation.Builder cookie(Cookie cookie) {
+            return this;
+        }
+
+        @Override
+        public Invocation.Builder cookie(String name, String value) {
+            return this;
+        }
+
+        @Override
+        public Invocation.Builder cacheControl(CacheControl cacheControl) {
+            return this;
+        }
+
+        @Override
+        public Invocation.Builder header(String name, Object value) {
+            return this;
+        }
+
+        @Override
+        public Invocation.Builder headers(MultivaluedMap<String, Object> headers) {
+            return this;
+        }
+
+        @Override
+        public Invocation.Builder property(String name, Object value) {
+            return this;
+        }
+
+        @Override
+        public Response get() {
+            return response;
+        }
+
+        @Override
+        public <T> T get(Class<T> responseType) {
+            return entity();
+        }
+
+        @Override
+        public <T> T get(GenericType<T> responseType) {
+            return entity();
+        }
+
+        @Override
+        public Response put(Entity<?> entity) {
+            return response;
+        }
+
+        @Override
+        public <T> T put(Entity<?> entity, Class<T> responseType) {
+            return entity();
+        }
+
+        @Override
+        public <T> T put(Entity<?> entity, GenericType<T> responseType) {
+            return entity();
+        }
+
+        @Override
+        public Response post(Entity<?> entity) {
+            return response;
+        }
+
+        @Override
+        public <T> T post(Entity<?> entity, Class<T> responseType) {
+            return entity();
+        }
+
+        @Override
+        public <T> T post(Entity<?> entity, GenericType<T> responseType) {
+            return entity();
+        }
+
+        @Override
+        public Response delete() {
+            return response;
+        }
+
+        @Override
+        public <T> T delete(Class<T> responseType) {
+            return entity();
+        }
+
+        @Override
+        public <T> T delete(GenericType<T> responseType) {
+            return entity();
+        }
+
+        @Override
+        public Response head() {
+            return response;
+        }
+
+        @Override
+        public Response options() {
+            return response;
+        }
+
+        @Override
+        public <T> T options(Class<T> responseType) {
+            return entity();
+        }
+
+        @Override
+        public <T> T options(GenericType<T> responseType) {
+            return entity();
+        }
+
+        @Override
+        public Response trace() {
+            return response;
+        }
+
+        @Override
+        public <T> T trace(Class<T> responseType) {
+            return entity();
+        }
+
+        @Override
+        public <T> T trace(GenericType<T> responseType) {
+            return entity();
+        }
+
+        @Override
+        public Response method(String name) {
+            return response;
+        }
+
+        @Override
+        public <T> T method(String name, Class<T> responseType) {
+            return entity();
+        }
+
+        @Override
+        public <T> T method(String name, GenericType<T> responseType) {
+            return entity();
+        }
+
+        @Override
+        public Response method(String name, Entity<?> entity) {
+            return response;
+        }
+
+        @Override
+        public <T> T method(String name, Entity<?> entity, Class<T> responseType) {
+            return entity();
+        }
+
+        @Override
+        public <T> T method(String name, Entity<?> entity, GenericType<T> responseType) {
+            return entity();
+        }
+    }
+
+    private static class BenchRuntimeDelegate extends RuntimeDelegate {
+        private static final HeaderDelegate<MediaType> MEDIA_TYPE = new HeaderDelegate<MediaType>() {
+            @Override
+            public MediaType fromString(String value) {
+                int slash = value.indexOf('/');
+                return new MediaType(value.substring(0, slash), value.substring(slash + 1));
+            }
+
+            @Override
+            public String toString(MediaType value) {
+                return value.getType() + '/' + value.getSubtype();
+            }
+        };
+
+        @Override
+        public UriBuilder createUriBuilder() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Response.ResponseBuilder createResponseBuilder() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Variant.VariantListBuilder createVariantListBuilder() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <T> T createEndpoint(Application application, Class<T> endpointType) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> HeaderDelegate<T> createHeaderDelegate(Class<T> type) {
+            return type == MediaType.class ? (HeaderDelegate<T>) MEDIA_TYPE : null;
+        }
+
+        @Override
+        public Link.Builder createLinkBuilder() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
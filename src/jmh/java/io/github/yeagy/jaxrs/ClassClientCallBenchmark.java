@@ -0,0 +1,39 @@
+package io.github.yeagy.jaxrs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Call overhead of the ExampleClassEndpoint client against {@link BenchClient}, covering class level path, query and
+ * header params. Uses the checked in golden client, since class clients implement no interface to call them through.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClassClientCallBenchmark {
+    private ExampleClassEndpointClient client;
+
+    @Setup
+    public void setup() {
+        Example example = new Example("key");
+        client = new ExampleClassEndpointClient(new BenchClient(example, new StubResponse(200, example)).create(), "http://localhost");
+    }
+
+    @Benchmark
+    public Example getClassParams() {
+        return client.findExample("header", "classKey", 42L, "methodKey");
+    }
+}
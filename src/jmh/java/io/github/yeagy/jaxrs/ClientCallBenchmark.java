@@ -0,0 +1,181 @@
+package io.github.yeagy.jaxrs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.core.Cookie;
+import javax.ws.rs.core.Response;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Call overhead of a generated ExampleEndpoint client against {@link BenchClient}, one benchmark per verb, path depth,
+ * bean param and form param case. The client is generated and compiled during setup, so each generation option can be
+ * compared with the default output. Run with the gc profiler to see allocation per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClientCallBenchmark {
+    /**
+     * Generation option of the client, NONE for the default client.
+     */
+    @Param({"NONE", "PRECOMPILED_PATHS", "CALL_LISTENER", "FORM_ENCODER"})
+    public String option;
+
+    private final Example example = new Example("key");
+    private final List<String> listParams = Arrays.asList("a", "b", "c");
+    private final Set<Integer> setParams = new HashSet<Integer>(Arrays.asList(1, 2, 3));
+    private ExampleBeanParam beanParam;
+    private Cookie cookie;
+    private File outDir;
+    private ExampleEndpoint client;
+
+    @Setup
+    public void setup() throws Exception {
+        BenchClient bench = new BenchClient(example, new StubResponse(200, example));
+        beanParam = new ExampleBeanParam(7L);
+        beanParam.setBeanPath("bean");
+        beanParam.fieldQuery = 3;
+        cookie = new Cookie("cookieParam", "value");
+
+        ClientGenerator generator = option.equals("NONE") ? new ClientGenerator() : new ClientGenerator(false, ClientGenerator.Option.valueOf(option));
+        outDir = Files.createTempDirectory("jaxrs-client-bench").toFile();
+        generator.generate(ExampleEndpoint.class, outDir);
+        client = (ExampleEndpoint) compile(outDir, ExampleEndpoint.class.getName() + "Client")
+                .getConstructor(Client.class, String.class)
+                .newInstance(bench.create(), "http://localhost");
+    }
+
+    @TearDown
+    public void tearDown() {
+        delete(outDir);
+    }
+
+    @Benchmark
+    public List<Example> getList() {
+        return client.findAll();
+    }
+
+    @Benchmark
+    public Example getPathParam() {
+        return client.find("key");
+    }
+
+    @Benchmark
+    public Example getKitchenSink() {
+        return client.findKitchenSink("key", "head", "mod", "sub", "matrix", "other", cookie, null);
+    }
+
+    @Benchmark
+    public Response getBeanParam() {
+        return client.findBeanParams("key", beanParam);
+    }
+
+    @Benchmark
+    public void post() {
+        client.create(example);
+    }
+
+    @Benchmark
+    public Example postKitchenSink() {
+        return client.postKitchenSink("key", "mod", "sub", "other", example);
+    }
+
+    @Benchmark
+    public void postFormParams() {
+        client.postFormParams("key", "solo", 1L, 2, listParams, setParams);
+    }
+
+    @Benchmark
+    public void put() {
+        client.replace("key", example);
+    }
+
+    @Benchmark
+    public void delete() {
+        client.delete("key");
+    }
+
+    /**
+     * @return the named class, compiled from the sources under the dir and loaded ahead of any class of the same name
+     * on the classpath, such as the checked in golden clients
+     */
+    static Class<?> compile(final File dir, String className) throws IOException, ClassNotFoundException {
+        List<String> args = new ArrayList<String>(Arrays.asList("-nowarn", "-classpath", System.getProperty("java.class.path"), "-d", dir.getPath()));
+        collectSources(dir, args);
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler.run(null, null, null, args.toArray(new String[args.size()])) != 0) {
+            throw new IllegalStateException("could not compile generated client");
+        }
+        ClassLoader loader = new ClassLoader(ClientCallBenchmark.class.getClassLoader()) {
+            @Override
+            protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                File classFile = new File(dir, name.replace('.', File.separatorChar) + ".class");
+                if (!classFile.isFile()) {
+                    return super.loadClass(name, resolve);
+                }
+                Class<?> klass = findLoadedClass(name);
+                if (klass == null) {
+                    try {
+                        byte[] bytes = Files.readAllBytes(classFile.toPath());
+                        klass = defineClass(name, bytes, 0, bytes.length);
+                    } catch (IOException e) {
+                        throw new ClassNotFoundException(name, e);
+                    }
+                }
+                if (resolve) {
+                    resolveClass(klass);
+                }
+                return klass;
+            }
+        };
+        return loader.loadClass(className);
+    }
+
+    private static void collectSources(File dir, List<String> out) {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.isDirectory()) {
+                    collectSources(file, out);
+                } else if (file.getName().endsWith(".java")) {
+                    out.add(file.getPath());
+                }
+            }
+        }
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,256 @@
+package io.github.yeagy.jaxrs;
+
+import org.kohsuke.args4j.CmdLineException;
+import org.kohsuke.args4j.CmdLineParser;
+import org.kohsuke.args4j.Option;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static io.github.yeagy.jaxrs.ResourceAnalyzer.ClassData;
+
+/**
+ * End to end benchmark of the generator on synthetic input. Compiles a number of resources with a number of methods
+ * each, plus a share of plain classes, into both a class directory and a jar. Then times full CLI runs on each input,
+ * reporting wall time, class files scanned per second, peak heap and class loaders created, and times the analysis
+ * and source generation phases on their own.
+ */
+public class GeneratorBenchmark {
+    private static final String PACKAGE = "synthetic";
+    private static final String[] VERBS = {"GET", "POST", "PUT", "DELETE"};
+
+    @Option(name = "--resources", usage = "Resource classes to synthesize.")
+    private int resources = 200;
+
+    @Option(name = "--methods", usage = "Resource methods per resource.")
+    private int methods = 10;
+
+    @Option(name = "--non-resource-share", usage = "Share of all synthesized classes that are not resources, from 0 to below 1.")
+    private double nonResourceShare = 0.5;
+
+    @Option(name = "--runs", usage = "Measured runs per input, after one warmup run.")
+    private int runs = 5;
+
+    @Option(name = "--cli-args", usage = "Extra comma separated CLI arguments, such as --bytecode,--threads,4.")
+    private String cliArgs = "";
+
+    public static void main(String[] input) throws Exception {
+        GeneratorBenchmark benchmark = new GeneratorBenchmark();
+        CmdLineParser parser = new CmdLineParser(benchmark);
+        try {
+            parser.parseArgument(input);
+        } catch (CmdLineException e) {
+            System.err.println(e.getMessage());
+            parser.printUsage(System.err);
+            System.exit(1);
+        }
+        if (benchmark.nonResourceShare < 0 || benchmark.nonResourceShare >= 1) {
+            System.err.println("--non-resource-share must be from 0 to below 1");
+            System.exit(1);
+        }
+        File workDir = Files.createTempDirectory("jaxrs-client-gen-bench").toFile();
+        try {
+            benchmark.run(workDir);
+        } finally {
+            delete(workDir);
+        }
+    }
+
+    private void run(File workDir) throws Exception {
+        int nonResources = (int) Math.round(resources * nonResourceShare / (1 - nonResourceShare));
+        File classes = new File(workDir, "classes");
+        File jar = new File(workDir, "synthetic.jar");
+        synthesize(new File(workDir, "src"), classes, nonResources);
+        jar(classes, jar);
+        System.out.println("resources: " + resources + ", methods each: " + methods + ", non-resources: " + nonResources);
+
+        File outDir = new File(workDir, "out");
+        for (File input : new File[]{classes, jar}) {
+            String label = input.isDirectory() ? "directory" : "jar";
+            List<String> args = new ArrayList<String>();
+            if (!cliArgs.isEmpty()) {
+                args.addAll(Arrays.asList(cliArgs.split(",")));
+            }
+            args.add(input.getPath());
+            for (int i = 0; i <= runs; i++) {
+                delete(outDir);
+                System.gc();
+                resetPeakHeap();
+                long start = System.nanoTime();
+                CLI cli = CLI.run(outDir, args.toArray(new String[args.size()]));
+                long nanos = System.nanoTime() - start;
+                if (i > 0) {
+                    System.out.printf("%-9s run %d: %8.1f ms, %9.0f classes/s, peak heap %6.1f MB, loaders %d, scanned %d, loaded %d, written %d%n",
+                            label, i, nanos / 1e6, cli.getScannedCount() / (nanos / 1e9), peakHeap() / 1048576.0,
+                            cli.getLoaderCount(), cli.getScannedCount(), cli.getLoadedCount(), cli.getWrittenCount());
+                }
+            }
+        }
+
+        //phases on their own, with the resources loaded once up front
+        URLClassLoader loader = new URLClassLoader(new URL[]{classes.toURI().toURL()}, getClass().getClassLoader());
+        List<Class<?>> loaded = new ArrayList<Class<?>>(resources);
+        for (int r = 0; r < resources; r++) {
+            loaded.add(loader.loadClass(PACKAGE + ".Resource" + r));
+        }
+        ClientGenerator generator = new ClientGenerator();
+        for (int i = 0; i <= runs; i++) {
+            long start = System.nanoTime();
+            List<ClassData> analyzed = new ArrayList<ClassData>(resources);
+            for (Class<?> klass : loaded) {
+                analyzed.add(new ResourceAnalyzer().analyze(klass));
+            }
+            long analyzeNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            int chars = 0;
+            for (ClassData classData : analyzed) {
+                chars += generator.generate(classData).toString().length();
+            }
+            long generateNanos = System.nanoTime() - start;
+            if (i > 0) {
+                System.out.printf("phases    run %d: analyze %8.1f ms (%9.0f resources/s), generate %8.1f ms (%9.0f resources/s, %d chars)%n",
+                        i, analyzeNanos / 1e6, resources / (analyzeNanos / 1e9), generateNanos / 1e6, resources / (generateNanos / 1e9), chars);
+            }
+        }
+    }
+
+    /**
+     * Writes and compiles the synthetic sources. Resources mix verbs, path depths and param kinds, and plain classes
+     * have a few methods so their class files are of a similar size.
+     */
+    private void synthesize(File src, File classes, int nonResources) throws IOException {
+        File dir = new File(src, PACKAGE);
+        if (!dir.mkdirs() || !classes.mkdirs()) {
+            throw new IOException("could not create " + dir + " and " + classes);
+        }
+        List<String> args = new ArrayList<String>(Arrays.asList("-nowarn", "-classpath", System.getProperty("java.class.path"), "-d", classes.getPath()));
+        for (int r = 0; r < resources; r++) {
+            StringBuilder source = new StringBuilder();
+            source.append("package ").append(PACKAGE).append(";\n\n")
+                    .append("import javax.ws.rs.*;\n\n")
+                    .append("@Path(\"resource").append(r).append("\")\n")
+                    .append("@Produces(\"application/json\")\n")
+                    .append("@Consumes(\"application/json\")\n")
+                    .append("public class Resource").append(r).append(" {\n");
+            for (int m = 0; m < methods; m++) {
+                String verb = VERBS[m % VERBS.length];
+                source.append("    @").append(verb).append("\n")
+                        .append("    @Path(\"m").append(m);
+                for (int depth = 0; depth < m % 3; depth++) {
+                    source.append("/{key").append(depth).append("}");
+                }
+                source.append("\")\n")
+                        .append("    public String method").append(m).append("(@QueryParam(\"q\") int q, @HeaderParam(\"h\") String h");
+                for (int depth = 0; depth < m % 3; depth++) {
+                    source.append(", @PathParam(\"key").append(depth).append("\") String key").append(depth);
+                }
+                if (!verb.equals("GET") && !verb.equals("DELETE")) {
+                    source.append(", String body");
+                }
+                source.append(") {\n        return null;\n    }\n\n");
+            }
+            source.append("}\n");
+            args.add(write(dir, "Resource" + r, source));
+        }
+        for (int p = 0; p < nonResources; p++) {
+            StringBuilder source = new StringBuilder();
+            source.append("package ").append(PACKAGE).append(";\n\n")
+                    .append("public class Plain").append(p).append(" {\n");
+            for (int m = 0; m < methods; m++) {
+                source.append("    public String method").append(m).append("(int q, String h) {\n")
+                        .append("        return h + q;\n    }\n\n");
+            }
+            source.append("}\n");
+            args.add(write(dir, "Plain" + p, source));
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler.run(null, null, null, args.toArray(new String[args.size()])) != 0) {
+            throw new IllegalStateException("could not compile synthetic classes");
+        }
+    }
+
+    private static String write(File dir, String className, CharSequence source) throws IOException {
+        File file = new File(dir, className + ".java");
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            writer.append(source);
+        } finally {
+            writer.close();
+        }
+        return file.getPath();
+    }
+
+    private static void jar(File classes, File jar) throws IOException {
+        JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+        try {
+            addToJar(classes, "", out);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static void addToJar(File dir, String prefix, JarOutputStream out) throws IOException {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.isDirectory()) {
+                    out.putNextEntry(new JarEntry(prefix + file.getName() + "/"));
+                    out.closeEntry();
+                    addToJar(file, prefix + file.getName() + "/", out);
+                } else {
+                    out.putNextEntry(new JarEntry(prefix + file.getName()));
+                    Files.copy(file.toPath(), (OutputStream) out);
+                    out.closeEntry();
+                }
+            }
+        }
+    }
+
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * @return sum of the heap pool peaks since the last reset, an upper bound since pools peak at different times
+     */
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
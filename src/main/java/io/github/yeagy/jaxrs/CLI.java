@@ -1,24 +1,43 @@
 package io.github.yeagy.jaxrs;
 
+import com.squareup.javapoet.JavaFile;
 import org.kohsuke.args4j.Argument;
 import org.kohsuke.args4j.CmdLineException;
 import org.kohsuke.args4j.CmdLineParser;
 import org.kohsuke.args4j.Option;
 
+import javax.ws.rs.HttpMethod;
 import javax.ws.rs.Path;
 import java.io.File;
 import java.io.FileFilter;
+import java.io.FileInputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.net.URLClassLoader;
 import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
+import static io.github.yeagy.jaxrs.ResourceAnalyzer.ClassData;
+import static io.github.yeagy.jaxrs.ResourceAnalyzer.MethodData;
+import static io.github.yeagy.jaxrs.ResourceAnalyzer.ParamData;
+
 class CLI {
     private static class Args {
         @Option(name = "--help", aliases = "-h", usage = "Show this message.")
@@ -27,27 +46,122 @@ class CLI {
         @Option(name = "--async", aliases = "-a", usage = "Create an asynchronous client from a class resource.")
         private boolean async = false;
 
+        @Option(name = "--flavor", aliases = "-f", usage = "How client methods return results. COMPLETION_STAGE clients need java8+, PUBLISHER clients need reactive-streams. Defaults to SYNC, or FUTURE with --async.")
+        private ClientGenerator.Flavor flavor = null;
+
         @Option(name = "--parent-classpath", aliases = "-pcp", metaVar = "CPATH;...", usage = "Dependent libraries. Semicolon separated classpath entries, same rules as java. Can be a directory, jar, or wildcard for dir of jars (not recursively searched).")
         private String classpath = null;
 
+        @Option(name = "--bytecode", aliases = "-b", usage = "Analyze resources straight from their class files instead of loading them. Only bean param classes need to be found on the classpath.")
+        private boolean bytecode = false;
+
+        @Option(name = "--incremental", aliases = "-i", usage = "Skip resources that are unchanged since the last incremental run, and delete clients of resources that are gone. Tracked by a manifest in the output directory.")
+        private boolean incremental = false;
+
+        @Option(name = "--threads", aliases = "-t", metaVar = "N", usage = "Worker threads used to load, analyze and generate resources. Defaults to 1.")
+        private int threads = 1;
+
+        @Option(name = "--precompiled-paths", aliases = "-pp", usage = "Resolve the static part of each resource path once per client instead of on every call.")
+        private boolean precompiledPaths = false;
+
+        @Option(name = "--batch", usage = "Add a Batch companion to sync clients, which fans out many calls of a method on a given executor with bounded concurrency.")
+        private boolean batch = false;
+
+        @Option(name = "--single-flight", usage = "Concurrent identical GET calls of a sync client share one in flight request and its result.")
+        private boolean singleFlight = false;
+
+        @Option(name = "--response-cache", usage = "GET calls of a sync client keep their results in an LRU cache, honoring Cache-Control and revalidating with ETag/Last-Modified.")
+        private boolean responseCache = false;
+
+        @Option(name = "--call-listener", usage = "Sync clients time every call and report it to a CallListener passed to their constructor.")
+        private boolean callListener = false;
+
+        @Option(name = "--streaming", usage = "Sync clients get a Stream variant of collection returning methods that hands the response body to a StreamReader.")
+        private boolean streaming = false;
+
+        @Option(name = "--streaming-uploads", usage = "InputStream entities are sent chunked, with File and StreamingOutput overloads of those methods.")
+        private boolean streamingUploads = false;
+
+        @Option(name = "--form-encoder", usage = "Form params are encoded straight into a reused buffer instead of a Form.")
+        private boolean formEncoder = false;
+
+        @Option(name = "--retry", usage = "Sync GET, HEAD, OPTIONS, PUT and DELETE calls are retried and hedged by a RetryPolicy passed to the client constructor.")
+        private boolean retry = false;
+
+        @Option(name = "--load-balancing", usage = "Sync calls are spread over several base URLs by a LoadBalancer passed to the client constructor.")
+        private boolean loadBalancing = false;
+
+        @Option(name = "--compression", usage = "Clients ask for gzip or deflate responses and gzip request entities above a size threshold.")
+        private boolean compression = false;
+
+        @Option(name = "--verbose", aliases = "-v", usage = "Print run statistics.")
+        private boolean verbose = false;
+
         @Argument(required = true, metaVar = "PATH", usage = "Space separated paths. Can be a class file, a jar, or a directory (recursively searched).")
         private List<File> paths = new ArrayList<File>();
     }
 
     private static final String[] COMMON_ROOT_PACKAGES = new String[]{"com", "net", "org", "io"};
     private static final File OUTPUT_DIR = new File("jaxrs-client-gen");
+    private static final String PATH_DESCRIPTOR = "L" + Path.class.getName().replace('.', '/') + ";";
+    private static final String HTTP_METHOD_DESCRIPTOR = "L" + HttpMethod.class.getName().replace('.', '/') + ";";
+    private static final String JAX_RS_DESCRIPTOR_PREFIX = "Ljavax/ws/rs/";
 
     private final Args args;
+    private final File outDir;
     private final ClientGenerator generator;
-    private final ClassLoader parentLoader;
+    private final ClassLoaderCache loaders;
+    private final List<JarFile> jars = new ArrayList<JarFile>();
+    private final AtomicInteger scanned = new AtomicInteger();
+    private final AtomicInteger loaded = new AtomicInteger();
+    private final AtomicInteger writtenCount = new AtomicInteger();
+    private int skipped;
+    private int regenerated;
+    private int deleted;
 
-    private CLI(Args args) throws MalformedURLException {
+    private CLI(Args args, File outDir) throws MalformedURLException {
         this.args = args;
-        generator = new ClientGenerator(args.async);
-        parentLoader = getParentClassloader();
+        this.outDir = outDir;
+        List<ClientGenerator.Option> options = new ArrayList<ClientGenerator.Option>();
+        if (args.precompiledPaths) {
+            options.add(ClientGenerator.Option.PRECOMPILED_PATHS);
+        }
+        if (args.batch) {
+            options.add(ClientGenerator.Option.BATCH);
+        }
+        if (args.singleFlight) {
+            options.add(ClientGenerator.Option.SINGLE_FLIGHT);
+        }
+        if (args.responseCache) {
+            options.add(ClientGenerator.Option.RESPONSE_CACHE);
+        }
+        if (args.callListener) {
+            options.add(ClientGenerator.Option.CALL_LISTENER);
+        }
+        if (args.streaming) {
+            options.add(ClientGenerator.Option.STREAMING);
+        }
+        if (args.streamingUploads) {
+            options.add(ClientGenerator.Option.STREAMING_UPLOADS);
+        }
+        if (args.formEncoder) {
+            options.add(ClientGenerator.Option.FORM_ENCODER);
+        }
+        if (args.retry) {
+            options.add(ClientGenerator.Option.RETRY);
+        }
+        if (args.loadBalancing) {
+            options.add(ClientGenerator.Option.LOAD_BALANCING);
+        }
+        if (args.compression) {
+            options.add(ClientGenerator.Option.COMPRESSION);
+        }
+        ClientGenerator.Flavor flavor = args.flavor != null ? args.flavor : args.async ? ClientGenerator.Flavor.FUTURE : ClientGenerator.Flavor.SYNC;
+        generator = new ClientGenerator(flavor, options.toArray(new ClientGenerator.Option[options.size()]));
+        loaders = new ClassLoaderCache(getClass().getClassLoader(), getParentClasspath());
     }
 
-    private ClassLoader getParentClassloader() throws MalformedURLException {
+    private URL[] getParentClasspath() throws MalformedURLException {
         if (args.classpath != null) {
             List<URL> urls = new ArrayList<URL>();
             for (String cp : args.classpath.split(";")) {
@@ -68,9 +182,9 @@ class CLI {
                     urls.add(new File(cp).toURI().toURL());
                 }
             }
-            return new URLClassLoader(urls.toArray(new URL[urls.size()]), getClass().getClassLoader());
+            return urls.toArray(new URL[urls.size()]);
         }
-        return getClass().getClassLoader();
+        return null;
     }
 
     public static void main(String[] input) throws Exception {
@@ -89,9 +203,70 @@ class CLI {
             printHelp(parser);
             System.exit(0);
         }
+        if (args.async && args.flavor != null && args.flavor != ClientGenerator.Flavor.FUTURE) {
+            System.err.println("--async cannot be combined with --flavor " + args.flavor);
+            printHelp(parser);
+            System.exit(1);
+        }
+        if (args.threads < 1) {
+            System.err.println("--threads must be at least 1");
+            printHelp(parser);
+            System.exit(1);
+        }
+
+        CLI cli = new CLI(args, OUTPUT_DIR);
+        cli.execute();
+        if (args.incremental) {
+            System.err.println("skipped: " + cli.skipped + ", regenerated: " + cli.regenerated + ", deleted: " + cli.deleted);
+        }
+        if (args.verbose) {
+            System.err.println("class files scanned: " + cli.scanned.get());
+            System.err.println("classes loaded: " + cli.loaded.get());
+            System.err.println("class loaders created: " + cli.loaders.getCreatedCount());
+            System.err.println("client files written: " + cli.writtenCount.get() + " of " + cli.regenerated);
+        }
+    }
 
-        CLI cli = new CLI(args);
-        cli.generate();
+    /**
+     * Run like main, but into the given directory and without printing or exiting, for harnesses that read the run
+     * statistics.
+     *
+     * @param outDir directory to write client sources to
+     * @param input command line arguments
+     * @return the finished run
+     * @throws CmdLineException invalid arguments
+     * @throws IOException error reading resources or writing clients
+     */
+    static CLI run(File outDir, String... input) throws CmdLineException, IOException {
+        Args args = new Args();
+        new CmdLineParser(args).parseArgument(input);
+        CLI cli = new CLI(args, outDir);
+        cli.execute();
+        return cli;
+    }
+
+    int getScannedCount() {
+        return scanned.get();
+    }
+
+    int getLoadedCount() {
+        return loaded.get();
+    }
+
+    int getLoaderCount() {
+        return loaders.getCreatedCount();
+    }
+
+    int getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    private void execute() throws IOException {
+        try {
+            generate();
+        } finally {
+            loaders.close();
+        }
     }
 
     private static void printHelp(CmdLineParser parser) {
@@ -100,31 +275,270 @@ class CLI {
         parser.printUsage(System.err);
     }
 
-    private void generate() throws ClassNotFoundException, IOException {
+    private void generate() throws IOException {
+        List<Candidate> candidates = discover();
+        Manifest manifest = args.incremental ? Manifest.load(outDir) : null;
+        Set<String> previousOutputs = manifest != null ? manifest.getOutputs() : null;
+        ExecutorService executor = Executors.newFixedThreadPool(args.threads);
+        try {
+            //stage 2: class loading and analysis
+            List<Future<Analysis>> analyzed = new ArrayList<Future<Analysis>>(candidates.size());
+            for (final Candidate candidate : candidates) {
+                final Manifest previous = manifest;
+                analyzed.add(executor.submit(new Callable<Analysis>() {
+                    @Override
+                    public Analysis call() throws Exception {
+                        return analyze(candidate, previous);
+                    }
+                }));
+            }
+            //stage 3: source emission
+            Set<String> seen = new HashSet<String>();
+            List<Analysis> emittedFrom = new ArrayList<Analysis>();
+            List<Future<JavaFile>> emitted = new ArrayList<Future<JavaFile>>();
+            for (Future<Analysis> future : analyzed) {
+                final Analysis analysis = await(future);
+                if (analysis != null) {
+                    seen.add(analysis.className);
+                    if (analysis.classData == null) {
+                        skipped++;
+                        continue;
+                    }
+                    emittedFrom.add(analysis);
+                    emitted.add(executor.submit(new Callable<JavaFile>() {
+                        @Override
+                        public JavaFile call() throws Exception {
+                            return generator.generate(analysis.classData);
+                        }
+                    }));
+                }
+            }
+            //a serial run lets later duplicates overwrite earlier ones, so only the last one is written
+            Map<String, JavaFile> files = new LinkedHashMap<String, JavaFile>();
+            for (int i = 0; i < emitted.size(); i++) {
+                JavaFile file = await(emitted.get(i));
+                files.put(file.packageName + "." + file.typeSpec.name, file);
+                if (manifest != null) {
+                    Analysis analysis = emittedFrom.get(i);
+                    manifest.put(analysis.className, new Manifest.Entry(analysis.hash, outputPath(file), analysis.dependencies));
+                }
+            }
+            //then the file writes, each to a distinct output file
+            List<Future<?>> written = new ArrayList<Future<?>>(files.size());
+            for (final JavaFile file : files.values()) {
+                written.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        if (ClientGenerator.writeIfChanged(file, outDir)) {
+                            writtenCount.incrementAndGet();
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<?> future : written) {
+                await(future);
+            }
+            regenerated = files.size();
+            if (manifest != null) {
+                deleteStale(manifest, previousOutputs, seen);
+                manifest.store();
+            }
+        } finally {
+            executor.shutdown();
+            for (JarFile jar : jars) {
+                jar.close();
+            }
+            jars.clear();
+        }
+    }
+
+    //clients of resources that were not found in this run are removed, as are clients a resource no longer generates
+    private void deleteStale(Manifest manifest, Set<String> previousOutputs, Set<String> seen) {
+        for (String className : new ArrayList<String>(manifest.getClassNames())) {
+            if (!seen.contains(className)) {
+                manifest.remove(className);
+            }
+        }
+        Set<String> currentOutputs = manifest.getOutputs();
+        for (String output : previousOutputs) {
+            if (!currentOutputs.contains(output) && new File(outDir, output).delete()) {
+                deleted++;
+            }
+        }
+    }
+
+    private static String outputPath(JavaFile file) {
+        String dir = file.packageName.isEmpty() ? "" : file.packageName.replace('.', '/') + "/";
+        return dir + file.typeSpec.name + ".java";
+    }
+
+    private static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while generating clients", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    //stage 1: discovery. cheap and serial, so the candidate order matches the input order.
+    private List<Candidate> discover() throws IOException {
+        List<Candidate> candidates = new ArrayList<Candidate>();
         for (File path : args.paths) {
             if (path.isDirectory()) {
-                writeClasses(path);
+                findClasses(path, candidates);
             } else {
                 String fileName = path.getName();
                 if (fileName.endsWith(".jar")) {
-                    writeJarClasses(path);
+                    findJarClasses(path, candidates);
                 } else {
-                    Class<?> klass = loadClassFromFile(path);
-                    if (klass != null) {
-                        writeClass(klass);
+                    candidates.add(new Candidate(path));
+                }
+            }
+        }
+        return candidates;
+    }
+
+    private Analysis analyze(Candidate candidate, Manifest manifest) throws IOException {
+        String className = null;
+        byte[] bytes = null;
+        if (candidate.entry != null || candidate.file.getName().endsWith(".class")) {
+            scanned.incrementAndGet();
+            bytes = candidate.read();
+            className = scanResource(bytes);
+            if (className == null) {
+                return null;
+            }
+        }
+        File root = candidate.entry != null ? candidate.root
+                : className != null ? packageRoot(candidate.file, className) : null;
+        //only used to find class files, nothing gets loaded through it
+        ClassLoader classFiles = root != null ? loaders.get(root) : loaders.getParent();
+        String hash = null;
+        if (manifest != null && bytes != null) {
+            hash = Manifest.hash(generator.getOptionsKey(), bytes);
+            Manifest.Entry entry = manifest.get(className);
+            if (entry != null && entry.isCurrent(hash, classFiles) && new File(outDir, entry.output).exists()) {
+                return new Analysis(className, hash, null, entry.dependencies);
+            }
+        }
+        ClassData classData = null;
+        if (args.bytecode && bytes != null) {
+            classData = new ClassFileAnalyzer(classFiles).analyze(bytes);
+        } else {
+            Class<?> klass = root != null ? loadClass(root, className) : loadClassFromFile(candidate.file);
+            if (klass != null && klass.getAnnotation(Path.class) != null) {
+                classData = new ResourceAnalyzer().analyze(klass);
+                className = klass.getName();
+            }
+        }
+        if (classData == null) {
+            return null;
+        }
+        Map<String, String> dependencies = new TreeMap<String, String>();
+        if (manifest != null) {
+            Set<String> classes = beanParamClasses(classData);
+            if (bytes != null) {
+                classFileDependencies(bytes, classFiles, classes);
+            }
+            for (String dependency : classes) {
+                dependencies.put(dependency, Manifest.hashClassFile(classFiles, dependency));
+            }
+        }
+        return new Analysis(className, hash, classData, dependencies);
+    }
+
+    private static Set<String> beanParamClasses(ClassData classData) {
+        Set<String> classes = new TreeSet<String>();
+        List<ParamData> params = new ArrayList<ParamData>(classData.params);
+        for (MethodData method : classData.methods) {
+            params.addAll(method.params);
+        }
+        for (ParamData param : params) {
+            if (param.kind == ParamData.Kind.BEAN) {
+                classes.add(ClassFileAnalyzer.binaryName(param.typeName));
+            }
+        }
+        return classes;
+    }
+
+    /**
+     * Adds the supertypes of a class, and the custom HttpMethod annotations of its methods, walking up through the
+     * supertypes. Their class files can change what gets generated without the resource's own changing.
+     *
+     * @param classFile class file contents
+     * @param classFiles used to look up class files
+     * @param classes binary names of the dependencies found so far
+     * @throws IOException error reading a class file
+     */
+    private static void classFileDependencies(byte[] classFile, ClassLoader classFiles, Set<String> classes) throws IOException {
+        ClassFileReader reader = new ClassFileReader(classFile);
+        for (ClassFileReader.Member method : reader.getMethods()) {
+            for (ClassFileReader.Annotation annotation : method.annotations) {
+                if (annotation.type.startsWith("L") && !annotation.type.startsWith("Ljava/") && !annotation.type.startsWith(JAX_RS_DESCRIPTOR_PREFIX)) {
+                    String annotationName = annotation.type.substring(1, annotation.type.length() - 1).replace('/', '.');
+                    byte[] annotationFile = Manifest.readClassFile(classFiles, annotationName);
+                    if (annotationFile != null && new ClassFileReader(annotationFile).getClassAnnotationTypes().contains(HTTP_METHOD_DESCRIPTOR)) {
+                        classes.add(annotationName);
                     }
                 }
             }
         }
+        List<String> supertypes = new ArrayList<String>(reader.getInterfaceNames());
+        if (reader.getSuperClassName() != null) {
+            supertypes.add(reader.getSuperClassName());
+        }
+        for (String supertype : supertypes) {
+            if (!supertype.startsWith("java.") && classes.add(supertype)) {
+                byte[] supertypeFile = Manifest.readClassFile(classFiles, supertype);
+                if (supertypeFile != null) {
+                    classFileDependencies(supertypeFile, classFiles, classes);
+                }
+            }
+        }
     }
 
-    private void writeClass(Class<?> klass) throws IOException {
-        if (klass.getAnnotation(Path.class) != null) {
-            generator.generate(klass, OUTPUT_DIR);
+    /**
+     * Check the raw class bytes for a class level @Path, so non-resources never reach a class loader.
+     *
+     * @param bytes class file contents
+     * @return class name if the class is a resource, otherwise null
+     */
+    private String scanResource(byte[] bytes) {
+        try {
+            ClassFileReader reader = new ClassFileReader(bytes);
+            if (reader.containsUtf8(PATH_DESCRIPTOR) && reader.getClassAnnotationTypes().contains(PATH_DESCRIPTOR)) {
+                return reader.getClassName();
+            }
+        } catch (RuntimeException e) {
+            //not a class file we understand, same as failing to load it
         }
+        return null;
     }
 
-    private void writeClasses(File dir) throws IOException {
+    private static File packageRoot(File file, String className) {
+        String path = file.getPath();
+        String suffix = className.replace('.', File.separatorChar) + ".class";
+        if (path.equals(suffix)) {
+            return new File(".");
+        } else if (path.endsWith(File.separator + suffix)) {
+            return new File(path.substring(0, path.length() - suffix.length() - 1));
+        }
+        return null;
+    }
+
+    private void findClasses(File dir, List<Candidate> candidates) {
         File[] files = dir.listFiles(new FilenameFilter() {
             @Override
             public boolean accept(File dir, String name) {
@@ -133,10 +547,7 @@ class CLI {
         });
         if (files != null) {
             for (File file : files) {
-                Class<?> klass = loadClassFromFile(file);
-                if (klass != null) {
-                    writeClass(klass);
-                }
+                candidates.add(new Candidate(file));
             }
         }
 
@@ -148,21 +559,33 @@ class CLI {
         });
         if (subDirs != null) {
             for (File subDir : subDirs) {
-                writeClasses(subDir);
+                findClasses(subDir, candidates);
             }
         }
     }
 
-    private String lastPackageDir = null;
+    //support just top level jars for now. worried about recursive performance.
+    private void findJarClasses(File jarFile, List<Candidate> candidates) throws IOException {
+        JarFile jar = new JarFile(jarFile);
+        jars.add(jar);
+        Enumeration<JarEntry> entries = jar.entries();
+        while (entries.hasMoreElements()) {
+            JarEntry entry = entries.nextElement();
+            if (entry.getName().endsWith(".class")) {
+                candidates.add(new Candidate(jarFile, jar, entry));
+            }
+        }
+    }
+
+    private volatile String lastPackageDir = null;
 
     //all this just to figure out the canonical class name...
     private Class<?> loadClassFromFile(File file) throws MalformedURLException {
         if (file.getName().endsWith(".class")) {
             String path = file.getPath();
             if (lastPackageDir != null) {
-                int idx = path.indexOf(lastPackageDir);
-                if (idx == 0) {
-                    Class<?> klass = loadClass(lastPackageDir, path.substring(lastPackageDir.length()));
+                if (path.startsWith(lastPackageDir + "/")) {
+                    Class<?> klass = loadClass(lastPackageDir, path.substring(lastPackageDir.length() + 1, path.length() - 6).replace('/', '.'));
                     if (klass != null) {
                         return klass;
                     }
@@ -209,32 +632,64 @@ class CLI {
         return null;
     }
 
-    //support just top level jars for now. worried about recursive performance.
-    private void writeJarClasses(File jarFile) throws IOException {
-        JarFile jar = new JarFile(jarFile);
-        Enumeration<JarEntry> entries = jar.entries();
-        while (entries.hasMoreElements()) {
-            JarEntry entry = entries.nextElement();
-            String fileName = entry.getName();
-            if (fileName.endsWith(".class")) {
-                Class<?> klass = loadClass(jarFile, fileName.replace('/', '.').substring(0, fileName.length() - 6));
-                if (klass != null) {
-                    writeClass(klass);
-                }
-            }
-        }
-    }
-
     private Class<?> loadClass(String directoryOrJarPath, String fullClassName) throws MalformedURLException {
         return loadClass(new File(directoryOrJarPath), fullClassName);
     }
 
     private Class<?> loadClass(File directoryOrJar, String fullClassName) throws MalformedURLException {
-        URLClassLoader classLoader = new URLClassLoader(new URL[]{directoryOrJar.toURI().toURL()}, parentLoader);
+        ClassLoader classLoader = loaders.get(directoryOrJar);
         try {
-            return classLoader.loadClass(fullClassName);
+            Class<?> klass = classLoader.loadClass(fullClassName);
+            loaded.incrementAndGet();
+            return klass;
         } catch (Throwable e) {
         }
         return null;
     }
+
+    private static class Analysis {
+        private final String className;
+        private final String hash;
+        //null when the resource is unchanged since the last incremental run
+        private final ClassData classData;
+        private final Map<String, String> dependencies;
+
+        private Analysis(String className, String hash, ClassData classData, Map<String, String> dependencies) {
+            this.className = className;
+            this.hash = hash;
+            this.classData = classData;
+            this.dependencies = dependencies;
+        }
+    }
+
+    private static class Candidate {
+        private final File file;
+        private final File root;
+        private final JarFile jar;
+        private final JarEntry entry;
+
+        private Candidate(File file) {
+            this(file, null, null, null);
+        }
+
+        private Candidate(File root, JarFile jar, JarEntry entry) {
+            this(null, root, jar, entry);
+        }
+
+        private Candidate(File file, File root, JarFile jar, JarEntry entry) {
+            this.file = file;
+            this.root = root;
+            this.jar = jar;
+            this.entry = entry;
+        }
+
+        private byte[] read() throws IOException {
+            InputStream in = entry != null ? jar.getInputStream(entry) : new FileInputStream(file);
+            try {
+                return ClassFileReader.readFully(in);
+            } finally {
+                in.close();
+            }
+        }
+    }
 }
@@ -0,0 +1,568 @@
+package io.github.yeagy.jaxrs;
+
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeVariableName;
+import com.squareup.javapoet.WildcardTypeName;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.github.yeagy.jaxrs.ClassFileReader.Annotation;
+import static io.github.yeagy.jaxrs.ClassFileReader.Member;
+import static io.github.yeagy.jaxrs.ResourceAnalyzer.*;
+
+/**
+ * Builds the same metadata as {@link ResourceAnalyzer}, but from class file bytes instead of a loaded class.
+ * Resources are never loaded or initialized, and their dependencies do not need to be resolvable.
+ * Only the class files of bean params, and of parameter and return types when checking for collections, are looked up.
+ */
+public class ClassFileAnalyzer {
+    private static final String PATH = "Ljavax/ws/rs/Path;";
+    private static final String CONSUMES = "Ljavax/ws/rs/Consumes;";
+    private static final String PRODUCES = "Ljavax/ws/rs/Produces;";
+    private static final String HTTP_METHOD = "Ljavax/ws/rs/HttpMethod;";
+    private static final String PATH_PARAM = "Ljavax/ws/rs/PathParam;";
+    private static final String QUERY_PARAM = "Ljavax/ws/rs/QueryParam;";
+    private static final String MATRIX_PARAM = "Ljavax/ws/rs/MatrixParam;";
+    private static final String HEADER_PARAM = "Ljavax/ws/rs/HeaderParam;";
+    private static final String FORM_PARAM = "Ljavax/ws/rs/FormParam;";
+    private static final String COOKIE_PARAM = "Ljavax/ws/rs/CookieParam;";
+    private static final String BEAN_PARAM = "Ljavax/ws/rs/BeanParam;";
+    private static final String CONTEXT = "Ljavax/ws/rs/core/Context;";
+    private static final String LIST = "java.util.List";
+    private static final String SET = "java.util.Set";
+    private static final String COLLECTION = "java.util.Collection";
+
+    private final ClassLoader classFiles;
+    private final Map<String, ParamData.Container> containers = new HashMap<String, ParamData.Container>();
+    private final Map<String, Boolean> collections = new HashMap<String, Boolean>();
+    private final Map<String, String> httpMethods = new HashMap<String, String>();
+
+    public ClassFileAnalyzer() {
+        this(ClassFileAnalyzer.class.getClassLoader());
+    }
+
+    /**
+     * @param classFiles used to look up class files as resources. classes are never loaded through it.
+     */
+    public ClassFileAnalyzer(ClassLoader classFiles) {
+        this.classFiles = classFiles;
+    }
+
+    /**
+     * Extracts the JAX-RS metadata from a class file.
+     *
+     * @param classFile JAX-RS resource class file contents
+     * @return metadata describing a JAX-RS resource
+     */
+    public ClassData analyze(byte[] classFile) {
+        ClassFileReader reader = new ClassFileReader(classFile);
+        List<ParamData> classParamDataList = new ArrayList<ParamData>();
+        List<Member> methods = new ArrayList<Member>();
+        List<Member> constructors = new ArrayList<Member>();
+        for (Member method : reader.getMethods()) {
+            if (method.name.equals("<init>")) {
+                constructors.add(method);
+            } else if (!method.name.equals("<clinit>")) {
+                methods.add(method);
+            }
+        }
+        Collections.sort(methods, new Comparator<Member>() {
+            @Override
+            public int compare(Member l, Member r) {
+                return l.name.compareTo(r.name);
+            }
+        });
+        List<MethodData> methodDataList = new ArrayList<MethodData>();
+        for (Member method : methods) {
+            String path = null;
+            String[] consumes = null, produces = null;
+            String httpMethod = null;
+            for (Annotation annotation : method.annotations) {
+                if (annotation.type.equals(PATH)) {
+                    path = annotation.getString("value");
+                } else if (annotation.type.equals(CONSUMES)) {
+                    consumes = annotation.getStrings("value");
+                } else if (annotation.type.equals(PRODUCES)) {
+                    produces = annotation.getStrings("value");
+                } else if (httpMethod(annotation.type) != null) {
+                    httpMethod = httpMethod(annotation.type);
+                }
+            }
+
+            List<ParamData> paramDataList = new ArrayList<ParamData>();
+            List<TypeName> types = new ArrayList<TypeName>();
+            TypeName returnType = parseMethod(method, types);
+            for (int i = 0; i < types.size(); i++) {
+                ParamData paramData = newParamData(types.get(i));
+                handleParamAnnotations(paramData, parameterAnnotations(method, i, types.size()));
+                if (paramData.kind == null) {//todo ensure only single unannotated parameter for entity
+                    paramData.kind = ParamData.Kind.ENTITY;
+                    paramData.label = ENTITY;
+                }
+                paramData.call = paramData.label;
+                paramDataList.add(paramData);
+            }
+
+            if (httpMethod == null && method.name.startsWith("set") && types.size() == 1) {
+                ParamData paramData = newParamData(types.get(0));
+                handleParamAnnotations(paramData, method.annotations);
+                if (paramData.kind != null) {
+                    paramData.call = paramData.label;
+                    classParamDataList.add(paramData);
+                }
+            }
+
+            TypeName rawReturnType = returnType instanceof ParameterizedTypeName ? ((ParameterizedTypeName) returnType).rawType : returnType;
+            boolean collection = rawReturnType instanceof ClassName && collection(binaryName((ClassName) rawReturnType));
+            methodDataList.add(new MethodData(method.name, returnType, path, consumes, produces, httpMethod, paramDataList, collection));
+        }
+
+        for (Member field : reader.getFields()) {
+            ParamData paramData = newParamData(parseField(field));
+            handleParamAnnotations(paramData, field.annotations);
+            if (paramData.kind != null) {
+                paramData.call = paramData.label;
+                classParamDataList.add(paramData);
+            }
+        }
+        for (Member constructor : constructors) {
+            List<TypeName> types = new ArrayList<TypeName>();
+            parseMethod(constructor, types);
+            for (int i = 0; i < types.size(); i++) {
+                ParamData paramData = newParamData(types.get(i));
+                handleParamAnnotations(paramData, parameterAnnotations(constructor, i, types.size()));
+                if (paramData.kind != null) {
+                    paramData.call = paramData.label;
+                    classParamDataList.add(paramData);
+                }
+            }
+        }
+
+        List<Annotation> classAnnotations = reader.getClassAnnotations();
+        Annotation path = ClassFileReader.find(classAnnotations, PATH);
+        if (path == null) {
+            throw new IllegalArgumentException("not a JAX-RS resource: " + reader.getClassName());
+        }
+        Annotation consumes = ClassFileReader.find(classAnnotations, CONSUMES);
+        Annotation produces = ClassFileReader.find(classAnnotations, PRODUCES);
+        ClassName className = className(reader.getClassName());
+        return new ClassData(className, (reader.getAccessFlags() & ClassFileReader.ACC_INTERFACE) != 0, className.simpleName(),
+                path.getString("value"),
+                consumes != null ? consumes.getStrings("value") : new String[]{"*/*"},
+                produces != null ? produces.getStrings("value") : new String[]{"*/*"},
+                methodDataList, classParamDataList);
+    }
+
+    private ParamData newParamData(TypeName type) {
+        ParamData paramData = new ParamData();
+        paramData.typeName = type;
+        TypeName raw = type instanceof ParameterizedTypeName ? ((ParameterizedTypeName) type).rawType : type;
+        if (raw instanceof ClassName) {
+            paramData.container = container(binaryName((ClassName) raw));
+        }
+        return paramData;
+    }
+
+    private void handleParamAnnotations(ParamData paramData, List<Annotation> annotations) {
+        int contextCount = 0;
+        int beanCount = 0;
+        for (Annotation annotation : annotations) {
+            if (annotation.type.equals(PATH_PARAM)) {
+                paramData.kind = ParamData.Kind.PATH;
+                paramData.label = annotation.getString("value");
+            } else if (annotation.type.equals(QUERY_PARAM)) {
+                paramData.kind = ParamData.Kind.QUERY;
+                paramData.label = annotation.getString("value");
+            } else if (annotation.type.equals(CONTEXT)) {
+                paramData.kind = ParamData.Kind.CONTEXT;
+                paramData.label = ++contextCount == 1 ? "context" : "context" + contextCount;
+            } else if (annotation.type.equals(MATRIX_PARAM)) {
+                paramData.kind = ParamData.Kind.MATRIX;
+                paramData.label = annotation.getString("value");
+            } else if (annotation.type.equals(HEADER_PARAM)) {
+                paramData.kind = ParamData.Kind.HEADER;
+                paramData.label = annotation.getString("value");
+            } else if (annotation.type.equals(FORM_PARAM)) {
+                paramData.kind = ParamData.Kind.FORM;
+                paramData.label = annotation.getString("value");
+            } else if (annotation.type.equals(COOKIE_PARAM)) {
+                paramData.kind = ParamData.Kind.COOKIE;
+                paramData.label = annotation.getString("value");
+            } else if (annotation.type.equals(BEAN_PARAM)) {
+                paramData.kind = ParamData.Kind.BEAN;
+                paramData.label = ++beanCount == 1 ? "beanParam" : "beanParam" + beanCount;
+                paramData.call = paramData.label;
+                analyzeBeanParam(paramData);
+            }
+        }
+    }
+
+    private void analyzeBeanParam(ParamData beanParamData) {
+        String beanName = binaryName(beanParamData.typeName);
+        ClassFileReader bean = read(beanName);
+        if (bean == null) {
+            throw new IllegalStateException("bean param class file not found: " + beanName);
+        }
+        List<Member> fields = bean.getFields();
+        List<Member> methods = bean.getMethods();
+        for (Member field : fields) {
+            ParamData paramData = newParamData(parseField(field));
+            handleParamAnnotations(paramData, field.annotations);
+            if (paramData.kind != null) {
+                findGetter(beanParamData, methods, field.name.toLowerCase(), paramData);
+                if (paramData.call == null && (field.access & ClassFileReader.ACC_PRIVATE) == 0) {
+                    paramData.call = beanParamData.call + "." + paramData.label;
+                }
+                if (paramData.call != null) {
+                    beanParamData.beanParams.add(paramData);
+                }
+            }
+        }
+        for (Member constructor : methods) {
+            if (!constructor.name.equals("<init>")) {
+                continue;
+            }
+            List<TypeName> types = new ArrayList<TypeName>();
+            parseMethod(constructor, types);
+            for (int i = 0; i < types.size(); i++) {
+                ParamData paramData = newParamData(types.get(i));
+                handleParamAnnotations(paramData, parameterAnnotations(constructor, i, types.size()));
+                if (paramData.kind == null) {
+                    continue;
+                }
+                findGetter(beanParamData, methods, paramData.label.toLowerCase(), paramData);
+                if (paramData.call == null) {
+                    Member field = findField(fields, paramData.label);
+                    if (field == null) {
+                        throw new RuntimeException("bug! no field " + paramData.label + " in " + beanName);
+                    }
+                    if ((field.access & ClassFileReader.ACC_PRIVATE) == 0) {
+                        paramData.call = beanParamData.call + "." + paramData.label;
+                    }
+                }
+                if (paramData.call != null) {
+                    beanParamData.beanParams.add(paramData);
+                }
+            }
+        }
+    }
+
+    private void findGetter(ParamData beanParamData, List<Member> methods, String nameLower, ParamData paramData) {
+        for (Member method : methods) {
+            if (method.descriptor.startsWith("()")
+                    && (method.name.startsWith("get") || method.name.startsWith("is"))
+                    && method.name.toLowerCase().endsWith(nameLower)) {
+                paramData.call = beanParamData.call + "." + method.name + "()";
+                break;
+            }
+        }
+    }
+
+    private static Member findField(List<Member> fields, String name) {
+        for (Member field : fields) {
+            if (field.name.equals(name)) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    //javac may leave synthetic leading parameters (outer instance, enum name/ordinal) out of the annotation table
+    private static List<Annotation> parameterAnnotations(Member method, int index, int count) {
+        if (method.parameterAnnotations != null) {
+            int annotated = index - (count - method.parameterAnnotations.size());
+            if (annotated >= 0) {
+                return method.parameterAnnotations.get(annotated);
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    private ParamData.Container container(String binaryName) {
+        synchronized (containers) {
+            if (containers.containsKey(binaryName)) {
+                return containers.get(binaryName);
+            }
+        }
+        ParamData.Container container = null;
+        if (binaryName.equals(LIST)) {
+            container = ParamData.Container.LIST;
+        } else if (binaryName.equals(SET)) {
+            container = ParamData.Container.SET;
+        } else if (!binaryName.startsWith("java.lang.")) {
+            ClassFileReader reader = read(binaryName);
+            if (reader != null) {
+                List<String> supertypes = new ArrayList<String>(reader.getInterfaceNames());
+                if (reader.getSuperClassName() != null) {
+                    supertypes.add(reader.getSuperClassName());
+                }
+                for (String supertype : supertypes) {
+                    container = container(supertype);
+                    if (container != null) {
+                        break;
+                    }
+                }
+            }
+        }
+        synchronized (containers) {
+            containers.put(binaryName, container);
+        }
+        return container;
+    }
+
+    /**
+     * @return whether the type is or extends Collection, false if a class file on the way is not found
+     */
+    private boolean collection(String binaryName) {
+        synchronized (collections) {
+            if (collections.containsKey(binaryName)) {
+                return collections.get(binaryName);
+            }
+        }
+        boolean collection = binaryName.equals(COLLECTION);
+        if (!collection && !binaryName.startsWith("java.lang.")) {
+            ClassFileReader reader = read(binaryName);
+            if (reader != null) {
+                List<String> supertypes = new ArrayList<String>(reader.getInterfaceNames());
+                if (reader.getSuperClassName() != null) {
+                    supertypes.add(reader.getSuperClassName());
+                }
+                for (String supertype : supertypes) {
+                    if (collection(supertype)) {
+                        collection = true;
+                        break;
+                    }
+                }
+            }
+        }
+        synchronized (collections) {
+            collections.put(binaryName, collection);
+        }
+        return collection;
+    }
+
+    /**
+     * @param annotationType descriptor of an annotation type, ex: Ljavax/ws/rs/GET;
+     * @return the value of the annotation type's HttpMethod meta-annotation, null if it has none or its class file is
+     * not found
+     */
+    private String httpMethod(String annotationType) {
+        synchronized (httpMethods) {
+            if (httpMethods.containsKey(annotationType)) {
+                return httpMethods.get(annotationType);
+            }
+        }
+        String httpMethod = null;
+        if (annotationType.startsWith("L") && !annotationType.startsWith("Ljava/")) {
+            ClassFileReader reader = read(annotationType.substring(1, annotationType.length() - 1).replace('/', '.'));
+            if (reader != null) {
+                Annotation annotation = ClassFileReader.find(reader.getClassAnnotations(), HTTP_METHOD);
+                if (annotation != null) {
+                    httpMethod = annotation.getString("value");
+                }
+            }
+        }
+        synchronized (httpMethods) {
+            httpMethods.put(annotationType, httpMethod);
+        }
+        return httpMethod;
+    }
+
+    private ClassFileReader read(String binaryName) {
+        InputStream in = classFiles.getResourceAsStream(binaryName.replace('.', '/') + ".class");
+        if (in == null) {
+            return null;
+        }
+        try {
+            try {
+                return new ClassFileReader(ClassFileReader.readFully(in));
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param type class or parameterized type
+     * @return binary name of the raw class, ex: com.example.Outer$Inner
+     */
+    static String binaryName(TypeName type) {
+        TypeName raw = type instanceof ParameterizedTypeName ? ((ParameterizedTypeName) type).rawType : type;
+        return raw instanceof ClassName ? binaryName((ClassName) raw) : raw.toString();
+    }
+
+    private static String binaryName(ClassName className) {
+        StringBuilder name = new StringBuilder();
+        if (!className.packageName().isEmpty()) {
+            name.append(className.packageName()).append('.');
+        }
+        List<String> simpleNames = className.simpleNames();
+        for (int i = 0; i < simpleNames.size(); i++) {
+            name.append(i == 0 ? "" : "$").append(simpleNames.get(i));
+        }
+        return name.toString();
+    }
+
+    private static ClassName className(String binaryName) {
+        int dot = binaryName.lastIndexOf('.');
+        String packageName = dot < 0 ? "" : binaryName.substring(0, dot);
+        String[] simpleNames = binaryName.substring(dot + 1).split("\\$");
+        String[] nested = new String[simpleNames.length - 1];
+        System.arraycopy(simpleNames, 1, nested, 0, nested.length);
+        return ClassName.get(packageName, simpleNames[0], nested);
+    }
+
+    private static TypeName parseField(Member field) {
+        return parseType(field.signature != null ? field.signature : field.descriptor, new int[]{0});
+    }
+
+    /**
+     * @param method method or constructor
+     * @param params filled with the parameter types, generic if the signature has them
+     * @return return type
+     */
+    private static TypeName parseMethod(Member method, List<TypeName> params) {
+        List<TypeName> erased = new ArrayList<TypeName>();
+        TypeName returnType = parseMethodDescriptor(method.descriptor, erased);
+        if (method.signature != null) {
+            List<TypeName> generic = new ArrayList<TypeName>();
+            TypeName genericReturnType = parseMethodDescriptor(method.signature, generic);
+            //signatures may skip synthetic parameters, in which case the erased types are the better answer
+            if (generic.size() == erased.size()) {
+                params.addAll(generic);
+                return genericReturnType;
+            }
+        }
+        params.addAll(erased);
+        return returnType;
+    }
+
+    private static TypeName parseMethodDescriptor(String descriptor, List<TypeName> params) {
+        int[] pos = {0};
+        if (descriptor.charAt(0) == '<') {
+            skipTypeParameters(descriptor, pos);
+        }
+        pos[0]++; //(
+        while (descriptor.charAt(pos[0]) != ')') {
+            params.add(parseType(descriptor, pos));
+        }
+        pos[0]++; //)
+        return parseType(descriptor, pos);
+    }
+
+    private static void skipTypeParameters(String signature, int[] pos) {
+        int depth = 0;
+        do {
+            char c = signature.charAt(pos[0]++);
+            if (c == '<') {
+                depth++;
+            } else if (c == '>') {
+                depth--;
+            }
+        } while (depth > 0);
+    }
+
+    private static TypeName parseType(String signature, int[] pos) {
+        char c = signature.charAt(pos[0]++);
+        switch (c) {
+            case 'V':
+                return TypeName.VOID;
+            case 'Z':
+                return TypeName.BOOLEAN;
+            case 'B':
+                return TypeName.BYTE;
+            case 'C':
+                return TypeName.CHAR;
+            case 'S':
+                return TypeName.SHORT;
+            case 'I':
+                return TypeName.INT;
+            case 'J':
+                return TypeName.LONG;
+            case 'F':
+                return TypeName.FLOAT;
+            case 'D':
+                return TypeName.DOUBLE;
+            case '[':
+                return ArrayTypeName.of(parseType(signature, pos));
+            case 'T':
+                int end = signature.indexOf(';', pos[0]);
+                String variable = signature.substring(pos[0], end);
+                pos[0] = end + 1;
+                return TypeVariableName.get(variable);
+            case 'L':
+                return parseClassType(signature, pos);
+            default:
+                throw new IllegalArgumentException("bad signature " + signature + " at " + (pos[0] - 1));
+        }
+    }
+
+    private static TypeName parseClassType(String signature, int[] pos) {
+        StringBuilder name = new StringBuilder();
+        ClassName raw = null;
+        TypeName type = null;
+        while (true) {
+            char c = signature.charAt(pos[0]++);
+            if (c == ';') {
+                break;
+            } else if (c == '<') {
+                raw = raw == null ? className(name.toString().replace('/', '.')) : raw.nestedClass(name.toString());
+                name.setLength(0);
+                List<TypeName> args = new ArrayList<TypeName>();
+                while (signature.charAt(pos[0]) != '>') {
+                    args.add(parseTypeArgument(signature, pos));
+                }
+                pos[0]++; //>
+                type = type instanceof ParameterizedTypeName
+                        ? ((ParameterizedTypeName) type).nestedClass(raw.simpleName(), args)
+                        : ParameterizedTypeName.get(raw, args.toArray(new TypeName[args.size()]));
+            } else if (c == '.') {
+                //inner class of a parameterized outer class, name of the inner class follows
+                if (raw == null) {
+                    raw = className(name.toString().replace('/', '.'));
+                    type = raw;
+                    name.setLength(0);
+                }
+            } else {
+                name.append(c);
+            }
+        }
+        if (name.length() > 0) {
+            if (raw == null) {
+                return className(name.toString().replace('/', '.'));
+            }
+            raw = raw.nestedClass(name.toString());
+            type = type instanceof ParameterizedTypeName
+                    ? ((ParameterizedTypeName) type).nestedClass(raw.simpleName())
+                    : raw;
+        }
+        return type;
+    }
+
+    private static TypeName parseTypeArgument(String signature, int[] pos) {
+        char c = signature.charAt(pos[0]);
+        if (c == '*') {
+            pos[0]++;
+            return WildcardTypeName.subtypeOf(Object.class);
+        } else if (c == '+') {
+            pos[0]++;
+            return WildcardTypeName.subtypeOf(parseType(signature, pos));
+        } else if (c == '-') {
+            pos[0]++;
+            return WildcardTypeName.supertypeOf(parseType(signature, pos));
+        }
+        return parseType(signature, pos);
+    }
+}
@@ -0,0 +1,468 @@
+package io.github.yeagy.jaxrs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads class file structures straight from the bytes, without a class loader.
+ * Only as much of the format is understood as this library needs.
+ */
+class ClassFileReader {
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+    private static final String RUNTIME_VISIBLE_PARAMETER_ANNOTATIONS = "RuntimeVisibleParameterAnnotations";
+    private static final String SIGNATURE = "Signature";
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_PRIVATE = 0x0002;
+    static final int ACC_STATIC = 0x0008;
+    static final int ACC_INTERFACE = 0x0200;
+    static final int ACC_ANNOTATION = 0x2000;
+
+    private final byte[] bytes;
+    private final int[] offsets;
+    private final int headerOffset;
+
+    /**
+     * Indexes the constant pool. Nothing past it is read until asked for.
+     *
+     * @param bytes class file contents
+     * @throws IllegalArgumentException not a class file
+     */
+    ClassFileReader(byte[] bytes) {
+        this.bytes = bytes;
+        if (bytes.length < 10 || readInt(0) != MAGIC) {
+            throw new IllegalArgumentException("not a class file");
+        }
+        int count = readUnsignedShort(8);
+        offsets = new int[count];
+        int offset = 10;
+        for (int i = 1; i < count; i++) {
+            offsets[i] = offset;
+            int tag = readByte(offset);
+            switch (tag) {
+                case 1: //utf8
+                    offset += 3 + readUnsignedShort(offset + 1);
+                    break;
+                case 7: //class
+                case 8: //string
+                case 16: //method type
+                case 19: //module
+                case 20: //package
+                    offset += 3;
+                    break;
+                case 15: //method handle
+                    offset += 4;
+                    break;
+                case 3: //integer
+                case 4: //float
+                case 9: //field ref
+                case 10: //method ref
+                case 11: //interface method ref
+                case 12: //name and type
+                case 17: //dynamic
+                case 18: //invoke dynamic
+                    offset += 5;
+                    break;
+                case 5: //long
+                case 6: //double
+                    offset += 9;
+                    i++; //takes two slots
+                    break;
+                default:
+                    throw new IllegalArgumentException("bad constant pool tag " + tag + " at index " + i);
+            }
+        }
+        headerOffset = offset;
+    }
+
+    static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Cheap test to see if a string is in the constant pool at all. Every annotation type and member name
+     * used by a class is in its pool, so a miss here rules the class out without parsing any further.
+     *
+     * @param value string to look for
+     * @return true if any utf8 constant equals the value
+     */
+    boolean containsUtf8(String value) {
+        byte[] target = modifiedUtf8(value);
+        for (int i = 1; i < offsets.length; i++) {
+            int offset = offsets[i];
+            if (offset != 0 && readByte(offset) == 1 && readUnsignedShort(offset + 1) == target.length) {
+                if (regionMatches(offset + 3, target)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return binary name of the class, ex: com.example.Outer$Inner
+     */
+    String getClassName() {
+        return classConstant(readUnsignedShort(headerOffset + 2)).replace('/', '.');
+    }
+
+    /**
+     * @return descriptors of the runtime visible annotations on the class itself, ex: Ljavax/ws/rs/Path;
+     */
+    List<String> getClassAnnotationTypes() {
+        int offset = skipMembers(skipMembers(membersOffset()));
+        List<String> types = new ArrayList<String>();
+        int attributeCount = readUnsignedShort(offset);
+        offset += 2;
+        for (int i = 0; i < attributeCount; i++) {
+            String name = utf8(readUnsignedShort(offset));
+            int length = readInt(offset + 2);
+            if (RUNTIME_VISIBLE_ANNOTATIONS.equals(name)) {
+                int annotationOffset = offset + 6;
+                int annotationCount = readUnsignedShort(annotationOffset);
+                annotationOffset += 2;
+                for (int j = 0; j < annotationCount; j++) {
+                    types.add(utf8(readUnsignedShort(annotationOffset)));
+                    annotationOffset = skipAnnotation(annotationOffset);
+                }
+            }
+            offset += 6 + length;
+        }
+        return types;
+    }
+
+    int getAccessFlags() {
+        return readUnsignedShort(headerOffset);
+    }
+
+    /**
+     * @return binary name of the super class, or null for java.lang.Object
+     */
+    String getSuperClassName() {
+        int index = readUnsignedShort(headerOffset + 4);
+        return index != 0 ? classConstant(index).replace('/', '.') : null;
+    }
+
+    /**
+     * @return binary names of the directly implemented interfaces
+     */
+    List<String> getInterfaceNames() {
+        int offset = headerOffset + 6;
+        int count = readUnsignedShort(offset);
+        List<String> names = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            names.add(classConstant(readUnsignedShort(offset + 2 + 2 * i)).replace('/', '.'));
+        }
+        return names;
+    }
+
+    /**
+     * @return declared fields in class file order
+     */
+    List<Member> getFields() {
+        List<Member> fields = new ArrayList<Member>();
+        readMembers(membersOffset(), fields);
+        return fields;
+    }
+
+    /**
+     * @return declared methods in class file order, constructors and static initializers included
+     */
+    List<Member> getMethods() {
+        List<Member> methods = new ArrayList<Member>();
+        readMembers(skipMembers(membersOffset()), methods);
+        return methods;
+    }
+
+    /**
+     * @return runtime visible annotations on the class itself
+     */
+    List<Annotation> getClassAnnotations() {
+        Member klass = new Member(getAccessFlags(), null, null);
+        readAttributes(skipMembers(skipMembers(membersOffset())), klass);
+        return klass.annotations;
+    }
+
+    private int membersOffset() {
+        int offset = headerOffset + 6;
+        return offset + 2 + 2 * readUnsignedShort(offset); //interfaces
+    }
+
+    private int readMembers(int offset, List<Member> members) {
+        int count = readUnsignedShort(offset);
+        offset += 2;
+        for (int i = 0; i < count; i++) {
+            Member member = new Member(readUnsignedShort(offset), utf8(readUnsignedShort(offset + 2)), utf8(readUnsignedShort(offset + 4)));
+            offset = readAttributes(offset + 6, member);
+            members.add(member);
+        }
+        return offset;
+    }
+
+    private int readAttributes(int offset, Member member) {
+        int count = readUnsignedShort(offset);
+        offset += 2;
+        for (int i = 0; i < count; i++) {
+            String name = utf8(readUnsignedShort(offset));
+            int length = readInt(offset + 2);
+            int attributeOffset = offset + 6;
+            if (RUNTIME_VISIBLE_ANNOTATIONS.equals(name)) {
+                readAnnotations(attributeOffset, member.annotations);
+            } else if (RUNTIME_VISIBLE_PARAMETER_ANNOTATIONS.equals(name)) {
+                int parameters = readByte(attributeOffset);
+                attributeOffset++;
+                member.parameterAnnotations = new ArrayList<List<Annotation>>(parameters);
+                for (int j = 0; j < parameters; j++) {
+                    List<Annotation> annotations = new ArrayList<Annotation>();
+                    attributeOffset = readAnnotations(attributeOffset, annotations);
+                    member.parameterAnnotations.add(annotations);
+                }
+            } else if (SIGNATURE.equals(name)) {
+                member.signature = utf8(readUnsignedShort(attributeOffset));
+            }
+            offset += 6 + length;
+        }
+        return offset;
+    }
+
+    private int readAnnotations(int offset, List<Annotation> annotations) {
+        int count = readUnsignedShort(offset);
+        offset += 2;
+        for (int i = 0; i < count; i++) {
+            Annotation annotation = new Annotation(utf8(readUnsignedShort(offset)));
+            offset = readAnnotation(offset, annotation);
+            annotations.add(annotation);
+        }
+        return offset;
+    }
+
+    private int readAnnotation(int offset, Annotation annotation) {
+        int pairs = readUnsignedShort(offset + 2);
+        offset += 4;
+        for (int i = 0; i < pairs; i++) {
+            String name = utf8(readUnsignedShort(offset));
+            List<Object> value = new ArrayList<Object>(1);
+            offset = readElementValue(offset + 2, value);
+            annotation.values.put(name, value.get(0));
+        }
+        return offset;
+    }
+
+    private int readElementValue(int offset, List<Object> values) {
+        int tag = readByte(offset);
+        int index = readUnsignedShort(offset + 1);
+        switch (tag) {
+            case 's':
+                values.add(utf8(index));
+                return offset + 3;
+            case 'e': //enum constant name, type is dropped
+                values.add(utf8(readUnsignedShort(offset + 3)));
+                return offset + 5;
+            case 'c': //class literal descriptor
+                values.add(utf8(index));
+                return offset + 3;
+            case '@':
+                Annotation annotation = new Annotation(utf8(index));
+                values.add(annotation);
+                return readAnnotation(offset + 1, annotation);
+            case '[':
+                List<Object> array = new ArrayList<Object>(index);
+                offset += 3;
+                for (int i = 0; i < index; i++) {
+                    offset = readElementValue(offset, array);
+                }
+                values.add(array);
+                return offset;
+            case 'J':
+                values.add(((long) readInt(offsets[index] + 1) << 32) | (readInt(offsets[index] + 5) & 0xFFFFFFFFL));
+                return offset + 3;
+            case 'F':
+                values.add(Float.intBitsToFloat(readInt(offsets[index] + 1)));
+                return offset + 3;
+            case 'D':
+                values.add(Double.longBitsToDouble(((long) readInt(offsets[index] + 1) << 32) | (readInt(offsets[index] + 5) & 0xFFFFFFFFL)));
+                return offset + 3;
+            default: //int, short, char, byte and boolean are all integer constants
+                values.add(readInt(offsets[index] + 1));
+                return offset + 3;
+        }
+    }
+
+    String utf8(int index) {
+        int offset = offsets[index];
+        int length = readUnsignedShort(offset + 1);
+        char[] chars = new char[length];
+        int count = 0;
+        int i = offset + 3;
+        int end = i + length;
+        while (i < end) {
+            int b = bytes[i++] & 0xFF;
+            if (b < 0x80) {
+                chars[count++] = (char) b;
+            } else if ((b & 0xE0) == 0xC0) {
+                chars[count++] = (char) (((b & 0x1F) << 6) | (bytes[i++] & 0x3F));
+            } else {
+                chars[count++] = (char) (((b & 0x0F) << 12) | ((bytes[i++] & 0x3F) << 6) | (bytes[i++] & 0x3F));
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    String classConstant(int index) {
+        return utf8(readUnsignedShort(offsets[index] + 1));
+    }
+
+    private int skipMembers(int offset) {
+        int count = readUnsignedShort(offset);
+        offset += 2;
+        for (int i = 0; i < count; i++) {
+            offset += 6; //access, name, descriptor
+            offset = skipAttributes(offset);
+        }
+        return offset;
+    }
+
+    private int skipAttributes(int offset) {
+        int count = readUnsignedShort(offset);
+        offset += 2;
+        for (int i = 0; i < count; i++) {
+            offset += 6 + readInt(offset + 2);
+        }
+        return offset;
+    }
+
+    private int skipAnnotation(int offset) {
+        int pairs = readUnsignedShort(offset + 2);
+        offset += 4;
+        for (int i = 0; i < pairs; i++) {
+            offset = skipElementValue(offset + 2);
+        }
+        return offset;
+    }
+
+    private int skipElementValue(int offset) {
+        int tag = readByte(offset);
+        switch (tag) {
+            case 'e':
+                return offset + 5;
+            case '@':
+                return skipAnnotation(offset + 1);
+            case '[':
+                int count = readUnsignedShort(offset + 1);
+                offset += 3;
+                for (int i = 0; i < count; i++) {
+                    offset = skipElementValue(offset);
+                }
+                return offset;
+            default: //constants and class literals
+                return offset + 3;
+        }
+    }
+
+    private boolean regionMatches(int offset, byte[] target) {
+        for (int i = 0; i < target.length; i++) {
+            if (bytes[offset + i] != target[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] modifiedUtf8(String value) {
+        try {
+            //matches modified utf8 for anything without nulls or supplementary characters, which covers descriptors
+            return value.getBytes("UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException("bug!", e);
+        }
+    }
+
+    static class Member {
+        final int access;
+        final String name;
+        final String descriptor;
+        String signature;
+        final List<Annotation> annotations = new ArrayList<Annotation>();
+        //null when no parameter has a runtime visible annotation
+        List<List<Annotation>> parameterAnnotations;
+
+        Member(int access, String name, String descriptor) {
+            this.access = access;
+            this.name = name;
+            this.descriptor = descriptor;
+        }
+
+        /**
+         * @param type annotation descriptor
+         * @return annotation of the type, or null
+         */
+        Annotation getAnnotation(String type) {
+            return find(annotations, type);
+        }
+    }
+
+    static class Annotation {
+        final String type;
+        //element name to value. arrays are lists, enum constants are names, class literals are descriptors
+        final Map<String, Object> values = new LinkedHashMap<String, Object>();
+
+        Annotation(String type) {
+            this.type = type;
+        }
+
+        /**
+         * @param name element name
+         * @return element as a string array, same as reflection would for a String[] element
+         */
+        String[] getStrings(String name) {
+            Object value = values.get(name);
+            if (value instanceof List) {
+                List<?> list = (List<?>) value;
+                String[] strings = new String[list.size()];
+                for (int i = 0; i < strings.length; i++) {
+                    strings[i] = (String) list.get(i);
+                }
+                return strings;
+            }
+            return value != null ? new String[]{(String) value} : null;
+        }
+
+        String getString(String name) {
+            return (String) values.get(name);
+        }
+    }
+
+    static Annotation find(List<Annotation> annotations, String type) {
+        for (Annotation annotation : annotations) {
+            if (annotation.type.equals(type)) {
+                return annotation;
+            }
+        }
+        return null;
+    }
+
+    int readByte(int offset) {
+        return bytes[offset] & 0xFF;
+    }
+
+    int readUnsignedShort(int offset) {
+        return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+    }
+
+    int readInt(int offset) {
+        return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16)
+                | ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+    }
+}
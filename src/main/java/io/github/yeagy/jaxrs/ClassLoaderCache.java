@@ -0,0 +1,88 @@
+package io.github.yeagy.jaxrs;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One class loader per classpath root (directory or jar), shared by every lookup against that root.
+ * Loaders are closed along with the cache, which should happen when the run ends.
+ */
+class ClassLoaderCache implements Closeable {
+    private final Map<File, ClassLoader> loaders = new HashMap<File, ClassLoader>();
+    private final List<ClassLoader> created = new ArrayList<ClassLoader>();
+    private final AtomicInteger createdCount = new AtomicInteger();
+    private final ClassLoader parent;
+
+    /**
+     * @param base loader of the tool itself
+     * @param parentClasspath dependencies shared by every root, may be null
+     */
+    ClassLoaderCache(ClassLoader base, URL[] parentClasspath) {
+        parent = parentClasspath != null ? create(parentClasspath, base) : base;
+    }
+
+    private synchronized ClassLoader create(URL[] urls, ClassLoader parent) {
+        URLClassLoader loader = new URLClassLoader(urls, parent);
+        created.add(loader);
+        createdCount.incrementAndGet();
+        return loader;
+    }
+
+    /**
+     * @param directoryOrJar classpath root
+     * @return the shared loader for the root, created on first use
+     * @throws MalformedURLException root cannot be converted to a URL
+     */
+    synchronized ClassLoader get(File directoryOrJar) throws MalformedURLException {
+        File root = directoryOrJar.getAbsoluteFile();
+        ClassLoader loader = loaders.get(root);
+        if (loader == null) {
+            loader = create(new URL[]{root.toURI().toURL()}, parent);
+            loaders.put(root, loader);
+        }
+        return loader;
+    }
+
+    /**
+     * @return the loader every root loader delegates to
+     */
+    ClassLoader getParent() {
+        return parent;
+    }
+
+    /**
+     * @return the number of loaders created over the life of the cache
+     */
+    int getCreatedCount() {
+        return createdCount.get();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        IOException failure = null;
+        //URLClassLoader is only Closeable on java7+
+        for (ClassLoader loader : created) {
+            if (loader instanceof Closeable) {
+                try {
+                    ((Closeable) loader).close();
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+        }
+        created.clear();
+        loaders.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
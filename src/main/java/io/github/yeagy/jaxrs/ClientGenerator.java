@@ -1,31 +1,90 @@
 package io.github.yeagy.jaxrs;
 
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.TypeVariableName;
+import com.squareup.javapoet.WildcardTypeName;
 
+import javax.lang.model.element.Element;
 import javax.lang.model.element.Modifier;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.ClientErrorException;
+import javax.ws.rs.ForbiddenException;
+import javax.ws.rs.InternalServerErrorException;
+import javax.ws.rs.NotAcceptableException;
+import javax.ws.rs.NotAuthorizedException;
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.NotSupportedException;
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.RedirectionException;
+import javax.ws.rs.ServerErrorException;
+import javax.ws.rs.ServiceUnavailableException;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientRequestFilter;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.client.ClientResponseFilter;
 import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.Invocation;
+import javax.ws.rs.client.InvocationCallback;
 import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.Cookie;
 import javax.ws.rs.core.Form;
 import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.ext.ReaderInterceptor;
+import javax.ws.rs.ext.ReaderInterceptorContext;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
 
 import static io.github.yeagy.jaxrs.ResourceAnalyzer.*;
 
@@ -34,15 +93,185 @@ public class ClientGenerator {
     private static final String L_CLIENT = "client";
     private static final String L_ENDPOINT_URL = "endpointUrl";
     private static final String L_ENTITY = ResourceAnalyzer.ENTITY;
+    private static final TypeName T_STRING = ClassName.get(String.class);
+    private static final TypeName T_COOKIE = ClassName.get(Cookie.class);
+    private static final TypeName T_RESPONSE = ClassName.get(Response.class);
+    private static final TypeName T_INPUT_STREAM = ClassName.get(InputStream.class);
+    //jersey buffers request entities to set Content-Length unless told otherwise, other implementations ignore it
+    private static final String CHUNKED_PROPERTY = "jersey.config.client.request.entity.processing";
+    //java8 types, referenced by name since this library targets java6
+    private static final ClassName T_COMPLETION_STAGE = ClassName.get("java.util.concurrent", "CompletionStage");
+    private static final ClassName T_COMPLETABLE_FUTURE = ClassName.get("java.util.concurrent", "CompletableFuture");
+    private static final ClassName T_PUBLISHER = ClassName.get("org.reactivestreams", "Publisher");
+    private static final ClassName T_SUBSCRIBER = ClassName.get("org.reactivestreams", "Subscriber");
+    private static final ClassName T_SUBSCRIPTION = ClassName.get("org.reactivestreams", "Subscription");
+    private static final TypeName T_ANY_FUTURE = ParameterizedTypeName.get(ClassName.get(Future.class), WildcardTypeName.subtypeOf(Object.class));
+    private static final String CALL_PUBLISHER = "CallPublisher";
+    private static final String CALL_SUBSCRIPTION = "CallSubscription";
+    private static final String SINGLE_FLIGHT = "SingleFlight";
+    private static final String L_SINGLE_FLIGHT = "singleFlight";
+    private static final String RESPONSE_CACHE = "ResponseCache";
+    private static final String L_RESPONSE_CACHE = "responseCache";
+    private static final String CALL_LISTENER = "CallListener";
+    private static final String L_CALL_LISTENER = "callListener";
+    private static final String CALL_STATUS = "CallStatus";
+    private static final TypeName T_FAILURE_TYPE = ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Throwable.class));
+    private static final CodeBlock RETURN = CodeBlock.of("return ");
+    private static final String STREAM_READER = "StreamReader";
+    private static final String FORM_ENCODER = "FormEncoder";
+    private static final String RETRY_POLICY = "RetryPolicy";
+    private static final String L_RETRY_POLICY = "retryPolicy";
+    private static final String LOAD_BALANCER = "LoadBalancer";
+    private static final String L_LOAD_BALANCER = "loadBalancer";
+    private static final String L_HOST_BASE = "host.base";
+    private static final String COMPRESSION = "Compression";
+    private static final String L_COMPRESSION = "compression";
 
-    private final boolean async;
+    /**
+     * How generated methods hand back their results.
+     */
+    public enum Flavor {
+        /**
+         * Blocking methods. Interface resources are implemented by the client.
+         */
+        SYNC("Client"),
+        /**
+         * Methods return a {@link Future}, from the JAX-RS AsyncInvoker.
+         */
+        FUTURE("AsyncClient"),
+        /**
+         * Methods return a java.util.concurrent.CompletionStage, completed by an InvocationCallback on the
+         * AsyncInvoker, so results can be composed without blocking a thread. Generated clients need java8+.
+         */
+        COMPLETION_STAGE("StageClient"),
+        /**
+         * Methods return a Reactive Streams Publisher. Nothing is sent until a subscriber requests the result, and a
+         * cancelled subscription cancels the call. Generated clients need org.reactivestreams:reactive-streams.
+         */
+        PUBLISHER("ReactiveClient");
+
+        private final String classNameSuffix;
+
+        Flavor(String classNameSuffix) {
+            this.classNameSuffix = classNameSuffix;
+        }
+    }
+
+    /**
+     * Optional generation modes, which change how clients make calls but not the methods they expose.
+     */
+    public enum Option {
+        /**
+         * Resolve the static part of every resource path once, into a shared WebTarget field per path template.
+         * Calls only fill in the path params with resolveTemplate, instead of building the target segment by segment.
+         * Unlike path, resolveTemplate encodes a '/' in a param value rather than treating it as a segment separator.
+         */
+        PRECOMPILED_PATHS("precompiledPaths"),
+        /**
+         * Add a Batch companion to sync clients, for fanning out many calls of a method on a caller supplied executor,
+         * such as a virtual thread per task executor, with a bound on the calls in flight. Results keep the order of
+         * the arguments, and the first failure cancels the remaining calls. Ignored by the other flavors.
+         */
+        BATCH("batch"),
+        /**
+         * Concurrent calls of a GET method with the same resolved URI, headers and cookies share one in flight request,
+         * and all get its result. Shared results are the same instance, so callers should not modify them. Methods
+         * returning Response are left out, since a response can only be read once. Ignored by the other flavors.
+         */
+        SINGLE_FLIGHT("singleFlight"),
+        /**
+         * GET methods of sync clients keep their results in a size bounded, least recently used ResponseCache, keyed by
+         * the method, resolved URI, headers and cookies. Results are reused while fresh per Cache-Control max-age, then
+         * revalidated with If-None-Match and If-Modified-Since, where a 304 reuses the cached result. Responses marked
+         * no-store or Vary: * are not kept, and no-cache ones are always revalidated. Cached results are shared
+         * instances, so callers should not modify them. Methods returning Response or void are left out. A cache can be
+         * shared between clients through the client constructor. Ignored by the other flavors.
+         */
+        RESPONSE_CACHE("responseCache"),
+        /**
+         * Time every call of a sync client and report it to a CallListener passed to the client constructor, with the
+         * method, verb, path template, start and end nanos, response status and exception type. The path template is
+         * reported rather than the resolved URI, to keep the number of distinct values low. Clients built without a
+         * listener use a no-op one. Ignored by the other flavors.
+         */
+        CALL_LISTENER("callListener"),
+        /**
+         * Add a streaming variant of every sync method that returns a collection or array, named with a Stream suffix.
+         * It takes the same parameters plus a StreamReader, which gets the undecoded response body to read as it
+         * arrives, so large responses can be decoded element by element, such as with a streaming JSON parser, instead
+         * of being materialized whole. The body is closed once the reader returns. Ignored by the other flavors.
+         */
+        STREAMING("streaming"),
+        /**
+         * Upload InputStream entities with chunked transfer, and add overloads of those methods that take a File or a
+         * StreamingOutput in its place, so large bodies are written to the connection as they are read instead of
+         * being buffered on the heap first.
+         */
+        STREAMING_UPLOADS("streamingUploads"),
+        /**
+         * Encode form params straight into a reused per thread buffer, copied out once as the byte[] entity, instead of
+         * building a MultivaluedHashMap and Form per call. Primitives are written without boxing or a String.
+         */
+        FORM_ENCODER("formEncoder"),
+        /**
+         * Sync GET, HEAD, OPTIONS, PUT and DELETE methods run through a RetryPolicy passed to the client constructor,
+         * which retries I/O failures and 502, 503 and 504 responses with jittered backoff under a retry budget, and can
+         * hedge slow calls with a second attempt. POST, PATCH and custom verbs are never retried. Policies can be set per
+         * client method.
+         */
+        RETRY("retry"),
+        /**
+         * Sync clients spread calls over several base URLs, held by a LoadBalancer passed to the client constructor.
+         * Each call goes to the less loaded of two random hosts, and hosts failing repeatedly are ejected for a while.
+         * Paths are not precompiled for such clients.
+         */
+        LOAD_BALANCING("loadBalancing"),
+        /**
+         * Clients ask for gzip or deflate compressed responses and decompress them as they are read, and gzip request
+         * entities above a size threshold, through a Compression provider passed to the client constructor.
+         */
+        COMPRESSION("compression");
+
+        private final String key;
+
+        Option(String key) {
+            this.key = key;
+        }
+
+        /**
+         * @return camel case name of the option, for flags and processor options
+         */
+        public String getKey() {
+            return key;
+        }
+    }
+
+    private final Flavor flavor;
+    private final Set<Option> options = EnumSet.noneOf(Option.class);
 
     public ClientGenerator() {
         this(false);
     }
 
     public ClientGenerator(boolean async) {
-        this.async = async;
+        this(async ? Flavor.FUTURE : Flavor.SYNC);
+    }
+
+    public ClientGenerator(boolean async, Option... options) {
+        this(async ? Flavor.FUTURE : Flavor.SYNC, options);
+    }
+
+    public ClientGenerator(Flavor flavor, Option... options) {
+        this.flavor = flavor;
+        this.options.addAll(Arrays.asList(options));
+    }
+
+    /**
+     * @return the options that affect generated output, used to tell if previous output is stale
+     */
+    String getOptionsKey() {
+        String version = ClientGenerator.class.getPackage() != null ? ClientGenerator.class.getPackage().getImplementationVersion() : null;
+        return "version=" + version + ",flavor=" + flavor + ",options=" + options;
     }
 
     /**
@@ -54,41 +283,287 @@ public class ClientGenerator {
      */
     public void generate(Class klass, File outDir) throws IOException {
         JavaFile generate = generate(klass);
-        generate.writeTo(outDir);
+        writeIfChanged(generate, outDir);
+    }
+
+    /**
+     * Generate a JAX-RS resource client via JavaPoet
+     *
+     * @param classData JAX-RS resource metadata, from either {@link ResourceAnalyzer} or {@link ClassFileAnalyzer}
+     * @param outDir directory to write source file to
+     * @throws IOException error writing to output dir
+     */
+    public void generate(ClassData classData, File outDir) throws IOException {
+        JavaFile generate = generate(classData);
+        writeIfChanged(generate, outDir);
+    }
+
+    /**
+     * Write a source file only if its content differs from what is already on disk, so unchanged sources keep
+     * their timestamps. The new content goes to a temp file that is then renamed over the target, so readers
+     * never see a partially written file.
+     *
+     * @param javaFile source to write
+     * @param outDir source root
+     * @return true if the file was written
+     * @throws IOException error writing to output dir
+     */
+    static boolean writeIfChanged(JavaFile javaFile, File outDir) throws IOException {
+        File dir = javaFile.packageName.isEmpty() ? outDir : new File(outDir, javaFile.packageName.replace('.', File.separatorChar));
+        File target = new File(dir, javaFile.typeSpec.name + ".java");
+        byte[] content = javaFile.toString().getBytes("UTF-8");
+        if (target.length() == content.length && Arrays.equals(content, read(target))) {
+            return false;
+        }
+        if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+            throw new IOException("could not create directory " + dir);
+        }
+        replace(target, content);
+        return true;
+    }
+
+    /**
+     * Writes the content to a temp file next to the target, then renames it over the target.
+     *
+     * @param target file to replace
+     * @param content new content of the file
+     * @throws IOException error writing or renaming
+     */
+    static void replace(File target, byte[] content) throws IOException {
+        File temp = File.createTempFile(target.getName(), ".tmp", target.getAbsoluteFile().getParentFile());
+        try {
+            OutputStream out = new FileOutputStream(temp);
+            try {
+                out.write(content);
+            } finally {
+                out.close();
+            }
+            //renameTo does not replace an existing file on windows, so delete it and retry
+            if (!temp.renameTo(target) && !(target.delete() && temp.renameTo(target))) {
+                throw new IOException("could not replace " + target);
+            }
+        } finally {
+            temp.delete();
+        }
+    }
+
+    private static byte[] read(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            return ClassFileReader.readFully(in);
+        } finally {
+            in.close();
+        }
     }
 
     JavaFile generate(Class klass) {
-        ClassData classData = new ResourceAnalyzer().analyze(klass);
+        return generate(new ResourceAnalyzer().analyze(klass));
+    }
+
+    JavaFile generate(ClassData classData) {
+        return generate(classData, (Element) null);
+    }
+
+    /**
+     * @param classData JAX-RS resource metadata
+     * @param origin element the resource was analyzed from, when running as an annotation processor
+     * @return client source
+     */
+    JavaFile generate(ClassData classData, Element origin) {
         FieldSpec base = FieldSpec.builder(WebTarget.class, L_BASE, Modifier.PRIVATE, Modifier.FINAL).build();
 
-        MethodSpec constructor = MethodSpec.constructorBuilder()
+        ClassName client = ClassName.get(classData.typeName.packageName(), classData.className + flavor.classNameSuffix);
+        TypeSpec.Builder typeSpecBuilder = TypeSpec.classBuilder(client.simpleName())
+                .addModifiers(Modifier.PUBLIC);
+
+        boolean hasCache = false;
+        for (MethodData methodData : classData.methods) {
+            hasCache |= cached(methodData);
+        }
+        ClassName cacheName = client.nestedClass(RESPONSE_CACHE);
+
+        boolean listened = flavor == Flavor.SYNC && options.contains(Option.CALL_LISTENER);
+        ClassName listenerName = client.nestedClass(CALL_LISTENER);
+
+        boolean hasRetry = false;
+        for (MethodData methodData : classData.methods) {
+            hasRetry |= retried(methodData);
+        }
+        ClassName retryName = client.nestedClass(RETRY_POLICY);
+
+        boolean balanced = balanced();
+        ClassName balancerName = client.nestedClass(LOAD_BALANCER);
+
+        boolean compressed = options.contains(Option.COMPRESSION);
+        ClassName compressionName = client.nestedClass(COMPRESSION);
+
+        MethodSpec.Builder constructorBuilder = MethodSpec.constructorBuilder()
                 .addModifiers(Modifier.PUBLIC)
                 .addParameter(Client.class, L_CLIENT)
-                .addParameter(String.class, L_ENDPOINT_URL)
-                .addStatement("$L = $L.target($L)", L_BASE, L_CLIENT, L_ENDPOINT_URL)
-                .build();
+                .addParameter(String.class, L_ENDPOINT_URL);
+        if (balanced) {
+            typeSpecBuilder.addMethod(constructorBuilder
+                    .addStatement("this(new $T($L, $T.singletonList($L)))", balancerName, L_CLIENT, Collections.class, L_ENDPOINT_URL)
+                    .build());
+            constructorBuilder = MethodSpec.constructorBuilder()
+                    .addModifiers(Modifier.PUBLIC)
+                    .addParameter(balancerName, L_LOAD_BALANCER);
+            if (!hasCache && !listened && !hasRetry && !compressed) {
+                constructorBuilder.addJavadoc("@param $L picks the base URL of every call\n", L_LOAD_BALANCER);
+            }
+        }
+        if (hasCache || listened || hasRetry || compressed) {
+            //the short constructor fills in defaults for the extra collaborators
+            CodeBlock.Builder defaults = CodeBlock.builder();
+            MethodSpec.Builder full = MethodSpec.constructorBuilder()
+                    .addModifiers(Modifier.PUBLIC);
+            if (balanced) {
+                defaults.add("this($L", L_LOAD_BALANCER);
+                full.addJavadoc("@param $L picks the base URL of every call\n", L_LOAD_BALANCER)
+                        .addParameter(balancerName, L_LOAD_BALANCER);
+            } else {
+                defaults.add("this($L, $L", L_CLIENT, L_ENDPOINT_URL);
+                full.addParameter(Client.class, L_CLIENT)
+                        .addParameter(String.class, L_ENDPOINT_URL);
+            }
+            if (hasCache) {
+                defaults.add(", new $T($T.DEFAULT_MAX_ENTRIES)", cacheName, cacheName);
+                full.addJavadoc("@param $L may be shared with other clients\n", L_RESPONSE_CACHE)
+                        .addParameter(cacheName, L_RESPONSE_CACHE)
+                        .addStatement("this.$L = $L", L_RESPONSE_CACHE, L_RESPONSE_CACHE);
+            }
+            if (listened) {
+                defaults.add(", $T.NONE", listenerName);
+                full.addJavadoc("@param $L told about every call\n", L_CALL_LISTENER)
+                        .addParameter(listenerName, L_CALL_LISTENER)
+                        .addStatement("this.$L = $L", L_CALL_LISTENER, L_CALL_LISTENER);
+            }
+            if (hasRetry) {
+                defaults.add(", $T.NONE", retryName);
+                full.addJavadoc("@param $L applied to GET, HEAD, OPTIONS, PUT and DELETE calls, POST and PATCH are never retried\n", L_RETRY_POLICY)
+                        .addParameter(retryName, L_RETRY_POLICY)
+                        .addStatement("this.$L = $L", L_RETRY_POLICY, L_RETRY_POLICY);
+            }
+            if (compressed) {
+                defaults.add(", new $T($T.DEFAULT_THRESHOLD)", compressionName, compressionName);
+                full.addJavadoc("@param $L registered on the targets of the client\n", L_COMPRESSION)
+                        .addParameter(compressionName, L_COMPRESSION);
+            }
+            typeSpecBuilder.addMethod(constructorBuilder
+                    .addStatement("$L)", defaults.build())
+                    .build());
+            constructorBuilder = full;
+        }
+        ClassName callStatusName = client.nestedClass(CALL_STATUS);
+        if (balanced) {
+            constructorBuilder.addStatement("this.$L = $L", L_LOAD_BALANCER, L_LOAD_BALANCER);
+            if (compressed) {
+                constructorBuilder.addStatement("$L.register($L)", L_LOAD_BALANCER, L_COMPRESSION);
+            }
+            if (listened) {
+                constructorBuilder.addStatement("$L.register($T.FILTER)", L_LOAD_BALANCER, callStatusName);
+            }
+        } else {
+            CodeBlock.Builder target = CodeBlock.builder().add("$L = $L.target($L)", L_BASE, L_CLIENT, L_ENDPOINT_URL);
+            if (compressed) {
+                target.add(".register($L)", L_COMPRESSION);
+            }
+            if (listened) {
+                target.add(".register($T.FILTER)", callStatusName);
+            }
+            constructorBuilder.addStatement("$L", target.build());
+        }
+        MethodSpec constructor = constructorBuilder.build();
 
-        String classNameSuffix = async ? "AsyncClient" : "Client";
-        TypeSpec.Builder typeSpecBuilder = TypeSpec.classBuilder(classData.className + classNameSuffix)
-                .addModifiers(Modifier.PUBLIC)
-                .addField(base)
-                .addMethod(constructor);
+        //one GenericType per distinct generic return type, instead of a new anonymous instance per call
+        Map<TypeName, String> genericTypes = new LinkedHashMap<TypeName, String>();
+        for (MethodData methodData : classData.methods) {
+            if ((flavor == Flavor.SYNC || flavor == Flavor.FUTURE) && methodData.verb != null && methodData.returnTypeName instanceof ParameterizedTypeName
+                    && !genericTypes.containsKey(methodData.returnTypeName)) {
+                String constant = genericTypeName(methodData.returnTypeName, genericTypes.values());
+                genericTypes.put(methodData.returnTypeName, constant);
+                TypeName genericType = ParameterizedTypeName.get(ClassName.get(GenericType.class), methodData.returnTypeName);
+                typeSpecBuilder.addField(FieldSpec.builder(genericType, constant, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("new $T(){}", genericType)
+                        .build());
+            }
+        }
+        if (balanced) {
+            typeSpecBuilder.addField(balancerName, L_LOAD_BALANCER, Modifier.PRIVATE, Modifier.FINAL);
+        } else {
+            typeSpecBuilder.addField(base);
+        }
+        if (hasCache) {
+            typeSpecBuilder.addField(cacheName, L_RESPONSE_CACHE, Modifier.PRIVATE, Modifier.FINAL);
+        }
+        if (listened) {
+            typeSpecBuilder.addField(listenerName, L_CALL_LISTENER, Modifier.PRIVATE, Modifier.FINAL);
+        }
+        if (hasRetry) {
+            typeSpecBuilder.addField(retryName, L_RETRY_POLICY, Modifier.PRIVATE, Modifier.FINAL);
+        }
 
-        if (classData.iface && !async) {
-            typeSpecBuilder.addSuperinterface(klass);
+        Map<String, String> targetByTemplate = new LinkedHashMap<String, String>();
+        if (precompiled()) {
+            constructorBuilder = constructor.toBuilder();
+            for (MethodData methodData : classData.methods) {
+                if (methodData.verb != null) {
+                    String template = template(classData.path, methodData.path);
+                    if (!targetByTemplate.containsKey(template)) {
+                        String target = targetName(template, targetByTemplate.values());
+                        targetByTemplate.put(template, target);
+                        typeSpecBuilder.addField(FieldSpec.builder(WebTarget.class, target, Modifier.PRIVATE, Modifier.FINAL).build());
+                        constructorBuilder.addStatement("$L = $L.path($S)", target, L_BASE, template);
+                    }
+                }
+            }
+            constructor = constructorBuilder.build();
         }
+        typeSpecBuilder.addMethod(constructor);
 
-        for (MethodData methodData : classData.methods) {
+        if (origin != null) {
+            typeSpecBuilder.addOriginatingElement(origin);
+        }
+
+        if (classData.iface && flavor == Flavor.SYNC) {
+            typeSpecBuilder.addSuperinterface(classData.typeName);
+        }
+
+        List<MethodData> methods = classData.methods;
+        Set<MethodData> uploadOverloads = new HashSet<MethodData>();
+        if (options.contains(Option.STREAMING_UPLOADS)) {
+            methods = new ArrayList<MethodData>();
+            for (MethodData methodData : classData.methods) {
+                methods.add(methodData);
+                if (streamingUpload(methodData)) {
+                    for (Class<?> type : new Class<?>[]{File.class, StreamingOutput.class}) {
+                        MethodData overload = withEntityType(methodData, type);
+                        methods.add(overload);
+                        uploadOverloads.add(overload);
+                    }
+                }
+            }
+        }
+
+        List<MethodSpec> batched = new ArrayList<MethodSpec>();
+        boolean hasSingleFlight = false;
+        boolean hasStream = false;
+        boolean hasFormEncoder = false;
+        for (MethodData methodData : methods) {
             MethodSpec.Builder builder = MethodSpec.methodBuilder(methodData.methodName)
                     .addModifiers(Modifier.PUBLIC);
 
-            if (async && methodData.verb != null && methodData.returnType != void.class) {
-                builder.returns(ParameterizedTypeName.get(Future.class, methodData.returnType));
+            if (flavor == Flavor.FUTURE && methodData.verb != null && !methodData.returnTypeName.equals(TypeName.VOID)) {
+                builder.returns(ParameterizedTypeName.get(ClassName.get(Future.class), methodData.returnTypeName));
+            } else if (flavor == Flavor.COMPLETION_STAGE && methodData.verb != null) {
+                builder.returns(ParameterizedTypeName.get(T_COMPLETION_STAGE, resultType(methodData)));
+            } else if (flavor == Flavor.PUBLISHER && methodData.verb != null) {
+                builder.returns(ParameterizedTypeName.get(T_PUBLISHER, resultType(methodData)));
             } else {
-                builder.returns(methodData.returnType);
+                builder.returns(methodData.returnTypeName);
             }
 
-            if (classData.iface && !async) {
+            if (classData.iface && flavor == Flavor.SYNC && !uploadOverloads.contains(methodData)) {
                 builder.addAnnotation(Override.class);
             }
 
@@ -96,11 +571,11 @@ public class ClientGenerator {
                 if (classData.iface) {
                     int paramCount = 0;
                     for (ParamData paramData : methodData.params) {
-                        builder.addParameter(paramData.genericType, "param" + paramCount++);
+                        builder.addParameter(paramData.typeName, "param" + paramCount++);
                     }
-                    if (methodData.returnType != void.class) {
-                        if (((Class) methodData.returnType).isPrimitive()) {
-                            if (methodData.returnType == boolean.class) {
+                    if (!methodData.returnTypeName.equals(TypeName.VOID)) {
+                        if (methodData.returnTypeName.isPrimitive()) {
+                            if (methodData.returnTypeName.equals(TypeName.BOOLEAN)) {
                                 builder.addStatement("return false");
                             } else {
                                 builder.addStatement("return 0");
@@ -112,53 +587,1766 @@ public class ClientGenerator {
                     typeSpecBuilder.addMethod(builder.build());
                 }
             } else {
-                createFormEntity(builder, methodData);
+                boolean singleFlight = flavor == Flavor.SYNC && options.contains(Option.SINGLE_FLIGHT)
+                        && methodData.verb == MethodData.Verb.GET && !methodData.returnTypeName.equals(T_RESPONSE);
+                boolean cached = cached(methodData);
+                boolean retried = retried(methodData);
+                boolean captured = flavor == Flavor.PUBLISHER || singleFlight || retried;
+                if (listened) {
+                    //the CallStatus filter fills in the status of every response, whatever the method returns
+                    builder.addStatement("long callStart = $T.nanoTime()", System.class)
+                            .addStatement("final int[] callStatus = new int[1]")
+                            .addStatement("$T callFailure = null", T_FAILURE_TYPE)
+                            .beginControlFlow("try");
+                }
+                createFormEntity(builder, client, methodData, captured);
+                hasFormEncoder |= methodData.form && options.contains(Option.FORM_ENCODER);
                 StringBuilder statement = new StringBuilder();
-                pathing(classData.path, classData.params, methodData.path, methodData.params, statement);
+                boolean precompiled = precompiled();
+                String target = balanced ? L_HOST_BASE : precompiled ? targetByTemplate.get(template(classData.path, methodData.path)) : L_BASE;
+                pathing(classData.path, classData.params, methodData.path, methodData.params, statement, precompiled);
                 StringBuilder requestParams = new StringBuilder(".request($L)\n");
-                params(builder, classData.params, statement, requestParams, classData.iface);
-                params(builder, methodData.params, statement, requestParams, classData.iface);
-                if (async) {
+                params(builder, classData.params, statement, requestParams, classData.iface, captured);
+                params(builder, methodData.params, statement, requestParams, classData.iface, captured);
+                if (listened) {
+                    requestParams.append(String.format(".property(%s.PROPERTY, callStatus)\n", CALL_STATUS));
+                }
+                if (options.contains(Option.STREAMING_UPLOADS) && streamingUpload(methodData)) {
+                    requestParams.append(String.format(".property(\"%s\", \"CHUNKED\")\n", CHUNKED_PROPERTY));
+                }
+                if (flavor != Flavor.SYNC) {
                     requestParams.append(".async()\n");
                 }
-                statement.append(requestParams);
-                verb(builder, classData.consumes, classData.produces, methodData, statement.toString());
-                typeSpecBuilder.addMethod(builder.build());
+                if (singleFlight || cached) {
+                    //keyed calls pick their host up front, so in flight calls and cached results are per host
+                    if (balanced) {
+                        pickHost(builder, client, keepsResponse(methodData));
+                    }
+                    List<String> requestValues = new ArrayList<String>();
+                    requestValues(classData.params, requestValues);
+                    requestValues(methodData.params, requestValues);
+                    keyedGet(builder, classData.consumes, classData.produces, methodData, target, statement.toString(), requestParams.toString(),
+                            requestValues, genericTypes.get(methodData.returnTypeName), singleFlight, cached, retried);
+                    hasSingleFlight |= singleFlight;
+                    if (balanced) {
+                        releaseHost(builder, keepsResponse(methodData));
+                    }
+                } else {
+                    statement.append(requestParams);
+                    if (flavor == Flavor.COMPLETION_STAGE) {
+                        stage(builder, classData.consumes, classData.produces, methodData, target, statement.toString());
+                    } else if (flavor == Flavor.PUBLISHER) {
+                        publisher(builder, client, classData.consumes, classData.produces, methodData, target, statement.toString());
+                    } else if (retried) {
+                        //every attempt picks its own host
+                        MethodSpec.Builder call = callBuilder(methodData);
+                        if (balanced) {
+                            pickHost(call, client, keepsResponse(methodData));
+                        }
+                        if (methodData.returnTypeName.equals(TypeName.VOID)) {
+                            //void attempts hand their Response to the policy, so error statuses get retried too
+                            if (balanced) {
+                                hostVerb(call, classData.consumes, classData.produces, methodData, target, statement.toString(), null);
+                            } else {
+                                verb(call, classData.consumes, classData.produces, methodData, target, statement.toString(), null, CodeBlock.of("$T response = ", Response.class));
+                            }
+                            call.addStatement("return response");
+                        } else {
+                            hostVerb(call, classData.consumes, classData.produces, methodData, target, statement.toString(), genericTypes.get(methodData.returnTypeName));
+                        }
+                        if (balanced) {
+                            releaseHost(call, keepsResponse(methodData));
+                        }
+                        retry(builder, methodData, call, RETURN);
+                    } else {
+                        if (balanced) {
+                            pickHost(builder, client, keepsResponse(methodData));
+                        }
+                        hostVerb(builder, classData.consumes, classData.produces, methodData, target, statement.toString(), genericTypes.get(methodData.returnTypeName));
+                        if (balanced) {
+                            releaseHost(builder, keepsResponse(methodData));
+                        }
+                    }
+                }
+                if (listened) {
+                    builder.nextControlFlow("catch ($T e)", RuntimeException.class)
+                            .addStatement("callFailure = e.getClass()")
+                            .addStatement("throw e")
+                            .nextControlFlow("finally")
+                            .addStatement("$L.onCall($S, $S, $S, callStart, $T.nanoTime(), callStatus[0], callFailure)", L_CALL_LISTENER, methodData.methodName,
+                                    methodData.httpMethod, template(classData.path, methodData.path), System.class)
+                            .endControlFlow();
+                }
+                MethodSpec method = builder.build();
+                typeSpecBuilder.addMethod(method);
+                if (!uploadOverloads.contains(methodData)) {
+                    batched.add(method);
+                }
+                if (streamed(methodData)) {
+                    typeSpecBuilder.addMethod(stream(client, classData, methodData, target));
+                    hasStream = true;
+                }
+            }
+        }
+        if (flavor == Flavor.SYNC && options.contains(Option.BATCH)) {
+            batch(typeSpecBuilder, client, batched);
+        }
+        if (hasSingleFlight) {
+            ClassName singleFlightName = client.nestedClass(SINGLE_FLIGHT);
+            typeSpecBuilder.addField(FieldSpec.builder(singleFlightName, L_SINGLE_FLIGHT, Modifier.PRIVATE, Modifier.FINAL)
+                    .initializer("new $T()", singleFlightName)
+                    .build());
+            typeSpecBuilder.addType(singleFlightSupport());
+        }
+        if (hasCache) {
+            typeSpecBuilder.addType(responseCacheSupport(cacheName));
+        }
+        if (listened) {
+            typeSpecBuilder.addType(callListenerSupport(listenerName));
+            typeSpecBuilder.addType(callStatusSupport(callStatusName));
+        }
+        if (hasRetry) {
+            typeSpecBuilder.addType(retryPolicySupport(retryName));
+        }
+        if (balanced) {
+            typeSpecBuilder.addType(loadBalancerSupport(balancerName, compressed || listened));
+        }
+        if (compressed) {
+            typeSpecBuilder.addType(compressionSupport(compressionName));
+        }
+        if (hasFormEncoder) {
+            typeSpecBuilder.addType(formEncoderSupport(client.nestedClass(FORM_ENCODER)));
+        }
+        if (hasStream) {
+            TypeVariableName r = TypeVariableName.get("R");
+            typeSpecBuilder.addType(TypeSpec.interfaceBuilder(STREAM_READER)
+                    .addJavadoc("Reads a response body as it arrives.\n")
+                    .addModifiers(Modifier.PUBLIC)
+                    .addTypeVariable(r)
+                    .addMethod(MethodSpec.methodBuilder("read")
+                            .addJavadoc("@param body undecoded response body, closed by the client once this returns\n")
+                            .addJavadoc("@return result of the call\n")
+                            .addJavadoc("@throws $T error reading the body\n", IOException.class)
+                            .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
+                            .returns(r)
+                            .addParameter(InputStream.class, "body")
+                            .addException(IOException.class)
+                            .build())
+                    .build());
+        }
+        if (flavor == Flavor.PUBLISHER) {
+            for (TypeSpec support : publisherSupport(client)) {
+                typeSpecBuilder.addType(support);
             }
         }
-        return JavaFile.builder(klass.getPackage().getName(), typeSpecBuilder.build())
+        return JavaFile.builder(classData.typeName.packageName(), typeSpecBuilder.build())
                 .indent("    ")
                 .skipJavaLangImports(true)
                 .build();
     }
 
-    private void verb(MethodSpec.Builder builder, String[] classConsumes, String[] classProduces, MethodData methodData, String statement) {
+    /**
+     * @param responseResult what methods returning Response or nothing do with the Response, {@link #RETURN} unless the
+     * caller needs it first. Void methods drop it on RETURN.
+     */
+    private void verb(MethodSpec.Builder builder, String[] classConsumes, String[] classProduces, MethodData methodData, String target, String statement, String genericType,
+                      CodeBlock responseResult) {
+        if (methodData.returnTypeName.equals(TypeName.VOID) && responseResult == RETURN) {
+            responseResult = CodeBlock.builder().build();
+        }
         String[] consumes = methodData.consumes != null ? methodData.consumes : classConsumes;
         String[] produces = methodData.produces != null ? methodData.produces : classProduces;
-        String producesString = Arrays.toString(produces).replace(", ", "\", \"").replaceAll("[\\[\\]]", "\"");
-        String consumesString = Arrays.toString(consumes).replace(", ", "\", \"").replaceAll("[\\[\\]]", "\"");
+        String producesString = quoted(produces);
+        String consumesString = quoted(consumes);
 
         switch (methodData.verb) {
             case GET:
-                get(builder, producesString, statement, methodData.returnType);
+                get(builder, producesString, target, statement, methodData.returnTypeName, genericType, responseResult);
                 break;
             case POST:
-                post(builder, consumesString, producesString, statement, methodData.returnType);
+                post(builder, consumesString, producesString, target, statement, methodData.returnTypeName, genericType, responseResult);
                 break;
             case PUT:
-                put(builder, consumesString, producesString, statement, methodData.returnType);
+                put(builder, consumesString, producesString, target, statement, methodData.returnTypeName, genericType, responseResult);
                 break;
             case DELETE:
-                delete(builder, producesString, statement, methodData.returnType);
+                delete(builder, producesString, target, statement, methodData.returnTypeName, genericType, responseResult);
+                break;
+            default:
+                method(builder, methodData.httpMethod, hasEntity(methodData), consumesString, producesString, target, statement, methodData.returnTypeName, genericType,
+                        responseResult);
                 break;
         }
     }
 
-    private void params(MethodSpec.Builder builder, List<ParamData> params, StringBuilder statement, StringBuilder requestParams, boolean iface) {
+    /**
+     * @param mediaTypes media types of a resource or method, may be null
+     * @return the media types as comma separated string literals, ex: "application/json", "text/plain"
+     */
+    private static String quoted(String[] mediaTypes) {
+        return Arrays.toString(mediaTypes).replace(", ", "\", \"").replaceAll("[\\[\\]]", "\"");
+    }
+
+    /**
+     * Completes a CompletableFuture from the async invocation.
+     */
+    private void stage(MethodSpec.Builder builder, String[] classConsumes, String[] classProduces, MethodData methodData, String target, String statement) {
+        TypeName futureType = ParameterizedTypeName.get(T_COMPLETABLE_FUTURE, resultType(methodData));
+        builder.addStatement("final $T future = new $T()", futureType, futureType);
+        builder.addStatement("$L", callbackInvocation(classConsumes, classProduces, methodData, target, statement, "future.complete", "future.completeExceptionally"));
+        builder.addStatement("return future");
+    }
+
+    /**
+     * Returns a CallPublisher that makes the async invocation once a subscriber asks for the result.
+     */
+    private void publisher(MethodSpec.Builder builder, ClassName client, String[] classConsumes, String[] classProduces, MethodData methodData, String target, String statement) {
+        TypeName resultType = resultType(methodData);
+        TypeSpec publisher = TypeSpec.anonymousClassBuilder("")
+                .superclass(ParameterizedTypeName.get(client.nestedClass(CALL_PUBLISHER), resultType))
+                .addMethod(MethodSpec.methodBuilder("call")
+                        .addAnnotation(Override.class)
+                        .returns(T_ANY_FUTURE)
+                        .addParameter(ParameterizedTypeName.get(client.nestedClass(CALL_SUBSCRIPTION), resultType), "subscription", Modifier.FINAL)
+                        .addStatement("return $L", callbackInvocation(classConsumes, classProduces, methodData, target, statement, "subscription.complete", "subscription.fail"))
+                        .build())
+                .build();
+        builder.addStatement("return $L", publisher);
+    }
+
+    private static TypeName resultType(MethodData methodData) {
+        return methodData.returnTypeName.equals(TypeName.VOID) ? ClassName.get(Void.class) : methodData.returnTypeName.box();
+    }
+
+    /**
+     * @param complete called with the result, null for void methods
+     * @param fail called with the failure
+     * @return the async invocation, reporting to an anonymous InvocationCallback whose type argument tells JAX-RS what
+     * to read the response as. Void methods read the response only to close it.
+     */
+    private CodeBlock callbackInvocation(String[] classConsumes, String[] classProduces, MethodData methodData, String target, String statement, String complete, String fail) {
+        String[] consumes = methodData.consumes != null ? methodData.consumes : classConsumes;
+        String[] produces = methodData.produces != null ? methodData.produces : classProduces;
+        String producesString = quoted(produces);
+        String consumesString = quoted(consumes);
+
+        boolean isVoid = methodData.returnTypeName.equals(TypeName.VOID);
+        TypeName responseType = isVoid ? T_RESPONSE : resultType(methodData);
+        MethodSpec.Builder completed = MethodSpec.methodBuilder("completed")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(responseType, "response");
+        if (isVoid) {
+            completed.addStatement("response.close()")
+                    .addStatement("$L(null)", complete);
+        } else {
+            completed.addStatement("$L(response)", complete);
+        }
+        TypeSpec callback = TypeSpec.anonymousClassBuilder("")
+                .addSuperinterface(ParameterizedTypeName.get(ClassName.get(InvocationCallback.class), responseType))
+                .addMethod(completed.build())
+                .addMethod(MethodSpec.methodBuilder("failed")
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .addParameter(Throwable.class, "throwable")
+                        .addStatement("$L(throwable)", fail)
+                        .build())
+                .build();
+
+        return invocation(methodData, target, statement, producesString, consumesString, CodeBlock.of("$L", callback));
+    }
+
+    /**
+     * @param last final argument of the invoker method, after any entity
+     * @return the invocation of the verb's invoker method on the request
+     */
+    private static CodeBlock invocation(MethodData methodData, String target, String statement, String producesString, String consumesString, CodeBlock last) {
+        switch (methodData.verb) {
+            case GET:
+                return CodeBlock.of(String.format("$L%s.get($L)", statement), target, producesString, last);
+            case POST:
+                return CodeBlock.of(String.format("$L%s.post($T.entity($L, $L), $L)", statement), target, producesString, Entity.class, L_ENTITY, consumesString, last);
+            case PUT:
+                return CodeBlock.of(String.format("$L%s.put($T.entity($L, $L), $L)", statement), target, producesString, Entity.class, L_ENTITY, consumesString, last);
+            case DELETE:
+                return CodeBlock.of(String.format("$L%s.delete($L)", statement), target, producesString, last);
+            default:
+                if (hasEntity(methodData)) {
+                    return CodeBlock.of(String.format("$L%s.method($S, $T.entity($L, $L), $L)", statement), target, producesString, methodData.httpMethod, Entity.class,
+                            L_ENTITY, consumesString, last);
+                }
+                return CodeBlock.of(String.format("$L%s.method($S, $L)", statement), target, producesString, methodData.httpMethod, last);
+        }
+    }
+
+    /**
+     * @return whether the method sends an entity or form params, which verbs other than POST and PUT only do when
+     * they have one
+     */
+    private static boolean hasEntity(MethodData methodData) {
+        return methodData.form || entityParam(methodData) != null;
+    }
+
+    /**
+     * @return whether the method sends a streamable entity, which is never buffered whole on the client
+     */
+    private static boolean streamingUpload(MethodData methodData) {
+        ParamData entity = entityParam(methodData);
+        return entity != null && (entity.typeName.equals(T_INPUT_STREAM) || entity.typeName.equals(ClassName.get(File.class))
+                || entity.typeName.equals(ClassName.get(StreamingOutput.class)));
+    }
+
+    private static ParamData entityParam(MethodData methodData) {
+        for (ParamData paramData : methodData.params) {
+            if (paramData.kind == ParamData.Kind.ENTITY) {
+                return paramData;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return copy of the method sending an entity of the given type in place of its own
+     */
+    private static MethodData withEntityType(MethodData methodData, Class<?> type) {
+        List<ParamData> params = new ArrayList<ParamData>(methodData.params.size());
+        for (ParamData paramData : methodData.params) {
+            if (paramData.kind == ParamData.Kind.ENTITY) {
+                ParamData entity = new ParamData();
+                entity.type = type;
+                entity.genericType = type;
+                entity.typeName = ClassName.get(type);
+                entity.kind = paramData.kind;
+                entity.label = paramData.label;
+                entity.call = paramData.call;
+                params.add(entity);
+            } else {
+                params.add(paramData);
+            }
+        }
+        if (methodData.returnType != null) {
+            return new MethodData(methodData.methodName, methodData.returnType, methodData.path, methodData.consumes, methodData.produces, methodData.httpMethod, params);
+        }
+        return new MethodData(methodData.methodName, methodData.returnTypeName, methodData.path, methodData.consumes, methodData.produces, methodData.httpMethod, params,
+                methodData.collection);
+    }
+
+    private boolean streamed(MethodData methodData) {
+        if (flavor != Flavor.SYNC || !options.contains(Option.STREAMING)) {
+            return false;
+        }
+        TypeName returnType = methodData.returnTypeName;
+        if (returnType instanceof ArrayTypeName) {
+            return !returnType.equals(ArrayTypeName.of(TypeName.BYTE));
+        }
+        return methodData.collection;
+    }
+
+    /**
+     * @return variant of the method that hands the undecoded response body to a StreamReader, closing it afterwards
+     */
+    private MethodSpec stream(ClassName client, ClassData classData, MethodData methodData, String target) {
+        TypeVariableName r = TypeVariableName.get("R");
+        MethodSpec.Builder builder = MethodSpec.methodBuilder(methodData.methodName + "Stream")
+                .addJavadoc("Streaming variant of {@link #$L}, for responses too large to decode at once.\n\n", methodData.methodName)
+                .addJavadoc("@param reader reads the response body as it arrives\n")
+                .addJavadoc("@return what the reader returns\n")
+                .addJavadoc("@throws $T error reading the response body\n", IOException.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addTypeVariable(r)
+                .returns(r)
+                .addException(IOException.class);
+        createFormEntity(builder, client, methodData, false);
+        StringBuilder statement = new StringBuilder();
+        pathing(classData.path, classData.params, methodData.path, methodData.params, statement, precompiled());
+        StringBuilder requestParams = new StringBuilder(".request($L)\n");
+        params(builder, classData.params, statement, requestParams, classData.iface, false);
+        params(builder, methodData.params, statement, requestParams, classData.iface, false);
+        statement.append(requestParams);
+        builder.addParameter(ParameterizedTypeName.get(client.nestedClass(STREAM_READER), r), "reader");
+
+        String[] consumes = methodData.consumes != null ? methodData.consumes : classData.consumes;
+        String[] produces = methodData.produces != null ? methodData.produces : classData.produces;
+        String producesString = quoted(produces);
+        String consumesString = quoted(consumes);
+        if (balanced()) {
+            pickHost(builder, client, false);
+        }
+        builder.addStatement("$T body = $L", InputStream.class,
+                invocation(methodData, target, statement.toString(), producesString, consumesString, CodeBlock.of("$T.class", InputStream.class)))
+                .beginControlFlow("try")
+                .addStatement("return reader.read(body)")
+                .nextControlFlow("finally")
+                .addStatement("body.close()")
+                .endControlFlow();
+        if (balanced()) {
+            releaseHost(builder, false);
+        }
+        return builder.build();
+    }
+
+    private boolean balanced() {
+        return flavor == Flavor.SYNC && options.contains(Option.LOAD_BALANCING);
+    }
+
+    private boolean precompiled() {
+        return options.contains(Option.PRECOMPILED_PATHS) && !balanced();
+    }
+
+    /**
+     * Opens the block of a call to one load balanced host, closed by {@link #releaseHost}.
+     *
+     * @param hostStatus whether the call notes a Response status for the release, see {@link #hostVerb}
+     */
+    private static void pickHost(MethodSpec.Builder builder, ClassName client, boolean hostStatus) {
+        builder.addStatement("$T host = $L.pick()", client.nestedClass(LOAD_BALANCER).nestedClass("Host"), L_LOAD_BALANCER);
+        if (hostStatus) {
+            builder.addStatement("final int[] hostStatus = new int[1]");
+        }
+        builder.addStatement("$T hostFailure = null", RuntimeException.class)
+                .beginControlFlow("try");
+    }
+
+    private static void releaseHost(MethodSpec.Builder builder, boolean hostStatus) {
+        builder.nextControlFlow("catch ($T e)", RuntimeException.class)
+                .addStatement("hostFailure = e")
+                .addStatement("throw e")
+                .nextControlFlow("finally")
+                .addStatement("$L.release(host, $L, hostFailure)", L_LOAD_BALANCER, hostStatus ? "hostStatus[0]" : "0")
+                .endControlFlow();
+    }
+
+    /**
+     * @return whether the method returns its Response or drops it, so error statuses reach it without a throw
+     */
+    private static boolean keepsResponse(MethodData methodData) {
+        return methodData.returnTypeName.equals(TypeName.VOID) || methodData.returnTypeName.equals(T_RESPONSE);
+    }
+
+    /**
+     * Invokes the verb on a picked host, noting the status of a returned or dropped Response for the load balancer.
+     */
+    private void hostVerb(MethodSpec.Builder builder, String[] classConsumes, String[] classProduces, MethodData methodData, String target, String statement,
+                          String genericType) {
+        if (!balanced() || !keepsResponse(methodData)) {
+            verb(builder, classConsumes, classProduces, methodData, target, statement, genericType, RETURN);
+            return;
+        }
+        verb(builder, classConsumes, classProduces, methodData, target, statement, genericType, CodeBlock.of("$T response = ", Response.class));
+        builder.addStatement("hostStatus[0] = response.getStatus()");
+        if (!methodData.returnTypeName.equals(TypeName.VOID)) {
+            builder.addStatement("return response");
+        }
+    }
+
+    /**
+     * Nested load balancer of clients generated with the load balancing option. Picks the host with fewer calls in
+     * flight out of two random ones, and ejects hosts for a while after consecutive I/O failures or 5xx responses.
+     */
+    private static TypeSpec loadBalancerSupport(ClassName balancerName, boolean providers) {
+        ClassName hostName = balancerName.nestedClass("Host");
+        TypeName urlsType = ParameterizedTypeName.get(List.class, String.class);
+
+        TypeSpec host = TypeSpec.classBuilder(hostName.simpleName())
+                .addModifiers(Modifier.STATIC, Modifier.FINAL)
+                .addField(String.class, "url", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(WebTarget.class, "base", Modifier.FINAL)
+                .addField(FieldSpec.builder(AtomicInteger.class, "outstanding", Modifier.PRIVATE, Modifier.FINAL)
+                        .initializer("new $T()", AtomicInteger.class)
+                        .build())
+                .addField(FieldSpec.builder(AtomicInteger.class, "failures", Modifier.PRIVATE, Modifier.FINAL)
+                        .initializer("new $T()", AtomicInteger.class)
+                        .build())
+                .addField(boolean.class, "ejected", Modifier.PRIVATE, Modifier.VOLATILE)
+                .addField(long.class, "ejectedUntil", Modifier.PRIVATE, Modifier.VOLATILE)
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(Modifier.PRIVATE)
+                        .addParameter(String.class, "url")
+                        .addParameter(WebTarget.class, "base")
+                        .addStatement("this.url = url")
+                        .addStatement("this.base = base")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("available")
+                        .addModifiers(Modifier.PRIVATE)
+                        .returns(boolean.class)
+                        .addParameter(long.class, "now")
+                        .addStatement("return !ejected || now - ejectedUntil >= 0")
+                        .build())
+                .build();
+
+        CodeBlock.Builder newHost = CodeBlock.builder();
+        if (providers) {
+            newHost.beginControlFlow("if (host == null)")
+                    .addStatement("$T base = client.target(url)", WebTarget.class)
+                    .beginControlFlow("for (Object provider : providers)")
+                    .addStatement("base.register(provider)")
+                    .endControlFlow()
+                    .addStatement("host = new $T(url, base)", hostName)
+                    .endControlFlow()
+                    .addStatement("updated[i] = host");
+        } else {
+            newHost.addStatement("updated[i] = host != null ? host : new $T(url, client.target(url))", hostName);
+        }
+
+        TypeSpec.Builder balancer = TypeSpec.classBuilder(LOAD_BALANCER)
+                .addJavadoc("Spreads calls over several base URLs of the same service. Each call goes to the host with fewer calls in\n")
+                .addJavadoc("flight out of two random ones. A host is left out for $L seconds after $L consecutive I/O failures or 5xx\n", 30, 5)
+                .addJavadoc("responses, unless every host is left out.\n")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .addField(FieldSpec.builder(int.class, "EJECT_AFTER_FAILURES", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("5")
+                        .build())
+                .addField(FieldSpec.builder(long.class, "EJECTION_NANOS", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("$T.SECONDS.toNanos(30)", TimeUnit.class)
+                        .build())
+                .addField(Client.class, "client", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(FieldSpec.builder(ArrayTypeName.of(hostName), "hosts", Modifier.PRIVATE, Modifier.VOLATILE)
+                        .initializer("new $T[0]", hostName)
+                        .build())
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addJavadoc("@param client shared by every host\n")
+                        .addJavadoc("@param endpointUrls base URLs of the hosts\n")
+                        .addModifiers(Modifier.PUBLIC)
+                        .addParameter(Client.class, "client")
+                        .addParameter(urlsType, "endpointUrls")
+                        .addStatement("this.client = client")
+                        .addStatement("update(endpointUrls)")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("update")
+                        .addJavadoc("Replaces the hosts, such as when service discovery reports a change. Hosts still listed keep their\n")
+                        .addJavadoc("calls in flight and ejection state.\n\n")
+                        .addJavadoc("@param endpointUrls base URLs of the hosts\n")
+                        .addModifiers(Modifier.PUBLIC, Modifier.SYNCHRONIZED)
+                        .addParameter(urlsType, "endpointUrls")
+                        .beginControlFlow("if (endpointUrls.isEmpty())")
+                        .addStatement("throw new $T($S)", IllegalArgumentException.class, "at least one endpoint url required")
+                        .endControlFlow()
+                        .addStatement("$T current = new $T<$T, $T>()", ParameterizedTypeName.get(ClassName.get(Map.class), ClassName.get(String.class), hostName),
+                                HashMap.class, String.class, hostName)
+                        .beginControlFlow("for ($T host : hosts)", hostName)
+                        .addStatement("current.put(host.url, host)")
+                        .endControlFlow()
+                        .addStatement("$T[] updated = new $T[endpointUrls.size()]", hostName, hostName)
+                        .beginControlFlow("for (int i = 0; i < updated.length; i++)")
+                        .addStatement("$T url = endpointUrls.get(i)", String.class)
+                        .addStatement("$T host = current.get(url)", hostName)
+                        .addCode(newHost.build())
+                        .endControlFlow()
+                        .addStatement("hosts = updated")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("pick")
+                        .returns(hostName)
+                        .addStatement("$T[] current = hosts", hostName)
+                        .addStatement("$T host = current[0]", hostName)
+                        .beginControlFlow("if (current.length > 1)")
+                        .addStatement("long now = $T.nanoTime()", System.class)
+                        .addStatement("int first = (int) ($T.random() * current.length)", Math.class)
+                        .addStatement("int second = (int) ($T.random() * (current.length - 1))", Math.class)
+                        .addStatement("$T a = current[first]", hostName)
+                        .addStatement("$T b = current[second >= first ? second + 1 : second]", hostName)
+                        .beginControlFlow("if (a.available(now) != b.available(now))")
+                        .addStatement("host = a.available(now) ? a : b")
+                        .nextControlFlow("else if (a.available(now))")
+                        .addStatement("host = a.outstanding.get() <= b.outstanding.get() ? a : b")
+                        .nextControlFlow("else")
+                        .addStatement("host = null")
+                        .beginControlFlow("for ($T candidate : current)", hostName)
+                        .beginControlFlow("if (candidate.available(now) && (host == null || candidate.outstanding.get() < host.outstanding.get()))")
+                        .addStatement("host = candidate")
+                        .endControlFlow()
+                        .endControlFlow()
+                        .beginControlFlow("if (host == null)")
+                        .addStatement("host = a.outstanding.get() <= b.outstanding.get() ? a : b")
+                        .endControlFlow()
+                        .endControlFlow()
+                        .endControlFlow()
+                        .addStatement("host.outstanding.incrementAndGet()")
+                        .addStatement("return host")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("release")
+                        .addJavadoc("@param status of the Response a call returned or dropped, which never throws on a 5xx, else 0\n")
+                        .addJavadoc("@param failure what the call threw, null on success\n")
+                        .addParameter(hostName, "host")
+                        .addParameter(int.class, "status")
+                        .addParameter(RuntimeException.class, "failure")
+                        .addStatement("host.outstanding.decrementAndGet()")
+                        .beginControlFlow("if (failure instanceof $T)", WebApplicationException.class)
+                        .addStatement("status = (($T) failure).getResponse().getStatus()", WebApplicationException.class)
+                        .endControlFlow()
+                        .beginControlFlow("if (!(failure instanceof $T || status >= 500))", ProcessingException.class)
+                        .addStatement("host.failures.set(0)")
+                        .nextControlFlow("else if (host.failures.incrementAndGet() >= EJECT_AFTER_FAILURES)")
+                        .addStatement("host.failures.set(0)")
+                        .addStatement("host.ejectedUntil = $T.nanoTime() + EJECTION_NANOS", System.class)
+                        .addStatement("host.ejected = true")
+                        .endControlFlow()
+                        .build())
+                .addType(host);
+        if (providers) {
+            balancer.addField(FieldSpec.builder(ParameterizedTypeName.get(List.class, Object.class), "providers", Modifier.PRIVATE, Modifier.FINAL)
+                    .initializer("new $T<Object>()", ArrayList.class)
+                    .build())
+                    .addMethod(MethodSpec.methodBuilder("register")
+                            .addJavadoc("Registers a JAX-RS provider, such as the Compression of a client, on the target of every host,\n")
+                            .addJavadoc("including hosts added later.\n\n")
+                            .addJavadoc("@param provider provider instance\n")
+                            .addModifiers(Modifier.PUBLIC, Modifier.SYNCHRONIZED)
+                            .addParameter(Object.class, "provider")
+                            .addStatement("providers.add(provider)")
+                            .beginControlFlow("for ($T host : hosts)", hostName)
+                            .addStatement("host.base.register(provider)")
+                            .endControlFlow()
+                            .build());
+        }
+        return balancer.build();
+    }
+
+    /**
+     * Nested provider of clients generated with the compression option. Asks for compressed responses and inflates
+     * them as they are read, and gzips request entities once they outgrow a threshold, buffering only up to it.
+     */
+    private static TypeSpec compressionSupport(ClassName compressionName) {
+        ClassName streamName = compressionName.nestedClass("ThresholdStream");
+        TypeSpec stream = TypeSpec.classBuilder(streamName.simpleName())
+                .addJavadoc("Holds an entity back until it outgrows the threshold, then sends it gzipped, or sends it as is once it\n")
+                .addJavadoc("is finished below the threshold. Headers can still be changed until then.\n")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .superclass(OutputStream.class)
+                .addField(WriterInterceptorContext.class, "context", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(OutputStream.class, "entity", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(int.class, "threshold", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(FieldSpec.builder(byte[].class, "single", Modifier.PRIVATE, Modifier.FINAL)
+                        .initializer("new byte[1]")
+                        .build())
+                .addField(byte[].class, "buffer", Modifier.PRIVATE)
+                .addField(int.class, "size", Modifier.PRIVATE)
+                .addField(GZIPOutputStream.class, "gzip", Modifier.PRIVATE)
+                .addField(boolean.class, "finished", Modifier.PRIVATE)
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addParameter(WriterInterceptorContext.class, "context")
+                        .addParameter(int.class, "threshold")
+                        .addStatement("this.context = context")
+                        .addStatement("this.entity = context.getOutputStream()")
+                        .addStatement("this.threshold = threshold")
+                        .addStatement("this.buffer = new byte[$T.min(threshold, 512)]", Math.class)
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("write")
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .addParameter(int.class, "b")
+                        .addException(IOException.class)
+                        .addStatement("single[0] = (byte) b")
+                        .addStatement("write(single, 0, 1)")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("write")
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .addParameter(byte[].class, "b")
+                        .addParameter(int.class, "off")
+                        .addParameter(int.class, "len")
+                        .addException(IOException.class)
+                        .beginControlFlow("if (gzip == null)")
+                        .beginControlFlow("if (len <= threshold - size)")
+                        .beginControlFlow("if (size + len > buffer.length)")
+                        .addStatement("buffer = $T.copyOf(buffer, $T.min(threshold, $T.max(buffer.length * 2, size + len)))", Arrays.class, Math.class, Math.class)
+                        .endControlFlow()
+                        .addStatement("$T.arraycopy(b, off, buffer, size, len)", System.class)
+                        .addStatement("size += len")
+                        .addStatement("return")
+                        .endControlFlow()
+                        .addStatement("context.getHeaders().putSingle($T.CONTENT_ENCODING, $S)", HttpHeaders.class, "gzip")
+                        .addStatement("context.getHeaders().remove($T.CONTENT_LENGTH)", HttpHeaders.class)
+                        .addStatement("gzip = new $T(entity)", GZIPOutputStream.class)
+                        .addStatement("gzip.write(buffer, 0, size)")
+                        .addStatement("buffer = null")
+                        .endControlFlow()
+                        .addStatement("gzip.write(b, off, len)")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("flush")
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .addException(IOException.class)
+                        .beginControlFlow("if (gzip != null)")
+                        .addStatement("gzip.flush()")
+                        .endControlFlow()
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("close")
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .addException(IOException.class)
+                        .addStatement("finish()")
+                        .addStatement("entity.close()")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("finish")
+                        .addException(IOException.class)
+                        .beginControlFlow("if (finished)")
+                        .addStatement("return")
+                        .endControlFlow()
+                        .addStatement("finished = true")
+                        .beginControlFlow("if (gzip != null)")
+                        .addStatement("gzip.finish()")
+                        .nextControlFlow("else")
+                        .addStatement("entity.write(buffer, 0, size)")
+                        .endControlFlow()
+                        .build())
+                .build();
+
+        return TypeSpec.classBuilder(COMPRESSION)
+                .addJavadoc("Asks for gzip or deflate compressed responses and inflates them as they are read, streaming. Request entities\n")
+                .addJavadoc("larger than the threshold are sent gzipped with Content-Encoding set, which the server has to accept.\n")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .addSuperinterface(ClientRequestFilter.class)
+                .addSuperinterface(ReaderInterceptor.class)
+                .addSuperinterface(WriterInterceptor.class)
+                .addField(FieldSpec.builder(int.class, "DEFAULT_THRESHOLD", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("1024")
+                        .build())
+                .addField(int.class, "threshold", Modifier.PRIVATE, Modifier.FINAL)
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addJavadoc("@param threshold entity size in bytes above which requests are compressed, {@link Integer#MAX_VALUE} to\n")
+                        .addJavadoc("only have responses compressed\n")
+                        .addModifiers(Modifier.PUBLIC)
+                        .addParameter(int.class, "threshold")
+                        .beginControlFlow("if (threshold < 0)")
+                        .addStatement("throw new $T($S + threshold)", IllegalArgumentException.class, "threshold must not be negative: ")
+                        .endControlFlow()
+                        .addStatement("this.threshold = threshold")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("filter")
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .addParameter(ClientRequestContext.class, "request")
+                        .beginControlFlow("if (!request.getHeaders().containsKey($T.ACCEPT_ENCODING))", HttpHeaders.class)
+                        .addStatement("request.getHeaders().putSingle($T.ACCEPT_ENCODING, $S)", HttpHeaders.class, "gzip, deflate")
+                        .endControlFlow()
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("aroundReadFrom")
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(Object.class)
+                        .addParameter(ReaderInterceptorContext.class, "context")
+                        .addException(IOException.class)
+                        .addStatement("$T encoding = context.getHeaders().getFirst($T.CONTENT_ENCODING)", String.class, HttpHeaders.class)
+                        .addStatement("boolean gzip = $S.equalsIgnoreCase(encoding) || $S.equalsIgnoreCase(encoding)", "gzip", "x-gzip")
+                        .beginControlFlow("if (gzip || $S.equalsIgnoreCase(encoding))", "deflate")
+                        .addStatement("context.getHeaders().remove($T.CONTENT_ENCODING)", HttpHeaders.class)
+                        .addCode("//an empty body has no gzip header to read\n")
+                        .addStatement("$T body = new $T(context.getInputStream())", PushbackInputStream.class, PushbackInputStream.class)
+                        .addStatement("int first = body.read()")
+                        .addStatement("context.setInputStream(body)")
+                        .beginControlFlow("if (first != -1)")
+                        .addStatement("body.unread(first)")
+                        .addStatement("context.setInputStream(gzip ? new $T(body) : new $T(body))", GZIPInputStream.class, InflaterInputStream.class)
+                        .endControlFlow()
+                        .endControlFlow()
+                        .addStatement("return context.proceed()")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("aroundWriteTo")
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .addParameter(WriterInterceptorContext.class, "context")
+                        .addException(IOException.class)
+                        .beginControlFlow("if (threshold == $T.MAX_VALUE || context.getHeaders().containsKey($T.CONTENT_ENCODING))", Integer.class, HttpHeaders.class)
+                        .addStatement("context.proceed()")
+                        .addStatement("return")
+                        .endControlFlow()
+                        .addStatement("$T stream = new $T(context, threshold)", streamName, streamName)
+                        .addStatement("context.setOutputStream(stream)")
+                        .addStatement("context.proceed()")
+                        .addStatement("stream.finish()")
+                        .build())
+                .addType(stream)
+                .build();
+    }
+
+    /**
+     * Adds the batch factory method, the Batch inner class with one method per resource method that has parameters,
+     * and an Args class for each of those methods with more than one parameter. Only the first of overloaded methods
+     * gets a batch method, since their List parameters would clash.
+     */
+    private static void batch(TypeSpec.Builder typeSpecBuilder, ClassName client, List<MethodSpec> methods) {
+        ClassName batchName = client.nestedClass("Batch");
+        typeSpecBuilder.addMethod(MethodSpec.methodBuilder("batch")
+                .addJavadoc("@param executor runs the calls, such as a virtual thread per task executor\n")
+                .addJavadoc("@param maxConcurrency most calls in flight at once\n")
+                .addJavadoc("@return runs many calls of one method at once\n")
+                .addModifiers(Modifier.PUBLIC)
+                .returns(batchName)
+                .addParameter(ExecutorService.class, "executor")
+                .addParameter(int.class, "maxConcurrency")
+                .addStatement("return new $T(executor, maxConcurrency)", batchName)
+                .build());
+
+        TypeSpec.Builder batch = TypeSpec.classBuilder(batchName.simpleName())
+                .addModifiers(Modifier.PUBLIC)
+                .addField(ExecutorService.class, "executor", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(Semaphore.class, "permits", Modifier.PRIVATE, Modifier.FINAL)
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(Modifier.PRIVATE)
+                        .addParameter(ExecutorService.class, "executor")
+                        .addParameter(int.class, "maxConcurrency")
+                        .addStatement("this.executor = executor")
+                        .addStatement("this.permits = new $T(maxConcurrency)", Semaphore.class)
+                        .build());
+
+        Set<String> names = new HashSet<String>();
+        for (MethodSpec method : methods) {
+            if (method.parameters.isEmpty() || !names.add(method.name)) {
+                continue;
+            }
+            boolean isVoid = method.returnType.equals(TypeName.VOID);
+            TypeName resultType = isVoid ? ClassName.get(Void.class) : method.returnType.box();
+            TypeName argType;
+            StringBuilder callArgs = new StringBuilder();
+            if (method.parameters.size() == 1) {
+                argType = method.parameters.get(0).type.box();
+                callArgs.append("arg");
+            } else {
+                ClassName argsName = client.nestedClass(Character.toUpperCase(method.name.charAt(0)) + method.name.substring(1) + "Args");
+                TypeSpec.Builder args = TypeSpec.classBuilder(argsName.simpleName())
+                        .addModifiers(Modifier.PUBLIC, Modifier.STATIC);
+                MethodSpec.Builder constructor = MethodSpec.constructorBuilder()
+                        .addModifiers(Modifier.PUBLIC);
+                for (ParameterSpec parameter : method.parameters) {
+                    args.addField(parameter.type, parameter.name, Modifier.PUBLIC, Modifier.FINAL);
+                    constructor.addParameter(parameter.type, parameter.name)
+                            .addStatement("this.$L = $L", parameter.name, parameter.name);
+                    callArgs.append(callArgs.length() > 0 ? ", " : "").append("arg.").append(parameter.name);
+                }
+                typeSpecBuilder.addType(args.addMethod(constructor.build()).build());
+                argType = argsName;
+            }
+
+            TypeName callableType = ParameterizedTypeName.get(ClassName.get(Callable.class), resultType);
+            MethodSpec.Builder call = MethodSpec.methodBuilder("call")
+                    .addAnnotation(Override.class)
+                    .addModifiers(Modifier.PUBLIC)
+                    .returns(resultType);
+            if (isVoid) {
+                call.addStatement("$T.this.$L($L)", client, method.name, callArgs)
+                        .addStatement("return null");
+            } else {
+                call.addStatement("return $T.this.$L($L)", client, method.name, callArgs);
+            }
+            TypeSpec callable = TypeSpec.anonymousClassBuilder("")
+                    .addSuperinterface(callableType)
+                    .addMethod(call.build())
+                    .build();
+
+            TypeName callsType = ParameterizedTypeName.get(ClassName.get(List.class), callableType);
+            MethodSpec.Builder batchMethod = MethodSpec.methodBuilder(method.name)
+                    .addModifiers(Modifier.PUBLIC)
+                    .addParameter(ParameterizedTypeName.get(ClassName.get(List.class), argType), "args")
+                    .addException(InterruptedException.class)
+                    .addStatement("$T calls = new $T<$T>(args.size())", callsType, ArrayList.class, callableType)
+                    .beginControlFlow("for (final $T arg : args)", argType)
+                    .addStatement("calls.add($L)", callable)
+                    .endControlFlow();
+            if (isVoid) {
+                batchMethod.addStatement("invokeAll(calls)");
+            } else {
+                batchMethod.returns(ParameterizedTypeName.get(ClassName.get(List.class), resultType))
+                        .addStatement("return invokeAll(calls)");
+            }
+            batch.addMethod(batchMethod.build());
+        }
+
+        TypeVariableName t = TypeVariableName.get("T");
+        TypeName futureType = ParameterizedTypeName.get(ClassName.get(Future.class), t);
+        TypeName callableType = ParameterizedTypeName.get(ClassName.get(Callable.class), t);
+        batch.addMethod(MethodSpec.methodBuilder("invokeAll")
+                .addModifiers(Modifier.PRIVATE)
+                .addTypeVariable(t)
+                .returns(ParameterizedTypeName.get(ClassName.get(List.class), t))
+                .addParameter(ParameterizedTypeName.get(ClassName.get(List.class), callableType), "calls")
+                .addException(InterruptedException.class)
+                .addStatement("final $T failed = new $T()", AtomicBoolean.class, AtomicBoolean.class)
+                .addStatement("$T futures = new $T<$T>(calls.size())", ParameterizedTypeName.get(ClassName.get(List.class), futureType), ArrayList.class, futureType)
+                .beginControlFlow("try")
+                .beginControlFlow("for (final $T call : calls)", callableType)
+                .addStatement("permits.acquire()")
+                .beginControlFlow("if (failed.get())")
+                .addStatement("permits.release()")
+                .addStatement("break")
+                .endControlFlow()
+                .beginControlFlow("try")
+                .addStatement("futures.add(executor.submit($L))", TypeSpec.anonymousClassBuilder("")
+                        .addSuperinterface(callableType)
+                        .addMethod(MethodSpec.methodBuilder("call")
+                                .addAnnotation(Override.class)
+                                .addModifiers(Modifier.PUBLIC)
+                                .returns(t)
+                                .addException(Exception.class)
+                                .beginControlFlow("try")
+                                .addStatement("return call.call()")
+                                .nextControlFlow("catch ($T e)", Exception.class)
+                                .addStatement("failed.set(true)")
+                                .addStatement("throw e")
+                                .nextControlFlow("catch ($T e)", Error.class)
+                                .addStatement("failed.set(true)")
+                                .addStatement("throw e")
+                                .nextControlFlow("finally")
+                                .addStatement("permits.release()")
+                                .endControlFlow()
+                                .build())
+                        .build())
+                .nextControlFlow("catch ($T e)", RuntimeException.class)
+                .addStatement("permits.release()")
+                .addStatement("throw e")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("$T results = new $T<$T>(futures.size())", ParameterizedTypeName.get(ClassName.get(List.class), t), ArrayList.class, t)
+                .beginControlFlow("for ($T future : futures)", futureType)
+                .beginControlFlow("try")
+                .addStatement("results.add(future.get())")
+                .nextControlFlow("catch ($T e)", ExecutionException.class)
+                .beginControlFlow("if (e.getCause() instanceof $T)", RuntimeException.class)
+                .addStatement("throw ($T) e.getCause()", RuntimeException.class)
+                .endControlFlow()
+                .beginControlFlow("if (e.getCause() instanceof $T)", Error.class)
+                .addStatement("throw ($T) e.getCause()", Error.class)
+                .endControlFlow()
+                .addStatement("throw new $T(e.getCause())", RuntimeException.class)
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("return results")
+                .nextControlFlow("finally")
+                .addCode("//no-op for finished calls, stops the rest after a failure\n")
+                .beginControlFlow("for ($T future : futures)", futureType)
+                .addStatement("future.cancel(true)")
+                .endControlFlow()
+                .endControlFlow()
+                .build());
+        typeSpecBuilder.addType(batch.build());
+    }
+
+    /**
+     * Nested support classes of publisher clients. CallPublisher publishes the single result of a call, and only makes
+     * the call once the first demand arrives. CallSubscription signals the subscriber at most once, and cancels the
+     * call's future when the subscription is cancelled.
+     */
+    private static List<TypeSpec> publisherSupport(ClassName client) {
+        TypeVariableName t = TypeVariableName.get("T");
+        TypeName subscriber = ParameterizedTypeName.get(T_SUBSCRIBER, WildcardTypeName.supertypeOf(t));
+        ClassName publisherName = client.nestedClass(CALL_PUBLISHER);
+        ClassName subscriptionName = client.nestedClass(CALL_SUBSCRIPTION);
+        TypeName subscriptionType = ParameterizedTypeName.get(subscriptionName, t);
+
+        TypeSpec publisher = TypeSpec.classBuilder(CALL_PUBLISHER)
+                .addModifiers(Modifier.PRIVATE, Modifier.ABSTRACT, Modifier.STATIC)
+                .addTypeVariable(t)
+                .addSuperinterface(ParameterizedTypeName.get(T_PUBLISHER, t))
+                .addMethod(MethodSpec.methodBuilder("call")
+                        .addModifiers(Modifier.ABSTRACT)
+                        .returns(T_ANY_FUTURE)
+                        .addParameter(subscriptionType, "subscription")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("subscribe")
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .addParameter(subscriber, "subscriber")
+                        .beginControlFlow("if (subscriber == null)")
+                        .addStatement("throw new $T($S)", NullPointerException.class, "subscriber")
+                        .endControlFlow()
+                        .addStatement("subscriber.onSubscribe(new $T(this, subscriber))", subscriptionType)
+                        .build())
+                .build();
+
+        TypeSpec subscription = TypeSpec.classBuilder(CALL_SUBSCRIPTION)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .addTypeVariable(t)
+                .addSuperinterface(T_SUBSCRIPTION)
+                .addField(ParameterizedTypeName.get(publisherName, t), "publisher", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(subscriber, "subscriber", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(FieldSpec.builder(AtomicBoolean.class, "requested", Modifier.PRIVATE, Modifier.FINAL)
+                        .initializer("new $T()", AtomicBoolean.class)
+                        .build())
+                .addField(FieldSpec.builder(AtomicBoolean.class, "done", Modifier.PRIVATE, Modifier.FINAL)
+                        .initializer("new $T()", AtomicBoolean.class)
+                        .build())
+                .addField(T_ANY_FUTURE, "future", Modifier.PRIVATE, Modifier.VOLATILE)
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addParameter(ParameterizedTypeName.get(publisherName, t), "publisher")
+                        .addParameter(subscriber, "subscriber")
+                        .addStatement("this.publisher = publisher")
+                        .addStatement("this.subscriber = subscriber")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("request")
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .addParameter(long.class, "n")
+                        .beginControlFlow("if (n <= 0)")
+                        .addStatement("fail(new $T($S + n))", IllegalArgumentException.class, "request must be positive: ")
+                        .nextControlFlow("else if (requested.compareAndSet(false, true))")
+                        .addStatement("$T call", T_ANY_FUTURE)
+                        .beginControlFlow("try")
+                        .addStatement("call = publisher.call(this)")
+                        .nextControlFlow("catch ($T e)", RuntimeException.class)
+                        .addStatement("fail(e)")
+                        .addStatement("return")
+                        .endControlFlow()
+                        .addStatement("future = call")
+                        .beginControlFlow("if (done.get() && call != null)")
+                        .addCode("//cancelled while the call was being made\n")
+                        .addStatement("call.cancel(true)")
+                        .endControlFlow()
+                        .endControlFlow()
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("cancel")
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .beginControlFlow("if (done.compareAndSet(false, true))")
+                        .addStatement("$T call = future", T_ANY_FUTURE)
+                        .beginControlFlow("if (call != null)")
+                        .addStatement("call.cancel(true)")
+                        .endControlFlow()
+                        .endControlFlow()
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("complete")
+                        .addParameter(t, "result")
+                        .beginControlFlow("if (done.compareAndSet(false, true))")
+                        .beginControlFlow("if (result != null)")
+                        .addStatement("subscriber.onNext(result)")
+                        .endControlFlow()
+                        .addStatement("subscriber.onComplete()")
+                        .nextControlFlow("else if (result instanceof $T)", Response.class)
+                        .addStatement("(($T) result).close()", Response.class)
+                        .endControlFlow()
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("fail")
+                        .addParameter(Throwable.class, "throwable")
+                        .beginControlFlow("if (done.compareAndSet(false, true))")
+                        .addStatement("subscriber.onError(throwable)")
+                        .endControlFlow()
+                        .build())
+                .build();
+        return Arrays.asList(publisher, subscription);
+    }
+
+    private boolean cached(MethodData methodData) {
+        return flavor == Flavor.SYNC && options.contains(Option.RESPONSE_CACHE) && methodData.verb == MethodData.Verb.GET
+                && !methodData.returnTypeName.equals(T_RESPONSE) && !methodData.returnTypeName.equals(TypeName.VOID);
+    }
+
+    /**
+     * Makes the request through the client's ResponseCache, its SingleFlight, or both, keyed by the method, resolved URI
+     * and the header and cookie values. Single flight runs the request in a shared Callable.
+     */
+    private void keyedGet(MethodSpec.Builder builder, String[] classConsumes, String[] classProduces, MethodData methodData, String target,
+                          String targetStatement, String requestStatement, List<String> requestValues, String genericType,
+                          boolean singleFlight, boolean cached, boolean retried) {
+        String chain = targetStatement.endsWith("\n") ? targetStatement.substring(0, targetStatement.length() - 1) : targetStatement;
+        builder.addStatement(String.format("final $T target = $L%s", chain), WebTarget.class, target);
+        StringBuilder key = new StringBuilder("final $T key = $T.<Object>asList($S, target.getUri()");
+        for (String value : requestValues) {
+            key.append(", ").append(value);
+        }
+        key.append(")");
+        builder.addStatement(key.toString(), ParameterizedTypeName.get(List.class, Object.class), Arrays.class, methodData.methodName);
+
+        boolean isVoid = methodData.returnTypeName.equals(TypeName.VOID);
+        TypeName resultType = resultType(methodData);
+        MethodSpec.Builder flight = !singleFlight ? builder : callBuilder(methodData);
+        MethodSpec.Builder call = !retried ? flight : callBuilder(methodData);
+        if (cached) {
+            String[] produces = methodData.produces != null ? methodData.produces : classProduces;
+            String producesString = quoted(produces);
+            String request = requestStatement.endsWith("\n") ? requestStatement.substring(0, requestStatement.length() - 1) : requestStatement;
+            if (methodData.returnTypeName instanceof ParameterizedTypeName) {
+                call.addStatement(String.format("return $L.get(key, target%s, $L)", request), L_RESPONSE_CACHE, producesString, genericType);
+            } else {
+                call.addStatement(String.format("return $L.get(key, target%s, $T.class)", request), L_RESPONSE_CACHE, producesString, methodData.returnTypeName);
+            }
+        } else {
+            hostVerb(call, classConsumes, classProduces, methodData, "target", requestStatement, genericType);
+            if (singleFlight && !retried && isVoid) {
+                call.addStatement("return null");
+            }
+        }
+        if (retried) {
+            retry(flight, methodData, call, RETURN);
+            if (singleFlight && isVoid) {
+                flight.addStatement("return null");
+            }
+        }
+        if (singleFlight) {
+            TypeSpec callable = TypeSpec.anonymousClassBuilder("")
+                    .addSuperinterface(ParameterizedTypeName.get(ClassName.get(Callable.class), resultType))
+                    .addMethod(flight.build())
+                    .build();
+            builder.addStatement(isVoid ? "$L.call(key, $L)" : "return $L.call(key, $L)", L_SINGLE_FLIGHT, callable);
+        }
+    }
+
+    /**
+     * @return the call method of an anonymous Callable, returning null for void methods
+     */
+    private static MethodSpec.Builder callBuilder(MethodData methodData) {
+        return MethodSpec.methodBuilder("call")
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .returns(resultType(methodData));
+    }
+
+    private boolean retried(MethodData methodData) {
+        return flavor == Flavor.SYNC && options.contains(Option.RETRY) && (methodData.verb == MethodData.Verb.GET || methodData.verb == MethodData.Verb.HEAD
+                || methodData.verb == MethodData.Verb.OPTIONS || methodData.verb == MethodData.Verb.PUT || methodData.verb == MethodData.Verb.DELETE);
+    }
+
+    /**
+     * Runs the call through the method's retry policy. The call of a void method returns its Response, which is closed
+     * once the policy is done with it.
+     *
+     * @param result start of the statement taking the call's result, ignored for void methods
+     */
+    private static void retry(MethodSpec.Builder builder, MethodData methodData, MethodSpec.Builder call, CodeBlock result) {
+        boolean voided = methodData.returnTypeName.equals(TypeName.VOID);
+        if (voided) {
+            call.returns(T_RESPONSE);
+            result = CodeBlock.of("$T response = ", Response.class);
+        }
+        TypeSpec callable = TypeSpec.anonymousClassBuilder("")
+                .addSuperinterface(ParameterizedTypeName.get(ClassName.get(Callable.class), voided ? T_RESPONSE : resultType(methodData)))
+                .addMethod(call.build())
+                .build();
+        builder.addStatement("$L$L.forMethod($S).call($L)", result, L_RETRY_POLICY, methodData.methodName, callable);
+        if (voided) {
+            builder.addStatement("response.close()");
+        }
+    }
+
+    /**
+     * @param out collects the header and cookie values sent by the params, bean params included
+     */
+    private static void requestValues(List<ParamData> params, List<String> out) {
+        for (ParamData paramData : params) {
+            if (paramData.kind == ParamData.Kind.HEADER || paramData.kind == ParamData.Kind.COOKIE) {
+                out.add(paramData.call);
+            } else if (paramData.kind == ParamData.Kind.BEAN) {
+                requestValues(paramData.beanParams, out);
+            }
+        }
+    }
+
+    /**
+     * Nested support class of single flight clients. The first caller for a key runs the call, and callers arriving
+     * while it is in flight wait for the same result.
+     */
+    private static TypeSpec singleFlightSupport() {
+        TypeVariableName t = TypeVariableName.get("T");
+        TypeName taskType = ParameterizedTypeName.get(ClassName.get(FutureTask.class), WildcardTypeName.subtypeOf(Object.class));
+        TypeName keyType = ParameterizedTypeName.get(List.class, Object.class);
+        return TypeSpec.classBuilder(SINGLE_FLIGHT)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .addField(FieldSpec.builder(ParameterizedTypeName.get(ClassName.get(ConcurrentMap.class), keyType, taskType), "calls", Modifier.PRIVATE, Modifier.FINAL)
+                        .initializer("new $T<$T, $T>()", ConcurrentHashMap.class, keyType, taskType)
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("call")
+                        .addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked").build())
+                        .addTypeVariable(t)
+                        .returns(t)
+                        .addParameter(keyType, "key")
+                        .addParameter(ParameterizedTypeName.get(ClassName.get(Callable.class), t), "call")
+                        .addStatement("$T task = new $T(call)", ParameterizedTypeName.get(ClassName.get(FutureTask.class), t), ParameterizedTypeName.get(ClassName.get(FutureTask.class), t))
+                        .addStatement("$T inFlight = calls.putIfAbsent(key, task)", taskType)
+                        .beginControlFlow("if (inFlight == null)")
+                        .beginControlFlow("try")
+                        .addStatement("task.run()")
+                        .nextControlFlow("finally")
+                        .addStatement("calls.remove(key, task)")
+                        .endControlFlow()
+                        .addStatement("inFlight = task")
+                        .endControlFlow()
+                        .beginControlFlow("try")
+                        .addStatement("return ($T) inFlight.get()", t)
+                        .nextControlFlow("catch ($T e)", InterruptedException.class)
+                        .addStatement("$T.currentThread().interrupt()", Thread.class)
+                        .addStatement("throw new $T(e)", ProcessingException.class)
+                        .nextControlFlow("catch ($T e)", ExecutionException.class)
+                        .beginControlFlow("if (e.getCause() instanceof $T)", RuntimeException.class)
+                        .addStatement("throw ($T) e.getCause()", RuntimeException.class)
+                        .endControlFlow()
+                        .beginControlFlow("if (e.getCause() instanceof $T)", Error.class)
+                        .addStatement("throw ($T) e.getCause()", Error.class)
+                        .endControlFlow()
+                        .addStatement("throw new $T(e.getCause())", ProcessingException.class)
+                        .endControlFlow()
+                        .build())
+                .build();
+    }
+
+    /**
+     * Nested support class of response cache clients. Results are kept in an access ordered LinkedHashMap that drops
+     * its least recently used entry past the size bound. Only the map access is locked, so concurrent misses of the
+     * same key each make the request. Non-2xx responses fail with the same exceptions the SyncInvoker would throw.
+     */
+    private static TypeSpec responseCacheSupport(ClassName cacheName) {
+        TypeVariableName t = TypeVariableName.get("T");
+        ClassName resultName = cacheName.nestedClass("CachedResult");
+        TypeName keyType = ParameterizedTypeName.get(List.class, Object.class);
+        TypeName mapType = ParameterizedTypeName.get(ClassName.get(Map.class), keyType, resultName);
+        TypeName linkedMapType = ParameterizedTypeName.get(ClassName.get(LinkedHashMap.class), keyType, resultName);
+        TypeName builderType = ClassName.get(Invocation.Builder.class);
+        TypeName classType = ParameterizedTypeName.get(ClassName.get(Class.class), t);
+        TypeName genericType = ParameterizedTypeName.get(ClassName.get(GenericType.class), t);
+
+        TypeSpec lru = TypeSpec.anonymousClassBuilder("16, 0.75f, true")
+                .superclass(linkedMapType)
+                .addMethod(MethodSpec.methodBuilder("removeEldestEntry")
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PROTECTED)
+                        .returns(boolean.class)
+                        .addParameter(ParameterizedTypeName.get(ClassName.get(Map.Entry.class), keyType, resultName), "eldest")
+                        .addStatement("return size() > maxEntries")
+                        .build())
+                .build();
+
+        TypeSpec result = TypeSpec.classBuilder(resultName.simpleName())
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .addField(Object.class, "entity", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(String.class, "etag", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(String.class, "lastModified", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(long.class, "expires", Modifier.PRIVATE, Modifier.FINAL)
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addParameter(Object.class, "entity")
+                        .addParameter(String.class, "etag")
+                        .addParameter(String.class, "lastModified")
+                        .addParameter(long.class, "expires")
+                        .addStatement("this.entity = entity")
+                        .addStatement("this.etag = etag")
+                        .addStatement("this.lastModified = lastModified")
+                        .addStatement("this.expires = expires")
+                        .build())
+                .build();
+
+        MethodSpec.Builder exception = MethodSpec.methodBuilder("exception")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .returns(WebApplicationException.class)
+                .addParameter(Response.class, "response")
+                .beginControlFlow("switch (response.getStatus())");
+        Map<Integer, Class<?>> exceptionByStatus = new LinkedHashMap<Integer, Class<?>>();
+        exceptionByStatus.put(400, BadRequestException.class);
+        exceptionByStatus.put(401, NotAuthorizedException.class);
+        exceptionByStatus.put(403, ForbiddenException.class);
+        exceptionByStatus.put(404, NotFoundException.class);
+        exceptionByStatus.put(406, NotAcceptableException.class);
+        exceptionByStatus.put(415, NotSupportedException.class);
+        exceptionByStatus.put(500, InternalServerErrorException.class);
+        exceptionByStatus.put(503, ServiceUnavailableException.class);
+        for (Map.Entry<Integer, Class<?>> entry : exceptionByStatus.entrySet()) {
+            exception.addCode("case $L:\n$>", entry.getKey())
+                    .addStatement("return new $T(response)", entry.getValue())
+                    .addCode("$<");
+        }
+        exception.endControlFlow()
+                .addStatement("$T family = response.getStatusInfo().getFamily()", Response.Status.Family.class)
+                .beginControlFlow("if (family == $T.REDIRECTION)", Response.Status.Family.class)
+                .addStatement("return new $T(response)", RedirectionException.class)
+                .nextControlFlow("else if (family == $T.CLIENT_ERROR)", Response.Status.Family.class)
+                .addStatement("return new $T(response)", ClientErrorException.class)
+                .nextControlFlow("else if (family == $T.SERVER_ERROR)", Response.Status.Family.class)
+                .addStatement("return new $T(response)", ServerErrorException.class)
+                .endControlFlow()
+                .addStatement("return new $T(response)", WebApplicationException.class);
+
+        return TypeSpec.classBuilder(RESPONSE_CACHE)
+                .addJavadoc("Least recently used cache of GET results, revalidated once stale.\n")
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .addField(FieldSpec.builder(int.class, "DEFAULT_MAX_ENTRIES", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("1000")
+                        .build())
+                .addField(mapType, "results", Modifier.PRIVATE, Modifier.FINAL)
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addJavadoc("@param maxEntries most results kept before the least recently used is dropped\n")
+                        .addModifiers(Modifier.PUBLIC)
+                        .addParameter(int.class, "maxEntries", Modifier.FINAL)
+                        .addStatement("results = $L", lru)
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("clear")
+                        .addModifiers(Modifier.PUBLIC)
+                        .beginControlFlow("synchronized (results)")
+                        .addStatement("results.clear()")
+                        .endControlFlow()
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("get")
+                        .addTypeVariable(t)
+                        .returns(t)
+                        .addParameter(keyType, "key")
+                        .addParameter(builderType, "request")
+                        .addParameter(classType, "type")
+                        .addStatement("return get(key, request, type, null)")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("get")
+                        .addTypeVariable(t)
+                        .returns(t)
+                        .addParameter(keyType, "key")
+                        .addParameter(builderType, "request")
+                        .addParameter(genericType, "type")
+                        .addStatement("return get(key, request, null, type)")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("get")
+                        .addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked").build())
+                        .addModifiers(Modifier.PRIVATE)
+                        .addTypeVariable(t)
+                        .returns(t)
+                        .addParameter(keyType, "key")
+                        .addParameter(builderType, "request")
+                        .addParameter(classType, "rawType")
+                        .addParameter(genericType, "genericType")
+                        .addStatement("$T cached", resultName)
+                        .beginControlFlow("synchronized (results)")
+                        .addStatement("cached = results.get(key)")
+                        .endControlFlow()
+                        .beginControlFlow("if (cached != null)")
+                        .beginControlFlow("if (cached.expires - $T.nanoTime() > 0)", System.class)
+                        .addStatement("return ($T) cached.entity", t)
+                        .endControlFlow()
+                        .beginControlFlow("if (cached.etag != null)")
+                        .addStatement("request.header($T.IF_NONE_MATCH, cached.etag)", HttpHeaders.class)
+                        .endControlFlow()
+                        .beginControlFlow("if (cached.lastModified != null)")
+                        .addStatement("request.header($T.IF_MODIFIED_SINCE, cached.lastModified)", HttpHeaders.class)
+                        .endControlFlow()
+                        .endControlFlow()
+                        .addStatement("$T response = request.get()", Response.class)
+                        .beginControlFlow("if (cached != null && response.getStatus() == $T.NOT_MODIFIED.getStatusCode())", Response.Status.class)
+                        .addStatement("response.close()")
+                        .addStatement("store(key, cached.entity, response, cached)")
+                        .addStatement("return ($T) cached.entity", t)
+                        .endControlFlow()
+                        .beginControlFlow("if (response.getStatusInfo().getFamily() != $T.SUCCESSFUL)", Response.Status.Family.class)
+                        .addStatement("throw exception(response)")
+                        .endControlFlow()
+                        .addStatement("$T entity = rawType != null ? response.readEntity(rawType) : response.readEntity(genericType)", t)
+                        .addStatement("store(key, entity, response, null)")
+                        .addStatement("return entity")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("store")
+                        .addJavadoc("@param revalidated result a 304 response refreshes, which keeps its validators unless new ones are sent\n")
+                        .addModifiers(Modifier.PRIVATE)
+                        .addParameter(keyType, "key")
+                        .addParameter(Object.class, "entity")
+                        .addParameter(Response.class, "response")
+                        .addParameter(resultName, "revalidated")
+                        .addStatement("boolean store = !\"*\".equals(response.getHeaderString($T.VARY))", HttpHeaders.class)
+                        .addStatement("long maxAge = 0")
+                        .addStatement("boolean noCache = false")
+                        .addStatement("String cacheControl = response.getHeaderString($T.CACHE_CONTROL)", HttpHeaders.class)
+                        .beginControlFlow("if (cacheControl != null)")
+                        .beginControlFlow("for (String part : cacheControl.split(\",\"))")
+                        .addStatement("String directive = part.trim().toLowerCase($T.ROOT)", Locale.class)
+                        .beginControlFlow("if (directive.equals(\"no-store\"))")
+                        .addStatement("store = false")
+                        .nextControlFlow("else if (directive.equals(\"no-cache\"))")
+                        .addStatement("noCache = true")
+                        .nextControlFlow("else if (directive.startsWith(\"max-age=\"))")
+                        .beginControlFlow("try")
+                        .addStatement("maxAge = $T.parseLong(directive.substring(8))", Long.class)
+                        .nextControlFlow("catch ($T e)", NumberFormatException.class)
+                        .addStatement("maxAge = 0")
+                        .endControlFlow()
+                        .endControlFlow()
+                        .endControlFlow()
+                        .endControlFlow()
+                        .addStatement("String etag = response.getHeaderString($T.ETAG)", HttpHeaders.class)
+                        .addStatement("String lastModified = response.getHeaderString($T.LAST_MODIFIED)", HttpHeaders.class)
+                        .beginControlFlow("if (revalidated != null && etag == null && lastModified == null)")
+                        .addStatement("etag = revalidated.etag")
+                        .addStatement("lastModified = revalidated.lastModified")
+                        .endControlFlow()
+                        .addStatement("long freshFor = noCache ? 0 : $T.SECONDS.toNanos(maxAge)", TimeUnit.class)
+                        .beginControlFlow("synchronized (results)")
+                        .beginControlFlow("if (store && (freshFor > 0 || etag != null || lastModified != null))")
+                        .addStatement("results.put(key, new $T(entity, etag, lastModified, $T.nanoTime() + freshFor))", resultName, System.class)
+                        .nextControlFlow("else")
+                        .addStatement("results.remove(key)")
+                        .endControlFlow()
+                        .endControlFlow()
+                        .build())
+                .addMethod(exception.build())
+                .addType(result)
+                .build();
+    }
+
+    /**
+     * Nested retry policy of clients generated with the retry option. Each instance keeps its own retry budget and
+     * latency samples, shared by every method using it.
+     */
+    private static TypeSpec retryPolicySupport(ClassName retryName) {
+        TypeVariableName t = TypeVariableName.get("T");
+        ClassName outcomeName = retryName.nestedClass("Outcome");
+        TypeName callableType = ParameterizedTypeName.get(ClassName.get(Callable.class), t);
+        TypeName policiesType = ParameterizedTypeName.get(ClassName.get(Map.class), ClassName.get(String.class), retryName);
+        TypeName queueType = ParameterizedTypeName.get(ClassName.get(BlockingQueue.class), outcomeName);
+
+        TypeSpec outcome = TypeSpec.classBuilder(outcomeName.simpleName())
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .addField(Object.class, "result", Modifier.PRIVATE)
+                .addField(RuntimeException.class, "failure", Modifier.PRIVATE)
+                .build();
+
+        TypeSpec attempt = TypeSpec.anonymousClassBuilder("")
+                .addSuperinterface(Runnable.class)
+                .addMethod(MethodSpec.methodBuilder("run")
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .addStatement("$T outcome = new $T()", outcomeName, outcomeName)
+                        .beginControlFlow("try")
+                        .addStatement("outcome.result = timed(call)")
+                        .nextControlFlow("catch ($T e)", RuntimeException.class)
+                        .addStatement("outcome.failure = e")
+                        .endControlFlow()
+                        .beginControlFlow("synchronized (outcomes)")
+                        .beginControlFlow("if (!decided.get())")
+                        .addStatement("outcomes.add(outcome)")
+                        .addStatement("return")
+                        .endControlFlow()
+                        .endControlFlow()
+                        .addStatement("close(outcome.result)")
+                        .addStatement("close(outcome.failure)")
+                        .build())
+                .build();
+
+        return TypeSpec.classBuilder(RETRY_POLICY)
+                .addJavadoc("Retries and hedging of idempotent calls. I/O failures and 502, 503 and 504 responses are retried after a\n")
+                .addJavadoc("random delay of up to the backoff, doubled for every attempt, while the retry budget lasts. Every call adds\n")
+                .addJavadoc("the budget ratio to the budget, which starts full at $L, and every retry or hedge takes one from it.\n", 10)
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                .addField(FieldSpec.builder(retryName, "NONE", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("new $T(1, 0, 0, 0)", retryName)
+                        .build())
+                .addField(FieldSpec.builder(double.class, "MAX_BUDGET", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("10")
+                        .build())
+                .addField(FieldSpec.builder(int.class, "LATENCY_SAMPLES", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("128")
+                        .build())
+                .addField(FieldSpec.builder(int.class, "HEDGE_DELAY_INTERVAL", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("32")
+                        .build())
+                .addField(int.class, "maxAttempts", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(long.class, "backoffMillis", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(long.class, "maxBackoffMillis", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(double.class, "budgetRatio", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(double.class, "hedgePercentile", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(ExecutorService.class, "hedgeExecutor", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(policiesType, "byMethod", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(FieldSpec.builder(long[].class, "latencies", Modifier.PRIVATE, Modifier.FINAL)
+                        .initializer("new long[LATENCY_SAMPLES]")
+                        .build())
+                .addField(int.class, "latencyCount", Modifier.PRIVATE)
+                .addField(int.class, "nextLatency", Modifier.PRIVATE)
+                .addField(FieldSpec.builder(long.class, "hedgeDelayNanos", Modifier.PRIVATE, Modifier.VOLATILE)
+                        .initializer("$T.MAX_VALUE", Long.class)
+                        .build())
+                .addField(FieldSpec.builder(double.class, "budget", Modifier.PRIVATE)
+                        .initializer("MAX_BUDGET")
+                        .build())
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addJavadoc("@param maxAttempts attempts per call, the first included\n")
+                        .addJavadoc("@param backoffMillis longest delay before the first retry\n")
+                        .addJavadoc("@param maxBackoffMillis longest delay before any retry\n")
+                        .addJavadoc("@param budgetRatio retries and hedges allowed per call on average, such as 0.1, so retries cannot\n")
+                        .addJavadoc("multiply the load on a struggling server\n")
+                        .addModifiers(Modifier.PUBLIC)
+                        .addParameter(int.class, "maxAttempts")
+                        .addParameter(long.class, "backoffMillis")
+                        .addParameter(long.class, "maxBackoffMillis")
+                        .addParameter(double.class, "budgetRatio")
+                        .addStatement("this(maxAttempts, backoffMillis, maxBackoffMillis, budgetRatio, 0, null, $T.<$T, $T>emptyMap())",
+                                Collections.class, String.class, retryName)
+                        .build())
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(Modifier.PRIVATE)
+                        .addParameter(int.class, "maxAttempts")
+                        .addParameter(long.class, "backoffMillis")
+                        .addParameter(long.class, "maxBackoffMillis")
+                        .addParameter(double.class, "budgetRatio")
+                        .addParameter(double.class, "hedgePercentile")
+                        .addParameter(ExecutorService.class, "hedgeExecutor")
+                        .addParameter(policiesType, "byMethod")
+                        .addStatement("this.maxAttempts = maxAttempts")
+                        .addStatement("this.backoffMillis = backoffMillis")
+                        .addStatement("this.maxBackoffMillis = maxBackoffMillis")
+                        .addStatement("this.budgetRatio = budgetRatio")
+                        .addStatement("this.hedgePercentile = hedgePercentile")
+                        .addStatement("this.hedgeExecutor = hedgeExecutor")
+                        .addStatement("this.byMethod = byMethod")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("hedged")
+                        .addJavadoc("@param percentile latency percentile of recent attempts, such as 95, after which a second attempt is\n")
+                        .addJavadoc("sent and whichever succeeds first is taken. Calls are not hedged until $L attempts were timed.\n", 32)
+                        .addJavadoc("@param executor runs the attempts of hedged calls\n")
+                        .addJavadoc("@return copy of this policy that also hedges\n")
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(retryName)
+                        .addParameter(double.class, "percentile")
+                        .addParameter(ExecutorService.class, "executor")
+                        .addStatement("return new $T(maxAttempts, backoffMillis, maxBackoffMillis, budgetRatio, percentile, executor, byMethod)", retryName)
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("withMethod")
+                        .addJavadoc("@param method client method name\n")
+                        .addJavadoc("@param policy used for the method instead of this one\n")
+                        .addJavadoc("@return copy of this policy with the override\n")
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(retryName)
+                        .addParameter(String.class, "method")
+                        .addParameter(retryName, "policy")
+                        .addStatement("$T policies = new $T<$T, $T>(byMethod)", policiesType, HashMap.class, String.class, retryName)
+                        .addStatement("policies.put(method, policy)")
+                        .addStatement("return new $T(maxAttempts, backoffMillis, maxBackoffMillis, budgetRatio, hedgePercentile, hedgeExecutor, policies)", retryName)
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("forMethod")
+                        .returns(retryName)
+                        .addParameter(String.class, "method")
+                        .addStatement("$T policy = byMethod.get(method)", retryName)
+                        .addStatement("return policy != null ? policy : this")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("call")
+                        .addTypeVariable(t)
+                        .returns(t)
+                        .addParameter(callableType, "call")
+                        .beginControlFlow("if (maxAttempts <= 1 && hedgeExecutor == null)")
+                        .addStatement("return invoke(call)")
+                        .endControlFlow()
+                        .beginControlFlow("synchronized (this)")
+                        .addStatement("budget = $T.min(budget + budgetRatio, MAX_BUDGET)", Math.class)
+                        .endControlFlow()
+                        .beginControlFlow("for (int attempt = 1; ; attempt++)")
+                        .addStatement("$T result", t)
+                        .beginControlFlow("try")
+                        .addStatement("result = hedgeExecutor != null ? hedge(call) : timed(call)")
+                        .nextControlFlow("catch ($T e)", RuntimeException.class)
+                        .addStatement("boolean retryable = e instanceof $T || (e instanceof $T && retryable((($T) e).getResponse().getStatus()))",
+                                ProcessingException.class, WebApplicationException.class, WebApplicationException.class)
+                        .beginControlFlow("if (attempt >= maxAttempts || !retryable || !withdraw())")
+                        .addStatement("throw e")
+                        .endControlFlow()
+                        .addStatement("close(e)")
+                        .addStatement("backoff(attempt)")
+                        .addStatement("continue")
+                        .endControlFlow()
+                        .beginControlFlow("if (result instanceof $T && attempt < maxAttempts && retryable((($T) result).getStatus()) && withdraw())", Response.class, Response.class)
+                        .addStatement("close(result)")
+                        .addStatement("backoff(attempt)")
+                        .addStatement("continue")
+                        .endControlFlow()
+                        .addStatement("return result")
+                        .endControlFlow()
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("hedge")
+                        .addJavadoc("Runs a second attempt once the first takes longer than the hedge delay, taking the first success.\n")
+                        .addJavadoc("Attempts finishing after the call returned, and failures superseded by another outcome, close their response.\n")
+                        .addAnnotation(AnnotationSpec.builder(SuppressWarnings.class).addMember("value", "$S", "unchecked").build())
+                        .addModifiers(Modifier.PRIVATE)
+                        .addTypeVariable(t)
+                        .returns(t)
+                        .addParameter(callableType, "call", Modifier.FINAL)
+                        .addStatement("final $T outcomes = new $T<$T>()", queueType, LinkedBlockingQueue.class, outcomeName)
+                        .addStatement("final $T decided = new $T()", AtomicBoolean.class, AtomicBoolean.class)
+                        .addStatement("$T attempt = $L", Runnable.class, attempt)
+                        .addStatement("hedgeExecutor.execute(attempt)")
+                        .addStatement("int pending = 1")
+                        .addStatement("$T failure = null", RuntimeException.class)
+                        .beginControlFlow("try")
+                        .addStatement("$T outcome = outcomes.poll(hedgeDelayNanos, $T.NANOSECONDS)", outcomeName, TimeUnit.class)
+                        .beginControlFlow("if (outcome == null && withdraw())")
+                        .beginControlFlow("try")
+                        .addStatement("hedgeExecutor.execute(attempt)")
+                        .addStatement("pending++")
+                        .nextControlFlow("catch ($T e)", RejectedExecutionException.class)
+                        .addCode("//carry on with the first attempt alone\n")
+                        .endControlFlow()
+                        .endControlFlow()
+                        .beginControlFlow("while (true)")
+                        .beginControlFlow("if (outcome == null)")
+                        .addStatement("outcome = outcomes.take()")
+                        .endControlFlow()
+                        .addStatement("pending--")
+                        .beginControlFlow("if (outcome.failure == null)")
+                        .addStatement("close(failure)")
+                        .addStatement("return ($T) outcome.result", t)
+                        .endControlFlow()
+                        .beginControlFlow("if (failure == null)")
+                        .addStatement("failure = outcome.failure")
+                        .nextControlFlow("else")
+                        .addStatement("close(outcome.failure)")
+                        .endControlFlow()
+                        .beginControlFlow("if (pending == 0)")
+                        .addStatement("throw failure")
+                        .endControlFlow()
+                        .addStatement("outcome = null")
+                        .endControlFlow()
+                        .nextControlFlow("catch ($T e)", InterruptedException.class)
+                        .addStatement("$T.currentThread().interrupt()", Thread.class)
+                        .addStatement("throw new $T(e)", ProcessingException.class)
+                        .nextControlFlow("finally")
+                        .beginControlFlow("synchronized (outcomes)")
+                        .addStatement("decided.set(true)")
+                        .beginControlFlow("for ($T late : outcomes)", outcomeName)
+                        .addStatement("close(late.result)")
+                        .addStatement("close(late.failure)")
+                        .endControlFlow()
+                        .endControlFlow()
+                        .endControlFlow()
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("timed")
+                        .addModifiers(Modifier.PRIVATE)
+                        .addTypeVariable(t)
+                        .returns(t)
+                        .addParameter(callableType, "call")
+                        .beginControlFlow("if (hedgeExecutor == null)")
+                        .addStatement("return invoke(call)")
+                        .endControlFlow()
+                        .addStatement("long start = $T.nanoTime()", System.class)
+                        .addStatement("$T result = invoke(call)", t)
+                        .addStatement("record($T.nanoTime() - start)", System.class)
+                        .addStatement("return result")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("record")
+                        .addModifiers(Modifier.PRIVATE, Modifier.SYNCHRONIZED)
+                        .addParameter(long.class, "nanos")
+                        .addStatement("latencies[nextLatency] = nanos")
+                        .addStatement("nextLatency = (nextLatency + 1) % LATENCY_SAMPLES")
+                        .beginControlFlow("if (++latencyCount % HEDGE_DELAY_INTERVAL == 0)")
+                        .addStatement("long[] sorted = $T.copyOf(latencies, $T.min(latencyCount, LATENCY_SAMPLES))", Arrays.class, Math.class)
+                        .addStatement("$T.sort(sorted)", Arrays.class)
+                        .addStatement("int index = (int) $T.ceil(hedgePercentile / 100 * sorted.length) - 1", Math.class)
+                        .addStatement("hedgeDelayNanos = sorted[$T.max(0, $T.min(sorted.length - 1, index))]", Math.class, Math.class)
+                        .addStatement("latencyCount = $T.min(latencyCount, LATENCY_SAMPLES)", Math.class)
+                        .endControlFlow()
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("withdraw")
+                        .addModifiers(Modifier.PRIVATE, Modifier.SYNCHRONIZED)
+                        .returns(boolean.class)
+                        .beginControlFlow("if (budget < 1)")
+                        .addStatement("return false")
+                        .endControlFlow()
+                        .addStatement("budget -= 1")
+                        .addStatement("return true")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("backoff")
+                        .addModifiers(Modifier.PRIVATE)
+                        .addParameter(int.class, "attempt")
+                        .addStatement("long limit = $T.min(maxBackoffMillis, backoffMillis << $T.min(attempt - 1, 20))", Math.class, Math.class)
+                        .beginControlFlow("try")
+                        .addStatement("$T.sleep((long) ($T.random() * limit))", Thread.class, Math.class)
+                        .nextControlFlow("catch ($T e)", InterruptedException.class)
+                        .addStatement("$T.currentThread().interrupt()", Thread.class)
+                        .addStatement("throw new $T(e)", ProcessingException.class)
+                        .endControlFlow()
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("retryable")
+                        .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                        .returns(boolean.class)
+                        .addParameter(int.class, "status")
+                        .addStatement("return status == 502 || status == 503 || status == 504")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("invoke")
+                        .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                        .addTypeVariable(t)
+                        .returns(t)
+                        .addParameter(callableType, "call")
+                        .beginControlFlow("try")
+                        .addStatement("return call.call()")
+                        .nextControlFlow("catch ($T e)", RuntimeException.class)
+                        .addStatement("throw e")
+                        .nextControlFlow("catch ($T e)", Exception.class)
+                        .addStatement("throw new $T(e)", ProcessingException.class)
+                        .endControlFlow()
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("close")
+                        .addJavadoc("Closes a Response result, or the Response of a WebApplicationException failure.\n")
+                        .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                        .addParameter(Object.class, "outcome")
+                        .beginControlFlow("if (outcome instanceof $T)", Response.class)
+                        .addStatement("(($T) outcome).close()", Response.class)
+                        .nextControlFlow("else if (outcome instanceof $T)", WebApplicationException.class)
+                        .addStatement("(($T) outcome).getResponse().close()", WebApplicationException.class)
+                        .endControlFlow()
+                        .build())
+                .addType(outcome)
+                .build();
+    }
+
+    /**
+     * Nested listener interface of instrumented clients, with a no-op instance for clients built without one. The
+     * interface is the same for every client, so one class can implement those of many clients.
+     */
+    private static TypeSpec callListenerSupport(ClassName listenerName) {
+        MethodSpec.Builder onCall = MethodSpec.methodBuilder("onCall")
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(String.class, "method")
+                .addParameter(String.class, "verb")
+                .addParameter(String.class, "pathTemplate")
+                .addParameter(long.class, "startNanos")
+                .addParameter(long.class, "endNanos")
+                .addParameter(int.class, "status")
+                .addParameter(T_FAILURE_TYPE, "failure");
+        TypeSpec none = TypeSpec.anonymousClassBuilder("")
+                .addSuperinterface(listenerName)
+                .addMethod(onCall.build().toBuilder()
+                        .addAnnotation(Override.class)
+                        .build())
+                .build();
+        return TypeSpec.interfaceBuilder(CALL_LISTENER)
+                .addJavadoc("Told about every call of the client.\n")
+                .addModifiers(Modifier.PUBLIC)
+                .addField(FieldSpec.builder(listenerName, "NONE", Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("$L", none)
+                        .build())
+                .addMethod(onCall
+                        .addJavadoc("Called from the calling thread once the call is done.\n\n")
+                        .addJavadoc("@param method client method name\n")
+                        .addJavadoc("@param verb HTTP method\n")
+                        .addJavadoc("@param pathTemplate resource path, such as example/{exampleKey}\n")
+                        .addJavadoc("@param startNanos {@link System#nanoTime()} before the call\n")
+                        .addJavadoc("@param endNanos {@link System#nanoTime()} after the call\n")
+                        .addJavadoc("@param status status of the last response received for the call, else 0, such as for an I/O\n")
+                        .addJavadoc("failure, a cache hit or a call joining one in flight\n")
+                        .addJavadoc("@param failure type of the exception the call threw, null on success\n")
+                        .addModifiers(Modifier.ABSTRACT)
+                        .build())
+                .build();
+    }
+
+    /**
+     * Nested response filter of clients generated with the call listener option, so calls see the response status
+     * whether they return an entity, a Response or nothing.
+     */
+    private static TypeSpec callStatusSupport(ClassName callStatusName) {
+        return TypeSpec.classBuilder(CALL_STATUS)
+                .addJavadoc("Copies the response status into the int[] holder a call sets as a request property.\n")
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .addSuperinterface(ClientResponseFilter.class)
+                .addField(FieldSpec.builder(String.class, "PROPERTY", Modifier.STATIC, Modifier.FINAL)
+                        .initializer("$T.class.getName()", callStatusName)
+                        .build())
+                .addField(FieldSpec.builder(callStatusName, "FILTER", Modifier.STATIC, Modifier.FINAL)
+                        .initializer("new $T()", callStatusName)
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("filter")
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .addParameter(ClientRequestContext.class, "request")
+                        .addParameter(ClientResponseContext.class, "response")
+                        .addStatement("Object holder = request.getProperty(PROPERTY)")
+                        .beginControlFlow("if (holder instanceof int[])")
+                        .addStatement("((int[]) holder)[0] = response.getStatus()")
+                        .endControlFlow()
+                        .build())
+                .build();
+    }
+
+    private void params(MethodSpec.Builder builder, List<ParamData> params, StringBuilder statement, StringBuilder requestParams, boolean iface, boolean captured) {
         for (ParamData paramData : params) {
             if (iface || paramData.kind != ParamData.Kind.CONTEXT) {
                 handleParam(statement, requestParams, paramData);
-                builder.addParameter(paramData.genericType, paramData.label);
+                if (captured) {
+                    builder.addParameter(paramData.typeName, paramData.label, Modifier.FINAL);
+                } else {
+                    builder.addParameter(paramData.typeName, paramData.label);
+                }
             }
         }
     }
@@ -175,9 +2363,9 @@ public class ClientGenerator {
                 requestParams.append(String.format(".header(\"%s\", %s)\n", paramData.label, paramData.call));
                 break;
             case COOKIE:
-                if (paramData.type == Cookie.class) {
+                if (paramData.typeName.equals(T_COOKIE)) {
                     requestParams.append(String.format(".cookie(%s)\n", paramData.call));
-                } else if (paramData.type == String.class) {
+                } else if (paramData.typeName.equals(T_STRING)) {
                     requestParams.append(String.format(".cookie(\"%s\", %s)\n", paramData.label, paramData.call));
                 } else {
                     throw new IllegalArgumentException("cookie parameter type not supported: " + paramData.label);
@@ -191,7 +2379,7 @@ public class ClientGenerator {
         }
     }
 
-    private void pathing(String classPath, List<ParamData> classParams, String methodPath, List<ParamData> methodParams, StringBuilder statement) {
+    private void pathing(String classPath, List<ParamData> classParams, String methodPath, List<ParamData> methodParams, StringBuilder statement, boolean precompiled) {
         Map<String, ParamData> paramByPath = new HashMap<String, ParamData>();
         List<ParamData> params = new ArrayList<ParamData>();
         params.addAll(classParams);
@@ -207,68 +2395,183 @@ public class ClientGenerator {
             }
         }
 
-        handlePath(classPath, statement, paramByPath);
+        handlePath(classPath, statement, paramByPath, precompiled);
         if (methodPath != null) {
-            handlePath(methodPath, statement, paramByPath);
+            handlePath(methodPath, statement, paramByPath, precompiled);
         }
     }
 
-    private void handlePath(String path, StringBuilder statement, Map<String, ParamData> paramByPath) {
+    private void handlePath(String path, StringBuilder statement, Map<String, ParamData> paramByPath, boolean precompiled) {
         for (String part : path.split("/")) {
             if (part.startsWith("{") && part.endsWith("}")) {
-                String trimmed = part.substring(1, part.length() - 1);
-                if (trimmed.contains(":")) {
-                    trimmed = trimmed.substring(0, trimmed.indexOf(':'));
-                }
+                String trimmed = templateName(part);
                 ParamData paramData = paramByPath.get(trimmed);
-                if (paramData != null) {
-                    statement.append(String.format(".path(%s)\n", paramData.call));
-                } else {
+                if (paramData == null) {
                     throw new IllegalStateException("path param mismatch: " + trimmed);
+                } else if (precompiled) {
+                    statement.append(String.format(".resolveTemplate(\"%s\", %s)\n", trimmed, paramData.call));
+                } else {
+                    statement.append(String.format(".path(%s)\n", paramData.call));
                 }
-            } else if (!part.isEmpty()){
+            } else if (!part.isEmpty() && !precompiled) {
                 statement.append(String.format(".path(\"%s\")\n", part));
             }
         }
     }
 
-    private void createFormEntity(MethodSpec.Builder builder, MethodData methodData) {
-        if (methodData.form) {
+    private static String templateName(String part) {
+        String trimmed = part.substring(1, part.length() - 1);
+        if (trimmed.contains(":")) {
+            trimmed = trimmed.substring(0, trimmed.indexOf(':'));
+        }
+        return trimmed;
+    }
+
+    /**
+     * @return class and method path joined into a single template, with path param regexes removed
+     */
+    private static String template(String classPath, String methodPath) {
+        StringBuilder template = new StringBuilder();
+        for (String path : new String[]{classPath, methodPath}) {
+            if (path != null) {
+                for (String part : path.split("/")) {
+                    if (!part.isEmpty()) {
+                        if (template.length() > 0) {
+                            template.append('/');
+                        }
+                        if (part.startsWith("{") && part.endsWith("}")) {
+                            template.append('{').append(templateName(part)).append('}');
+                        } else {
+                            template.append(part);
+                        }
+                    }
+                }
+            }
+        }
+        return template.toString();
+    }
+
+    /**
+     * @return constant name built from the simple names in the type, unique among the taken names
+     */
+    private static String genericTypeName(TypeName type, Collection<String> taken) {
+        StringBuilder name = new StringBuilder();
+        appendConstantName(type, name);
+        String base = name.append("_TYPE").toString();
+        String unique = base;
+        for (int i = 2; taken.contains(unique); i++) {
+            unique = base + i;
+        }
+        return unique;
+    }
+
+    private static void appendConstantName(TypeName type, StringBuilder name) {
+        if (type instanceof ParameterizedTypeName) {
+            appendConstantName(((ParameterizedTypeName) type).rawType, name);
+            for (TypeName arg : ((ParameterizedTypeName) type).typeArguments) {
+                appendConstantName(arg, name);
+            }
+        } else if (type instanceof ArrayTypeName) {
+            appendConstantName(((ArrayTypeName) type).componentType, name);
+            appendConstantName(ClassName.get("", "Array"), name);
+        } else if (type instanceof WildcardTypeName) {
+            WildcardTypeName wildcard = (WildcardTypeName) type;
+            appendConstantName(wildcard.lowerBounds.isEmpty() ? wildcard.upperBounds.get(0) : wildcard.lowerBounds.get(0), name);
+        } else {
+            String simpleName = type instanceof ClassName ? ((ClassName) type).simpleName() : type.toString();
+            if (name.length() > 0) {
+                name.append('_');
+            }
+            for (int i = 0; i < simpleName.length(); i++) {
+                char c = simpleName.charAt(i);
+                if (i > 0 && Character.isUpperCase(c) && !Character.isUpperCase(simpleName.charAt(i - 1))) {
+                    name.append('_');
+                }
+                name.append(Character.isJavaIdentifierPart(c) ? Character.toUpperCase(c) : '_');
+            }
+        }
+    }
+
+    /**
+     * @return camel case field name built from the template segments, unique among the taken names
+     */
+    private static String targetName(String template, Collection<String> taken) {
+        StringBuilder name = new StringBuilder();
+        boolean upper = false;
+        for (char c : template.toCharArray()) {
+            if (Character.isJavaIdentifierPart(c) && c != '$') {
+                name.append(upper && name.length() > 0 ? Character.toUpperCase(c) : c);
+                upper = false;
+            } else {
+                upper = true;
+            }
+        }
+        if (name.length() == 0 || !Character.isJavaIdentifierStart(name.charAt(0))) {
+            name.insert(0, name.length() == 0 ? "root" : "path");
+        }
+        String base = name.append("Target").toString();
+        String unique = base;
+        for (int i = 2; taken.contains(unique); i++) {
+            unique = base + i;
+        }
+        return unique;
+    }
+
+    private void createFormEntity(MethodSpec.Builder builder, ClassName client, MethodData methodData, boolean captured) {
+        if (methodData.form && options.contains(Option.FORM_ENCODER)) {
+            ClassName encoderName = client.nestedClass(FORM_ENCODER);
+            builder.addStatement("$T form = $T.get()", encoderName, encoderName);
+            for (ParamData paramData : methodData.params) {
+                if (paramData.kind == ParamData.Kind.FORM) {
+                    if (paramData.container != null) {
+                        TypeName elementType = paramData.getTypeNameArgs().get(0);
+                        builder.beginControlFlow("for ($T $L_i : $L)", elementType, paramData.label, paramData.label)
+                                .addStatement("form.add($S, $L_i)", paramData.label, paramData.label)
+                                .endControlFlow();
+                    } else if (paramData.typeName.equals(TypeName.CHAR) || paramData.typeName.equals(TypeName.BYTE)) {
+                        builder.addStatement("form.add($S, $T.valueOf($L))", paramData.label, String.class, paramData.label);
+                    } else {
+                        builder.addStatement("form.add($S, $L)", paramData.label, paramData.label);
+                    }
+                }
+            }
+            builder.addStatement(captured ? "final byte[] entity = form.toBytes()" : "byte[] entity = form.toBytes()");
+        } else if (methodData.form) {
             builder.addStatement("$T<String, String> mmap = new MultivaluedHashMap<String, String>()", MultivaluedHashMap.class);
             for (ParamData paramData : methodData.params) {
                 if (paramData.kind == ParamData.Kind.FORM) {
-                    if (List.class.isAssignableFrom(paramData.type)) {
-                        Type setType = paramData.getGenericTypeArgs()[0];
-                        if (setType == String.class) {
+                    if (paramData.container == ParamData.Container.LIST) {
+                        TypeName setType = paramData.getTypeNameArgs().get(0);
+                        if (setType.equals(T_STRING)) {
                             builder.addStatement("mmap.addAll($S, $L)", paramData.label, paramData.label);
                         } else {
                             builder.beginControlFlow("for ($T $L_i : $L)", setType, paramData.label, paramData.label);
                             builder.addStatement("mmap.add($S, $L_i != null ? $L_i.toString() : null)", paramData.label, paramData.label, paramData.label);
                             builder.endControlFlow();
                         }
-                    } else if (Set.class.isAssignableFrom(paramData.type)) {
-                        Type setType = paramData.getGenericTypeArgs()[0];
-                        if (setType == String.class) {
+                    } else if (paramData.container == ParamData.Container.SET) {
+                        TypeName setType = paramData.getTypeNameArgs().get(0);
+                        if (setType.equals(T_STRING)) {
                             builder.addStatement("mmap.addAll($S, new $T<$T>($L))", paramData.label, ArrayList.class, setType, paramData.label);
                         } else {
                             builder.beginControlFlow("for ($T $L_i : $L)", setType, paramData.label, paramData.label);
                             builder.addStatement("mmap.add($S, $L_i != null ? $L_i.toString() : null)", paramData.label, paramData.label, paramData.label);
                             builder.endControlFlow();
                         }
-                    } else if (paramData.type == long.class) {
+                    } else if (paramData.typeName.equals(TypeName.LONG)) {
                         builder.addStatement("mmap.add($S, $T.toString($L))", paramData.label, Long.class, paramData.label);
-                    } else if (paramData.type == int.class) {
+                    } else if (paramData.typeName.equals(TypeName.INT)) {
                         builder.addStatement("mmap.add($S, $T.toString($L))", paramData.label, Integer.class, paramData.label);
-                    } else if (paramData.type == short.class) {
+                    } else if (paramData.typeName.equals(TypeName.SHORT)) {
                         builder.addStatement("mmap.add($S, $T.toString($L))", paramData.label, Short.class, paramData.label);
-                    } else if (paramData.type == double.class) {
+                    } else if (paramData.typeName.equals(TypeName.DOUBLE)) {
                         builder.addStatement("mmap.add($S, $T.toString($L))", paramData.label, Double.class, paramData.label);
-                    } else if (paramData.type == float.class) {
+                    } else if (paramData.typeName.equals(TypeName.FLOAT)) {
                         builder.addStatement("mmap.add($S, $T.toString($L))", paramData.label, Float.class, paramData.label);
-                    } else if (paramData.type == boolean.class) {
+                    } else if (paramData.typeName.equals(TypeName.BOOLEAN)) {
                         builder.addStatement("mmap.add($S, $T.toString($L))", paramData.label, Boolean.class, paramData.label);
                     } else {
-                        if (paramData.type == String.class) {
+                        if (paramData.typeName.equals(T_STRING)) {
                             builder.addStatement("mmap.add($S, $L)", paramData.label, paramData.label);
                         } else {
                             builder.addStatement("mmap.add($S, $L != null ? $L.toString() : null)", paramData.label, paramData.label, paramData.label);
@@ -276,71 +2579,247 @@ public class ClientGenerator {
                     }
                 }
             }
-            builder.addStatement("$T entity = new Form(mmap)", Form.class);
+            builder.addStatement(captured ? "final $T entity = new Form(mmap)" : "$T entity = new Form(mmap)", Form.class);
         }
     }
 
-    private void get(MethodSpec.Builder builder, String produces, String statement, Type returnType) {
-        if (returnType == void.class) {
-            String stmt = String.format("$L%s.get()", statement);
-            builder.addStatement(stmt, L_BASE, produces);
-        } else if (returnType == Response.class) {
-            String stmt = String.format("return $L%s.get()", statement);
-            builder.addStatement(stmt, L_BASE, produces);
-        } else if (returnType instanceof ParameterizedType) {
-            String stmt = String.format("return $L%s.get(new $T<$T>(){})", statement);
-            builder.addStatement(stmt, L_BASE, produces, GenericType.class, returnType);
+    /**
+     * @return per thread application/x-www-form-urlencoded writer, escaping like {@link java.net.URLEncoder} in UTF-8
+     */
+    private static TypeSpec formEncoderSupport(ClassName encoderName) {
+        return TypeSpec.classBuilder(FORM_ENCODER)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .addField(FieldSpec.builder(int.class, "INITIAL_CAPACITY", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("256")
+                        .build())
+                .addField(FieldSpec.builder(int.class, "MAX_RETAINED_CAPACITY", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("64 * 1024")
+                        .build())
+                .addField(FieldSpec.builder(byte[].class, "HEX", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("{'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F'}")
+                        .build())
+                .addField(FieldSpec.builder(ParameterizedTypeName.get(ClassName.get(ThreadLocal.class), encoderName), "LOCAL", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                        .initializer("$L", TypeSpec.anonymousClassBuilder("")
+                                .superclass(ParameterizedTypeName.get(ClassName.get(ThreadLocal.class), encoderName))
+                                .addMethod(MethodSpec.methodBuilder("initialValue")
+                                        .addAnnotation(Override.class)
+                                        .addModifiers(Modifier.PROTECTED)
+                                        .returns(encoderName)
+                                        .addStatement("return new $T()", encoderName)
+                                        .build())
+                                .build())
+                        .build())
+                .addField(FieldSpec.builder(byte[].class, "buffer", Modifier.PRIVATE)
+                        .initializer("new byte[INITIAL_CAPACITY]")
+                        .build())
+                .addField(int.class, "size", Modifier.PRIVATE)
+                .addMethod(MethodSpec.methodBuilder("get")
+                        .addJavadoc("@return this thread's encoder, emptied\n")
+                        .addModifiers(Modifier.STATIC)
+                        .returns(encoderName)
+                        .addStatement("$T form = LOCAL.get()", encoderName)
+                        .addStatement("form.size = 0")
+                        .addStatement("return form")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("add")
+                        .addJavadoc("Skips null values, as a Form does.\n")
+                        .addParameter(String.class, "name")
+                        .addParameter(String.class, "value")
+                        .beginControlFlow("if (value != null)")
+                        .addStatement("name(name)")
+                        .addStatement("encode(value)")
+                        .endControlFlow()
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("add")
+                        .addParameter(String.class, "name")
+                        .addParameter(Object.class, "value")
+                        .beginControlFlow("if (value != null)")
+                        .addStatement("name(name)")
+                        .addStatement("encode(value.toString())")
+                        .endControlFlow()
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("add")
+                        .addParameter(String.class, "name")
+                        .addParameter(long.class, "value")
+                        .addStatement("name(name)")
+                        .beginControlFlow("if (value == $T.MIN_VALUE)", Long.class)
+                        .addStatement("encode($T.toString(value))", Long.class)
+                        .addStatement("return")
+                        .endControlFlow()
+                        .addStatement("ensure(20)")
+                        .beginControlFlow("if (value < 0)")
+                        .addStatement("buffer[size++] = '-'")
+                        .addStatement("value = -value")
+                        .endControlFlow()
+                        .addStatement("int start = size")
+                        .beginControlFlow("do")
+                        .addStatement("buffer[size++] = (byte) ('0' + value % 10)")
+                        .addStatement("value /= 10")
+                        .endControlFlow("while (value != 0)")
+                        .beginControlFlow("for (int i = start, j = size - 1; i < j; i++, j--)")
+                        .addStatement("byte digit = buffer[i]")
+                        .addStatement("buffer[i] = buffer[j]")
+                        .addStatement("buffer[j] = digit")
+                        .endControlFlow()
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("add")
+                        .addParameter(String.class, "name")
+                        .addParameter(double.class, "value")
+                        .addStatement("name(name)")
+                        .addStatement("encode($T.toString(value))", Double.class)
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("add")
+                        .addParameter(String.class, "name")
+                        .addParameter(float.class, "value")
+                        .addStatement("name(name)")
+                        .addStatement("encode($T.toString(value))", Float.class)
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("add")
+                        .addParameter(String.class, "name")
+                        .addParameter(boolean.class, "value")
+                        .addStatement("name(name)")
+                        .addStatement("encode(value ? \"true\" : \"false\")")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("toBytes")
+                        .addJavadoc("@return copy of the encoded form, leaving the buffer free for reuse\n")
+                        .returns(byte[].class)
+                        .addStatement("byte[] bytes = $T.copyOf(buffer, size)", Arrays.class)
+                        .beginControlFlow("if (buffer.length > MAX_RETAINED_CAPACITY)")
+                        .addStatement("buffer = new byte[INITIAL_CAPACITY]")
+                        .endControlFlow()
+                        .addStatement("return bytes")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("name")
+                        .addModifiers(Modifier.PRIVATE)
+                        .addParameter(String.class, "name")
+                        .beginControlFlow("if (size > 0)")
+                        .addStatement("ensure(1)")
+                        .addStatement("buffer[size++] = '&'")
+                        .endControlFlow()
+                        .addStatement("encode(name)")
+                        .addStatement("ensure(1)")
+                        .addStatement("buffer[size++] = '='")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("encode")
+                        .addModifiers(Modifier.PRIVATE)
+                        .addParameter(String.class, "value")
+                        .beginControlFlow("for (int i = 0; i < value.length(); )")
+                        .addStatement("int end = $T.min(value.length(), i + 1024)", Math.class)
+                        .addCode("//at most 9 bytes per char, a percent escaped 3 byte sequence. sized per chunk so it cannot overflow\n")
+                        .addCode("//the extra 3 covers a surrogate pair split by the chunk end\n")
+                        .addStatement("ensure((end - i) * 9 + 3)")
+                        .beginControlFlow("for (; i < end; i++)")
+                        .addStatement("char c = value.charAt(i)")
+                        .beginControlFlow("if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '.' || c == '-' || c == '*' || c == '_')")
+                        .addStatement("buffer[size++] = (byte) c")
+                        .nextControlFlow("else if (c == ' ')")
+                        .addStatement("buffer[size++] = '+'")
+                        .nextControlFlow("else if (c < 0x80)")
+                        .addStatement("escape(c)")
+                        .nextControlFlow("else if (c < 0x800)")
+                        .addStatement("escape(0xC0 | (c >> 6))")
+                        .addStatement("escape(0x80 | (c & 0x3F))")
+                        .nextControlFlow("else if ($T.isHighSurrogate(c) && i + 1 < value.length() && $T.isLowSurrogate(value.charAt(i + 1)))", Character.class, Character.class)
+                        .addStatement("int codePoint = $T.toCodePoint(c, value.charAt(++i))", Character.class)
+                        .addStatement("escape(0xF0 | (codePoint >> 18))")
+                        .addStatement("escape(0x80 | ((codePoint >> 12) & 0x3F))")
+                        .addStatement("escape(0x80 | ((codePoint >> 6) & 0x3F))")
+                        .addStatement("escape(0x80 | (codePoint & 0x3F))")
+                        .nextControlFlow("else if (c >= $T.MIN_SURROGATE && c <= $T.MAX_SURROGATE)", Character.class, Character.class)
+                        .addCode("//unpaired, replaced like String.getBytes does\n")
+                        .addStatement("escape('?')")
+                        .nextControlFlow("else")
+                        .addStatement("escape(0xE0 | (c >> 12))")
+                        .addStatement("escape(0x80 | ((c >> 6) & 0x3F))")
+                        .addStatement("escape(0x80 | (c & 0x3F))")
+                        .endControlFlow()
+                        .endControlFlow()
+                        .endControlFlow()
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("escape")
+                        .addModifiers(Modifier.PRIVATE)
+                        .addParameter(int.class, "b")
+                        .addStatement("buffer[size++] = '%'")
+                        .addStatement("buffer[size++] = HEX[(b >> 4) & 0xF]")
+                        .addStatement("buffer[size++] = HEX[b & 0xF]")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("ensure")
+                        .addModifiers(Modifier.PRIVATE)
+                        .addParameter(int.class, "extra")
+                        .beginControlFlow("if (size + extra > buffer.length)")
+                        .addStatement("buffer = $T.copyOf(buffer, (int) $T.min(Integer.MAX_VALUE - 8, $T.max(buffer.length * 2L, (long) size + extra)))", Arrays.class, Math.class, Math.class)
+                        .endControlFlow()
+                        .build())
+                .build();
+    }
+
+    private void get(MethodSpec.Builder builder, String produces, String target, String statement, TypeName returnType, String genericType, CodeBlock responseResult) {
+        if (returnType.equals(TypeName.VOID) || returnType.equals(T_RESPONSE)) {
+            String stmt = String.format("$L$L%s.get()", statement);
+            builder.addStatement(stmt, responseResult, target, produces);
+        } else if (returnType instanceof ParameterizedTypeName) {
+            String stmt = String.format("return $L%s.get($L)", statement);
+            builder.addStatement(stmt, target, produces, genericType);
         } else {
             String stmt = String.format("return $L%s.get($T.class)", statement);
-            builder.addStatement(stmt, L_BASE, produces, returnType);
+            builder.addStatement(stmt, target, produces, returnType);
         }
     }
 
-    private void post(MethodSpec.Builder builder, String consumes, String produces, String statement, Type returnType) {
-        if (returnType == void.class) {
-            String stmt = String.format("$L%s.post($T.entity($L, $L))", statement);
-            builder.addStatement(stmt, L_BASE, produces, Entity.class, L_ENTITY, consumes);
-        } else if (returnType == Response.class) {
-            String stmt = String.format("return $L%s.post($T.entity($L, $L))", statement);
-            builder.addStatement(stmt, L_BASE, produces, Entity.class, L_ENTITY, consumes);
-        } else if (returnType instanceof ParameterizedType) {
-            String stmt = String.format("return $L%s.post($T.entity($L, $L), new $T<$T>(){})", statement);
-            builder.addStatement(stmt, L_BASE, produces, Entity.class, L_ENTITY, consumes, GenericType.class, returnType);
+    private void post(MethodSpec.Builder builder, String consumes, String produces, String target, String statement, TypeName returnType, String genericType, CodeBlock responseResult) {
+        if (returnType.equals(TypeName.VOID) || returnType.equals(T_RESPONSE)) {
+            String stmt = String.format("$L$L%s.post($T.entity($L, $L))", statement);
+            builder.addStatement(stmt, responseResult, target, produces, Entity.class, L_ENTITY, consumes);
+        } else if (returnType instanceof ParameterizedTypeName) {
+            String stmt = String.format("return $L%s.post($T.entity($L, $L), $L)", statement);
+            builder.addStatement(stmt, target, produces, Entity.class, L_ENTITY, consumes, genericType);
         } else {
             String stmt = String.format("return $L%s.post($T.entity($L, $L), $T.class)", statement);
-            builder.addStatement(stmt, L_BASE, produces, Entity.class, L_ENTITY, consumes, returnType);
+            builder.addStatement(stmt, target, produces, Entity.class, L_ENTITY, consumes, returnType);
         }
     }
 
-    private void delete(MethodSpec.Builder builder, String produces, String statement, Type returnType) {
-        if (returnType == void.class) {
-            String stmt = String.format("$L%s.delete()", statement);
-            builder.addStatement(stmt, L_BASE, produces);
-        } else if (returnType == Response.class) {
-            String stmt = String.format("return $L%s.delete()", statement);
-            builder.addStatement(stmt, L_BASE, produces);
-        } else if (returnType instanceof ParameterizedType) {
-            String stmt = String.format("return $L%s.delete(new $T<$T>(){})", statement);
-            builder.addStatement(stmt, L_BASE, produces, GenericType.class, returnType);
+    private void delete(MethodSpec.Builder builder, String produces, String target, String statement, TypeName returnType, String genericType, CodeBlock responseResult) {
+        if (returnType.equals(TypeName.VOID) || returnType.equals(T_RESPONSE)) {
+            String stmt = String.format("$L$L%s.delete()", statement);
+            builder.addStatement(stmt, responseResult, target, produces);
+        } else if (returnType instanceof ParameterizedTypeName) {
+            String stmt = String.format("return $L%s.delete($L)", statement);
+            builder.addStatement(stmt, target, produces, genericType);
         } else {
             String stmt = String.format("return $L%s.delete($T.class)", statement);
-            builder.addStatement(stmt, L_BASE, produces, returnType);
+            builder.addStatement(stmt, target, produces, returnType);
+        }
+    }
+
+    /**
+     * Invokes verbs without a shorthand of their own, such as PATCH, by name.
+     */
+    private void method(MethodSpec.Builder builder, String httpMethod, boolean hasEntity, String consumes, String produces, String target, String statement, TypeName returnType,
+                        String genericType, CodeBlock responseResult) {
+        CodeBlock args = hasEntity ? CodeBlock.of("$S, $T.entity($L, $L)", httpMethod, Entity.class, L_ENTITY, consumes) : CodeBlock.of("$S", httpMethod);
+        if (returnType.equals(TypeName.VOID) || returnType.equals(T_RESPONSE)) {
+            String stmt = String.format("$L$L%s.method($L)", statement);
+            builder.addStatement(stmt, responseResult, target, produces, args);
+        } else if (returnType instanceof ParameterizedTypeName) {
+            String stmt = String.format("return $L%s.method($L, $L)", statement);
+            builder.addStatement(stmt, target, produces, args, genericType);
+        } else {
+            String stmt = String.format("return $L%s.method($L, $T.class)", statement);
+            builder.addStatement(stmt, target, produces, args, returnType);
         }
     }
 
-    private void put(MethodSpec.Builder builder, String consumes, String produces, String statement, Type returnType) {
-        if (returnType == void.class) {
-            String stmt = String.format("$L%s.put($T.entity($L, $L))", statement);
-            builder.addStatement(stmt, L_BASE, produces, Entity.class, L_ENTITY, consumes);
-        } else if (returnType == Response.class) {
-            String stmt = String.format("return $L%s.put($T.entity($L, $L))", statement);
-            builder.addStatement(stmt, L_BASE, produces, Entity.class, L_ENTITY, consumes);
-        } else if (returnType instanceof ParameterizedType) {
-            String stmt = String.format("return $L%s.put($T.entity($L, $L), new $T<$T>(){})", statement);
-            builder.addStatement(stmt, L_BASE, produces, Entity.class, L_ENTITY, consumes, GenericType.class, returnType);
+    private void put(MethodSpec.Builder builder, String consumes, String produces, String target, String statement, TypeName returnType, String genericType, CodeBlock responseResult) {
+        if (returnType.equals(TypeName.VOID) || returnType.equals(T_RESPONSE)) {
+            String stmt = String.format("$L$L%s.put($T.entity($L, $L))", statement);
+            builder.addStatement(stmt, responseResult, target, produces, Entity.class, L_ENTITY, consumes);
+        } else if (returnType instanceof ParameterizedTypeName) {
+            String stmt = String.format("return $L%s.put($T.entity($L, $L), $L)", statement);
+            builder.addStatement(stmt, target, produces, Entity.class, L_ENTITY, consumes, genericType);
         } else {
             String stmt = String.format("return $L%s.put($T.entity($L, $L), $T.class)", statement);
-            builder.addStatement(stmt, L_BASE, produces, Entity.class, L_ENTITY, consumes, returnType);
+            builder.addStatement(stmt, target, produces, Entity.class, L_ENTITY, consumes, returnType);
         }
     }
 }
@@ -0,0 +1,100 @@
+package io.github.yeagy.jaxrs;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Generates JAX-RS resource clients during compilation, from any type annotated with @Path.
+ * <p>
+ * Registered as a service, but does nothing unless enabled with -Ajaxrs.client.gen=true.
+ * Otherwise every compile with this library on the classpath would start emitting clients.
+ * Use -Ajaxrs.client.async=true for asynchronous clients, -Ajaxrs.client.flavor=&lt;flavor&gt; for any other
+ * {@link ClientGenerator.Flavor}, and -Ajaxrs.client.&lt;option key&gt;=true
+ * for any of the {@link ClientGenerator.Option}s.
+ */
+@SupportedAnnotationTypes("javax.ws.rs.Path")
+@SupportedOptions({ClientProcessor.OPTION_ENABLED, ClientProcessor.OPTION_ASYNC, ClientProcessor.OPTION_FLAVOR})
+public class ClientProcessor extends AbstractProcessor {
+    static final String OPTION_ENABLED = "jaxrs.client.gen";
+    static final String OPTION_ASYNC = "jaxrs.client.async";
+    static final String OPTION_FLAVOR = "jaxrs.client.flavor";
+    static final String OPTION_PREFIX = "jaxrs.client.";
+
+    private final Set<String> generated = new HashSet<String>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        Set<String> options = new HashSet<String>(super.getSupportedOptions());
+        for (ClientGenerator.Option option : ClientGenerator.Option.values()) {
+            options.add(OPTION_PREFIX + option.getKey());
+        }
+        return options;
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (!isEnabled(OPTION_ENABLED) || annotations.isEmpty()) {
+            return false;
+        }
+        List<ClientGenerator.Option> options = new ArrayList<ClientGenerator.Option>();
+        for (ClientGenerator.Option option : ClientGenerator.Option.values()) {
+            if (isEnabled(OPTION_PREFIX + option.getKey())) {
+                options.add(option);
+            }
+        }
+        ClientGenerator.Flavor flavor = isEnabled(OPTION_ASYNC) ? ClientGenerator.Flavor.FUTURE : ClientGenerator.Flavor.SYNC;
+        String flavorName = processingEnv.getOptions().get(OPTION_FLAVOR);
+        if (flavorName != null) {
+            try {
+                flavor = ClientGenerator.Flavor.valueOf(flavorName.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "unknown client flavor: " + flavorName);
+                return false;
+            }
+        }
+        ClientGenerator generator = new ClientGenerator(flavor, options.toArray(new ClientGenerator.Option[options.size()]));
+        ElementAnalyzer analyzer = new ElementAnalyzer(processingEnv);
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                //method level @Path is handled along with its type
+                if (element.getKind() != ElementKind.CLASS && element.getKind() != ElementKind.INTERFACE) {
+                    continue;
+                }
+                TypeElement type = (TypeElement) element;
+                if (!generated.add(type.getQualifiedName().toString())) {
+                    continue;
+                }
+                try {
+                    generator.generate(analyzer.analyze(type), type).writeTo(processingEnv.getFiler());
+                } catch (IOException e) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "error writing client: " + e.getMessage(), type);
+                } catch (RuntimeException e) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "error generating client: " + e.getMessage(), type);
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean isEnabled(String option) {
+        return Boolean.parseBoolean(processingEnv.getOptions().get(option));
+    }
+}
@@ -0,0 +1,170 @@
+package io.github.yeagy.jaxrs;
+
+import javax.ws.rs.client.Client;
+import java.io.Closeable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Shares JAX-RS clients, and the connection and thread pools behind them, across the generated clients of a JVM.
+ * Endpoints use the default client unless a dedicated client was registered for a prefix of their URL. Pool sizes,
+ * keep-alive and async executors are tuned on those clients through the JAX-RS implementation's builder, since JAX-RS
+ * 2.0 has no portable settings for them.
+ */
+public class ClientRegistry implements Closeable {
+    private final Client defaultClient;
+    private final Map<String, Client> clientByPrefix = new LinkedHashMap<String, Client>();
+    private final ConcurrentMap<List<Object>, Object> generated = new ConcurrentHashMap<List<Object>, Object>();
+    private boolean closed;
+
+    /**
+     * @param defaultClient used by every endpoint without a registered client, closed along with the registry
+     */
+    public ClientRegistry(Client defaultClient) {
+        if (defaultClient == null) {
+            throw new IllegalArgumentException("default client required");
+        }
+        this.defaultClient = defaultClient;
+    }
+
+    /**
+     * @param urlPrefix endpoint URLs starting with this use the client, the longest registered prefix wins. It only
+     * matches whole host names and path segments: http://billing matches http://billing:8080 and http://billing/api
+     * but not http://billing-audit
+     * @param client dedicated client, such as one with a larger pool, closed along with the registry
+     * @return this registry
+     * @throws IllegalStateException the registry is closed
+     */
+    public synchronized ClientRegistry register(String urlPrefix, Client client) {
+        if (urlPrefix == null || client == null) {
+            throw new IllegalArgumentException("url prefix and client required");
+        }
+        checkOpen();
+        clientByPrefix.put(urlPrefix, client);
+        //clients already built for endpoints under the prefix are rebuilt on their next get
+        for (Iterator<List<Object>> keys = generated.keySet().iterator(); keys.hasNext(); ) {
+            if (matches(urlPrefix, (String) keys.next().get(1))) {
+                keys.remove();
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @param endpointUrl base URL of a resource
+     * @return the shared client to build clients of the endpoint on
+     * @throws IllegalStateException the registry is closed
+     */
+    public synchronized Client client(String endpointUrl) {
+        checkOpen();
+        Client client = defaultClient;
+        int matched = -1;
+        for (Map.Entry<String, Client> entry : clientByPrefix.entrySet()) {
+            if (entry.getKey().length() > matched && matches(entry.getKey(), endpointUrl)) {
+                client = entry.getValue();
+                matched = entry.getKey().length();
+            }
+        }
+        return client;
+    }
+
+    private static boolean matches(String urlPrefix, String endpointUrl) {
+        if (!endpointUrl.startsWith(urlPrefix)) {
+            return false;
+        }
+        if (endpointUrl.length() == urlPrefix.length() || urlPrefix.endsWith("/")) {
+            return true;
+        }
+        char next = endpointUrl.charAt(urlPrefix.length());
+        return next == '/' || next == ':';
+    }
+
+    /**
+     * Generated clients are thread safe, so one instance per type and endpoint URL is created and then reused.
+     * Clients are created through the public (Client, String) constructor every generated client has, so options
+     * passed to the other constructors, such as a CallListener, RetryPolicy or LoadBalancer, keep their defaults.
+     * Construct those clients directly, on {@link #client(String)}.
+     *
+     * @param clientType generated client class, with its (Client, String) constructor
+     * @param endpointUrl base URL of the resource
+     * @return the client of the type for the endpoint, on the shared client for the URL
+     * @throws IllegalArgumentException the type has no public (Client, String) constructor
+     * @throws IllegalStateException the registry is closed
+     */
+    public <T> T get(Class<T> clientType, String endpointUrl) {
+        List<Object> key = Arrays.<Object>asList(clientType, endpointUrl);
+        Object existing = generated.get(key);
+        if (existing == null) {
+            //created under the lock, so a concurrent register or close cannot leave it on a replaced or closed client
+            synchronized (this) {
+                existing = generated.get(key);
+                if (existing == null) {
+                    existing = create(clientType, client(endpointUrl), endpointUrl);
+                    generated.put(key, existing);
+                }
+            }
+        }
+        return clientType.cast(existing);
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("registry is closed");
+        }
+    }
+
+    private static <T> T create(Class<T> clientType, Client client, String endpointUrl) {
+        try {
+            Constructor<T> constructor = clientType.getConstructor(Client.class, String.class);
+            return constructor.newInstance(client, endpointUrl);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(clientType.getName() + " has no public (Client, String) constructor", e);
+        } catch (InstantiationException e) {
+            throw new IllegalArgumentException("not a generated client: " + clientType.getName(), e);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("not a generated client: " + clientType.getName(), e);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Closes the default and every registered client once. Clients created by the registry are unusable afterwards,
+     * and the registry cannot be used anymore. Closing again does nothing.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        Map<Client, Boolean> clients = new IdentityHashMap<Client, Boolean>();
+        clients.put(defaultClient, Boolean.TRUE);
+        for (Client client : clientByPrefix.values()) {
+            clients.put(client, Boolean.TRUE);
+        }
+        RuntimeException failure = null;
+        for (Client client : clients.keySet()) {
+            try {
+                client.close();
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+        generated.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package io.github.yeagy.jaxrs;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.TypeName;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.ws.rs.BeanParam;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.CookieParam;
+import javax.ws.rs.FormParam;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.MatrixParam;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static io.github.yeagy.jaxrs.ResourceAnalyzer.*;
+
+/**
+ * Builds the same metadata as {@link ResourceAnalyzer}, but from compiler elements during annotation processing.
+ */
+class ElementAnalyzer {
+    private final Types types;
+    private final Elements elements;
+    private final TypeMirror list;
+    private final TypeMirror set;
+    private final TypeMirror collection;
+
+    ElementAnalyzer(ProcessingEnvironment env) {
+        types = env.getTypeUtils();
+        elements = env.getElementUtils();
+        list = types.erasure(elements.getTypeElement(List.class.getCanonicalName()).asType());
+        set = types.erasure(elements.getTypeElement(Set.class.getCanonicalName()).asType());
+        collection = types.erasure(elements.getTypeElement(Collection.class.getCanonicalName()).asType());
+    }
+
+    /**
+     * Extracts the JAX-RS metadata from a type element.
+     *
+     * @param type JAX-RS resource
+     * @return metadata describing a JAX-RS resource
+     */
+    ClassData analyze(TypeElement type) {
+        List<ParamData> classParamDataList = new ArrayList<ParamData>();
+        List<ExecutableElement> methods = new ArrayList<ExecutableElement>(ElementFilter.methodsIn(type.getEnclosedElements()));
+        Collections.sort(methods, new Comparator<ExecutableElement>() {
+            @Override
+            public int compare(ExecutableElement l, ExecutableElement r) {
+                return l.getSimpleName().toString().compareTo(r.getSimpleName().toString());
+            }
+        });
+        List<MethodData> methodDataList = new ArrayList<MethodData>();
+        for (ExecutableElement method : methods) {
+            String path = null;
+            String[] consumes = null, produces = null;
+            String httpMethod = null;
+            for (AnnotationMirror annotation : method.getAnnotationMirrors()) {
+                String name = name(annotation);
+                if (name.equals(Path.class.getName())) {
+                    path = value(annotation);
+                } else if (name.equals(Consumes.class.getName())) {
+                    consumes = values(annotation);
+                } else if (name.equals(Produces.class.getName())) {
+                    produces = values(annotation);
+                } else if (annotation.getAnnotationType().asElement().getAnnotation(HttpMethod.class) != null) {
+                    httpMethod = annotation.getAnnotationType().asElement().getAnnotation(HttpMethod.class).value();
+                }
+            }
+
+            List<ParamData> paramDataList = new ArrayList<ParamData>();
+            for (VariableElement parameter : method.getParameters()) {
+                ParamData paramData = newParamData(parameter.asType());
+                handleParamAnnotations(paramData, parameter.asType(), parameter);
+                if (paramData.kind == null) {//todo ensure only single unannotated parameter for entity
+                    paramData.kind = ParamData.Kind.ENTITY;
+                    paramData.label = ENTITY;
+                }
+                paramData.call = paramData.label;
+                paramDataList.add(paramData);
+            }
+
+            String methodName = method.getSimpleName().toString();
+            if (httpMethod == null && methodName.startsWith("set") && method.getParameters().size() == 1) {
+                TypeMirror paramType = method.getParameters().get(0).asType();
+                ParamData paramData = newParamData(paramType);
+                handleParamAnnotations(paramData, paramType, method);
+                if (paramData.kind != null) {
+                    paramData.call = paramData.label;
+                    classParamDataList.add(paramData);
+                }
+            }
+
+            methodDataList.add(new MethodData(methodName, TypeName.get(method.getReturnType()), path, consumes, produces, httpMethod, paramDataList,
+                    types.isAssignable(types.erasure(method.getReturnType()), collection)));
+        }
+
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            ParamData paramData = newParamData(field.asType());
+            handleParamAnnotations(paramData, field.asType(), field);
+            if (paramData.kind != null) {
+                paramData.call = paramData.label;
+                classParamDataList.add(paramData);
+            }
+        }
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            for (VariableElement parameter : constructor.getParameters()) {
+                ParamData paramData = newParamData(parameter.asType());
+                handleParamAnnotations(paramData, parameter.asType(), parameter);
+                if (paramData.kind != null) {
+                    paramData.call = paramData.label;
+                    classParamDataList.add(paramData);
+                }
+            }
+        }
+
+        Consumes consumes = type.getAnnotation(Consumes.class);
+        Produces produces = type.getAnnotation(Produces.class);
+        return new ClassData(ClassName.get(type), type.getKind() == ElementKind.INTERFACE, type.getSimpleName().toString(),
+                type.getAnnotation(Path.class).value(),
+                consumes != null ? consumes.value() : new String[]{"*/*"},
+                produces != null ? produces.value() : new String[]{"*/*"},
+                methodDataList, classParamDataList);
+    }
+
+    private ParamData newParamData(TypeMirror type) {
+        ParamData paramData = new ParamData();
+        paramData.typeName = TypeName.get(type);
+        TypeMirror erasure = types.erasure(type);
+        if (types.isAssignable(erasure, list)) {
+            paramData.container = ParamData.Container.LIST;
+        } else if (types.isAssignable(erasure, set)) {
+            paramData.container = ParamData.Container.SET;
+        }
+        return paramData;
+    }
+
+    private void handleParamAnnotations(ParamData paramData, TypeMirror type, Element element) {
+        int contextCount = 0;
+        int beanCount = 0;
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            String name = name(annotation);
+            if (name.equals(PathParam.class.getName())) {
+                paramData.kind = ParamData.Kind.PATH;
+                paramData.label = value(annotation);
+            } else if (name.equals(QueryParam.class.getName())) {
+                paramData.kind = ParamData.Kind.QUERY;
+                paramData.label = value(annotation);
+            } else if (name.equals(Context.class.getName())) {
+                paramData.kind = ParamData.Kind.CONTEXT;
+                paramData.label = ++contextCount == 1 ? "context" : "context" + contextCount;
+            } else if (name.equals(MatrixParam.class.getName())) {
+                paramData.kind = ParamData.Kind.MATRIX;
+                paramData.label = value(annotation);
+            } else if (name.equals(HeaderParam.class.getName())) {
+                paramData.kind = ParamData.Kind.HEADER;
+                paramData.label = value(annotation);
+            } else if (name.equals(FormParam.class.getName())) {
+                paramData.kind = ParamData.Kind.FORM;
+                paramData.label = value(annotation);
+            } else if (name.equals(CookieParam.class.getName())) {
+                paramData.kind = ParamData.Kind.COOKIE;
+                paramData.label = value(annotation);
+            } else if (name.equals(BeanParam.class.getName())) {
+                paramData.kind = ParamData.Kind.BEAN;
+                paramData.label = ++beanCount == 1 ? "beanParam" : "beanParam" + beanCount;
+                paramData.call = paramData.label;
+                analyzeBeanParam(paramData, (TypeElement) types.asElement(type));
+            }
+        }
+    }
+
+    private void analyzeBeanParam(ParamData beanParamData, TypeElement bean) {
+        List<ExecutableElement> methods = ElementFilter.methodsIn(bean.getEnclosedElements());
+        List<VariableElement> fields = ElementFilter.fieldsIn(bean.getEnclosedElements());
+        for (VariableElement field : fields) {
+            ParamData paramData = newParamData(field.asType());
+            handleParamAnnotations(paramData, field.asType(), field);
+            if (paramData.kind != null) {
+                findGetter(beanParamData, methods, field.getSimpleName().toString().toLowerCase(), paramData);
+                if (paramData.call == null && !field.getModifiers().contains(Modifier.PRIVATE)) {
+                    paramData.call = beanParamData.call + "." + paramData.label;
+                }
+                if (paramData.call != null) {
+                    beanParamData.beanParams.add(paramData);
+                }
+            }
+        }
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(bean.getEnclosedElements())) {
+            for (VariableElement parameter : constructor.getParameters()) {
+                ParamData paramData = newParamData(parameter.asType());
+                handleParamAnnotations(paramData, parameter.asType(), parameter);
+                if (paramData.kind == null) {
+                    continue;
+                }
+                findGetter(beanParamData, methods, paramData.label.toLowerCase(), paramData);
+                if (paramData.call == null) {
+                    VariableElement field = findField(fields, paramData.label);
+                    if (field == null) {
+                        throw new RuntimeException("bug! no field " + paramData.label + " in " + bean);
+                    }
+                    if (!field.getModifiers().contains(Modifier.PRIVATE)) {
+                        paramData.call = beanParamData.call + "." + paramData.label;
+                    }
+                }
+                if (paramData.call != null) {
+                    beanParamData.beanParams.add(paramData);
+                }
+            }
+        }
+    }
+
+    private void findGetter(ParamData beanParamData, List<ExecutableElement> methods, String nameLower, ParamData paramData) {
+        for (ExecutableElement method : methods) {
+            String name = method.getSimpleName().toString();
+            if (method.getParameters().isEmpty()
+                    && (name.startsWith("get") || name.startsWith("is"))
+                    && name.toLowerCase().endsWith(nameLower)) {
+                paramData.call = beanParamData.call + "." + name + "()";
+                break;
+            }
+        }
+    }
+
+    private static VariableElement findField(List<VariableElement> fields, String name) {
+        for (VariableElement field : fields) {
+            if (field.getSimpleName().contentEquals(name)) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    private static String name(AnnotationMirror annotation) {
+        return ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+    }
+
+    private AnnotationValue valueOf(AnnotationMirror annotation) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : elements.getElementValuesWithDefaults(annotation).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals("value")) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private String value(AnnotationMirror annotation) {
+        AnnotationValue value = valueOf(annotation);
+        return value != null ? (String) value.getValue() : null;
+    }
+
+    private String[] values(AnnotationMirror annotation) {
+        AnnotationValue value = valueOf(annotation);
+        if (value == null) {
+            return null;
+        } else if (value.getValue() instanceof List) {
+            List<?> list = (List<?>) value.getValue();
+            String[] strings = new String[list.size()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = (String) ((AnnotationValue) list.get(i)).getValue();
+            }
+            return strings;
+        }
+        return new String[]{(String) value.getValue()};
+    }
+}
@@ -0,0 +1,195 @@
+package io.github.yeagy.jaxrs;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Record of the resources an output directory was generated from, used to skip unchanged resources.
+ * Each resource is stored with a hash of its class file and the generator options, the client it produced,
+ * and hashes of the class files it depends on: bean params, supertypes and custom HttpMethod annotations.
+ * <p>
+ * Format is one tab separated line per resource, sorted by class name:
+ * class name, hash, output file relative to the output dir, then any number of dependency=hash pairs.
+ */
+class Manifest {
+    static final String FILE_NAME = ".jaxrs-client-gen.manifest";
+    private static final String MISSING = "missing";
+
+    private final File file;
+    private final Map<String, Entry> entries = new TreeMap<String, Entry>();
+
+    private Manifest(File file) {
+        this.file = file;
+    }
+
+    /**
+     * @param outDir generated source directory
+     * @return manifest of the directory, empty if there is none yet
+     * @throws IOException error reading an existing manifest
+     */
+    static Manifest load(File outDir) throws IOException {
+        Manifest manifest = new Manifest(new File(outDir, FILE_NAME));
+        if (manifest.file.exists()) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(manifest.file), "UTF-8"));
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] parts = line.split("\t");
+                    if (parts.length < 3) {
+                        continue;
+                    }
+                    Map<String, String> dependencies = new LinkedHashMap<String, String>();
+                    for (int i = 3; i < parts.length; i++) {
+                        int idx = parts[i].lastIndexOf('=');
+                        dependencies.put(parts[i].substring(0, idx), parts[i].substring(idx + 1));
+                    }
+                    manifest.entries.put(parts[0], new Entry(parts[1], parts[2], dependencies));
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        return manifest;
+    }
+
+    Entry get(String className) {
+        return entries.get(className);
+    }
+
+    void put(String className, Entry entry) {
+        entries.put(className, entry);
+    }
+
+    void remove(String className) {
+        entries.remove(className);
+    }
+
+    Set<String> getClassNames() {
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    /**
+     * @return output files of every resource, relative to the output dir
+     */
+    Set<String> getOutputs() {
+        Set<String> outputs = new HashSet<String>();
+        for (Entry entry : entries.values()) {
+            outputs.add(entry.output);
+        }
+        return outputs;
+    }
+
+    /**
+     * Writes the manifest through a temp file, so an interrupted run leaves the previous manifest whole.
+     *
+     * @throws IOException error writing the manifest
+     */
+    void store() throws IOException {
+        file.getParentFile().mkdirs();
+        StringBuilder content = new StringBuilder();
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            content.append(entry.getKey())
+                    .append('\t').append(entry.getValue().hash)
+                    .append('\t').append(entry.getValue().output);
+            for (Map.Entry<String, String> dependency : entry.getValue().dependencies.entrySet()) {
+                content.append('\t').append(dependency.getKey()).append('=').append(dependency.getValue());
+            }
+            content.append('\n');
+        }
+        ClientGenerator.replace(file, content.toString().getBytes("UTF-8"));
+    }
+
+    /**
+     * @param options generator options the output depends on
+     * @param bytes class file contents
+     * @return hex sha-256 of both
+     */
+    static String hash(String options, byte[] bytes) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(options.getBytes("UTF-8"));
+            digest.update((byte) 0);
+            digest.update(bytes);
+            StringBuilder hex = new StringBuilder(64);
+            for (byte b : digest.digest()) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("bug!", e);
+        } catch (IOException e) {
+            throw new RuntimeException("bug!", e);
+        }
+    }
+
+    /**
+     * @param classFiles used to look up the class file
+     * @param className binary class name
+     * @return hash of the class file, or a marker if it cannot be found
+     * @throws IOException error reading the class file
+     */
+    static String hashClassFile(ClassLoader classFiles, String className) throws IOException {
+        byte[] bytes = readClassFile(classFiles, className);
+        return bytes != null ? hash("", bytes) : MISSING;
+    }
+
+    /**
+     * @param classFiles used to look up the class file
+     * @param className binary class name
+     * @return class file contents, null if it cannot be found
+     * @throws IOException error reading the class file
+     */
+    static byte[] readClassFile(ClassLoader classFiles, String className) throws IOException {
+        InputStream in = classFiles.getResourceAsStream(className.replace('.', '/') + ".class");
+        if (in == null) {
+            return null;
+        }
+        try {
+            return ClassFileReader.readFully(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    static class Entry {
+        final String hash;
+        final String output;
+        final Map<String, String> dependencies;
+
+        Entry(String hash, String output, Map<String, String> dependencies) {
+            this.hash = hash;
+            this.output = output;
+            this.dependencies = dependencies;
+        }
+
+        /**
+         * @param hash hash of the resource as it is now
+         * @param classFiles used to look up dependency class files
+         * @return true if neither the resource nor any of its dependencies changed
+         * @throws IOException error reading a dependency
+         */
+        boolean isCurrent(String hash, ClassLoader classFiles) throws IOException {
+            if (!this.hash.equals(hash)) {
+                return false;
+            }
+            for (Map.Entry<String, String> dependency : dependencies.entrySet()) {
+                if (!dependency.getValue().equals(hashClassFile(classFiles, dependency.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -1,15 +1,16 @@
 package io.github.yeagy.jaxrs;
 
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+
 import javax.ws.rs.BeanParam;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.CookieParam;
-import javax.ws.rs.DELETE;
 import javax.ws.rs.FormParam;
-import javax.ws.rs.GET;
 import javax.ws.rs.HeaderParam;
+import javax.ws.rs.HttpMethod;
 import javax.ws.rs.MatrixParam;
-import javax.ws.rs.POST;
-import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
@@ -23,8 +24,10 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
 
 public class ResourceAnalyzer {
     static final String ENTITY = "entity";
@@ -48,7 +51,7 @@ public class ResourceAnalyzer {
         for (Method method : methods) {
             String path = null;
             String[] consumes = null, produces = null;
-            MethodData.Verb verb = null;
+            String httpMethod = null;
             for (Annotation annotation : method.getDeclaredAnnotations()) {
                 if (annotation instanceof Path) {
                     path = ((Path) annotation).value();
@@ -56,22 +59,14 @@ public class ResourceAnalyzer {
                     consumes = ((Consumes) annotation).value();
                 } else if (annotation instanceof Produces) {
                     produces = ((Produces) annotation).value();
-                } else if (annotation instanceof GET) {
-                    verb = MethodData.Verb.GET;
-                } else if (annotation instanceof POST) {
-                    verb = MethodData.Verb.POST;
-                } else if (annotation instanceof PUT) {
-                    verb = MethodData.Verb.PUT;
-                } else if (annotation instanceof DELETE) {
-                    verb = MethodData.Verb.DELETE;
+                } else if (annotation.annotationType().isAnnotationPresent(HttpMethod.class)) {
+                    httpMethod = annotation.annotationType().getAnnotation(HttpMethod.class).value();
                 }
             }
 
             List<ParamData> paramDataList = new ArrayList<ParamData>();
             for (int i = 0; i < method.getParameterTypes().length; i++) {
-                ParamData paramData = new ParamData();
-                paramData.type = method.getParameterTypes()[i];
-                paramData.genericType = method.getGenericParameterTypes()[i];
+                ParamData paramData = newParamData(method.getParameterTypes()[i], method.getGenericParameterTypes()[i]);
                 handleParamAnnotations(paramData, method.getParameterAnnotations()[i]);
                 if (paramData.kind == null) {//todo ensure only single unannotated parameter for entity
                     paramData.kind = ParamData.Kind.ENTITY;
@@ -81,10 +76,8 @@ public class ResourceAnalyzer {
                 paramDataList.add(paramData);
             }
 
-            if (verb == null && method.getName().startsWith("set") && method.getParameterTypes().length == 1) {
-                ParamData paramData = new ParamData();
-                paramData.type = paramDataList.get(0).type;
-                paramData.genericType = paramDataList.get(0).genericType;
+            if (httpMethod == null && method.getName().startsWith("set") && method.getParameterTypes().length == 1) {
+                ParamData paramData = newParamData(paramDataList.get(0).type, paramDataList.get(0).genericType);
                 handleParamAnnotations(paramData, method.getDeclaredAnnotations());
                 if (paramData.kind != null) {
                     paramData.call = paramData.label;
@@ -92,13 +85,11 @@ public class ResourceAnalyzer {
                 }
             }
 
-            methodDataList.add(new MethodData(method.getName(), method.getGenericReturnType(), path, consumes, produces, verb, paramDataList));
+            methodDataList.add(new MethodData(method.getName(), method.getGenericReturnType(), path, consumes, produces, httpMethod, paramDataList));
         }
 
         for (Field field : klass.getDeclaredFields()) {
-            ParamData paramData = new ParamData();
-            paramData.type = field.getType();
-            paramData.genericType = field.getGenericType();
+            ParamData paramData = newParamData(field.getType(), field.getGenericType());
             handleParamAnnotations(paramData, field.getDeclaredAnnotations());
             if (paramData.kind != null) {
                 paramData.call = paramData.label;
@@ -107,9 +98,7 @@ public class ResourceAnalyzer {
         }
         for (Constructor constructor : klass.getDeclaredConstructors()) {
             for (int i = 0; i < constructor.getParameterTypes().length; i++) {
-                ParamData paramData = new ParamData();
-                paramData.type = constructor.getParameterTypes()[i];
-                paramData.genericType = constructor.getGenericParameterTypes()[i];
+                ParamData paramData = newParamData(constructor.getParameterTypes()[i], constructor.getGenericParameterTypes()[i]);
                 handleParamAnnotations(paramData, constructor.getParameterAnnotations()[i]);
                 if (paramData.kind != null) {
                     paramData.call = paramData.label;
@@ -120,13 +109,26 @@ public class ResourceAnalyzer {
 
         Consumes consumes = (Consumes) klass.getAnnotation(Consumes.class);
         Produces produces = (Produces) klass.getAnnotation(Produces.class);
-        return new ClassData(klass.isInterface(), klass.getSimpleName(),
+        return new ClassData(ClassName.get(klass), klass.isInterface(), klass.getSimpleName(),
                 ((Path) klass.getAnnotation(Path.class)).value(),
                 consumes != null ? consumes.value() : new String[]{"*/*"},
                 produces != null ? produces.value() : new String[]{"*/*"},
                 methodDataList, classParamDataList);
     }
 
+    private ParamData newParamData(Class<?> type, Type genericType) {
+        ParamData paramData = new ParamData();
+        paramData.type = type;
+        paramData.genericType = genericType;
+        paramData.typeName = TypeName.get(genericType);
+        if (List.class.isAssignableFrom(type)) {
+            paramData.container = ParamData.Container.LIST;
+        } else if (Set.class.isAssignableFrom(type)) {
+            paramData.container = ParamData.Container.SET;
+        }
+        return paramData;
+    }
+
     private void handleParamAnnotations(ParamData paramData, Annotation[] annotations) {
         int contextCount = 0;
         int beanCount = 0;
@@ -163,9 +165,7 @@ public class ResourceAnalyzer {
 
     private void analyzeBeanParam(ParamData beanParamData) {
         for (Field field : beanParamData.type.getDeclaredFields()) {
-            ParamData paramData = new ParamData();
-            paramData.type = field.getType();
-            paramData.genericType = field.getGenericType();
+            ParamData paramData = newParamData(field.getType(), field.getGenericType());
             handleParamAnnotations(paramData, field.getDeclaredAnnotations());
             if (paramData.kind != null) {
                 findGetter(beanParamData, field.getName().toLowerCase(), paramData);
@@ -179,9 +179,7 @@ public class ResourceAnalyzer {
         }
         for (Constructor<?> constructor : beanParamData.type.getDeclaredConstructors()) {
             for (int i = 0; i < constructor.getParameterTypes().length; i++) {
-                ParamData paramData = new ParamData();
-                paramData.type = constructor.getParameterTypes()[i];
-                paramData.genericType = constructor.getGenericParameterTypes()[i];
+                ParamData paramData = newParamData(constructor.getParameterTypes()[i], constructor.getGenericParameterTypes()[i]);
                 handleParamAnnotations(paramData, constructor.getParameterAnnotations()[i]);
                 if (paramData.kind != null) {
                     findGetter(beanParamData, paramData.label.toLowerCase(), paramData);
@@ -215,6 +213,7 @@ public class ResourceAnalyzer {
     }
 
     public static class ClassData {
+        public final ClassName typeName;
         public final boolean iface;
         public final String className;
         public final String path;
@@ -223,7 +222,15 @@ public class ResourceAnalyzer {
         public final List<MethodData> methods;
         public final List<ParamData> params;
 
+        /**
+         * @param className resource name, fully qualified for the client to land in its package, else in the default package
+         */
         public ClassData(boolean iface, String className, String path, String[] consumes, String[] produces, List<MethodData> methods, List<ParamData> params) {
+            this(typeName(className), iface, typeName(className).simpleName(), path, consumes, produces, methods, params);
+        }
+
+        public ClassData(ClassName typeName, boolean iface, String className, String path, String[] consumes, String[] produces, List<MethodData> methods, List<ParamData> params) {
+            this.typeName = typeName;
             this.iface = iface;
             this.className = className;
             this.path = path;
@@ -232,29 +239,95 @@ public class ResourceAnalyzer {
             this.methods = methods;
             this.params = params;
         }
+
+        private static ClassName typeName(String className) {
+            int dot = className.lastIndexOf('.');
+            return ClassName.get(dot < 0 ? "" : className.substring(0, dot), className.substring(dot + 1));
+        }
     }
 
     public static class MethodData {
-        public enum Verb {GET, POST, PUT, DELETE}
+        public enum Verb {
+            GET, POST, PUT, DELETE, HEAD, OPTIONS, PATCH,
+            /**
+             * any other method named by an {@link HttpMethod} meta-annotation, see {@link MethodData#httpMethod}
+             */
+            OTHER;
+
+            static Verb of(String httpMethod) {
+                for (Verb verb : values()) {
+                    if (verb.name().equals(httpMethod)) {
+                        return verb;
+                    }
+                }
+                return OTHER;
+            }
+        }
 
         public final String methodName;
         public final Type returnType;
+        public final TypeName returnTypeName;
         public final String path;
         public final String[] consumes;
         public final String[] produces;
+        //null for methods that are not resource methods
         public final Verb verb;
+        public final String httpMethod;
         public final List<ParamData> params;
         public final boolean form;
+        //whether the return type is a Collection, decided by the analyzer since only it can see the type's hierarchy
+        public final boolean collection;
+
+        public MethodData(String methodName, Type returnType, String path, String[] consumes, String[] produces, String httpMethod, List<ParamData> params) {
+            this(methodName, returnType, TypeName.get(returnType), path, consumes, produces, httpMethod, params, isCollection(returnType));
+        }
 
+        /**
+         * For analyzers without a loaded return type. The return type is taken to not be a Collection.
+         */
+        public MethodData(String methodName, TypeName returnTypeName, String path, String[] consumes, String[] produces, String httpMethod, List<ParamData> params) {
+            this(methodName, returnTypeName, path, consumes, produces, httpMethod, params, false);
+        }
+
+        public MethodData(String methodName, TypeName returnTypeName, String path, String[] consumes, String[] produces, String httpMethod, List<ParamData> params,
+                          boolean collection) {
+            this(methodName, null, returnTypeName, path, consumes, produces, httpMethod, params, collection);
+        }
+
+        /**
+         * @deprecated use the constructor taking the HTTP method name, {@link Verb#OTHER} does not name one
+         */
+        @Deprecated
         public MethodData(String methodName, Type returnType, String path, String[] consumes, String[] produces, Verb verb, List<ParamData> params) {
+            this(methodName, returnType, path, consumes, produces, verb != null ? verb.name() : null, params);
+        }
+
+        /**
+         * @deprecated use the constructor taking the HTTP method name, {@link Verb#OTHER} does not name one
+         */
+        @Deprecated
+        public MethodData(String methodName, TypeName returnTypeName, String path, String[] consumes, String[] produces, Verb verb, List<ParamData> params) {
+            this(methodName, returnTypeName, path, consumes, produces, verb != null ? verb.name() : null, params);
+        }
+
+        private MethodData(String methodName, Type returnType, TypeName returnTypeName, String path, String[] consumes, String[] produces, String httpMethod, List<ParamData> params,
+                           boolean collection) {
             this.methodName = methodName;
             this.returnType = returnType;
+            this.returnTypeName = returnTypeName;
             this.path = path;
             this.consumes = consumes;
             this.produces = produces;
-            this.verb = verb;
+            this.verb = httpMethod != null ? Verb.of(httpMethod) : null;
+            this.httpMethod = httpMethod;
             this.params = params;
             this.form = hasFormParam(params);
+            this.collection = collection;
+        }
+
+        private static boolean isCollection(Type type) {
+            Type raw = type instanceof ParameterizedType ? ((ParameterizedType) type).getRawType() : type;
+            return raw instanceof Class && Collection.class.isAssignableFrom((Class<?>) raw);
         }
 
         private boolean hasFormParam(List<ParamData> params) {
@@ -273,8 +346,14 @@ public class ResourceAnalyzer {
     public static class ParamData {
         public enum Kind {PATH, QUERY, MATRIX, FORM, HEADER, COOKIE, BEAN, CONTEXT, ENTITY}
 
+        public enum Container {LIST, SET}
+
+        //reflection types, only set when analyzed from a loaded class
         public Class<?> type;
         public Type genericType;
+        //source agnostic types
+        public TypeName typeName;
+        public Container container;
         public Kind kind;
         public String label;
         public String call;
@@ -286,5 +365,12 @@ public class ResourceAnalyzer {
             }
             return null;
         }
+
+        public List<TypeName> getTypeNameArgs() {
+            if (typeName instanceof ParameterizedTypeName) {
+                return ((ParameterizedTypeName) typeName).typeArguments;
+            }
+            return null;
+        }
     }
 }
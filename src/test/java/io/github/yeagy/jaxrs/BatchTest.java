@@ -0,0 +1,121 @@
+package io.github.yeagy.jaxrs;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.ws.rs.ProcessingException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BatchTest {
+    private static GeneratedClient generated;
+
+    private ExecutorService executor;
+
+    @BeforeClass
+    public static void generate() throws Exception {
+        generated = GeneratedClient.compile(new ClientGenerator(false, ClientGenerator.Option.BATCH).generate(ExampleEndpoint.class));
+    }
+
+    @Before
+    public void startExecutor() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void stopExecutor() throws InterruptedException {
+        executor.shutdownNow();
+        Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testResultsInOrderWithinConcurrency() throws Exception {
+        StubClient stub = new StubClient();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger peak = new AtomicInteger();
+        stub.responder = new StubClient.Responder() {
+            @Override
+            public Object respond(StubClient.Request request) throws Exception {
+                int current = inFlight.incrementAndGet();
+                synchronized (peak) {
+                    peak.set(Math.max(peak.get(), current));
+                }
+                String key = request.uri.substring(request.uri.lastIndexOf('/') + 1);
+                //later calls finish first
+                Thread.sleep(5 * (10 - Integer.parseInt(key)));
+                inFlight.decrementAndGet();
+                return new Example(key);
+            }
+        };
+        List<String> keys = Arrays.asList("0", "1", "2", "3", "4", "5", "6", "7", "8", "9");
+        List<?> results = (List<?>) GeneratedClient.call(batch(stub, 3), "find", keys);
+
+        List<String> resultKeys = new ArrayList<String>();
+        for (Object result : results) {
+            resultKeys.add(((Example) result).getKey());
+        }
+        Assert.assertEquals(keys, resultKeys);
+        Assert.assertEquals(10, stub.requests.size());
+        Assert.assertEquals(3, peak.get());
+    }
+
+    @Test(timeout = 10000)
+    public void testFailureCancelsRest() throws Exception {
+        assertFailureCancelsRest(new ProcessingException("connection refused"));
+    }
+
+    @Test(timeout = 10000)
+    public void testErrorCancelsRest() throws Exception {
+        assertFailureCancelsRest(new Error("unable to create thread"));
+    }
+
+    /**
+     * The first call fails once the second blocks, the third waits for a permit and is never sent.
+     */
+    private void assertFailureCancelsRest(final Throwable failure) throws Exception {
+        StubClient stub = new StubClient();
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        stub.responder = new StubClient.Responder() {
+            @Override
+            public Object respond(StubClient.Request request) throws Exception {
+                if (request.uri.endsWith("/0")) {
+                    blocked.await();
+                    if (failure instanceof Error) {
+                        throw (Error) failure;
+                    }
+                    throw (Exception) failure;
+                }
+                blocked.countDown();
+                try {
+                    new CountDownLatch(1).await();
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                throw new ProcessingException("interrupted");
+            }
+        };
+        try {
+            GeneratedClient.call(batch(stub, 2), "delete", Arrays.asList("0", "1", "2", "3"));
+            Assert.fail();
+        } catch (Throwable e) {
+            Assert.assertSame(failure, e);
+        }
+        Assert.assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(2, stub.requests.size());
+    }
+
+    private Object batch(StubClient stub, int maxConcurrency) throws Exception {
+        Object client = generated.newInstance(stub.create(), "http://localhost");
+        return GeneratedClient.call(client, "batch", executor, maxConcurrency);
+    }
+}
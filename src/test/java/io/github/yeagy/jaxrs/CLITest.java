@@ -4,7 +4,14 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 public class CLITest {
 
@@ -18,4 +25,111 @@ public class CLITest {
         file.getParentFile().delete();
         file.getParentFile().getParentFile().delete();
     }
+
+    @Test
+    public void testFromJarMultiThreaded() throws Exception {
+        URL jar = this.getClass().getClassLoader().getResource("example-jaxrs-resource-0.1.jar");
+        //the example resources of these tests, next to the one in the jar
+        File resources = new File(ExampleEndpoint.class.getResource("ExampleEndpoint.class").toURI()).getParentFile();
+        File single = File.createTempFile("jaxrs-client-gen", "");
+        File multi = File.createTempFile("jaxrs-client-gen", "");
+        single.delete();
+        multi.delete();
+        try {
+            CLI.run(single, "--threads", "1", jar.getPath(), resources.getPath());
+            CLI.run(multi, "--threads", "4", jar.getPath(), resources.getPath());
+            Map<String, String> expected = tree(single, "", new TreeMap<String, String>());
+            Assert.assertTrue(expected.containsKey("test/SimpleResourceClient.java"));
+            Assert.assertTrue(expected.containsKey("io/github/yeagy/jaxrs/ExampleEndpointClient.java"));
+            Assert.assertTrue(expected.size() > 2);
+            Assert.assertEquals(expected, tree(multi, "", new TreeMap<String, String>()));
+        } finally {
+            delete(single);
+            delete(multi);
+        }
+    }
+
+    @Test
+    public void testIncremental() throws Exception {
+        URL jar = this.getClass().getClassLoader().getResource("example-jaxrs-resource-0.1.jar");
+        File file = new File("jaxrs-client-gen/test/SimpleResourceClient.java");
+        File manifest = new File("jaxrs-client-gen/" + Manifest.FILE_NAME);
+        try {
+            CLI.main(new String[]{"--incremental", jar.getPath()});
+            Assert.assertTrue(file.exists());
+            Assert.assertTrue(manifest.exists());
+
+            //unchanged resources are skipped, so the client is not rewritten
+            Assert.assertTrue(file.setLastModified(1000L));
+            CLI.main(new String[]{"--incremental", jar.getPath()});
+            Assert.assertEquals(1000L, file.lastModified());
+
+            //options are part of the hash, and the client that is no longer generated is deleted
+            CLI.main(new String[]{"--incremental", "--async", jar.getPath()});
+            Assert.assertTrue(new File("jaxrs-client-gen/test/SimpleResourceAsyncClient.java").exists());
+            Assert.assertFalse(file.exists());
+        } finally {
+            new File("jaxrs-client-gen/test/SimpleResourceAsyncClient.java").delete();
+            file.delete();
+            manifest.delete();
+            file.getParentFile().delete();
+            file.getParentFile().getParentFile().delete();
+        }
+    }
+
+    @Test
+    public void testIncrementalDependencies() throws Exception {
+        File resources = new File(ExampleEndpoint.class.getResource("ExampleEndpoint.class").toURI()).getParentFile();
+        File outDir = File.createTempFile("jaxrs-client-gen", "");
+        outDir.delete();
+        try {
+            CLI.run(outDir, "--incremental", "--bytecode", resources.getPath());
+            String manifest = tree(outDir, "", new TreeMap<String, String>()).get(Manifest.FILE_NAME);
+            Map<String, String> lines = new TreeMap<String, String>();
+            for (String line : manifest.split("\n")) {
+                lines.put(line.substring(0, line.indexOf('\t')), line);
+            }
+            Assert.assertTrue(lines.get(ExampleEndpoint.class.getName()).contains("\t" + ExampleBeanParam.class.getName() + "="));
+            //custom HttpMethod annotations are tracked, the standard ones are not
+            String verbs = lines.get(ExampleVerbEndpoint.class.getName());
+            Assert.assertTrue(verbs.contains("\t" + PATCH.class.getName() + "="));
+            Assert.assertFalse(verbs.contains("javax.ws.rs"));
+            //no temp files are left behind
+            Assert.assertEquals(new TreeSet<String>(Arrays.asList(Manifest.FILE_NAME, "io")), new TreeSet<String>(Arrays.asList(outDir.list())));
+        } finally {
+            delete(outDir);
+        }
+    }
+
+    /**
+     * @return contents of the files under the directory, by relative path
+     */
+    private static Map<String, String> tree(File dir, String prefix, Map<String, String> out) throws IOException {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.isDirectory()) {
+                    tree(file, prefix + file.getName() + "/", out);
+                } else {
+                    InputStream in = new FileInputStream(file);
+                    try {
+                        out.put(prefix + file.getName(), new String(ClassFileReader.readFully(in), "UTF-8"));
+                    } finally {
+                        in.close();
+                    }
+                }
+            }
+        }
+        return out;
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
 }
@@ -0,0 +1,133 @@
+package io.github.yeagy.jaxrs;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.WebApplicationException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class CallListenerTest {
+    private static GeneratedClient generated;
+
+    @BeforeClass
+    public static void generate() throws Exception {
+        generated = GeneratedClient.compile(new ClientGenerator(false, ClientGenerator.Option.CALL_LISTENER, ClientGenerator.Option.RETRY).generate(ExampleEndpoint.class));
+    }
+
+    @Test
+    public void testEntityCall() throws Exception {
+        StubClient stub = new StubClient();
+        stub.entity = new Example("key");
+        List<Object[]> calls = new ArrayList<Object[]>();
+        client(stub, calls).find("key");
+        assertCall(calls, "find", "GET", "example/{exampleKey}", 200, null);
+    }
+
+    @Test
+    public void testEntityCallFailed() throws Exception {
+        StubClient stub = new StubClient();
+        stub.entity = new StubResponse(404, null);
+        List<Object[]> calls = new ArrayList<Object[]>();
+        try {
+            client(stub, calls).find("key");
+            Assert.fail();
+        } catch (WebApplicationException expected) {
+        }
+        assertCall(calls, "find", "GET", "example/{exampleKey}", 404, WebApplicationException.class);
+    }
+
+    @Test
+    public void testVoidCall() throws Exception {
+        StubClient stub = new StubClient();
+        stub.entity = new StubResponse(500, null);
+        List<Object[]> calls = new ArrayList<Object[]>();
+        client(stub, calls).create(new Example("key"));
+        //void methods do not throw on error statuses, the listener still sees them
+        assertCall(calls, "create", "POST", "example", 500, null);
+    }
+
+    @Test
+    public void testResponseCall() throws Exception {
+        StubClient stub = new StubClient();
+        stub.entity = new StubResponse(204, null);
+        List<Object[]> calls = new ArrayList<Object[]>();
+        client(stub, calls).findBeanParams("key", new ExampleBeanParam(1L));
+        assertCall(calls, "findBeanParams", "GET", "example/{exampleKey}/text/{beanKey}", 204, null);
+    }
+
+    @Test
+    public void testIoFailure() throws Exception {
+        StubClient stub = new StubClient();
+        stub.responder = new StubClient.Responder() {
+            @Override
+            public Object respond(StubClient.Request request) {
+                throw new ProcessingException("connection refused");
+            }
+        };
+        List<Object[]> calls = new ArrayList<Object[]>();
+        try {
+            client(stub, calls).postFormParams("key", "solo", 1, null, Collections.<String>emptyList(), Collections.<Integer>emptySet());
+            Assert.fail();
+        } catch (ProcessingException expected) {
+        }
+        assertCall(calls, "postFormParams", "POST", "example/{exampleKey}", 0, ProcessingException.class);
+    }
+
+    @Test
+    public void testRetriedCallReportsLastStatus() throws Exception {
+        StubClient stub = new StubClient();
+        final Example example = new Example("key");
+        stub.responder = new StubClient.Responder() {
+            private boolean failed;
+
+            @Override
+            public Object respond(StubClient.Request request) {
+                if (failed) {
+                    return example;
+                }
+                failed = true;
+                return new StubResponse(503, null);
+            }
+        };
+        List<Object[]> calls = new ArrayList<Object[]>();
+        Object policy = GeneratedClient.construct(generated.nested("RetryPolicy"), 2, 0L, 0L, 1.0);
+        ExampleEndpoint client = (ExampleEndpoint) generated.newInstance(stub.create(), "http://localhost", listener(calls), policy);
+        Assert.assertSame(example, client.find("key"));
+        Assert.assertEquals(2, stub.requests.size());
+        assertCall(calls, "find", "GET", "example/{exampleKey}", 200, null);
+    }
+
+    private static void assertCall(List<Object[]> calls, String method, String verb, String pathTemplate, int status, Class<?> failure) {
+        Assert.assertEquals(1, calls.size());
+        Object[] call = calls.get(0);
+        Assert.assertEquals(method, call[0]);
+        Assert.assertEquals(verb, call[1]);
+        Assert.assertEquals(pathTemplate, call[2]);
+        Assert.assertTrue((Long) call[3] <= (Long) call[4]);
+        Assert.assertEquals(status, call[5]);
+        Assert.assertEquals(failure, call[6]);
+    }
+
+    private static ExampleEndpoint client(StubClient stub, List<Object[]> calls) throws Exception {
+        Object policy = generated.nested("RetryPolicy").getField("NONE").get(null);
+        return (ExampleEndpoint) generated.newInstance(stub.create(), "http://localhost", listener(calls), policy);
+    }
+
+    private static Object listener(final List<Object[]> calls) throws Exception {
+        Class<?> listenerType = generated.nested("CallListener");
+        return Proxy.newProxyInstance(listenerType.getClassLoader(), new Class[]{listenerType}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                calls.add(args);
+                return null;
+            }
+        });
+    }
+}
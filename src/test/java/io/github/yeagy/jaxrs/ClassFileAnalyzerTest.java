@@ -0,0 +1,63 @@
+package io.github.yeagy.jaxrs;
+
+import com.squareup.javapoet.JavaFile;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Scanner;
+
+public class ClassFileAnalyzerTest {
+    @Test
+    public void testFromInterface() throws Exception {
+        assertGenerated(false, ExampleEndpoint.class, "ExampleEndpointClient.java");
+    }
+
+    @Test
+    public void testAsyncFromInterface() throws Exception {
+        assertGenerated(true, ExampleEndpoint.class, "ExampleEndpointAsyncClient.java");
+    }
+
+    @Test
+    public void testFromClass() throws Exception {
+        assertGenerated(false, ExampleClassEndpoint.class, "ExampleClassEndpointClient.java");
+    }
+
+    @Test
+    public void testAsyncFromClass() throws Exception {
+        assertGenerated(true, ExampleClassEndpoint.class, "ExampleClassEndpointAsyncClient.java");
+    }
+
+    @Test
+    public void testVerbsFromInterface() throws Exception {
+        ResourceAnalyzer.ClassData classData = new ClassFileAnalyzer().analyze(ClassFileReaderTest.read(ExampleVerbEndpoint.class));
+        JavaFile file = new ClientGenerator().generate(classData);
+
+        String control = new Scanner(new File("src/test/resources/golden/verbs/ExampleVerbEndpointClient.java")).useDelimiter("\\Z").next();
+        Assert.assertEquals(control, file.toString().trim());
+    }
+
+    @Test
+    public void testStreamingFromInterface() throws Exception {
+        ResourceAnalyzer.ClassData classData = new ClassFileAnalyzer().analyze(ClassFileReaderTest.read(ExampleEndpoint.class));
+        JavaFile file = new ClientGenerator(false, ClientGenerator.Option.STREAMING).generate(classData);
+
+        String control = new Scanner(new File("src/test/resources/golden/streaming/ExampleEndpointClient.java")).useDelimiter("\\Z").next();
+        Assert.assertEquals(control, file.toString().trim());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNotAResource() throws Exception {
+        new ClassFileAnalyzer().analyze(ClassFileReaderTest.read(ExampleBeanParam.class));
+    }
+
+    private void assertGenerated(boolean async, Class<?> resource, String controlFile) throws Exception {
+        ResourceAnalyzer.ClassData classData = new ClassFileAnalyzer().analyze(ClassFileReaderTest.read(resource));
+        JavaFile file = new ClientGenerator(async).generate(classData);
+
+        String control = new Scanner(new File("src/test/java/io/github/yeagy/jaxrs/" + controlFile)).useDelimiter("\\Z").next();
+        String content = file.toString().trim();
+
+        Assert.assertEquals(control, content);
+    }
+}
@@ -0,0 +1,48 @@
+package io.github.yeagy.jaxrs;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.InputStream;
+
+public class ClassFileReaderTest {
+    private static final String PATH = "Ljavax/ws/rs/Path;";
+
+    @Test
+    public void testResourceInterface() throws Exception {
+        ClassFileReader reader = new ClassFileReader(read(ExampleEndpoint.class));
+        Assert.assertEquals(ExampleEndpoint.class.getName(), reader.getClassName());
+        Assert.assertTrue(reader.containsUtf8(PATH));
+        Assert.assertTrue(reader.getClassAnnotationTypes().contains(PATH));
+        Assert.assertTrue(reader.getClassAnnotationTypes().contains("Ljavax/ws/rs/Produces;"));
+    }
+
+    @Test
+    public void testResourceClass() throws Exception {
+        ClassFileReader reader = new ClassFileReader(read(ExampleClassEndpoint.class));
+        Assert.assertEquals(ExampleClassEndpoint.class.getName(), reader.getClassName());
+        Assert.assertTrue(reader.getClassAnnotationTypes().contains(PATH));
+    }
+
+    @Test
+    public void testNonResource() throws Exception {
+        ClassFileReader reader = new ClassFileReader(read(ExampleBeanParam.class));
+        Assert.assertEquals(ExampleBeanParam.class.getName(), reader.getClassName());
+        Assert.assertFalse(reader.containsUtf8(PATH));
+        Assert.assertTrue(reader.getClassAnnotationTypes().isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNotAClass() throws Exception {
+        new ClassFileReader("not a class".getBytes("UTF-8"));
+    }
+
+    static byte[] read(Class<?> klass) throws Exception {
+        InputStream in = klass.getResourceAsStream(klass.getSimpleName() + ".class");
+        try {
+            return ClassFileReader.readFully(in);
+        } finally {
+            in.close();
+        }
+    }
+}
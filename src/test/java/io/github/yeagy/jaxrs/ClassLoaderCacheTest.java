@@ -0,0 +1,37 @@
+package io.github.yeagy.jaxrs;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.net.URL;
+
+public class ClassLoaderCacheTest {
+
+    @Test
+    public void testOneLoaderPerRoot() throws Exception {
+        File jar = new File(this.getClass().getClassLoader().getResource("example-jaxrs-resource-0.1.jar").toURI());
+        ClassLoaderCache cache = new ClassLoaderCache(getClass().getClassLoader(), null);
+        try {
+            ClassLoader loader = cache.get(jar);
+            Assert.assertSame(loader, cache.get(new File(jar.getPath())));
+            Assert.assertNotNull(loader.loadClass("test.SimpleResource"));
+            Assert.assertSame(loader, cache.get(jar).loadClass("test.SimpleDTO").getClassLoader());
+            Assert.assertEquals(1, cache.getCreatedCount());
+        } finally {
+            cache.close();
+        }
+    }
+
+    @Test
+    public void testParentClasspathCounted() throws Exception {
+        URL jar = this.getClass().getClassLoader().getResource("example-jaxrs-resource-0.1.jar");
+        ClassLoaderCache cache = new ClassLoaderCache(getClass().getClassLoader(), new URL[]{jar});
+        try {
+            Assert.assertNotNull(cache.get(new File(".")).loadClass("test.SimpleResource"));
+            Assert.assertEquals(2, cache.getCreatedCount());
+        } finally {
+            cache.close();
+        }
+    }
+}
@@ -5,7 +5,16 @@ import com.squareup.javapoet.JavaFile;
 import org.junit.Assert;
 import org.junit.Test;
 
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
 import java.io.File;
+import java.io.FileWriter;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Scanner;
 
 public class ClientGeneratorTest {
@@ -52,4 +61,210 @@ public class ClientGeneratorTest {
 
         Assert.assertEquals(control, content);
     }
+
+    @Test
+    public void testFromClassDataWithoutTypeName() throws Exception {
+        ResourceAnalyzer.ClassData analyzed = new ResourceAnalyzer().analyze(ExampleEndpoint.class);
+        ResourceAnalyzer.ClassData classData = new ResourceAnalyzer.ClassData(analyzed.iface, ExampleEndpoint.class.getName(), analyzed.path,
+                analyzed.consumes, analyzed.produces, analyzed.methods, analyzed.params);
+        Assert.assertEquals(analyzed.typeName, classData.typeName);
+        Assert.assertEquals(analyzed.className, classData.className);
+
+        String control = new Scanner(new File("src/test/java/io/github/yeagy/jaxrs/ExampleEndpointClient.java")).useDelimiter("\\Z").next();
+        Assert.assertEquals(control, new ClientGenerator().generate(classData).toString().trim());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testMethodDataFromVerb() throws Exception {
+        ResourceAnalyzer.MethodData methodData = new ResourceAnalyzer.MethodData("find", Example.class, "{key}", null, null,
+                ResourceAnalyzer.MethodData.Verb.PUT, Collections.<ResourceAnalyzer.ParamData>emptyList());
+        Assert.assertEquals(ResourceAnalyzer.MethodData.Verb.PUT, methodData.verb);
+        Assert.assertEquals("PUT", methodData.httpMethod);
+    }
+
+    @Test
+    public void testCompletionStageFromInterface() throws Exception {
+        JavaFile file = new ClientGenerator(ClientGenerator.Flavor.COMPLETION_STAGE).generate(ExampleEndpoint.class);
+
+        String control = new Scanner(new File("src/test/java/io/github/yeagy/jaxrs/ExampleEndpointStageClient.java")).useDelimiter("\\Z").next();
+        String content = file.toString().trim();
+
+        Assert.assertEquals(control, content);
+    }
+
+    @Test
+    public void testCompletionStageFromClass() throws Exception {
+        JavaFile file = new ClientGenerator(ClientGenerator.Flavor.COMPLETION_STAGE).generate(ExampleClassEndpoint.class);
+
+        String control = new Scanner(new File("src/test/java/io/github/yeagy/jaxrs/ExampleClassEndpointStageClient.java")).useDelimiter("\\Z").next();
+        String content = file.toString().trim();
+
+        Assert.assertEquals(control, content);
+    }
+
+    @Test
+    public void testPublisherFromInterface() throws Exception {
+        JavaFile file = new ClientGenerator(ClientGenerator.Flavor.PUBLISHER).generate(ExampleEndpoint.class);
+
+        String control = new Scanner(new File("src/test/java/io/github/yeagy/jaxrs/ExampleEndpointReactiveClient.java")).useDelimiter("\\Z").next();
+        String content = file.toString().trim();
+
+        Assert.assertEquals(control, content);
+    }
+
+    @Test
+    public void testPublisherFromClass() throws Exception {
+        JavaFile file = new ClientGenerator(ClientGenerator.Flavor.PUBLISHER).generate(ExampleClassEndpoint.class);
+
+        String control = new Scanner(new File("src/test/java/io/github/yeagy/jaxrs/ExampleClassEndpointReactiveClient.java")).useDelimiter("\\Z").next();
+        String content = file.toString().trim();
+
+        Assert.assertEquals(control, content);
+    }
+
+    @Test
+    public void testPrecompiledPathsFromInterface() throws Exception {
+        JavaFile file = new ClientGenerator(false, ClientGenerator.Option.PRECOMPILED_PATHS).generate(ExampleEndpoint.class);
+        assertGolden("precompiledPaths/ExampleEndpointClient.java", file);
+    }
+
+    @Test
+    public void testPrecompiledPathsAsyncFromClass() throws Exception {
+        JavaFile file = new ClientGenerator(true, ClientGenerator.Option.PRECOMPILED_PATHS).generate(ExampleClassEndpoint.class);
+        assertGolden("precompiledPaths/ExampleClassEndpointAsyncClient.java", file);
+    }
+
+    @Test
+    public void testBatchFromInterface() throws Exception {
+        JavaFile file = new ClientGenerator(false, ClientGenerator.Option.BATCH).generate(ExampleEndpoint.class);
+        assertGolden("batch/ExampleEndpointClient.java", file);
+    }
+
+    @Test
+    public void testSingleFlightFromInterface() throws Exception {
+        JavaFile file = new ClientGenerator(false, ClientGenerator.Option.SINGLE_FLIGHT).generate(ExampleEndpoint.class);
+        assertGolden("singleFlight/ExampleEndpointClient.java", file);
+    }
+
+    @Test
+    public void testResponseCacheFromInterface() throws Exception {
+        JavaFile file = new ClientGenerator(false, ClientGenerator.Option.RESPONSE_CACHE).generate(ExampleEndpoint.class);
+        assertGolden("responseCache/ExampleEndpointClient.java", file);
+    }
+
+    @Test
+    public void testCallListenerFromClass() throws Exception {
+        JavaFile file = new ClientGenerator(false, ClientGenerator.Option.CALL_LISTENER).generate(ExampleClassEndpoint.class);
+        assertGolden("callListener/ExampleClassEndpointClient.java", file);
+    }
+
+    @Test
+    public void testStreamingFromInterface() throws Exception {
+        JavaFile file = new ClientGenerator(false, ClientGenerator.Option.STREAMING).generate(ExampleEndpoint.class);
+        assertGolden("streaming/ExampleEndpointClient.java", file);
+    }
+
+    @Test
+    public void testStreamingUploadsFromInterface() throws Exception {
+        JavaFile file = new ClientGenerator(false, ClientGenerator.Option.STREAMING_UPLOADS).generate(ExampleUploadEndpoint.class);
+        assertGolden("streamingUploads/ExampleUploadEndpointClient.java", file);
+    }
+
+    @Test
+    public void testFormEncoderFromInterface() throws Exception {
+        JavaFile file = new ClientGenerator(false, ClientGenerator.Option.FORM_ENCODER).generate(ExampleEndpoint.class);
+        assertGolden("formEncoder/ExampleEndpointClient.java", file);
+    }
+
+    @Test
+    public void testRetryFromInterface() throws Exception {
+        JavaFile file = new ClientGenerator(false, ClientGenerator.Option.RETRY).generate(ExampleEndpoint.class);
+        assertGolden("retry/ExampleEndpointClient.java", file);
+    }
+
+    @Test
+    public void testVerbsFromInterface() throws Exception {
+        JavaFile file = new ClientGenerator().generate(ExampleVerbEndpoint.class);
+        assertGolden("verbs/ExampleVerbEndpointClient.java", file);
+    }
+
+    @Test
+    public void testAsyncVerbsFromInterface() throws Exception {
+        JavaFile file = new ClientGenerator(true).generate(ExampleVerbEndpoint.class);
+        assertGolden("verbs/ExampleVerbEndpointAsyncClient.java", file);
+    }
+
+    @Test
+    public void testLoadBalancingFromInterface() throws Exception {
+        JavaFile file = new ClientGenerator(false, ClientGenerator.Option.LOAD_BALANCING).generate(ExampleEndpoint.class);
+        assertGolden("loadBalancing/ExampleEndpointClient.java", file);
+    }
+
+    @Test
+    public void testCompressionFromInterface() throws Exception {
+        JavaFile file = new ClientGenerator(false, ClientGenerator.Option.COMPRESSION).generate(ExampleEndpoint.class);
+        assertGolden("compression/ExampleEndpointClient.java", file);
+    }
+
+    @Test
+    public void testWriteIfChanged() throws Exception {
+        File outDir = File.createTempFile("jaxrs-client-gen", "");
+        outDir.delete();
+        File written = new File(outDir, "io/github/yeagy/jaxrs/ExampleEndpointClient.java");
+        try {
+            JavaFile file = new ClientGenerator().generate(ExampleEndpoint.class);
+            Assert.assertTrue(ClientGenerator.writeIfChanged(file, outDir));
+            Assert.assertEquals(file.toString(), read(written));
+            Assert.assertFalse(ClientGenerator.writeIfChanged(file, outDir));
+
+            FileWriter writer = new FileWriter(written);
+            writer.write("stale");
+            writer.close();
+            Assert.assertTrue(ClientGenerator.writeIfChanged(file, outDir));
+            Assert.assertEquals(file.toString(), read(written));
+            Assert.assertEquals(1, written.getParentFile().list().length);
+        } finally {
+            delete(outDir);
+        }
+    }
+
+    /**
+     * Option goldens share class names with the default clients, so they live in test resources and are compiled here.
+     */
+    private static void assertGolden(String golden, final JavaFile file) throws Exception {
+        String control = new Scanner(new File("src/test/resources/golden/" + golden)).useDelimiter("\\Z").next();
+        Assert.assertEquals(control, file.toString().trim());
+
+        File outDir = File.createTempFile("jaxrs-client-gen", "");
+        outDir.delete();
+        outDir.mkdir();
+        try {
+            JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+            JavaFileObject source = new SimpleJavaFileObject(URI.create("string:///" + file.typeSpec.name + ".java"), JavaFileObject.Kind.SOURCE) {
+                @Override
+                public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                    return file.toString();
+                }
+            };
+            List<String> args = Arrays.asList("-classpath", System.getProperty("java.class.path"), "-d", outDir.getPath());
+            Assert.assertTrue(compiler.getTask(null, null, null, args, null, Collections.singletonList(source)).call());
+        } finally {
+            delete(outDir);
+        }
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static String read(File file) throws Exception {
+        return new Scanner(file, "UTF-8").useDelimiter("\\A").next();
+    }
 }
@@ -0,0 +1,100 @@
+package io.github.yeagy.jaxrs;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Scanner;
+
+public class ClientProcessorTest {
+    private static final String SOURCE_DIR = "src/test/java/io/github/yeagy/jaxrs/";
+
+    private File outDir;
+
+    @Before
+    public void setUp() throws Exception {
+        outDir = File.createTempFile("jaxrs-client-gen", "");
+        outDir.delete();
+        outDir.mkdir();
+    }
+
+    @After
+    public void tearDown() {
+        delete(outDir);
+    }
+
+    @Test
+    public void testSync() throws Exception {
+        Assert.assertEquals(0, compile("-Ajaxrs.client.gen=true"));
+        assertGenerated("ExampleEndpointClient.java");
+        assertGenerated("ExampleClassEndpointClient.java");
+        assertGenerated("src/test/resources/golden/verbs/ExampleVerbEndpointClient.java", "ExampleVerbEndpointClient.java");
+    }
+
+    @Test
+    public void testAsync() throws Exception {
+        Assert.assertEquals(0, compile("-Ajaxrs.client.gen=true", "-Ajaxrs.client.async=true"));
+        assertGenerated("ExampleEndpointAsyncClient.java");
+        assertGenerated("ExampleClassEndpointAsyncClient.java");
+        assertGenerated("src/test/resources/golden/verbs/ExampleVerbEndpointAsyncClient.java", "ExampleVerbEndpointAsyncClient.java");
+    }
+
+    @Test
+    public void testCompletionStage() throws Exception {
+        Assert.assertEquals(0, compile("-Ajaxrs.client.gen=true", "-Ajaxrs.client.flavor=completion_stage"));
+        assertGenerated("ExampleEndpointStageClient.java");
+        assertGenerated("ExampleClassEndpointStageClient.java");
+    }
+
+    @Test
+    public void testPublisher() throws Exception {
+        Assert.assertEquals(0, compile("-Ajaxrs.client.gen=true", "-Ajaxrs.client.flavor=publisher"));
+        assertGenerated("ExampleEndpointReactiveClient.java");
+        assertGenerated("ExampleClassEndpointReactiveClient.java");
+    }
+
+    @Test
+    public void testDisabledByDefault() throws Exception {
+        Assert.assertEquals(0, compile());
+        Assert.assertFalse(new File(outDir, "io").exists());
+    }
+
+    private int compile(String... options) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<String> args = new ArrayList<String>(Arrays.asList(options));
+        args.addAll(Arrays.asList("-proc:only", "-processor", ClientProcessor.class.getName(),
+                "-classpath", System.getProperty("java.class.path"),
+                "-s", outDir.getPath(), "-d", outDir.getPath(),
+                SOURCE_DIR + "Example.java", SOURCE_DIR + "ExampleBeanParam.java",
+                SOURCE_DIR + "ExampleEndpoint.java", SOURCE_DIR + "ExampleClassEndpoint.java",
+                SOURCE_DIR + "ExampleVerbEndpoint.java", SOURCE_DIR + "PATCH.java"));
+        return compiler.run(null, null, null, args.toArray(new String[args.size()]));
+    }
+
+    private void assertGenerated(String fileName) throws Exception {
+        assertGenerated(SOURCE_DIR + fileName, fileName);
+    }
+
+    private void assertGenerated(String controlFile, String fileName) throws Exception {
+        String control = new Scanner(new File(controlFile)).useDelimiter("\\Z").next();
+        String content = new Scanner(new File(outDir, "io/github/yeagy/jaxrs/" + fileName)).useDelimiter("\\Z").next();
+        Assert.assertEquals(control, content);
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,129 @@
+package io.github.yeagy.jaxrs;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.ws.rs.client.Client;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ClientRegistryTest {
+
+    @Test
+    public void testLongestPrefixWins() throws Exception {
+        Client shared = new StubClient().create();
+        Client billing = new StubClient().create();
+        Client reports = new StubClient().create();
+        ClientRegistry registry = new ClientRegistry(shared)
+                .register("http://billing", billing)
+                .register("http://billing/reports", reports);
+        Assert.assertSame(shared, registry.client("http://orders/api"));
+        Assert.assertSame(billing, registry.client("http://billing/api"));
+        Assert.assertSame(reports, registry.client("http://billing/reports/api"));
+    }
+
+    @Test
+    public void testPrefixMatchesAtBoundary() throws Exception {
+        Client shared = new StubClient().create();
+        Client billing = new StubClient().create();
+        Client api = new StubClient().create();
+        ClientRegistry registry = new ClientRegistry(shared)
+                .register("http://billing", billing)
+                .register("http://api/v1/", api);
+        Assert.assertSame(billing, registry.client("http://billing"));
+        Assert.assertSame(billing, registry.client("http://billing:8080/api"));
+        Assert.assertSame(shared, registry.client("http://billing-audit/api"));
+        Assert.assertSame(shared, registry.client("http://billing.internal"));
+        Assert.assertSame(api, registry.client("http://api/v1/orders"));
+        Assert.assertSame(shared, registry.client("http://api/v10"));
+    }
+
+    @Test
+    public void testOneClientPerEndpoint() throws Exception {
+        ClientRegistry registry = new ClientRegistry(new StubClient().create());
+        ExampleEndpointClient client = registry.get(ExampleEndpointClient.class, "http://example");
+        Assert.assertSame(client, registry.get(ExampleEndpointClient.class, "http://example"));
+        Assert.assertNotSame(client, registry.get(ExampleEndpointClient.class, "http://other"));
+    }
+
+    @Test
+    public void testRegisterRebuildsMatchingClients() throws Exception {
+        StubClient shared = new StubClient();
+        StubClient billing = new StubClient();
+        ClientRegistry registry = new ClientRegistry(shared.create());
+        ExampleEndpointClient before = registry.get(ExampleEndpointClient.class, "http://billing/api");
+        ExampleEndpointClient orders = registry.get(ExampleEndpointClient.class, "http://orders/api");
+        registry.register("http://billing", billing.create());
+
+        ExampleEndpointClient after = registry.get(ExampleEndpointClient.class, "http://billing/api");
+        Assert.assertNotSame(before, after);
+        Assert.assertSame(orders, registry.get(ExampleEndpointClient.class, "http://orders/api"));
+        billing.entity = new Example("key");
+        after.find("key");
+        Assert.assertEquals(1, billing.requests.size());
+        Assert.assertTrue(shared.requests.isEmpty());
+    }
+
+    @Test
+    public void testClosedRegistryRejectsUse() throws Exception {
+        ClientRegistry registry = new ClientRegistry(new StubClient().create());
+        registry.get(ExampleEndpointClient.class, "http://example");
+        registry.close();
+        registry.close();
+        try {
+            registry.get(ExampleEndpointClient.class, "http://example");
+            Assert.fail();
+        } catch (IllegalStateException expected) {
+        }
+        try {
+            registry.register("http://billing", new StubClient().create());
+            Assert.fail();
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    @Test
+    public void testNoClientConstructor() throws Exception {
+        ClientRegistry registry = new ClientRegistry(new StubClient().create());
+        try {
+            registry.get(Example.class, "http://example");
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals(Example.class.getName() + " has no public (Client, String) constructor", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testCloseOncePerClient() throws Exception {
+        AtomicInteger closed = new AtomicInteger();
+        Client shared = closeCounting(closed);
+        Client other = closeCounting(closed);
+        new ClientRegistry(shared)
+                .register("http://a", other)
+                .register("http://b", other)
+                .register("http://c", shared)
+                .close();
+        Assert.assertEquals(2, closed.get());
+    }
+
+    private static Client closeCounting(final AtomicInteger closed) {
+        return (Client) Proxy.newProxyInstance(ClientRegistryTest.class.getClassLoader(), new Class[]{Client.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("close")) {
+                    closed.incrementAndGet();
+                    return null;
+                }
+                if (method.getName().equals("hashCode")) {
+                    return System.identityHashCode(proxy);
+                }
+                if (method.getName().equals("equals")) {
+                    return proxy == args[0];
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+}
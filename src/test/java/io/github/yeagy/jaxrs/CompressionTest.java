@@ -0,0 +1,227 @@
+package io.github.yeagy.jaxrs;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.ReaderInterceptor;
+import javax.ws.rs.ext.ReaderInterceptorContext;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+public class CompressionTest {
+    private static GeneratedClient generated;
+
+    @BeforeClass
+    public static void generate() throws Exception {
+        generated = GeneratedClient.compile(new ClientGenerator(false, ClientGenerator.Option.COMPRESSION).generate(ExampleEndpoint.class));
+    }
+
+    @Test
+    public void testBelowThresholdSentAsIs() throws Exception {
+        for (int size : new int[]{0, 100, 1024}) {
+            byte[] entity = bytes(size);
+            Writer writer = new Writer(entity);
+            writer.headers.putSingle(HttpHeaders.CONTENT_LENGTH, size);
+            compression(1024).aroundWriteTo(writer.context());
+
+            Assert.assertArrayEquals(entity, writer.sent.toByteArray());
+            Assert.assertFalse(writer.headers.containsKey(HttpHeaders.CONTENT_ENCODING));
+            Assert.assertEquals(size, writer.headers.getFirst(HttpHeaders.CONTENT_LENGTH));
+        }
+    }
+
+    @Test
+    public void testAboveThresholdGzipped() throws Exception {
+        for (int size : new int[]{1025, 5000}) {
+            byte[] entity = bytes(size);
+            Writer writer = new Writer(entity);
+            writer.headers.putSingle(HttpHeaders.CONTENT_LENGTH, size);
+            compression(1024).aroundWriteTo(writer.context());
+
+            Assert.assertEquals("gzip", writer.headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+            Assert.assertFalse(writer.headers.containsKey(HttpHeaders.CONTENT_LENGTH));
+            Assert.assertArrayEquals(entity, ClassFileReader.readFully(new GZIPInputStream(new ByteArrayInputStream(writer.sent.toByteArray()))));
+        }
+    }
+
+    @Test
+    public void testEncodedEntityLeftAlone() throws Exception {
+        byte[] entity = bytes(5000);
+        Writer writer = new Writer(entity);
+        writer.headers.putSingle(HttpHeaders.CONTENT_ENCODING, "br");
+        compression(1024).aroundWriteTo(writer.context());
+        Assert.assertArrayEquals(entity, writer.sent.toByteArray());
+        Assert.assertEquals("br", writer.headers.getFirst(HttpHeaders.CONTENT_ENCODING));
+
+        writer = new Writer(entity);
+        compression(Integer.MAX_VALUE).aroundWriteTo(writer.context());
+        Assert.assertArrayEquals(entity, writer.sent.toByteArray());
+        Assert.assertFalse(writer.headers.containsKey(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    public void testNegativeThresholdRejected() throws Exception {
+        try {
+            compression(-1);
+            Assert.fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void testGzipResponseInflated() throws Exception {
+        byte[] entity = bytes(5000);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        GZIPOutputStream gzip = new GZIPOutputStream(body);
+        gzip.write(entity);
+        gzip.close();
+        for (String encoding : new String[]{"gzip", "x-gzip", "GZIP"}) {
+            Reader reader = new Reader(body.toByteArray(), encoding);
+            Assert.assertArrayEquals(entity, (byte[]) compression(1024).aroundReadFrom(reader.context()));
+            Assert.assertFalse(reader.headers.containsKey(HttpHeaders.CONTENT_ENCODING));
+        }
+    }
+
+    @Test
+    public void testEmptyGzipResponse() throws Exception {
+        Reader reader = new Reader(new byte[0], "gzip");
+        Assert.assertArrayEquals(new byte[0], (byte[]) compression(1024).aroundReadFrom(reader.context()));
+        Assert.assertFalse(reader.headers.containsKey(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    public void testDeflateResponseInflated() throws Exception {
+        byte[] entity = bytes(5000);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DeflaterOutputStream deflater = new DeflaterOutputStream(body);
+        deflater.write(entity);
+        deflater.close();
+        Reader reader = new Reader(body.toByteArray(), "deflate");
+        Assert.assertArrayEquals(entity, (byte[]) compression(1024).aroundReadFrom(reader.context()));
+        Assert.assertFalse(reader.headers.containsKey(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    public void testIdentityResponseReadAsIs() throws Exception {
+        byte[] entity = bytes(100);
+        Reader reader = new Reader(entity, null);
+        Assert.assertArrayEquals(entity, (byte[]) compression(1024).aroundReadFrom(reader.context()));
+    }
+
+    /**
+     * Backs a {@link WriterInterceptorContext} whose proceed writes the entity in uneven chunks.
+     */
+    private static class Writer implements InvocationHandler {
+        final MultivaluedMap<String, Object> headers = new MultivaluedHashMap<String, Object>();
+        final ByteArrayOutputStream sent = new ByteArrayOutputStream();
+        private final byte[] entity;
+        private OutputStream out = sent;
+
+        Writer(byte[] entity) {
+            this.entity = entity;
+        }
+
+        WriterInterceptorContext context() {
+            return (WriterInterceptorContext) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{WriterInterceptorContext.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Exception {
+            if (method.getName().equals("getHeaders")) {
+                return headers;
+            } else if (method.getName().equals("getOutputStream")) {
+                return out;
+            } else if (method.getName().equals("setOutputStream")) {
+                out = (OutputStream) args[0];
+                return null;
+            } else if (method.getName().equals("proceed")) {
+                for (int off = 0, len = 1; off < entity.length; off += len, len = len * 3 + 1) {
+                    out.write(entity, off, Math.min(len, entity.length - off));
+                }
+                return null;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        }
+    }
+
+    /**
+     * Backs a {@link ReaderInterceptorContext} whose proceed reads the whole body.
+     */
+    private static class Reader implements InvocationHandler {
+        final MultivaluedMap<String, String> headers = new MultivaluedHashMap<String, String>();
+        private InputStream in;
+
+        Reader(byte[] body, String encoding) {
+            this.in = new ByteArrayInputStream(body);
+            if (encoding != null) {
+                headers.putSingle(HttpHeaders.CONTENT_ENCODING, encoding);
+            }
+        }
+
+        ReaderInterceptorContext context() {
+            return (ReaderInterceptorContext) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{ReaderInterceptorContext.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Exception {
+            if (method.getName().equals("getHeaders")) {
+                return headers;
+            } else if (method.getName().equals("getInputStream")) {
+                return in;
+            } else if (method.getName().equals("setInputStream")) {
+                in = (InputStream) args[0];
+                return null;
+            } else if (method.getName().equals("proceed")) {
+                return ClassFileReader.readFully(in);
+            }
+            throw new UnsupportedOperationException(method.getName());
+        }
+    }
+
+    private static Compression compression(int threshold) throws Exception {
+        return new Compression(GeneratedClient.construct(generated.nested("Compression"), threshold));
+    }
+
+    /**
+     * The generated provider, through the interceptor interfaces it implements.
+     */
+    private static class Compression {
+        private final Object provider;
+
+        Compression(Object provider) {
+            this.provider = provider;
+        }
+
+        void aroundWriteTo(WriterInterceptorContext context) throws Exception {
+            ((WriterInterceptor) provider).aroundWriteTo(context);
+        }
+
+        Object aroundReadFrom(ReaderInterceptorContext context) throws Exception {
+            return ((ReaderInterceptor) provider).aroundReadFrom(context);
+        }
+    }
+
+    private static byte[] bytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        //repetitive enough to compress
+        Arrays.fill(bytes, size / 2, size, (byte) 'a');
+        return bytes;
+    }
+}
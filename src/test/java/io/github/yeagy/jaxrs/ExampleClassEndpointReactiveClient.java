@@ -0,0 +1,122 @@
+package io.github.yeagy.jaxrs;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.InvocationCallback;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.Response;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+public class ExampleClassEndpointReactiveClient {
+    private final WebTarget base;
+
+    public ExampleClassEndpointReactiveClient(Client client, String endpointUrl) {
+        base = client.target(endpointUrl);
+    }
+
+    public Publisher<Example> findExample(final String classHeader, final String classKey, final long classQuery, final String methodKey) {
+        return new CallPublisher<Example>() {
+            @Override
+            Future<?> call(final CallSubscription<Example> subscription) {
+                return base.path("class")
+                        .path(classKey)
+                        .path("more")
+                        .path(methodKey)
+                        .queryParam("classQuery", classQuery)
+                        .request("application/json", "application/xml")
+                        .header("classHeader", classHeader)
+                        .async()
+                        .get(new InvocationCallback<Example>() {
+                            @Override
+                            public void completed(Example response) {
+                                subscription.complete(response);
+                            }
+
+                            @Override
+                            public void failed(Throwable throwable) {
+                                subscription.fail(throwable);
+                            }
+                        });
+            }
+        };
+    }
+
+    private abstract static class CallPublisher<T> implements Publisher<T> {
+        abstract Future<?> call(CallSubscription<T> subscription);
+
+        @Override
+        public void subscribe(Subscriber<? super T> subscriber) {
+            if (subscriber == null) {
+                throw new NullPointerException("subscriber");
+            }
+            subscriber.onSubscribe(new CallSubscription<T>(this, subscriber));
+        }
+    }
+
+    private static final class CallSubscription<T> implements Subscription {
+        private final CallPublisher<T> publisher;
+
+        private final Subscriber<? super T> subscriber;
+
+        private final AtomicBoolean requested = new AtomicBoolean();
+
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        private volatile Future<?> future;
+
+        CallSubscription(CallPublisher<T> publisher, Subscriber<? super T> subscriber) {
+            this.publisher = publisher;
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                fail(new IllegalArgumentException("request must be positive: " + n));
+            } else if (requested.compareAndSet(false, true)) {
+                Future<?> call;
+                try {
+                    call = publisher.call(this);
+                } catch (RuntimeException e) {
+                    fail(e);
+                    return;
+                }
+                future = call;
+                if (done.get() && call != null) {
+                    //cancelled while the call was being made
+                    call.cancel(true);
+                }
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (done.compareAndSet(false, true)) {
+                Future<?> call = future;
+                if (call != null) {
+                    call.cancel(true);
+                }
+            }
+        }
+
+        void complete(T result) {
+            if (done.compareAndSet(false, true)) {
+                if (result != null) {
+                    subscriber.onNext(result);
+                }
+                subscriber.onComplete();
+            } else if (result instanceof Response) {
+                ((Response) result).close();
+            }
+        }
+
+        void fail(Throwable throwable) {
+            if (done.compareAndSet(false, true)) {
+                subscriber.onError(throwable);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package io.github.yeagy.jaxrs;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.InvocationCallback;
+import javax.ws.rs.client.WebTarget;
+
+public class ExampleClassEndpointStageClient {
+    private final WebTarget base;
+
+    public ExampleClassEndpointStageClient(Client client, String endpointUrl) {
+        base = client.target(endpointUrl);
+    }
+
+    public CompletionStage<Example> findExample(String classHeader, String classKey, long classQuery, String methodKey) {
+        final CompletableFuture<Example> future = new CompletableFuture<Example>();
+        base.path("class")
+                .path(classKey)
+                .path("more")
+                .path(methodKey)
+                .queryParam("classQuery", classQuery)
+                .request("application/json", "application/xml")
+                .header("classHeader", classHeader)
+                .async()
+                .get(new InvocationCallback<Example>() {
+                    @Override
+                    public void completed(Example response) {
+                        future.complete(response);
+                    }
+
+                    @Override
+                    public void failed(Throwable throwable) {
+                        future.completeExceptionally(throwable);
+                    }
+                });
+        return future;
+    }
+}
@@ -13,6 +13,8 @@ import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.Response;
 
 public class ExampleEndpointAsyncClient {
+    private static final GenericType<List<Example>> LIST_EXAMPLE_TYPE = new GenericType<List<Example>>(){};
+
     private final WebTarget base;
 
     public ExampleEndpointAsyncClient(Client client, String endpointUrl) {
@@ -46,7 +48,7 @@ public class ExampleEndpointAsyncClient {
         return base.path("example")
                 .request("application/json")
                 .async()
-                .get(new GenericType<List<Example>>(){});
+                .get(LIST_EXAMPLE_TYPE);
     }
 
     public Future<Response> findBeanParams(String exampleKey, ExampleBeanParam beanParam) {
@@ -101,7 +103,7 @@ public class ExampleEndpointAsyncClient {
         return base.path("example")
                 .request("application/json")
                 .async()
-                .post(Entity.entity(entity, "application/json"), new GenericType<List<Example>>(){});
+                .post(Entity.entity(entity, "application/json"), LIST_EXAMPLE_TYPE);
     }
 
     public Future<Example> postKitchenSink(String exampleKey, String modParam, String subKey, String otherParam, Example entity) {
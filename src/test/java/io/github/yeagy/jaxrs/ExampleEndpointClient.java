@@ -12,6 +12,8 @@ import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.Response;
 
 public class ExampleEndpointClient implements ExampleEndpoint {
+    private static final GenericType<List<Example>> LIST_EXAMPLE_TYPE = new GenericType<List<Example>>(){};
+
     private final WebTarget base;
 
     public ExampleEndpointClient(Client client, String endpointUrl) {
@@ -45,7 +47,7 @@ public class ExampleEndpointClient implements ExampleEndpoint {
     public List<Example> findAll() {
         return base.path("example")
                 .request("application/json")
-                .get(new GenericType<List<Example>>(){});
+                .get(LIST_EXAMPLE_TYPE);
     }
 
     @Override
@@ -101,7 +103,7 @@ public class ExampleEndpointClient implements ExampleEndpoint {
     public List<Example> postGenericReturn(Example entity) {
         return base.path("example")
                 .request("application/json")
-                .post(Entity.entity(entity, "application/json"), new GenericType<List<Example>>(){});
+                .post(Entity.entity(entity, "application/json"), LIST_EXAMPLE_TYPE);
     }
 
     @Override
@@ -0,0 +1,360 @@
+package io.github.yeagy.jaxrs;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.InvocationCallback;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.Cookie;
+import javax.ws.rs.core.Form;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.Response;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+public class ExampleEndpointReactiveClient {
+    private final WebTarget base;
+
+    public ExampleEndpointReactiveClient(Client client, String endpointUrl) {
+        base = client.target(endpointUrl);
+    }
+
+    public Publisher<Void> create(final Example entity) {
+        return new CallPublisher<Void>() {
+            @Override
+            Future<?> call(final CallSubscription<Void> subscription) {
+                return base.path("example")
+                        .request("application/json")
+                        .async()
+                        .post(Entity.entity(entity, "application/json"), new InvocationCallback<Response>() {
+                            @Override
+                            public void completed(Response response) {
+                                response.close();
+                                subscription.complete(null);
+                            }
+
+                            @Override
+                            public void failed(Throwable throwable) {
+                                subscription.fail(throwable);
+                            }
+                        });
+            }
+        };
+    }
+
+    public Publisher<Void> delete(final String exampleKey) {
+        return new CallPublisher<Void>() {
+            @Override
+            Future<?> call(final CallSubscription<Void> subscription) {
+                return base.path("example")
+                        .path(exampleKey)
+                        .request("application/json")
+                        .async()
+                        .delete(new InvocationCallback<Response>() {
+                            @Override
+                            public void completed(Response response) {
+                                response.close();
+                                subscription.complete(null);
+                            }
+
+                            @Override
+                            public void failed(Throwable throwable) {
+                                subscription.fail(throwable);
+                            }
+                        });
+            }
+        };
+    }
+
+    public Publisher<Example> find(final String exampleKey) {
+        return new CallPublisher<Example>() {
+            @Override
+            Future<?> call(final CallSubscription<Example> subscription) {
+                return base.path("example")
+                        .path(exampleKey)
+                        .request("application/json")
+                        .async()
+                        .get(new InvocationCallback<Example>() {
+                            @Override
+                            public void completed(Example response) {
+                                subscription.complete(response);
+                            }
+
+                            @Override
+                            public void failed(Throwable throwable) {
+                                subscription.fail(throwable);
+                            }
+                        });
+            }
+        };
+    }
+
+    public Publisher<List<Example>> findAll() {
+        return new CallPublisher<List<Example>>() {
+            @Override
+            Future<?> call(final CallSubscription<List<Example>> subscription) {
+                return base.path("example")
+                        .request("application/json")
+                        .async()
+                        .get(new InvocationCallback<List<Example>>() {
+                            @Override
+                            public void completed(List<Example> response) {
+                                subscription.complete(response);
+                            }
+
+                            @Override
+                            public void failed(Throwable throwable) {
+                                subscription.fail(throwable);
+                            }
+                        });
+            }
+        };
+    }
+
+    public Publisher<Response> findBeanParams(final String exampleKey, final ExampleBeanParam beanParam) {
+        return new CallPublisher<Response>() {
+            @Override
+            Future<?> call(final CallSubscription<Response> subscription) {
+                return base.path("example")
+                        .path(exampleKey)
+                        .path("text")
+                        .path(beanParam.getBeanPath())
+                        .queryParam("fieldQuery", beanParam.fieldQuery)
+                        .matrixParam("constructorMatrix", beanParam.getConstructorMatrix())
+                        .request("application/json")
+                        .async()
+                        .get(new InvocationCallback<Response>() {
+                            @Override
+                            public void completed(Response response) {
+                                subscription.complete(response);
+                            }
+
+                            @Override
+                            public void failed(Throwable throwable) {
+                                subscription.fail(throwable);
+                            }
+                        });
+            }
+        };
+    }
+
+    public Publisher<Example> findKitchenSink(final String exampleKey, final String headParam, final String modParam, final String subKey, final String mtxParam, final String otherParam, final Cookie cookieParam, final Example context) {
+        return new CallPublisher<Example>() {
+            @Override
+            Future<?> call(final CallSubscription<Example> subscription) {
+                return base.path("example")
+                        .path(exampleKey)
+                        .path("text")
+                        .path(subKey)
+                        .queryParam("modParam", modParam)
+                        .matrixParam("mtxParam", mtxParam)
+                        .queryParam("otherParam", otherParam)
+                        .request("application/json")
+                        .header("headParam", headParam)
+                        .cookie(cookieParam)
+                        .async()
+                        .get(new InvocationCallback<Example>() {
+                            @Override
+                            public void completed(Example response) {
+                                subscription.complete(response);
+                            }
+
+                            @Override
+                            public void failed(Throwable throwable) {
+                                subscription.fail(throwable);
+                            }
+                        });
+            }
+        };
+    }
+
+    public Example nonJaxrsMethod(String param0, long param1) {
+        return null;
+    }
+
+    public Publisher<Void> postFormParams(final String exampleKey, final String soloParam, final long longParam, final Integer integerParam, final List<String> listParams, final Set<Integer> setParams) {
+        MultivaluedHashMap<String, String> mmap = new MultivaluedHashMap<String, String>();
+        mmap.add("soloParam", soloParam);
+        mmap.add("longParam", Long.toString(longParam));
+        mmap.add("integerParam", integerParam != null ? integerParam.toString() : null);
+        mmap.addAll("listParams", listParams);
+        for (Integer setParams_i : setParams) {
+            mmap.add("setParams", setParams_i != null ? setParams_i.toString() : null);
+        }
+        final Form entity = new Form(mmap);
+        return new CallPublisher<Void>() {
+            @Override
+            Future<?> call(final CallSubscription<Void> subscription) {
+                return base.path("example")
+                        .path(exampleKey)
+                        .request("application/json")
+                        .async()
+                        .post(Entity.entity(entity, "application/x-www-form-urlencoded"), new InvocationCallback<Response>() {
+                            @Override
+                            public void completed(Response response) {
+                                response.close();
+                                subscription.complete(null);
+                            }
+
+                            @Override
+                            public void failed(Throwable throwable) {
+                                subscription.fail(throwable);
+                            }
+                        });
+            }
+        };
+    }
+
+    public Publisher<List<Example>> postGenericReturn(final Example entity) {
+        return new CallPublisher<List<Example>>() {
+            @Override
+            Future<?> call(final CallSubscription<List<Example>> subscription) {
+                return base.path("example")
+                        .request("application/json")
+                        .async()
+                        .post(Entity.entity(entity, "application/json"), new InvocationCallback<List<Example>>() {
+                            @Override
+                            public void completed(List<Example> response) {
+                                subscription.complete(response);
+                            }
+
+                            @Override
+                            public void failed(Throwable throwable) {
+                                subscription.fail(throwable);
+                            }
+                        });
+            }
+        };
+    }
+
+    public Publisher<Example> postKitchenSink(final String exampleKey, final String modParam, final String subKey, final String otherParam, final Example entity) {
+        return new CallPublisher<Example>() {
+            @Override
+            Future<?> call(final CallSubscription<Example> subscription) {
+                return base.path("example")
+                        .path(exampleKey)
+                        .path("text")
+                        .path(subKey)
+                        .queryParam("modParam", modParam)
+                        .queryParam("otherParam", otherParam)
+                        .request("application/json")
+                        .async()
+                        .post(Entity.entity(entity, "application/json"), new InvocationCallback<Example>() {
+                            @Override
+                            public void completed(Example response) {
+                                subscription.complete(response);
+                            }
+
+                            @Override
+                            public void failed(Throwable throwable) {
+                                subscription.fail(throwable);
+                            }
+                        });
+            }
+        };
+    }
+
+    public Publisher<Void> replace(final String exampleKey, final Example entity) {
+        return new CallPublisher<Void>() {
+            @Override
+            Future<?> call(final CallSubscription<Void> subscription) {
+                return base.path("example")
+                        .path(exampleKey)
+                        .request("application/json")
+                        .async()
+                        .put(Entity.entity(entity, "application/json"), new InvocationCallback<Response>() {
+                            @Override
+                            public void completed(Response response) {
+                                response.close();
+                                subscription.complete(null);
+                            }
+
+                            @Override
+                            public void failed(Throwable throwable) {
+                                subscription.fail(throwable);
+                            }
+                        });
+            }
+        };
+    }
+
+    private abstract static class CallPublisher<T> implements Publisher<T> {
+        abstract Future<?> call(CallSubscription<T> subscription);
+
+        @Override
+        public void subscribe(Subscriber<? super T> subscriber) {
+            if (subscriber == null) {
+                throw new NullPointerException("subscriber");
+            }
+            subscriber.onSubscribe(new CallSubscription<T>(this, subscriber));
+        }
+    }
+
+    private static final class CallSubscription<T> implements Subscription {
+        private final CallPublisher<T> publisher;
+
+        private final Subscriber<? super T> subscriber;
+
+        private final AtomicBoolean requested = new AtomicBoolean();
+
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        private volatile Future<?> future;
+
+        CallSubscription(CallPublisher<T> publisher, Subscriber<? super T> subscriber) {
+            this.publisher = publisher;
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                fail(new IllegalArgumentException("request must be positive: " + n));
+            } else if (requested.compareAndSet(false, true)) {
+                Future<?> call;
+                try {
+                    call = publisher.call(this);
+                } catch (RuntimeException e) {
+                    fail(e);
+                    return;
+                }
+                future = call;
+                if (done.get() && call != null) {
+                    //cancelled while the call was being made
+                    call.cancel(true);
+                }
+            }
+        }
+
+        @Override
+        public void cancel() {
+            if (done.compareAndSet(false, true)) {
+                Future<?> call = future;
+                if (call != null) {
+                    call.cancel(true);
+                }
+            }
+        }
+
+        void complete(T result) {
+            if (done.compareAndSet(false, true)) {
+                if (result != null) {
+                    subscriber.onNext(result);
+                }
+                subscriber.onComplete();
+            } else if (result instanceof Response) {
+                ((Response) result).close();
+            }
+        }
+
+        void fail(Throwable throwable) {
+            if (done.compareAndSet(false, true)) {
+                subscriber.onError(throwable);
+            }
+        }
+    }
+}
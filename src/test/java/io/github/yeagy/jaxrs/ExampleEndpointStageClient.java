@@ -0,0 +1,251 @@
+package io.github.yeagy.jaxrs;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.InvocationCallback;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.Cookie;
+import javax.ws.rs.core.Form;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.Response;
+
+public class ExampleEndpointStageClient {
+    private final WebTarget base;
+
+    public ExampleEndpointStageClient(Client client, String endpointUrl) {
+        base = client.target(endpointUrl);
+    }
+
+    public CompletionStage<Void> create(Example entity) {
+        final CompletableFuture<Void> future = new CompletableFuture<Void>();
+        base.path("example")
+                .request("application/json")
+                .async()
+                .post(Entity.entity(entity, "application/json"), new InvocationCallback<Response>() {
+                    @Override
+                    public void completed(Response response) {
+                        response.close();
+                        future.complete(null);
+                    }
+
+                    @Override
+                    public void failed(Throwable throwable) {
+                        future.completeExceptionally(throwable);
+                    }
+                });
+        return future;
+    }
+
+    public CompletionStage<Void> delete(String exampleKey) {
+        final CompletableFuture<Void> future = new CompletableFuture<Void>();
+        base.path("example")
+                .path(exampleKey)
+                .request("application/json")
+                .async()
+                .delete(new InvocationCallback<Response>() {
+                    @Override
+                    public void completed(Response response) {
+                        response.close();
+                        future.complete(null);
+                    }
+
+                    @Override
+                    public void failed(Throwable throwable) {
+                        future.completeExceptionally(throwable);
+                    }
+                });
+        return future;
+    }
+
+    public CompletionStage<Example> find(String exampleKey) {
+        final CompletableFuture<Example> future = new CompletableFuture<Example>();
+        base.path("example")
+                .path(exampleKey)
+                .request("application/json")
+                .async()
+                .get(new InvocationCallback<Example>() {
+                    @Override
+                    public void completed(Example response) {
+                        future.complete(response);
+                    }
+
+                    @Override
+                    public void failed(Throwable throwable) {
+                        future.completeExceptionally(throwable);
+                    }
+                });
+        return future;
+    }
+
+    public CompletionStage<List<Example>> findAll() {
+        final CompletableFuture<List<Example>> future = new CompletableFuture<List<Example>>();
+        base.path("example")
+                .request("application/json")
+                .async()
+                .get(new InvocationCallback<List<Example>>() {
+                    @Override
+                    public void completed(List<Example> response) {
+                        future.complete(response);
+                    }
+
+                    @Override
+                    public void failed(Throwable throwable) {
+                        future.completeExceptionally(throwable);
+                    }
+                });
+        return future;
+    }
+
+    public CompletionStage<Response> findBeanParams(String exampleKey, ExampleBeanParam beanParam) {
+        final CompletableFuture<Response> future = new CompletableFuture<Response>();
+        base.path("example")
+                .path(exampleKey)
+                .path("text")
+                .path(beanParam.getBeanPath())
+                .queryParam("fieldQuery", beanParam.fieldQuery)
+                .matrixParam("constructorMatrix", beanParam.getConstructorMatrix())
+                .request("application/json")
+                .async()
+                .get(new InvocationCallback<Response>() {
+                    @Override
+                    public void completed(Response response) {
+                        future.complete(response);
+                    }
+
+                    @Override
+                    public void failed(Throwable throwable) {
+                        future.completeExceptionally(throwable);
+                    }
+                });
+        return future;
+    }
+
+    public CompletionStage<Example> findKitchenSink(String exampleKey, String headParam, String modParam, String subKey, String mtxParam, String otherParam, Cookie cookieParam, Example context) {
+        final CompletableFuture<Example> future = new CompletableFuture<Example>();
+        base.path("example")
+                .path(exampleKey)
+                .path("text")
+                .path(subKey)
+                .queryParam("modParam", modParam)
+                .matrixParam("mtxParam", mtxParam)
+                .queryParam("otherParam", otherParam)
+                .request("application/json")
+                .header("headParam", headParam)
+                .cookie(cookieParam)
+                .async()
+                .get(new InvocationCallback<Example>() {
+                    @Override
+                    public void completed(Example response) {
+                        future.complete(response);
+                    }
+
+                    @Override
+                    public void failed(Throwable throwable) {
+                        future.completeExceptionally(throwable);
+                    }
+                });
+        return future;
+    }
+
+    public Example nonJaxrsMethod(String param0, long param1) {
+        return null;
+    }
+
+    public CompletionStage<Void> postFormParams(String exampleKey, String soloParam, long longParam, Integer integerParam, List<String> listParams, Set<Integer> setParams) {
+        MultivaluedHashMap<String, String> mmap = new MultivaluedHashMap<String, String>();
+        mmap.add("soloParam", soloParam);
+        mmap.add("longParam", Long.toString(longParam));
+        mmap.add("integerParam", integerParam != null ? integerParam.toString() : null);
+        mmap.addAll("listParams", listParams);
+        for (Integer setParams_i : setParams) {
+            mmap.add("setParams", setParams_i != null ? setParams_i.toString() : null);
+        }
+        Form entity = new Form(mmap);
+        final CompletableFuture<Void> future = new CompletableFuture<Void>();
+        base.path("example")
+                .path(exampleKey)
+                .request("application/json")
+                .async()
+                .post(Entity.entity(entity, "application/x-www-form-urlencoded"), new InvocationCallback<Response>() {
+                    @Override
+                    public void completed(Response response) {
+                        response.close();
+                        future.complete(null);
+                    }
+
+                    @Override
+                    public void failed(Throwable throwable) {
+                        future.completeExceptionally(throwable);
+                    }
+                });
+        return future;
+    }
+
+    public CompletionStage<List<Example>> postGenericReturn(Example entity) {
+        final CompletableFuture<List<Example>> future = new CompletableFuture<List<Example>>();
+        base.path("example")
+                .request("application/json")
+                .async()
+                .post(Entity.entity(entity, "application/json"), new InvocationCallback<List<Example>>() {
+                    @Override
+                    public void completed(List<Example> response) {
+                        future.complete(response);
+                    }
+
+                    @Override
+                    public void failed(Throwable throwable) {
+                        future.completeExceptionally(throwable);
+                    }
+                });
+        return future;
+    }
+
+    public CompletionStage<Example> postKitchenSink(String exampleKey, String modParam, String subKey, String otherParam, Example entity) {
+        final CompletableFuture<Example> future = new CompletableFuture<Example>();
+        base.path("example")
+                .path(exampleKey)
+                .path("text")
+                .path(subKey)
+                .queryParam("modParam", modParam)
+                .queryParam("otherParam", otherParam)
+                .request("application/json")
+                .async()
+                .post(Entity.entity(entity, "application/json"), new InvocationCallback<Example>() {
+                    @Override
+                    public void completed(Example response) {
+                        future.complete(response);
+                    }
+
+                    @Override
+                    public void failed(Throwable throwable) {
+                        future.completeExceptionally(throwable);
+                    }
+                });
+        return future;
+    }
+
+    public CompletionStage<Void> replace(String exampleKey, Example entity) {
+        final CompletableFuture<Void> future = new CompletableFuture<Void>();
+        base.path("example")
+                .path(exampleKey)
+                .request("application/json")
+                .async()
+                .put(Entity.entity(entity, "application/json"), new InvocationCallback<Response>() {
+                    @Override
+                    public void completed(Response response) {
+                        response.close();
+                        future.complete(null);
+                    }
+
+                    @Override
+                    public void failed(Throwable throwable) {
+                        future.completeExceptionally(throwable);
+                    }
+                });
+        return future;
+    }
+}
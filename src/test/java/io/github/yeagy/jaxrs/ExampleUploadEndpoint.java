@@ -0,0 +1,22 @@
+package io.github.yeagy.jaxrs;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.POST;
+import javax.ws.rs.PUT;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import java.io.InputStream;
+
+@Path("upload")
+@Produces("application/json")
+@Consumes("application/octet-stream")
+public interface ExampleUploadEndpoint {
+    @POST
+    @Path("{name}")
+    Example upload(@PathParam("name") String name, InputStream entity);
+
+    @PUT
+    @Path("{name}")
+    void replace(@PathParam("name") String name, InputStream entity);
+}
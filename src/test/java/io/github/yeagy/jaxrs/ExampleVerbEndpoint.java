@@ -0,0 +1,31 @@
+package io.github.yeagy.jaxrs;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.FormParam;
+import javax.ws.rs.HEAD;
+import javax.ws.rs.OPTIONS;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Response;
+
+@Path("verb")
+@Produces("application/json")
+@Consumes("application/json")
+public interface ExampleVerbEndpoint {
+    @HEAD
+    @Path("{key}")
+    Response exists(@PathParam("key") String key);
+
+    @OPTIONS
+    Response allowed();
+
+    @PATCH
+    @Path("{key}")
+    Example patch(@PathParam("key") String key, Example entity);
+
+    @PATCH
+    @Path("{key}/name")
+    @Consumes("application/x-www-form-urlencoded")
+    void rename(@PathParam("key") String key, @FormParam("name") String name);
+}
@@ -0,0 +1,82 @@
+package io.github.yeagy.jaxrs;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.net.URLEncoder;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+public class FormEncoderTest {
+    private static GeneratedClient generated;
+
+    @BeforeClass
+    public static void generate() throws Exception {
+        generated = GeneratedClient.compile(new ClientGenerator(false, ClientGenerator.Option.FORM_ENCODER).generate(ExampleEndpoint.class));
+    }
+
+    @Test
+    public void testMatchesUrlEncoder() throws Exception {
+        String solo = "a b+c&d=e/f?g%h~i*j.k-l_m";
+        List<String> list = Arrays.asList("caf\u00e9", "\u20ac5", "\ud83d\ude00", "\ud800x", "x\udc00", "");
+        Set<Integer> set = new LinkedHashSet<Integer>(Arrays.asList(-7, 0, Integer.MAX_VALUE));
+        String body = post(solo, Long.MIN_VALUE, -42, list, set);
+
+        StringBuilder expected = new StringBuilder();
+        expected.append("soloParam=").append(URLEncoder.encode(solo, "UTF-8"));
+        expected.append("&longParam=").append(Long.MIN_VALUE);
+        expected.append("&integerParam=-42");
+        for (String value : list) {
+            expected.append("&listParams=").append(URLEncoder.encode(value, "UTF-8"));
+        }
+        for (Integer value : set) {
+            expected.append("&setParams=").append(value);
+        }
+        Assert.assertEquals(expected.toString(), body);
+    }
+
+    @Test
+    public void testSkipsNulls() throws Exception {
+        String body = post(null, -1, null, Collections.<String>emptyList(), Collections.<Integer>emptySet());
+        Assert.assertEquals("longParam=-1", body);
+    }
+
+    @Test
+    public void testLongValue() throws Exception {
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < 1023; i++) {
+            value.append('a');
+        }
+        //a surrogate pair across the first chunk end, then enough 3 byte chars to grow the buffer a few times
+        value.append("\ud83d\ude00");
+        for (int i = 0; i < 5000; i++) {
+            value.append(i % 2 == 0 ? '\u20ac' : ' ');
+        }
+        String body = post(value.toString(), 0, null, Collections.<String>emptyList(), Collections.<Integer>emptySet());
+        Assert.assertEquals("soloParam=" + URLEncoder.encode(value.toString(), "UTF-8") + "&longParam=0", body);
+    }
+
+    @Test
+    public void testReusedEncoderStartsEmpty() throws Exception {
+        StubClient stub = new StubClient();
+        ExampleEndpoint client = (ExampleEndpoint) generated.newInstance(stub.create(), "http://localhost");
+        client.postFormParams("key", "first", 1, null, Collections.<String>emptyList(), Collections.<Integer>emptySet());
+        client.postFormParams("key", "second", 2, null, Collections.<String>emptyList(), Collections.<Integer>emptySet());
+        Assert.assertEquals("soloParam=second&longParam=2", new String((byte[]) stub.requests.get(1).entity, "US-ASCII"));
+    }
+
+    private static String post(String solo, long longParam, Integer integerParam, List<String> list, Set<Integer> set) throws Exception {
+        StubClient stub = new StubClient();
+        ExampleEndpoint client = (ExampleEndpoint) generated.newInstance(stub.create(), "http://localhost");
+        client.postFormParams("key", solo, longParam, integerParam, list, set);
+        StubClient.Request request = stub.requests.get(0);
+        Assert.assertEquals("POST", request.method);
+        Assert.assertEquals("http://localhost/example/key", request.uri);
+        Assert.assertEquals("application/x-www-form-urlencoded", request.mediaType.toString());
+        return new String((byte[]) request.entity, "US-ASCII");
+    }
+}
@@ -0,0 +1,181 @@
+package io.github.yeagy.jaxrs;
+
+import com.squareup.javapoet.JavaFile;
+import org.junit.Assert;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles and loads a generated client, so tests can run it against a {@link StubClient}. Its nested classes are
+ * reached through reflection.
+ */
+class GeneratedClient {
+    final Class<?> type;
+
+    private GeneratedClient(Class<?> type) {
+        this.type = type;
+    }
+
+    static GeneratedClient compile(final JavaFile file) throws Exception {
+        File outDir = File.createTempFile("jaxrs-client-gen", "");
+        outDir.delete();
+        outDir.mkdir();
+        final Map<String, byte[]> classes = new HashMap<String, byte[]>();
+        try {
+            JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+            JavaFileObject source = new SimpleJavaFileObject(URI.create("string:///" + file.typeSpec.name + ".java"), JavaFileObject.Kind.SOURCE) {
+                @Override
+                public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                    return file.toString();
+                }
+            };
+            List<String> args = Arrays.asList("-nowarn", "-classpath", System.getProperty("java.class.path"), "-d", outDir.getPath());
+            Assert.assertTrue(compiler.getTask(null, null, null, args, null, Collections.singletonList(source)).call());
+            File dir = new File(outDir, file.packageName.replace('.', File.separatorChar));
+            for (File classFile : dir.listFiles()) {
+                String name = classFile.getName();
+                classes.put(file.packageName + "." + name.substring(0, name.length() - ".class".length()), read(classFile));
+            }
+        } finally {
+            delete(outDir);
+        }
+        //generated classes first, the test classpath holds hand written controls of the same names
+        ClassLoader loader = new ClassLoader(GeneratedClient.class.getClassLoader()) {
+            @Override
+            protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                byte[] bytes = classes.get(name);
+                if (bytes == null) {
+                    return super.loadClass(name, resolve);
+                }
+                Class<?> type = findLoadedClass(name);
+                return type != null ? type : defineClass(name, bytes, 0, bytes.length);
+            }
+        };
+        return new GeneratedClient(loader.loadClass(file.packageName + "." + file.typeSpec.name));
+    }
+
+    Class<?> nested(String simpleName) throws ClassNotFoundException {
+        return type.getClassLoader().loadClass(type.getName() + "$" + simpleName);
+    }
+
+    Object newInstance(Object... args) throws Exception {
+        return construct(type, args);
+    }
+
+    /**
+     * @return instance made through the first constructor taking the arguments
+     */
+    static Object construct(Class<?> type, Object... args) throws Exception {
+        for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+            if (matches(constructor.getParameterTypes(), args)) {
+                constructor.setAccessible(true);
+                try {
+                    return constructor.newInstance(args);
+                } catch (InvocationTargetException e) {
+                    throw unwrap(e);
+                }
+            }
+        }
+        throw new NoSuchMethodException(type.getName() + " constructor for " + Arrays.toString(args));
+    }
+
+    /**
+     * @return result of the first method of the name taking the arguments, accessible or not
+     */
+    static Object call(Object target, String name, Object... args) throws Exception {
+        for (Class<?> type = target.getClass(); type != null; type = type.getSuperclass()) {
+            for (Method method : type.getDeclaredMethods()) {
+                if (method.getName().equals(name) && matches(method.getParameterTypes(), args)) {
+                    method.setAccessible(true);
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw unwrap(e);
+                    }
+                }
+            }
+        }
+        throw new NoSuchMethodException(target.getClass().getName() + "." + name + Arrays.toString(args));
+    }
+
+    static Object field(Object target, String name) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(target);
+    }
+
+    private static boolean matches(Class<?>[] types, Object[] args) {
+        if (types.length != args.length) {
+            return false;
+        }
+        for (int i = 0; i < types.length; i++) {
+            Class<?> type = types[i].isPrimitive() ? box(types[i]) : types[i];
+            if (args[i] != null && !type.isInstance(args[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Class<?> box(Class<?> primitive) {
+        if (primitive == int.class) {
+            return Integer.class;
+        } else if (primitive == long.class) {
+            return Long.class;
+        } else if (primitive == double.class) {
+            return Double.class;
+        } else if (primitive == float.class) {
+            return Float.class;
+        } else if (primitive == boolean.class) {
+            return Boolean.class;
+        } else if (primitive == short.class) {
+            return Short.class;
+        } else if (primitive == byte.class) {
+            return Byte.class;
+        }
+        return Character.class;
+    }
+
+    private static Exception unwrap(InvocationTargetException e) {
+        if (e.getCause() instanceof Error) {
+            throw (Error) e.getCause();
+        }
+        return (Exception) e.getCause();
+    }
+
+    private static byte[] read(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            return ClassFileReader.readFully(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,182 @@
+package io.github.yeagy.jaxrs;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LoadBalancerTest {
+    private static GeneratedClient generated;
+
+    @BeforeClass
+    public static void generate() throws Exception {
+        generated = GeneratedClient.compile(new ClientGenerator(false, ClientGenerator.Option.LOAD_BALANCING).generate(ExampleEndpoint.class));
+    }
+
+    @Test
+    public void testPicksLessLoadedOfTwo() throws Exception {
+        Object balancer = balancer(new StubClient(), "http://a", "http://b", "http://c");
+        Map<String, Object> hosts = hosts(balancer);
+        outstanding(hosts.get("http://b")).set(5);
+        outstanding(hosts.get("http://c")).set(10);
+
+        Map<String, Integer> picks = new HashMap<String, Integer>();
+        for (int i = 0; i < 300; i++) {
+            Object host = GeneratedClient.call(balancer, "pick");
+            String url = (String) GeneratedClient.field(host, "url");
+            picks.put(url, picks.containsKey(url) ? picks.get(url) + 1 : 1);
+            GeneratedClient.call(balancer, "release", host, 0, null);
+        }
+        //c loses every pair it is drawn in, b only loses to a
+        Assert.assertFalse(picks.containsKey("http://c"));
+        Assert.assertTrue(picks.get("http://a") > picks.get("http://b"));
+        Assert.assertEquals(5, outstanding(hosts.get("http://b")).get());
+    }
+
+    @Test
+    public void testEjectsOnServerErrorResponses() throws Exception {
+        final StubClient stub = new StubClient();
+        final List<String> hostsCalled = Collections.synchronizedList(new ArrayList<String>());
+        stub.responder = new StubClient.Responder() {
+            @Override
+            public Object respond(StubClient.Request request) {
+                hostsCalled.add(request.uri.substring(0, "http://a".length()));
+                return new StubResponse(request.uri.startsWith("http://a") ? 500 : 204, null);
+            }
+        };
+        Object balancer = balancer(stub, "http://a", "http://b");
+        ExampleEndpoint client = (ExampleEndpoint) generated.newInstance(balancer);
+        Object a = hosts(balancer).get("http://a");
+
+        //void and Response calls get 5xx responses back instead of exceptions
+        for (int i = 0; hostsCalled.size() < 100 && !ejected(a); i++) {
+            if (i % 2 == 0) {
+                client.create(new Example("key"));
+            } else {
+                client.findBeanParams("key", new ExampleBeanParam(1L));
+            }
+        }
+        Assert.assertTrue(ejected(a));
+        Assert.assertEquals(5, Collections.frequency(hostsCalled, "http://a"));
+
+        hostsCalled.clear();
+        for (int i = 0; i < 20; i++) {
+            client.delete("key");
+        }
+        Assert.assertEquals(Collections.nCopies(20, "http://b"), hostsCalled);
+    }
+
+    @Test
+    public void testSuccessResetsFailures() throws Exception {
+        Object balancer = balancer(new StubClient(), "http://a");
+        Object host = GeneratedClient.call(balancer, "pick");
+        for (int i = 0; i < 4; i++) {
+            GeneratedClient.call(balancer, "release", host, 503, null);
+        }
+        GeneratedClient.call(balancer, "release", host, 200, null);
+        for (int i = 0; i < 4; i++) {
+            GeneratedClient.call(balancer, "release", host, 503, null);
+        }
+        Assert.assertFalse(ejected(host));
+        GeneratedClient.call(balancer, "release", host, 503, null);
+        Assert.assertTrue(ejected(host));
+    }
+
+    @Test
+    public void testEjectionExpires() throws Exception {
+        Object balancer = balancer(new StubClient(), "http://a", "http://b");
+        Object a = hosts(balancer).get("http://a");
+        for (int i = 0; i < 5; i++) {
+            GeneratedClient.call(balancer, "release", a, 502, null);
+        }
+        Assert.assertTrue(ejected(a));
+        for (int i = 0; i < 20; i++) {
+            Object host = GeneratedClient.call(balancer, "pick");
+            Assert.assertEquals("http://b", GeneratedClient.field(host, "url"));
+            GeneratedClient.call(balancer, "release", host, 0, null);
+        }
+
+        set(a, "ejectedUntil", System.nanoTime() - 1);
+        int picked = 0;
+        for (int i = 0; i < 50; i++) {
+            Object host = GeneratedClient.call(balancer, "pick");
+            picked += host == a ? 1 : 0;
+            GeneratedClient.call(balancer, "release", host, 0, null);
+        }
+        Assert.assertTrue(picked > 0);
+    }
+
+    @Test
+    public void testEveryHostEjected() throws Exception {
+        Object balancer = balancer(new StubClient(), "http://a", "http://b");
+        for (Object host : hosts(balancer).values()) {
+            for (int i = 0; i < 5; i++) {
+                GeneratedClient.call(balancer, "release", host, 500, null);
+            }
+        }
+        //calls still go somewhere rather than failing
+        Assert.assertNotNull(GeneratedClient.call(balancer, "pick"));
+    }
+
+    @Test
+    public void testUpdateKeepsHostState() throws Exception {
+        Object balancer = balancer(new StubClient(), "http://a", "http://b");
+        Map<String, Object> before = hosts(balancer);
+        outstanding(before.get("http://a")).set(3);
+        for (int i = 0; i < 5; i++) {
+            GeneratedClient.call(balancer, "release", before.get("http://b"), 500, null);
+        }
+
+        GeneratedClient.call(balancer, "update", Arrays.asList("http://b", "http://a", "http://c"));
+        Map<String, Object> after = hosts(balancer);
+        Assert.assertEquals(3, after.size());
+        Assert.assertSame(before.get("http://a"), after.get("http://a"));
+        Assert.assertSame(before.get("http://b"), after.get("http://b"));
+        Assert.assertEquals(3, outstanding(after.get("http://a")).get());
+        Assert.assertTrue(ejected(after.get("http://b")));
+        Assert.assertFalse(ejected(after.get("http://c")));
+
+        GeneratedClient.call(balancer, "update", Collections.singletonList("http://c"));
+        Assert.assertEquals(Collections.singleton("http://c"), hosts(balancer).keySet());
+        try {
+            GeneratedClient.call(balancer, "update", Collections.<String>emptyList());
+            Assert.fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        Assert.assertSame(after.get("http://c"), hosts(balancer).get("http://c"));
+    }
+
+    private static Object balancer(StubClient stub, String... urls) throws Exception {
+        return GeneratedClient.construct(generated.nested("LoadBalancer"), stub.create(), Arrays.asList(urls));
+    }
+
+    private static Map<String, Object> hosts(Object balancer) throws Exception {
+        Map<String, Object> hosts = new HashMap<String, Object>();
+        for (Object host : (Object[]) GeneratedClient.field(balancer, "hosts")) {
+            hosts.put((String) GeneratedClient.field(host, "url"), host);
+        }
+        return hosts;
+    }
+
+    private static AtomicInteger outstanding(Object host) throws Exception {
+        return (AtomicInteger) GeneratedClient.field(host, "outstanding");
+    }
+
+    private static boolean ejected(Object host) throws Exception {
+        return (Boolean) GeneratedClient.field(host, "ejected") && System.nanoTime() - (Long) GeneratedClient.field(host, "ejectedUntil") < 0;
+    }
+
+    private static void set(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -0,0 +1,98 @@
+package io.github.yeagy.jaxrs;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ReactiveClientTest {
+    @Test
+    public void testSentOnRequest() throws Exception {
+        StubClient stub = new StubClient();
+        Publisher<Example> publisher = new ExampleEndpointReactiveClient(stub.create(), "http://localhost").find("key");
+        RecordingSubscriber<Example> subscriber = new RecordingSubscriber<Example>();
+        Assert.assertTrue(stub.invocations.isEmpty());
+
+        publisher.subscribe(subscriber);
+        Assert.assertTrue(stub.invocations.isEmpty());
+
+        subscriber.subscription.request(1);
+        subscriber.subscription.request(1);
+        Assert.assertEquals(1, stub.invocations.size());
+
+        Example example = new Example("key");
+        stub.callbacks.get(0).completed(example);
+        Assert.assertEquals(1, subscriber.next.size());
+        Assert.assertSame(example, subscriber.next.get(0));
+        Assert.assertTrue(subscriber.complete);
+    }
+
+    @Test
+    public void testVoidCompletesWithoutItem() throws Exception {
+        StubClient stub = new StubClient();
+        RecordingSubscriber<Void> subscriber = new RecordingSubscriber<Void>();
+        new ExampleEndpointReactiveClient(stub.create(), "http://localhost").delete("key").subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        StubResponse response = new StubResponse(204, null);
+        stub.callbacks.get(0).completed(response);
+        Assert.assertTrue(response.closed);
+        Assert.assertTrue(subscriber.next.isEmpty());
+        Assert.assertTrue(subscriber.complete);
+    }
+
+    @Test
+    public void testCancelCancelsCall() throws Exception {
+        StubClient stub = new StubClient();
+        RecordingSubscriber<Example> subscriber = new RecordingSubscriber<Example>();
+        new ExampleEndpointReactiveClient(stub.create(), "http://localhost").find("key").subscribe(subscriber);
+        subscriber.subscription.request(1);
+        subscriber.subscription.cancel();
+        Assert.assertTrue(stub.futures.get(0).isCancelled());
+
+        stub.callbacks.get(0).completed(new Example("key"));
+        Assert.assertTrue(subscriber.next.isEmpty());
+        Assert.assertFalse(subscriber.complete);
+    }
+
+    @Test
+    public void testNonPositiveRequest() throws Exception {
+        StubClient stub = new StubClient();
+        RecordingSubscriber<Example> subscriber = new RecordingSubscriber<Example>();
+        new ExampleEndpointReactiveClient(stub.create(), "http://localhost").find("key").subscribe(subscriber);
+        subscriber.subscription.request(0);
+        Assert.assertTrue(subscriber.error instanceof IllegalArgumentException);
+        Assert.assertTrue(stub.invocations.isEmpty());
+    }
+
+    private static class RecordingSubscriber<T> implements Subscriber<T> {
+        Subscription subscription;
+        final List<T> next = new ArrayList<T>();
+        Throwable error;
+        boolean complete;
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(T t) {
+            next.add(t);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+        }
+
+        @Override
+        public void onComplete() {
+            complete = true;
+        }
+    }
+}
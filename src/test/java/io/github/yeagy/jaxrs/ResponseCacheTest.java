@@ -0,0 +1,192 @@
+package io.github.yeagy.jaxrs;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.core.HttpHeaders;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class ResponseCacheTest {
+    private static GeneratedClient generated;
+
+    @BeforeClass
+    public static void generate() throws Exception {
+        generated = GeneratedClient.compile(new ClientGenerator(false, ClientGenerator.Option.RESPONSE_CACHE).generate(ExampleEndpoint.class));
+    }
+
+    @Test
+    public void testFreshHitSendsNothing() throws Exception {
+        StubClient stub = new StubClient();
+        Server server = new Server(stub);
+        server.respond(200, HttpHeaders.CACHE_CONTROL, "public, max-age=60");
+        ExampleEndpoint client = client(stub, 10);
+        Example first = client.find("k");
+        Assert.assertSame(first, client.find("k"));
+        Assert.assertEquals(1, stub.requests.size());
+
+        //another resource is its own entry
+        client.find("other");
+        Assert.assertEquals(2, stub.requests.size());
+    }
+
+    @Test
+    public void testExpiredRefetched() throws Exception {
+        StubClient stub = new StubClient();
+        Server server = new Server(stub);
+        server.respond(200, HttpHeaders.CACHE_CONTROL, "max-age=60");
+        Object cache = cache(10);
+        ExampleEndpoint client = (ExampleEndpoint) generated.newInstance(stub.create(), "http://localhost", cache);
+        Example first = client.find("k");
+        expireAll(cache);
+
+        Example second = client.find("k");
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals(2, stub.requests.size());
+        //nothing to revalidate with
+        Assert.assertNull(stub.requests.get(1).headers.get(HttpHeaders.IF_NONE_MATCH));
+        Assert.assertNull(stub.requests.get(1).headers.get(HttpHeaders.IF_MODIFIED_SINCE));
+    }
+
+    @Test
+    public void testRevalidatesWithValidators() throws Exception {
+        StubClient stub = new StubClient();
+        Server server = new Server(stub);
+        server.respond(200, HttpHeaders.CACHE_CONTROL, "no-cache", HttpHeaders.ETAG, "\"v1\"", HttpHeaders.LAST_MODIFIED, "Sun, 18 Oct 2026 10:00:00 GMT");
+        ExampleEndpoint client = client(stub, 10);
+        Example first = client.find("k");
+        Assert.assertNull(stub.requests.get(0).headers.get(HttpHeaders.IF_NONE_MATCH));
+
+        //a 304 without validators reuses the entity and keeps the old ones
+        server.respond(304);
+        Assert.assertSame(first, client.find("k"));
+        Assert.assertSame(first, client.find("k"));
+        Assert.assertEquals(3, stub.requests.size());
+        for (StubClient.Request request : stub.requests.subList(1, 3)) {
+            Assert.assertEquals(Collections.<Object>singletonList("\"v1\""), request.headers.get(HttpHeaders.IF_NONE_MATCH));
+            Assert.assertEquals(Collections.<Object>singletonList("Sun, 18 Oct 2026 10:00:00 GMT"), request.headers.get(HttpHeaders.IF_MODIFIED_SINCE));
+        }
+
+        //a 304 with a new etag replaces it
+        server.respond(304, HttpHeaders.ETAG, "\"v2\"");
+        Assert.assertSame(first, client.find("k"));
+        client.find("k");
+        Assert.assertEquals(Collections.<Object>singletonList("\"v2\""), stub.requests.get(4).headers.get(HttpHeaders.IF_NONE_MATCH));
+        Assert.assertNull(stub.requests.get(4).headers.get(HttpHeaders.IF_MODIFIED_SINCE));
+
+        //a changed resource replaces the entity
+        server.respond(200, HttpHeaders.ETAG, "\"v3\"");
+        Example changed = client.find("k");
+        Assert.assertNotSame(first, changed);
+        Assert.assertEquals(6, server.responses.size());
+    }
+
+    @Test
+    public void testNoStoreNotCached() throws Exception {
+        StubClient stub = new StubClient();
+        Server server = new Server(stub);
+        server.respond(200, HttpHeaders.CACHE_CONTROL, "max-age=60, no-store", HttpHeaders.ETAG, "\"v1\"");
+        ExampleEndpoint client = client(stub, 10);
+        client.find("k");
+        client.find("k");
+        Assert.assertEquals(2, stub.requests.size());
+        Assert.assertNull(stub.requests.get(1).headers.get(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    @Test
+    public void testVaryStarNotCached() throws Exception {
+        StubClient stub = new StubClient();
+        Server server = new Server(stub);
+        server.respond(200, HttpHeaders.CACHE_CONTROL, "max-age=60", HttpHeaders.VARY, "*");
+        ExampleEndpoint client = client(stub, 10);
+        client.find("k");
+        client.find("k");
+        Assert.assertEquals(2, stub.requests.size());
+    }
+
+    @Test
+    public void testErrorNotCached() throws Exception {
+        StubClient stub = new StubClient();
+        Server server = new Server(stub);
+        server.respond(404, HttpHeaders.CACHE_CONTROL, "max-age=60");
+        ExampleEndpoint client = client(stub, 10);
+        for (int i = 0; i < 2; i++) {
+            try {
+                client.find("k");
+                Assert.fail();
+            } catch (NotFoundException expected) {
+            }
+        }
+        Assert.assertEquals(2, stub.requests.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() throws Exception {
+        StubClient stub = new StubClient();
+        Server server = new Server(stub);
+        server.respond(200, HttpHeaders.CACHE_CONTROL, "max-age=60");
+        ExampleEndpoint client = client(stub, 2);
+        client.find("a");
+        client.find("b");
+        client.find("a");
+        client.find("c");
+        Assert.assertEquals(3, stub.requests.size());
+
+        //b was used least recently
+        client.find("a");
+        client.find("c");
+        Assert.assertEquals(3, stub.requests.size());
+        client.find("b");
+        Assert.assertEquals(4, stub.requests.size());
+        Assert.assertEquals("http://localhost/example/b", stub.requests.get(3).uri);
+    }
+
+    /**
+     * Answers with a new Example per 200, and the headers of the last {@link #respond} call.
+     */
+    private static class Server implements StubClient.Responder {
+        final List<StubResponse> responses = new ArrayList<StubResponse>();
+        private int status;
+        private String[] headers;
+
+        Server(StubClient stub) {
+            stub.responder = this;
+        }
+
+        void respond(int status, String... headers) {
+            this.status = status;
+            this.headers = headers;
+        }
+
+        @Override
+        public Object respond(StubClient.Request request) {
+            StubResponse response = new StubResponse(status, status == 200 ? new Example("k") : null);
+            for (int i = 0; i < headers.length; i += 2) {
+                response.headers.add(headers[i], headers[i + 1]);
+            }
+            responses.add(response);
+            return response;
+        }
+    }
+
+    private static Object cache(int maxEntries) throws Exception {
+        return GeneratedClient.construct(generated.nested("ResponseCache"), maxEntries);
+    }
+
+    private static ExampleEndpoint client(StubClient stub, int maxEntries) throws Exception {
+        return (ExampleEndpoint) generated.newInstance(stub.create(), "http://localhost", cache(maxEntries));
+    }
+
+    private static void expireAll(Object cache) throws Exception {
+        for (Object result : ((Map<?, ?>) GeneratedClient.field(cache, "results")).values()) {
+            Field expires = result.getClass().getDeclaredField("expires");
+            expires.setAccessible(true);
+            expires.setLong(result, System.nanoTime() - 1);
+        }
+    }
+}
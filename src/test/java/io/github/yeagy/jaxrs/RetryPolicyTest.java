@@ -0,0 +1,256 @@
+package io.github.yeagy.jaxrs;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RetryPolicyTest {
+    private static GeneratedClient generated;
+    private static GeneratedClient generatedVerbs;
+
+    @BeforeClass
+    public static void generate() throws Exception {
+        generated = GeneratedClient.compile(new ClientGenerator(false, ClientGenerator.Option.RETRY).generate(ExampleEndpoint.class));
+        generatedVerbs = GeneratedClient.compile(new ClientGenerator(false, ClientGenerator.Option.RETRY).generate(ExampleVerbEndpoint.class));
+    }
+
+    @Test
+    public void testRetriesUnavailable() throws Exception {
+        StubClient stub = new StubClient();
+        final StubResponse unavailable = new StubResponse(503, null);
+        final Example example = new Example("key");
+        stub.responder = new StubClient.Responder() {
+            @Override
+            public Object respond(StubClient.Request request) {
+                return unavailable.closed ? example : unavailable;
+            }
+        };
+        ExampleEndpoint client = client(generated, stub, policy(generated, 3, 1.0));
+        Assert.assertSame(example, client.find("key"));
+        Assert.assertEquals(2, stub.requests.size());
+        Assert.assertTrue(unavailable.closed);
+    }
+
+    @Test
+    public void testRetriedResponseClosed() throws Exception {
+        StubClient stub = new StubClient();
+        final List<StubResponse> responses = new ArrayList<StubResponse>();
+        stub.responder = new StubClient.Responder() {
+            @Override
+            public Object respond(StubClient.Request request) {
+                StubResponse response = new StubResponse(responses.isEmpty() ? 502 : 200, null);
+                responses.add(response);
+                return response;
+            }
+        };
+        ExampleEndpoint client = client(generated, stub, policy(generated, 3, 1.0));
+        Response response = client.findBeanParams("key", new ExampleBeanParam(1L));
+        Assert.assertEquals(200, response.getStatus());
+        Assert.assertEquals(2, responses.size());
+        Assert.assertTrue(responses.get(0).closed);
+        Assert.assertFalse(responses.get(1).closed);
+    }
+
+    @Test
+    public void testVoidCallRetried() throws Exception {
+        StubClient stub = new StubClient();
+        final List<StubResponse> responses = new ArrayList<StubResponse>();
+        stub.responder = new StubClient.Responder() {
+            @Override
+            public Object respond(StubClient.Request request) {
+                StubResponse response = new StubResponse(responses.isEmpty() ? 503 : 200, null);
+                responses.add(response);
+                return response;
+            }
+        };
+        ExampleEndpoint client = client(generated, stub, policy(generated, 3, 1.0));
+        client.delete("key");
+        Assert.assertEquals(2, stub.requests.size());
+        Assert.assertEquals("DELETE", stub.requests.get(1).method);
+        Assert.assertTrue(responses.get(0).closed);
+        Assert.assertTrue(responses.get(1).closed);
+    }
+
+    @Test
+    public void testStopsAtMaxAttempts() throws Exception {
+        StubClient stub = new StubClient();
+        stub.responder = unavailable();
+        ExampleEndpoint client = client(generated, stub, policy(generated, 3, 1.0));
+        try {
+            client.find("key");
+            Assert.fail();
+        } catch (WebApplicationException e) {
+            Assert.assertEquals(503, e.getResponse().getStatus());
+        }
+        Assert.assertEquals(3, stub.requests.size());
+    }
+
+    @Test
+    public void testBudgetExhausted() throws Exception {
+        StubClient stub = new StubClient();
+        stub.responder = unavailable();
+        //no deposits, so only the 10 retries the budget starts with
+        ExampleEndpoint client = client(generated, stub, policy(generated, 100, 0));
+        for (int i = 0; i < 2; i++) {
+            try {
+                client.find("key");
+                Assert.fail();
+            } catch (WebApplicationException e) {
+                Assert.assertEquals(503, e.getResponse().getStatus());
+            }
+        }
+        Assert.assertEquals(11 + 1, stub.requests.size());
+    }
+
+    @Test
+    public void testPostAndPatchNotRetried() throws Exception {
+        StubClient stub = new StubClient();
+        stub.responder = new StubClient.Responder() {
+            @Override
+            public Object respond(StubClient.Request request) {
+                throw new ProcessingException("connection reset");
+            }
+        };
+        ExampleEndpoint client = client(generated, stub, policy(generated, 3, 1.0));
+        try {
+            client.create(new Example("key"));
+            Assert.fail();
+        } catch (ProcessingException expected) {
+        }
+        ExampleVerbEndpoint verbs = (ExampleVerbEndpoint) generatedVerbs.newInstance(stub.create(), "http://localhost", policy(generatedVerbs, 3, 1.0));
+        try {
+            verbs.patch("key", new Example("key"));
+            Assert.fail();
+        } catch (ProcessingException expected) {
+        }
+        try {
+            verbs.rename("key", "name");
+            Assert.fail();
+        } catch (ProcessingException expected) {
+        }
+        Assert.assertEquals(3, stub.requests.size());
+        Assert.assertEquals("POST", stub.requests.get(0).method);
+        Assert.assertEquals("PATCH", stub.requests.get(1).method);
+        Assert.assertEquals("PATCH", stub.requests.get(2).method);
+
+        //the same failure on a GET is retried
+        stub.requests.clear();
+        try {
+            client.find("key");
+            Assert.fail();
+        } catch (ProcessingException expected) {
+        }
+        Assert.assertEquals(3, stub.requests.size());
+    }
+
+    @Test
+    public void testHedgedFasterResultWins() throws Exception {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            StubClient stub = new StubClient();
+            ExampleEndpoint client = client(generated, stub, hedged(executor));
+            warmUp(stub, client);
+
+            final CountDownLatch release = new CountDownLatch(1);
+            final AtomicInteger attempts = new AtomicInteger();
+            final StubResponse slow = new StubResponse(200, null);
+            final StubResponse fast = new StubResponse(200, null);
+            stub.responder = new StubClient.Responder() {
+                @Override
+                public Object respond(StubClient.Request request) throws Exception {
+                    if (attempts.getAndIncrement() == 0) {
+                        release.await();
+                        return slow;
+                    }
+                    return fast;
+                }
+            };
+            Assert.assertSame(fast, client.findBeanParams("key", new ExampleBeanParam(1L)));
+            Assert.assertEquals(2, attempts.get());
+
+            release.countDown();
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+            Assert.assertTrue(slow.closed);
+            Assert.assertFalse(fast.closed);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testHedgedLateFailureClosed() throws Exception {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            StubClient stub = new StubClient();
+            ExampleEndpoint client = client(generated, stub, hedged(executor));
+            warmUp(stub, client);
+
+            final CountDownLatch release = new CountDownLatch(1);
+            final AtomicInteger attempts = new AtomicInteger();
+            final StubResponse failed = new StubResponse(500, null);
+            final Example example = new Example("key");
+            stub.responder = new StubClient.Responder() {
+                @Override
+                public Object respond(StubClient.Request request) throws Exception {
+                    if (attempts.getAndIncrement() == 0) {
+                        release.await();
+                        return failed;
+                    }
+                    return example;
+                }
+            };
+            Assert.assertSame(example, client.find("key"));
+
+            release.countDown();
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+            Assert.assertTrue(failed.closed);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Times the 32 attempts needed before calls are hedged.
+     */
+    private static void warmUp(StubClient stub, ExampleEndpoint client) {
+        stub.entity = new Example("key");
+        for (int i = 0; i < 32; i++) {
+            client.find("key");
+        }
+        stub.requests.clear();
+    }
+
+    private static StubClient.Responder unavailable() {
+        return new StubClient.Responder() {
+            @Override
+            public Object respond(StubClient.Request request) {
+                return new StubResponse(503, null);
+            }
+        };
+    }
+
+    private static Object policy(GeneratedClient generated, int maxAttempts, double budgetRatio) throws Exception {
+        return GeneratedClient.construct(generated.nested("RetryPolicy"), maxAttempts, 0L, 0L, budgetRatio);
+    }
+
+    private static Object hedged(ExecutorService executor) throws Exception {
+        return GeneratedClient.call(policy(generated, 1, 1.0), "hedged", 50.0, executor);
+    }
+
+    private static ExampleEndpoint client(GeneratedClient generated, StubClient stub, Object policy) throws Exception {
+        return (ExampleEndpoint) generated.newInstance(stub.create(), "http://localhost", policy);
+    }
+}
@@ -0,0 +1,165 @@
+package io.github.yeagy.jaxrs;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.core.Cookie;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+public class SingleFlightTest {
+    private static final int THREADS = 8;
+
+    private static GeneratedClient generated;
+
+    @BeforeClass
+    public static void generate() throws Exception {
+        generated = GeneratedClient.compile(new ClientGenerator(false, ClientGenerator.Option.SINGLE_FLIGHT).generate(ExampleEndpoint.class));
+    }
+
+    @Test
+    public void testConcurrentCallsShareRequest() throws Exception {
+        StubClient stub = new StubClient();
+        final CountDownLatch release = new CountDownLatch(1);
+        stub.responder = new StubClient.Responder() {
+            @Override
+            public Object respond(StubClient.Request request) throws Exception {
+                release.await();
+                return new Example("k");
+            }
+        };
+        final ExampleEndpoint client = (ExampleEndpoint) generated.newInstance(stub.create(), "http://localhost");
+        final AtomicReferenceArray<Object> results = new AtomicReferenceArray<Object>(THREADS);
+        List<Thread> threads = start(new Call() {
+            @Override
+            public Object call() {
+                return client.find("k");
+            }
+        }, results);
+        awaitWaiting(threads);
+        release.countDown();
+        join(threads);
+
+        Assert.assertEquals(1, stub.requests.size());
+        Assert.assertTrue(results.get(0) instanceof Example);
+        for (int i = 1; i < THREADS; i++) {
+            Assert.assertSame(results.get(0), results.get(i));
+        }
+
+        //calls after it finished send their own request
+        client.find("k");
+        Assert.assertEquals(2, stub.requests.size());
+    }
+
+    @Test
+    public void testDifferentHeadersAndCookiesNotShared() throws Exception {
+        StubClient stub = new StubClient();
+        final CountDownLatch release = new CountDownLatch(1);
+        stub.responder = new StubClient.Responder() {
+            @Override
+            public Object respond(StubClient.Request request) throws Exception {
+                if ("h1".equals(request.headers.getFirst("headParam")) && "c=1".equals(request.headers.getFirst("Cookie"))) {
+                    release.await();
+                }
+                return new Example("k");
+            }
+        };
+        final ExampleEndpoint client = (ExampleEndpoint) generated.newInstance(stub.create(), "http://localhost");
+        Thread blocked = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                client.findKitchenSink("k", "h1", "m", "s", "x", "o", new Cookie("c", "1"), null);
+            }
+        });
+        blocked.start();
+        try {
+            awaitWaiting(Collections.singletonList(blocked));
+            //neither waits on the call in flight
+            client.findKitchenSink("k", "h2", "m", "s", "x", "o", new Cookie("c", "1"), null);
+            client.findKitchenSink("k", "h1", "m", "s", "x", "o", new Cookie("c", "2"), null);
+            Assert.assertEquals(3, stub.requests.size());
+        } finally {
+            release.countDown();
+            blocked.join();
+        }
+    }
+
+    @Test
+    public void testFailureReachesEveryWaiter() throws Exception {
+        StubClient stub = new StubClient();
+        final CountDownLatch release = new CountDownLatch(1);
+        final ProcessingException failure = new ProcessingException("connection reset");
+        stub.responder = new StubClient.Responder() {
+            @Override
+            public Object respond(StubClient.Request request) throws Exception {
+                release.await();
+                throw failure;
+            }
+        };
+        final ExampleEndpoint client = (ExampleEndpoint) generated.newInstance(stub.create(), "http://localhost");
+        final AtomicReferenceArray<Object> results = new AtomicReferenceArray<Object>(THREADS);
+        List<Thread> threads = start(new Call() {
+            @Override
+            public Object call() {
+                try {
+                    return client.find("k");
+                } catch (ProcessingException e) {
+                    return e;
+                }
+            }
+        }, results);
+        awaitWaiting(threads);
+        release.countDown();
+        join(threads);
+
+        Assert.assertEquals(1, stub.requests.size());
+        for (int i = 0; i < THREADS; i++) {
+            Assert.assertSame(failure, results.get(i));
+        }
+    }
+
+    private interface Call {
+        Object call();
+    }
+
+    private static List<Thread> start(final Call call, final AtomicReferenceArray<Object> results) {
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < THREADS; i++) {
+            final int index = i;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    results.set(index, call.call());
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        return threads;
+    }
+
+    /**
+     * Waits until every thread is parked, the first caller on the stub's latch and the others on its result.
+     */
+    private static void awaitWaiting(List<Thread> threads) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        for (Thread thread : threads) {
+            while (thread.getState() != Thread.State.WAITING) {
+                Assert.assertTrue(System.currentTimeMillis() < deadline);
+                Thread.sleep(1);
+            }
+        }
+    }
+
+    private static void join(List<Thread> threads) throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.join(5000);
+            Assert.assertFalse(thread.isAlive());
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package io.github.yeagy.jaxrs;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.client.ClientResponseFilter;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.InvocationCallback;
+import javax.ws.rs.core.Application;
+import javax.ws.rs.core.Cookie;
+import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.Link;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriBuilder;
+import javax.ws.rs.core.Variant;
+import javax.ws.rs.ext.RuntimeDelegate;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * JAX-RS client stand-in for running generated clients without a server. Every fluent call returns a proxy of its
+ * declared type, which keeps the URI, headers and properties built so far. Sync invocations are recorded as
+ * {@link Request}s, answered by the {@link #responder}, or with {@link #entity} when there is none, and run through
+ * the registered response filters. Async ones hand their callback to the test.
+ */
+class StubClient {
+    static {
+        //proxying the fluent interfaces initializes classes like Cookie, which look up a RuntimeDelegate
+        RuntimeDelegate.setInstance(new StubRuntimeDelegate());
+    }
+
+    final List<String> invocations = Collections.synchronizedList(new ArrayList<String>());
+    final List<Request> requests = Collections.synchronizedList(new ArrayList<Request>());
+    final List<InvocationCallback<Object>> callbacks = Collections.synchronizedList(new ArrayList<InvocationCallback<Object>>());
+    final List<Future<Object>> futures = Collections.synchronizedList(new ArrayList<Future<Object>>());
+    final List<Object> registered = Collections.synchronizedList(new ArrayList<Object>());
+    volatile Object entity;
+    volatile Responder responder;
+
+    /**
+     * Answers sync invocations. Returning a Response with a status of 300 or more makes invocations that read an
+     * entity throw a WebApplicationException, as JAX-RS does. Throwing fails the invocation.
+     */
+    interface Responder {
+        Object respond(Request request) throws Exception;
+    }
+
+    static class Request {
+        final String method;
+        final String uri;
+        final MultivaluedHashMap<String, Object> headers;
+        final MultivaluedHashMap<String, Object> properties;
+        final Object entity;
+        final MediaType mediaType;
+
+        private Request(String method, Chain chain, Entity<?> entity) {
+            this.method = method;
+            this.uri = chain.uri;
+            this.headers = chain.headers;
+            this.properties = chain.properties;
+            this.entity = entity != null ? entity.getEntity() : null;
+            this.mediaType = entity != null ? entity.getMediaType() : null;
+        }
+    }
+
+    Client create() {
+        return new Chain("", new MultivaluedHashMap<String, Object>(), new MultivaluedHashMap<String, Object>()).proxy(Client.class);
+    }
+
+    private class Chain implements InvocationHandler {
+        private final String uri;
+        private final MultivaluedHashMap<String, Object> headers;
+        private final MultivaluedHashMap<String, Object> properties;
+
+        private Chain(String uri, MultivaluedHashMap<String, Object> headers, MultivaluedHashMap<String, Object> properties) {
+            this.uri = uri;
+            this.headers = headers;
+            this.properties = properties;
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> T proxy(Class<T> type) {
+            return (T) Proxy.newProxyInstance(StubClient.class.getClassLoader(), new Class[]{type}, this);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return method.getName().equals("equals") ? proxy == args[0] : method.getName().equals("hashCode") ? System.identityHashCode(proxy) : "StubClient";
+            }
+            String declaring = method.getDeclaringClass().getSimpleName();
+            String name = method.getName();
+            if (declaring.equals("SyncInvoker") || declaring.equals("AsyncInvoker")) {
+                return invoker(method, args);
+            }
+            if (name.equals("register")) {
+                registered.add(args[0]);
+                return proxy;
+            }
+            if (name.equals("getUri")) {
+                try {
+                    return URI.create(uri);
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+            }
+            Chain next = this;
+            if (name.equals("target")) {
+                next = new Chain(String.valueOf(args[0]), headers, properties);
+            } else if (name.equals("path")) {
+                String path = String.valueOf(args[0]);
+                next = new Chain(uri.endsWith("/") || path.startsWith("/") ? uri + path : uri + "/" + path, headers, properties);
+            } else if (name.equals("resolveTemplate")) {
+                next = new Chain(uri.replace("{" + args[0] + "}", String.valueOf(args[1])), headers, properties);
+            } else if (name.equals("queryParam") || name.equals("matrixParam")) {
+                StringBuilder appended = new StringBuilder(uri);
+                for (Object value : (Object[]) args[1]) {
+                    appended.append(name.equals("matrixParam") ? ";" : appended.indexOf("?") < 0 ? "?" : "&").append(args[0]).append('=').append(value);
+                }
+                next = new Chain(appended.toString(), headers, properties);
+            } else if (name.equals("header") || name.equals("cookie") || name.equals("property")) {
+                //builders are mutable, as in JAX-RS, since callers may ignore what these return
+                if (name.equals("cookie")) {
+                    headers.add("Cookie", args[0] instanceof Cookie ? ((Cookie) args[0]).getName() + "=" + ((Cookie) args[0]).getValue() : args[0] + "=" + args[1]);
+                } else {
+                    (name.equals("property") ? properties : headers).add(String.valueOf(args[0]), args[1]);
+                }
+                return proxy;
+            } else if (name.equals("request")) {
+                next = new Chain(uri, new MultivaluedHashMap<String, Object>(headers), new MultivaluedHashMap<String, Object>(properties));
+                if (args != null && args.length == 1 && args[0] instanceof String[]) {
+                    for (String accept : (String[]) args[0]) {
+                        next.headers.add("Accept", accept);
+                    }
+                }
+            }
+            if (method.getReturnType().isInterface() && method.getReturnType().getPackage().getName().startsWith("javax.ws.rs")) {
+                return next.proxy(method.getReturnType());
+            }
+            return null;
+        }
+
+        private Object invoker(Method method, Object[] args) throws Exception {
+            String name = method.getName();
+            invocations.add(name);
+            Entity<?> entity = null;
+            Object last = null;
+            Object type = null;
+            if (args != null) {
+                for (Object arg : args) {
+                    if (arg instanceof Entity) {
+                        entity = (Entity<?>) arg;
+                    } else if (arg instanceof Class || arg instanceof GenericType) {
+                        type = arg;
+                    }
+                }
+                last = args.length > 0 ? args[args.length - 1] : null;
+            }
+            final Request request = new Request(name.equals("method") ? String.valueOf(args[0]) : name.toUpperCase(), new Chain(uri,
+                    new MultivaluedHashMap<String, Object>(headers), new MultivaluedHashMap<String, Object>(properties)), entity);
+            requests.add(request);
+            if (last instanceof InvocationCallback) {
+                callbacks.add((InvocationCallback<Object>) last);
+            }
+            if (method.getReturnType() == Future.class) {
+                FutureTask<Object> future = new FutureTask<Object>(new Callable<Object>() {
+                    @Override
+                    public Object call() {
+                        return StubClient.this.entity;
+                    }
+                });
+                futures.add(future);
+                return future;
+            }
+            Object result = responder != null ? responder.respond(request) : StubClient.this.entity;
+            filter(request, result instanceof Response ? ((Response) result).getStatus() : 200);
+            if (type == null || type == Response.class) {
+                return result instanceof Response || responder == null ? result : new StubResponse(200, result);
+            }
+            if (result instanceof Response) {
+                Response response = (Response) result;
+                if (response.getStatus() >= 300) {
+                    throw new WebApplicationException(response);
+                }
+                return response.getEntity();
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Runs the registered response filters, with contexts holding the request properties and the status.
+     */
+    private void filter(final Request request, final int status) throws IOException {
+        ClientRequestContext requestContext = context(ClientRequestContext.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("getProperty")) {
+                    return request.properties.getFirst(String.valueOf(args[0]));
+                }
+                return method.getName().equals("getMethod") ? request.method : null;
+            }
+        });
+        ClientResponseContext responseContext = context(ClientResponseContext.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                return method.getName().equals("getStatus") ? status : null;
+            }
+        });
+        for (Object provider : new ArrayList<Object>(registered)) {
+            if (provider instanceof ClientResponseFilter) {
+                ((ClientResponseFilter) provider).filter(requestContext, responseContext);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T context(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(StubClient.class.getClassLoader(), new Class[]{type}, handler);
+    }
+
+    private static class StubRuntimeDelegate extends RuntimeDelegate {
+        @Override
+        public UriBuilder createUriBuilder() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Response.ResponseBuilder createResponseBuilder() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Variant.VariantListBuilder createVariantListBuilder() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <T> T createEndpoint(Application application, Class<T> endpointType) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> HeaderDelegate<T> createHeaderDelegate(Class<T> type) {
+            if (type == MediaType.class) {
+                return (HeaderDelegate<T>) new HeaderDelegate<MediaType>() {
+                    @Override
+                    public MediaType fromString(String value) {
+                        String[] parts = value.split("/", 2);
+                        return new MediaType(parts[0], parts.length > 1 ? parts[1] : null);
+                    }
+
+                    @Override
+                    public String toString(MediaType value) {
+                        return value.getType() + "/" + value.getSubtype();
+                    }
+                };
+            }
+            return null;
+        }
+
+        @Override
+        public Link.Builder createLinkBuilder() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
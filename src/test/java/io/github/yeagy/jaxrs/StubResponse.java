@@ -0,0 +1,171 @@
+package io.github.yeagy.jaxrs;
+
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.Link;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.NewCookie;
+import javax.ws.rs.core.Response;
+import java.lang.annotation.Annotation;
+import java.net.URI;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Response stand-in, since building real responses needs a JAX-RS implementation on the classpath.
+ */
+class StubResponse extends Response {
+    private final int status;
+    private final Object entity;
+    final MultivaluedHashMap<String, Object> headers = new MultivaluedHashMap<String, Object>();
+    boolean closed;
+
+    StubResponse(int status, Object entity) {
+        this.status = status;
+        this.entity = entity;
+    }
+
+    @Override
+    public int getStatus() {
+        return status;
+    }
+
+    @Override
+    public StatusType getStatusInfo() {
+        return Status.fromStatusCode(status);
+    }
+
+    @Override
+    public Object getEntity() {
+        return entity;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T readEntity(Class<T> entityType) {
+        return (T) entity;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T readEntity(GenericType<T> entityType) {
+        return (T) entity;
+    }
+
+    @Override
+    public <T> T readEntity(Class<T> entityType, Annotation[] annotations) {
+        return readEntity(entityType);
+    }
+
+    @Override
+    public <T> T readEntity(GenericType<T> entityType, Annotation[] annotations) {
+        return readEntity(entityType);
+    }
+
+    @Override
+    public boolean hasEntity() {
+        return entity != null;
+    }
+
+    @Override
+    public boolean bufferEntity() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    @Override
+    public MediaType getMediaType() {
+        return null;
+    }
+
+    @Override
+    public Locale getLanguage() {
+        return null;
+    }
+
+    @Override
+    public int getLength() {
+        return -1;
+    }
+
+    @Override
+    public Set<String> getAllowedMethods() {
+        return null;
+    }
+
+    @Override
+    public Map<String, NewCookie> getCookies() {
+        return null;
+    }
+
+    @Override
+    public EntityTag getEntityTag() {
+        return null;
+    }
+
+    @Override
+    public Date getDate() {
+        return null;
+    }
+
+    @Override
+    public Date getLastModified() {
+        return null;
+    }
+
+    @Override
+    public URI getLocation() {
+        return null;
+    }
+
+    @Override
+    public Set<Link> getLinks() {
+        return null;
+    }
+
+    @Override
+    public boolean hasLink(String relation) {
+        return false;
+    }
+
+    @Override
+    public Link getLink(String relation) {
+        return null;
+    }
+
+    @Override
+    public Link.Builder getLinkBuilder(String relation) {
+        return null;
+    }
+
+    @Override
+    public MultivaluedMap<String, Object> getMetadata() {
+        return headers;
+    }
+
+    @Override
+    public MultivaluedMap<String, String> getStringHeaders() {
+        MultivaluedHashMap<String, String> strings = new MultivaluedHashMap<String, String>();
+        for (Map.Entry<String, List<Object>> entry : headers.entrySet()) {
+            for (Object value : entry.getValue()) {
+                strings.add(entry.getKey(), String.valueOf(value));
+            }
+        }
+        return strings;
+    }
+
+    @Override
+    public String getHeaderString(String name) {
+        Object value = headers.getFirst(name);
+        return value != null ? String.valueOf(value) : null;
+    }
+}
@@ -0,0 +1,425 @@
+package io.github.yeagy.jaxrs;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.Cookie;
+import javax.ws.rs.core.Form;
+import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.Response;
+
+public class ExampleEndpointClient implements ExampleEndpoint {
+    private static final GenericType<List<Example>> LIST_EXAMPLE_TYPE = new GenericType<List<Example>>(){};
+
+    private final WebTarget base;
+
+    public ExampleEndpointClient(Client client, String endpointUrl) {
+        base = client.target(endpointUrl);
+    }
+
+    @Override
+    public void create(Example entity) {
+        base.path("example")
+                .request("application/json")
+                .post(Entity.entity(entity, "application/json"));
+    }
+
+    @Override
+    public void delete(String exampleKey) {
+        base.path("example")
+                .path(exampleKey)
+                .request("application/json")
+                .delete();
+    }
+
+    @Override
+    public Example find(String exampleKey) {
+        return base.path("example")
+                .path(exampleKey)
+                .request("application/json")
+                .get(Example.class);
+    }
+
+    @Override
+    public List<Example> findAll() {
+        return base.path("example")
+                .request("application/json")
+                .get(LIST_EXAMPLE_TYPE);
+    }
+
+    @Override
+    public Response findBeanParams(String exampleKey, ExampleBeanParam beanParam) {
+        return base.path("example")
+                .path(exampleKey)
+                .path("text")
+                .path(beanParam.getBeanPath())
+                .queryParam("fieldQuery", beanParam.fieldQuery)
+                .matrixParam("constructorMatrix", beanParam.getConstructorMatrix())
+                .request("application/json")
+                .get();
+    }
+
+    @Override
+    public Example findKitchenSink(String exampleKey, String headParam, String modParam, String subKey, String mtxParam, String otherParam, Cookie cookieParam, Example context) {
+        return base.path("example")
+                .path(exampleKey)
+                .path("text")
+                .path(subKey)
+                .queryParam("modParam", modParam)
+                .matrixParam("mtxParam", mtxParam)
+                .queryParam("otherParam", otherParam)
+                .request("application/json")
+                .header("headParam", headParam)
+                .cookie(cookieParam)
+                .get(Example.class);
+    }
+
+    @Override
+    public Example nonJaxrsMethod(String param0, long param1) {
+        return null;
+    }
+
+    @Override
+    public void postFormParams(String exampleKey, String soloParam, long longParam, Integer integerParam, List<String> listParams, Set<Integer> setParams) {
+        MultivaluedHashMap<String, String> mmap = new MultivaluedHashMap<String, String>();
+        mmap.add("soloParam", soloParam);
+        mmap.add("longParam", Long.toString(longParam));
+        mmap.add("integerParam", integerParam != null ? integerParam.toString() : null);
+        mmap.addAll("listParams", listParams);
+        for (Integer setParams_i : setParams) {
+            mmap.add("setParams", setParams_i != null ? setParams_i.toString() : null);
+        }
+        Form entity = new Form(mmap);
+        base.path("example")
+                .path(exampleKey)
+                .request("application/json")
+                .post(Entity.entity(entity, "application/x-www-form-urlencoded"));
+    }
+
+    @Override
+    public List<Example> postGenericReturn(Example entity) {
+        return base.path("example")
+                .request("application/json")
+                .post(Entity.entity(entity, "application/json"), LIST_EXAMPLE_TYPE);
+    }
+
+    @Override
+    public Example postKitchenSink(String exampleKey, String modParam, String subKey, String otherParam, Example entity) {
+        return base.path("example")
+                .path(exampleKey)
+                .path("text")
+                .path(subKey)
+                .queryParam("modParam", modParam)
+                .queryParam("otherParam", otherParam)
+                .request("application/json")
+                .post(Entity.entity(entity, "application/json"), Example.class);
+    }
+
+    @Override
+    public void replace(String exampleKey, Example entity) {
+        base.path("example")
+                .path(exampleKey)
+                .request("application/json")
+                .put(Entity.entity(entity, "application/json"));
+    }
+
+    /**
+     * @param executor runs the calls, such as a virtual thread per task executor
+     * @param maxConcurrency most calls in flight at once
+     * @return runs many calls of one method at once
+     */
+    public Batch batch(ExecutorService executor, int maxConcurrency) {
+        return new Batch(executor, maxConcurrency);
+    }
+
+    public static class FindBeanParamsArgs {
+        public final String exampleKey;
+
+        public final ExampleBeanParam beanParam;
+
+        public FindBeanParamsArgs(String exampleKey, ExampleBeanParam beanParam) {
+            this.exampleKey = exampleKey;
+            this.beanParam = beanParam;
+        }
+    }
+
+    public static class FindKitchenSinkArgs {
+        public final String exampleKey;
+
+        public final String headParam;
+
+        public final String modParam;
+
+        public final String subKey;
+
+        public final String mtxParam;
+
+        public final String otherParam;
+
+        public final Cookie cookieParam;
+
+        public final Example context;
+
+        public FindKitchenSinkArgs(String exampleKey, String headParam, String modParam, String subKey, String mtxParam, String otherParam, Cookie cookieParam, Example context) {
+            this.exampleKey = exampleKey;
+            this.headParam = headParam;
+            this.modParam = modParam;
+            this.subKey = subKey;
+            this.mtxParam = mtxParam;
+            this.otherParam = otherParam;
+            this.cookieParam = cookieParam;
+            this.context = context;
+        }
+    }
+
+    public static class PostFormParamsArgs {
+        public final String exampleKey;
+
+        public final String soloParam;
+
+        public final long longParam;
+
+        public final Integer integerParam;
+
+        public final List<String> listParams;
+
+        public final Set<Integer> setParams;
+
+        public PostFormParamsArgs(String exampleKey, String soloParam, long longParam, Integer integerParam, List<String> listParams, Set<Integer> setParams) {
+            this.exampleKey = exampleKey;
+            this.soloParam = soloParam;
+            this.longParam = longParam;
+            this.integerParam = integerParam;
+            this.listParams = listParams;
+            this.setParams = setParams;
+        }
+    }
+
+    public static class PostKitchenSinkArgs {
+        public final String exampleKey;
+
+        public final String modParam;
+
+        public final String subKey;
+
+        public final String otherParam;
+
+        public final Example entity;
+
+        public PostKitchenSinkArgs(String exampleKey, String modParam, String subKey, String otherParam, Example entity) {
+            this.exampleKey = exampleKey;
+            this.modParam = modParam;
+            this.subKey = subKey;
+            this.otherParam = otherParam;
+            this.entity = entity;
+        }
+    }
+
+    public static class ReplaceArgs {
+        public final String exampleKey;
+
+        public final Example entity;
+
+        public ReplaceArgs(String exampleKey, Example entity) {
+            this.exampleKey = exampleKey;
+            this.entity = entity;
+        }
+    }
+
+    public class Batch {
+        private final ExecutorService executor;
+
+        private final Semaphore permits;
+
+        private Batch(ExecutorService executor, int maxConcurrency) {
+            this.executor = executor;
+            this.permits = new Semaphore(maxConcurrency);
+        }
+
+        public void create(List<Example> args) throws InterruptedException {
+            List<Callable<Void>> calls = new ArrayList<Callable<Void>>(args.size());
+            for (final Example arg : args) {
+                calls.add(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        ExampleEndpointClient.this.create(arg);
+                        return null;
+                    }
+                });
+            }
+            invokeAll(calls);
+        }
+
+        public void delete(List<String> args) throws InterruptedException {
+            List<Callable<Void>> calls = new ArrayList<Callable<Void>>(args.size());
+            for (final String arg : args) {
+                calls.add(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        ExampleEndpointClient.this.delete(arg);
+                        return null;
+                    }
+                });
+            }
+            invokeAll(calls);
+        }
+
+        public List<Example> find(List<String> args) throws InterruptedException {
+            List<Callable<Example>> calls = new ArrayList<Callable<Example>>(args.size());
+            for (final String arg : args) {
+                calls.add(new Callable<Example>() {
+                    @Override
+                    public Example call() {
+                        return ExampleEndpointClient.this.find(arg);
+                    }
+                });
+            }
+            return invokeAll(calls);
+        }
+
+        public List<Response> findBeanParams(List<FindBeanParamsArgs> args) throws InterruptedException {
+            List<Callable<Response>> calls = new ArrayList<Callable<Response>>(args.size());
+            for (final FindBeanParamsArgs arg : args) {
+                calls.add(new Callable<Response>() {
+                    @Override
+                    public Response call() {
+                        return ExampleEndpointClient.this.findBeanParams(arg.exampleKey, arg.beanParam);
+                    }
+                });
+            }
+            return invokeAll(calls);
+        }
+
+        public List<Example> findKitchenSink(List<FindKitchenSinkArgs> args) throws InterruptedException {
+            List<Callable<Example>> calls = new ArrayList<Callable<Example>>(args.size());
+            for (final FindKitchenSinkArgs arg : args) {
+                calls.add(new Callable<Example>() {
+                    @Override
+                    public Example call() {
+                        return ExampleEndpointClient.this.findKitchenSink(arg.exampleKey, arg.headParam, arg.modParam, arg.subKey, arg.mtxParam, arg.otherParam, arg.cookieParam, arg.context);
+                    }
+                });
+            }
+            return invokeAll(calls);
+        }
+
+        public void postFormParams(List<PostFormParamsArgs> args) throws InterruptedException {
+            List<Callable<Void>> calls = new ArrayList<Callable<Void>>(args.size());
+            for (final PostFormParamsArgs arg : args) {
+                calls.add(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        ExampleEndpointClient.this.postFormParams(arg.exampleKey, arg.soloParam, arg.longParam, arg.integerParam, arg.listParams, arg.setParams);
+                        return null;
+                    }
+                });
+            }
+            invokeAll(calls);
+        }
+
+        public List<List<Example>> postGenericReturn(List<Example> args) throws InterruptedException {
+            List<Callable<List<Example>>> calls = new ArrayList<Callable<List<Example>>>(args.size());
+            for (final Example arg : args) {
+                calls.add(new Callable<List<Example>>() {
+                    @Override
+                    public List<Example> call() {
+                        return ExampleEndpointClient.this.postGenericReturn(arg);
+                    }
+                });
+            }
+            return invokeAll(calls);
+        }
+
+        public List<Example> postKitchenSink(List<PostKitchenSinkArgs> args) throws InterruptedException {
+            List<Callable<Example>> calls = new ArrayList<Callable<Example>>(args.size());
+            for (final PostKitchenSinkArgs arg : args) {
+                calls.add(new Callable<Example>() {
+                    @Override
+                    public Example call() {
+                        return ExampleEndpointClient.this.postKitchenSink(arg.exampleKey, arg.modParam, arg.subKey, arg.otherParam, arg.entity);
+                    }
+                });
+            }
+            return invokeAll(calls);
+        }
+
+        public void replace(List<ReplaceArgs> args) throws InterruptedException {
+            List<Callable<Void>> calls = new ArrayList<Callable<Void>>(args.size());
+            for (final ReplaceArgs arg : args) {
+                calls.add(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        ExampleEndpointClient.this.replace(arg.exampleKey, arg.entity);
+                        return null;
+                    }
+                });
+            }
+            invokeAll(calls);
+        }
+
+        private <T> List<T> invokeAll(List<Callable<T>> calls) throws InterruptedException {
+            final AtomicBoolean failed = new AtomicBoolean();
+            List<Future<T>> futures = new ArrayList<Future<T>>(calls.size());
+            try {
+                for (final Callable<T> call : calls) {
+                    permits.acquire();
+                    if (failed.get()) {
+                        permits.release();
+                        break;
+                    }
+                    try {
+                        futures.add(executor.submit(new Callable<T>() {
+                            @Override
+                            public T call() throws Exception {
+                                try {
+                                    return call.call();
+                                } catch (Exception e) {
+                                    failed.set(true);
+                                    throw e;
+                                } catch (Error e) {
+                                    failed.set(true);
+                                    throw e;
+                                } finally {
+                                    permits.release();
+                                }
+                            }
+                        }));
+                    } catch (RuntimeException e) {
+                        permits.release();
+                        throw e;
+                    }
+                }
+                List<T> results = new ArrayList<T>(futures.size());
+                for (Future<T> future : futures) {
+                    try {
+                        results.add(future.get());
+                    } catch (ExecutionException e) {
+                        if (e.getCause() instanceof RuntimeException) {
+                            throw (RuntimeException) e.getCause();
+                        }
+                        if (e.getCause() instanceof Error) {
+                            throw (Error) e.getCause();
+                        }
+                        throw new RuntimeException(e.getCause());
+                    }
+                }
+                return results;
+            } finally {
+                //no-op for finished calls, stops the rest after a failure
+                for (Future<T> future : futures) {
+                    future.cancel(true);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.yeagy.jaxrs;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.client.ClientResponseFilter;
+import javax.ws.rs.client.WebTarget;
+
+public class ExampleClassEndpointClient {
+    private final WebTarget base;
+
+    private final CallListener callListener;
+
+    public ExampleClassEndpointClient(Client client, String endpointUrl) {
+        this(client, endpointUrl, CallListener.NONE);
+    }
+
+    /**
+     * @param callListener told about every call
+     */
+    public ExampleClassEndpointClient(Client client, String endpointUrl, CallListener callListener) {
+        this.callListener = callListener;
+        base = client.target(endpointUrl).register(CallStatus.FILTER);
+    }
+
+    public Example findExample(String classHeader, String classKey, long classQuery, String methodKey) {
+        long callStart = System.nanoTime();
+        final int[] callStatus = new int[1];
+        Class<? extends Throwable> callFailure = null;
+        try {
+            return base.path("class")
+                    .path(classKey)
+                    .path("more")
+                    .path(methodKey)
+                    .queryParam("classQuery", classQuery)
+                    .request("application/json", "application/xml")
+                    .header("classHeader", classHeader)
+                    .property(CallStatus.PROPERTY, callStatus)
+                    .get(Example.class);
+        } catch (RuntimeException e) {
+            callFailure = e.getClass();
+            throw e;
+        } finally {
+            callListener.onCall("findExample", "GET", "class/{classKey}/more/{methodKey}", callStart, System.nanoTime(), callStatus[0], callFailure);
+        }
+    }
+
+    /**
+     * Told about every call of the client.
+     */
+    public interface CallListener {
+        CallListener NONE = new CallListener() {
+            @Override
+            public void onCall(String method, String verb, String pathTemplate, long startNanos, long endNanos, int status, Class<? extends Throwable> failure) {
+            }
+        };
+
+        /**
+         * Called from the calling thread once the call is done.
+         *
+         * @param method client method name
+         * @param verb HTTP method
+         * @param pathTemplate resource path, such as example/{exampleKey}
+         * @param startNanos {@link System#nanoTime()} before the call
+         * @param endNanos {@link System#nanoTime()} after the call
+         * @param status status of the last response received for the call, else 0, such as for an I/O
+         * failure, a cache hit or a call joining one in flight
+         * @param failure type of the exception the call threw, null on success
+         */
+        void onCall(String method, String verb, String pathTemplate, long startNanos, long endNanos, int status, Class<? extends Throwable> failure);
+    }
+
+    /**
+     * Copies the response status into the int[] holder a call sets as a request property.
+     */
+    private static final class CallStatus implements ClientResponseFilter {
+        static final String PROPERTY = CallStatus.class.getName();
+
+        static final CallStatus FILTER = new CallStatus();
+
+        @Override
+        public void filter(ClientRequestContext request, ClientResponseContext response) {
+            Object holder = request.getProperty(PROPERTY);
+            if (holder instanceof int[]) {
+                ((int[]) holder)[0] = response.getStatus();
+            }
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package io.github.yeagy.jaxrs;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientRequestFilter;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.Cookie;
+import javax.ws.rs.core.Form;
+import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.ReaderInterceptor;
+import javax.ws.rs.ext.ReaderInterceptorContext;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+public class ExampleEndpointClient implements ExampleEndpoint {
+    private static final GenericType<List<Example>> LIST_EXAMPLE_TYPE = new GenericType<List<Example>>(){};
+
+    private final WebTarget base;
+
+    public ExampleEndpointClient(Client client, String endpointUrl) {
+        this(client, endpointUrl, new Compression(Compression.DEFAULT_THRESHOLD));
+    }
+
+    /**
+     * @param compression registered on the targets of the client
+     */
+    public ExampleEndpointClient(Client client, String endpointUrl, Compression compression) {
+        base = client.target(endpointUrl).register(compression);
+    }
+
+    @Override
+    public void create(Example entity) {
+        base.path("example")
+                .request("application/json")
+                .post(Entity.entity(entity, "application/json"));
+    }
+
+    @Override
+    public void delete(String exampleKey) {
+        base.path("example")
+                .path(exampleKey)
+                .request("application/json")
+                .delete();
+    }
+
+    @Override
+    public Example find(String exampleKey) {
+        return base.path("example")
+                .path(exampleKey)
+                .request("application/json")
+                .get(Example.class);
+    }
+
+    @Override
+    public List<Example> findAll() {
+        return base.path("example")
+                .request("application/json")
+                .get(LIST_EXAMPLE_TYPE);
+    }
+
+    @Override
+    public Response findBeanParams(String exampleKey, ExampleBeanParam beanParam) {
+        return base.path("example")
+                .path(exampleKey)
+                .path("text")
+                .path(beanParam.getBeanPath())
+                .queryParam("fieldQuery", beanParam.fieldQuery)
+                .matrixParam("constructorMatrix", beanParam.getConstructorMatrix())
+                .request("application/json")
+                .get();
+    }
+
+    @Override
+    public Example findKitchenSink(String exampleKey, String headParam, String modParam, String subKey, String mtxParam, String otherParam, Cookie cookieParam, Example context) {
+        return base.path("example")
+                .path(exampleKey)
+                .path("text")
+                .path(subKey)
+                .queryParam("modParam", modParam)
+                .matrixParam("mtxParam", mtxParam)
+                .queryParam("otherParam", otherParam)
+                .request("application/json")
+                .header("headParam", headParam)
+                .cookie(cookieParam)
+                .get(Example.class);
+    }
+
+    @Override
+    public Example nonJaxrsMethod(String param0, long param1) {
+        return null;
+    }
+
+    @Override
+    public void postFormParams(String exampleKey, String soloParam, long longParam, Integer integerParam, List<String> listParams, Set<Integer> setParams) {
+        MultivaluedHashMap<String, String> mmap = new MultivaluedHashMap<String, String>();
+        mmap.add("soloParam", soloParam);
+        mmap.add("longParam", Long.toString(longParam));
+        mmap.add("integerParam", integerParam != null ? integerParam.toString() : null);
+        mmap.addAll("listParams", listParams);
+        for (Integer setParams_i : setParams) {
+            mmap.add("setParams", setParams_i != null ? setParams_i.toString() : null);
+        }
+        Form entity = new Form(mmap);
+        base.path("example")
+                .path(exampleKey)
+                .request("application/json")
+                .post(Entity.entity(entity, "application/x-www-form-urlencoded"));
+    }
+
+    @Override
+    public List<Example> postGenericReturn(Example entity) {
+        return base.path("example")
+                .request("application/json")
+                .post(Entity.entity(entity, "application/json"), LIST_EXAMPLE_TYPE);
+    }
+
+    @Override
+    public Example postKitchenSink(String exampleKey, String modParam, String subKey, String otherParam, Example entity) {
+        return base.path("example")
+                .path(exampleKey)
+                .path("text")
+                .path(subKey)
+                .queryParam("modParam", modParam)
+                .queryParam("otherParam", otherParam)
+                .request("application/json")
+                .post(Entity.entity(entity, "application/json"), Example.class);
+    }
+
+    @Override
+    public void replace(String exampleKey, Example entity) {
+        base.path("example")
+                .path(exampleKey)
+                .request("application/json")
+                .put(Entity.entity(entity, "application/json"));
+    }
+
+    /**
+     * Asks for gzip or deflate compressed responses and inflates them as they are read, streaming. Request entities
+     * larger than the threshold are sent gzipped with Content-Encoding set, which the server has to accept.
+     */
+    public static final class Compression implements ClientRequestFilter, ReaderInterceptor, WriterInterceptor {
+        public static final int DEFAULT_THRESHOLD = 1024;
+
+        private final int threshold;
+
+        /**
+         * @param threshold entity size in bytes above which requests are compressed, {@link Integer#MAX_VALUE} to
+         * only have responses compressed
+         */
+        public Compression(int threshold) {
+            if (threshold < 0) {
+                throw new IllegalArgumentException("threshold must not be negative: " + threshold);
+            }
+            this.threshold = threshold;
+        }
+
+        @Override
+        public void filter(ClientRequestContext request) {
+            if (!request.getHeaders().containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+                request.getHeaders().putSingle(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+            }
+        }
+
+        @Override
+        public Object aroundReadFrom(ReaderInterceptorContext context) throws IOException {
+            String encoding = context.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+            boolean gzip = "gzip".equalsIgnoreCase(encoding) || "x-gzip".equalsIgnoreCase(encoding);
+            if (gzip || "deflate".equalsIgnoreCase(encoding)) {
+                context.getHeaders().remove(HttpHeaders.CONTENT_ENCODING);
+                //an empty body has no gzip header to read
+                PushbackInputStream body = new PushbackInputStream(context.getInputStream());
+                int first = body.read();
+                context.setInputStream(body);
+                if (first != -1) {
+                    body.unread(first);
+                    context.setInputStream(gzip ? new GZIPInputStream(body) : new InflaterInputStream(body));
+                }
+            }
+            return context.proceed();
+        }
+
+        @Override
+        public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+            if (threshold == Integer.MAX_VALUE || context.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)) {
+                context.proceed();
+                return;
+            }
+            ThresholdStream stream = new ThresholdStream(context, threshold);
+            context.setOutputStream(stream);
+            context.proceed();
+            stream.finish();
+        }
+
+        /**
+         * Holds an entity back until it outgrows the threshold, then sends it gzipped, or sends it as is once it
+         * is finished below the threshold. Headers can still be changed until then.
+         */
+        private static final class ThresholdStream extends OutputStream {
+            private final WriterInterceptorContext context;
+
+            private final OutputStream entity;
+
+            private final int threshold;
+
+            private final byte[] single = new byte[1];
+
+            private byte[] buffer;
+
+            private int size;
+
+            private GZIPOutputStream gzip;
+
+            private boolean finished;
+
+            ThresholdStream(WriterInterceptorContext context, int threshold) {
+                this.context = context;
+                this.entity = context.getOutputStream();
+                this.threshold = threshold;
+                this.buffer = new byte[Math.min(threshold, 512)];
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                single[0] = (byte) b;
+                write(single, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                if (gzip == null) {
+                    if (len <= threshold - size) {
+                        if (size + len > buffer.length) {
+                            buffer = Arrays.copyOf(buffer, Math.min(threshold, Math.max(buffer.length * 2, size + len)));
+                        }
+                        System.arraycopy(b, off, buffer, size, len);
+                        size += len;
+                        return;
+                    }
+                    context.getHeaders().putSingle(HttpHeaders.CONTENT_ENCODING, "gzip");
+                    context.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+                    gzip = new GZIPOutputStream(entity);
+                    gzip.write(buffer, 0, size);
+                    buffer = null;
+                }
+                gzip.write(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                if (gzip != null) {
+                    gzip.flush();
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                finish();
+                entity.close();
+            }
+
+            void finish() throws IOException {
+                if (finished) {
+                    return;
+                }
+                finished = true;
+                if (gzip != null) {
+                    gzip.finish();
+                } else {
+                    entity.write(buffer, 0, size);
+                }
+            }
+        }
+    }
+}
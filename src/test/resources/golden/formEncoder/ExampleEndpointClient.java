@@ -0,0 +1,280 @@
+package io.github.yeagy.jaxrs;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.Cookie;
+import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.Response;
+
+public class ExampleEndpointClient implements ExampleEndpoint {
+    private static final GenericType<List<Example>> LIST_EXAMPLE_TYPE = new GenericType<List<Example>>(){};
+
+    private final WebTarget base;
+
+    public ExampleEndpointClient(Client client, String endpointUrl) {
+        base = client.target(endpointUrl);
+    }
+
+    @Override
+    public void create(Example entity) {
+        base.path("example")
+                .request("application/json")
+                .post(Entity.entity(entity, "application/json"));
+    }
+
+    @Override
+    public void delete(String exampleKey) {
+        base.path("example")
+                .path(exampleKey)
+                .request("application/json")
+                .delete();
+    }
+
+    @Override
+    public Example find(String exampleKey) {
+        return base.path("example")
+                .path(exampleKey)
+                .request("application/json")
+                .get(Example.class);
+    }
+
+    @Override
+    public List<Example> findAll() {
+        return base.path("example")
+                .request("application/json")
+                .get(LIST_EXAMPLE_TYPE);
+    }
+
+    @Override
+    public Response findBeanParams(String exampleKey, ExampleBeanParam beanParam) {
+        return base.path("example")
+                .path(exampleKey)
+                .path("text")
+                .path(beanParam.getBeanPath())
+                .queryParam("fieldQuery", beanParam.fieldQuery)
+                .matrixParam("constructorMatrix", beanParam.getConstructorMatrix())
+                .request("application/json")
+                .get();
+    }
+
+    @Override
+    public Example findKitchenSink(String exampleKey, String headParam, String modParam, String subKey, String mtxParam, String otherParam, Cookie cookieParam, Example context) {
+        return base.path("example")
+                .path(exampleKey)
+                .path("text")
+                .path(subKey)
+                .queryParam("modParam", modParam)
+                .matrixParam("mtxParam", mtxParam)
+                .queryParam("otherParam", otherParam)
+                .request("application/json")
+                .header("headParam", headParam)
+                .cookie(cookieParam)
+                .get(Example.class);
+    }
+
+    @Override
+    public Example nonJaxrsMethod(String param0, long param1) {
+        return null;
+    }
+
+    @Override
+    public void postFormParams(String exampleKey, String soloParam, long longParam, Integer integerParam, List<String> listParams, Set<Integer> setParams) {
+        FormEncoder form = FormEncoder.get();
+        form.add("soloParam", soloParam);
+        form.add("longParam", longParam);
+        form.add("integerParam", integerParam);
+        for (String listParams_i : listParams) {
+            form.add("listParams", listParams_i);
+        }
+        for (Integer setParams_i : setParams) {
+            form.add("setParams", setParams_i);
+        }
+        byte[] entity = form.toBytes();
+        base.path("example")
+                .path(exampleKey)
+                .request("application/json")
+                .post(Entity.entity(entity, "application/x-www-form-urlencoded"));
+    }
+
+    @Override
+    public List<Example> postGenericReturn(Example entity) {
+        return base.path("example")
+                .request("application/json")
+                .post(Entity.entity(entity, "application/json"), LIST_EXAMPLE_TYPE);
+    }
+
+    @Override
+    public Example postKitchenSink(String exampleKey, String modParam, String subKey, String otherParam, Example entity) {
+        return base.path("example")
+                .path(exampleKey)
+                .path("text")
+                .path(subKey)
+                .queryParam("modParam", modParam)
+                .queryParam("otherParam", otherParam)
+                .request("application/json")
+                .post(Entity.entity(entity, "application/json"), Example.class);
+    }
+
+    @Override
+    public void replace(String exampleKey, Example entity) {
+        base.path("example")
+                .path(exampleKey)
+                .request("application/json")
+                .put(Entity.entity(entity, "application/json"));
+    }
+
+    private static final class FormEncoder {
+        private static final int INITIAL_CAPACITY = 256;
+
+        private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+        private static final byte[] HEX = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F'};
+
+        private static final ThreadLocal<FormEncoder> LOCAL = new ThreadLocal<FormEncoder>() {
+            @Override
+            protected FormEncoder initialValue() {
+                return new FormEncoder();
+            }
+        };
+
+        private byte[] buffer = new byte[INITIAL_CAPACITY];
+
+        private int size;
+
+        /**
+         * @return this thread's encoder, emptied
+         */
+        static FormEncoder get() {
+            FormEncoder form = LOCAL.get();
+            form.size = 0;
+            return form;
+        }
+
+        /**
+         * Skips null values, as a Form does.
+         */
+        void add(String name, String value) {
+            if (value != null) {
+                name(name);
+                encode(value);
+            }
+        }
+
+        void add(String name, Object value) {
+            if (value != null) {
+                name(name);
+                encode(value.toString());
+            }
+        }
+
+        void add(String name, long value) {
+            name(name);
+            if (value == Long.MIN_VALUE) {
+                encode(Long.toString(value));
+                return;
+            }
+            ensure(20);
+            if (value < 0) {
+                buffer[size++] = '-';
+                value = -value;
+            }
+            int start = size;
+            do {
+                buffer[size++] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value != 0);
+            for (int i = start, j = size - 1; i < j; i++, j--) {
+                byte digit = buffer[i];
+                buffer[i] = buffer[j];
+                buffer[j] = digit;
+            }
+        }
+
+        void add(String name, double value) {
+            name(name);
+            encode(Double.toString(value));
+        }
+
+        void add(String name, float value) {
+            name(name);
+            encode(Float.toString(value));
+        }
+
+        void add(String name, boolean value) {
+            name(name);
+            encode(value ? "true" : "false");
+        }
+
+        /**
+         * @return copy of the encoded form, leaving the buffer free for reuse
+         */
+        byte[] toBytes() {
+            byte[] bytes = Arrays.copyOf(buffer, size);
+            if (buffer.length > MAX_RETAINED_CAPACITY) {
+                buffer = new byte[INITIAL_CAPACITY];
+            }
+            return bytes;
+        }
+
+        private void name(String name) {
+            if (size > 0) {
+                ensure(1);
+                buffer[size++] = '&';
+            }
+            encode(name);
+            ensure(1);
+            buffer[size++] = '=';
+        }
+
+        private void encode(String value) {
+            for (int i = 0; i < value.length(); ) {
+                int end = Math.min(value.length(), i + 1024);
+                //at most 9 bytes per char, a percent escaped 3 byte sequence. sized per chunk so it cannot overflow
+                //the extra 3 covers a surrogate pair split by the chunk end
+                ensure((end - i) * 9 + 3);
+                for (; i < end; i++) {
+                    char c = value.charAt(i);
+                    if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '.' || c == '-' || c == '*' || c == '_') {
+                        buffer[size++] = (byte) c;
+                    } else if (c == ' ') {
+                        buffer[size++] = '+';
+                    } else if (c < 0x80) {
+                        escape(c);
+                    } else if (c < 0x800) {
+                        escape(0xC0 | (c >> 6));
+                        escape(0x80 | (c & 0x3F));
+                    } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                        int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                        escape(0xF0 | (codePoint >> 18));
+                        escape(0x80 | ((codePoint >> 12) & 0x3F));
+                        escape(0x80 | ((codePoint >> 6) & 0x3F));
+                        escape(0x80 | (codePoint & 0x3F));
+                    } else if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+                        //unpaired, replaced like String.getBytes does
+                        escape('?');
+                    } else {
+                        escape(0xE0 | (c >> 12));
+                        escape(0x80 | ((c >> 6) & 0x3F));
+                        escape(0x80 | (c & 0x3F));
+                    }
+                }
+            }
+        }
+
+        private void escape(int b) {
+            buffer[size++] = '%';
+            buffer[size++] = HEX[(b >> 4) & 0xF];
+            buffer[size++] = HEX[b & 0xF];
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(buffer.length * 2L, (long) size + extra)));
+            }
+        }
+    }
+}
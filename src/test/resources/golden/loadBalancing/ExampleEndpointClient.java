@@ -0,0 +1,360 @@
+package io.github.yeagy.jaxrs;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.Cookie;
+import javax.ws.rs.core.Form;
+import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.Response;
+
+public class ExampleEndpointClient implements ExampleEndpoint {
+    private static final GenericType<List<Example>> LIST_EXAMPLE_TYPE = new GenericType<List<Example>>(){};
+
+    private final LoadBalancer loadBalancer;
+
+    public ExampleEndpointClient(Client client, String endpointUrl) {
+        this(new LoadBalancer(client, Collections.singletonList(endpointUrl)));
+    }
+
+    /**
+     * @param loadBalancer picks the base URL of every call
+     */
+    public ExampleEndpointClient(LoadBalancer loadBalancer) {
+        this.loadBalancer = loadBalancer;
+    }
+
+    @Override
+    public void create(Example entity) {
+        LoadBalancer.Host host = loadBalancer.pick();
+        final int[] hostStatus = new int[1];
+        RuntimeException hostFailure = null;
+        try {
+            Response response = host.base.path("example")
+                    .request("application/json")
+                    .post(Entity.entity(entity, "application/json"));
+            hostStatus[0] = response.getStatus();
+        } catch (RuntimeException e) {
+            hostFailure = e;
+            throw e;
+        } finally {
+            loadBalancer.release(host, hostStatus[0], hostFailure);
+        }
+    }
+
+    @Override
+    public void delete(String exampleKey) {
+        LoadBalancer.Host host = loadBalancer.pick();
+        final int[] hostStatus = new int[1];
+        RuntimeException hostFailure = null;
+        try {
+            Response response = host.base.path("example")
+                    .path(exampleKey)
+                    .request("application/json")
+                    .delete();
+            hostStatus[0] = response.getStatus();
+        } catch (RuntimeException e) {
+            hostFailure = e;
+            throw e;
+        } finally {
+            loadBalancer.release(host, hostStatus[0], hostFailure);
+        }
+    }
+
+    @Override
+    public Example find(String exampleKey) {
+        LoadBalancer.Host host = loadBalancer.pick();
+        RuntimeException hostFailure = null;
+        try {
+            return host.base.path("example")
+                    .path(exampleKey)
+                    .request("application/json")
+                    .get(Example.class);
+        } catch (RuntimeException e) {
+            hostFailure = e;
+            throw e;
+        } finally {
+            loadBalancer.release(host, 0, hostFailure);
+        }
+    }
+
+    @Override
+    public List<Example> findAll() {
+        LoadBalancer.Host host = loadBalancer.pick();
+        RuntimeException hostFailure = null;
+        try {
+            return host.base.path("example")
+                    .request("application/json")
+                    .get(LIST_EXAMPLE_TYPE);
+        } catch (RuntimeException e) {
+            hostFailure = e;
+            throw e;
+        } finally {
+            loadBalancer.release(host, 0, hostFailure);
+        }
+    }
+
+    @Override
+    public Response findBeanParams(String exampleKey, ExampleBeanParam beanParam) {
+        LoadBalancer.Host host = loadBalancer.pick();
+        final int[] hostStatus = new int[1];
+        RuntimeException hostFailure = null;
+        try {
+            Response response = host.base.path("example")
+                    .path(exampleKey)
+                    .path("text")
+                    .path(beanParam.getBeanPath())
+                    .queryParam("fieldQuery", beanParam.fieldQuery)
+                    .matrixParam("constructorMatrix", beanParam.getConstructorMatrix())
+                    .request("application/json")
+                    .get();
+            hostStatus[0] = response.getStatus();
+            return response;
+        } catch (RuntimeException e) {
+            hostFailure = e;
+            throw e;
+        } finally {
+            loadBalancer.release(host, hostStatus[0], hostFailure);
+        }
+    }
+
+    @Override
+    public Example findKitchenSink(String exampleKey, String headParam, String modParam, String subKey, String mtxParam, String otherParam, Cookie cookieParam, Example context) {
+        LoadBalancer.Host host = loadBalancer.pick();
+        RuntimeException hostFailure = null;
+        try {
+            return host.base.path("example")
+                    .path(exampleKey)
+                    .path("text")
+                    .path(subKey)
+                    .queryParam("modParam", modParam)
+                    .matrixParam("mtxParam", mtxParam)
+                    .queryParam("otherParam", otherParam)
+                    .request("application/json")
+                    .header("headParam", headParam)
+                    .cookie(cookieParam)
+                    .get(Example.class);
+        } catch (RuntimeException e) {
+            hostFailure = e;
+            throw e;
+        } finally {
+            loadBalancer.release(host, 0, hostFailure);
+        }
+    }
+
+    @Override
+    public Example nonJaxrsMethod(String param0, long param1) {
+        return null;
+    }
+
+    @Override
+    public void postFormParams(String exampleKey, String soloParam, long longParam, Integer integerParam, List<String> listParams, Set<Integer> setParams) {
+        MultivaluedHashMap<String, String> mmap = new MultivaluedHashMap<String, String>();
+        mmap.add("soloParam", soloParam);
+        mmap.add("longParam", Long.toString(longParam));
+        mmap.add("integerParam", integerParam != null ? integerParam.toString() : null);
+        mmap.addAll("listParams", listParams);
+        for (Integer setParams_i : setParams) {
+            mmap.add("setParams", setParams_i != null ? setParams_i.toString() : null);
+        }
+        Form entity = new Form(mmap);
+        LoadBalancer.Host host = loadBalancer.pick();
+        final int[] hostStatus = new int[1];
+        RuntimeException hostFailure = null;
+        try {
+            Response response = host.base.path("example")
+                    .path(exampleKey)
+                    .request("application/json")
+                    .post(Entity.entity(entity, "application/x-www-form-urlencoded"));
+            hostStatus[0] = response.getStatus();
+        } catch (RuntimeException e) {
+            hostFailure = e;
+            throw e;
+        } finally {
+            loadBalancer.release(host, hostStatus[0], hostFailure);
+        }
+    }
+
+    @Override
+    public List<Example> postGenericReturn(Example entity) {
+        LoadBalancer.Host host = loadBalancer.pick();
+        RuntimeException hostFailure = null;
+        try {
+            return host.base.path("example")
+                    .request("application/json")
+                    .post(Entity.entity(entity, "application/json"), LIST_EXAMPLE_TYPE);
+        } catch (RuntimeException e) {
+            hostFailure = e;
+            throw e;
+        } finally {
+            loadBalancer.release(host, 0, hostFailure);
+        }
+    }
+
+    @Override
+    public Example postKitchenSink(String exampleKey, String modParam, String subKey, String otherParam, Example entity) {
+        LoadBalancer.Host host = loadBalancer.pick();
+        RuntimeException hostFailure = null;
+        try {
+            return host.base.path("example")
+                    .path(exampleKey)
+                    .path("text")
+                    .path(subKey)
+                    .queryParam("modParam", modParam)
+                    .queryParam("otherParam", otherParam)
+                    .request("application/json")
+                    .post(Entity.entity(entity, "application/json"), Example.class);
+        } catch (RuntimeException e) {
+            hostFailure = e;
+            throw e;
+        } finally {
+            loadBalancer.release(host, 0, hostFailure);
+        }
+    }
+
+    @Override
+    public void replace(String exampleKey, Example entity) {
+        LoadBalancer.Host host = loadBalancer.pick();
+        final int[] hostStatus = new int[1];
+        RuntimeException hostFailure = null;
+        try {
+            Response response = host.base.path("example")
+                    .path(exampleKey)
+                    .request("application/json")
+                    .put(Entity.entity(entity, "application/json"));
+            hostStatus[0] = response.getStatus();
+        } catch (RuntimeException e) {
+            hostFailure = e;
+            throw e;
+        } finally {
+            loadBalancer.release(host, hostStatus[0], hostFailure);
+        }
+    }
+
+    /**
+     * Spreads calls over several base URLs of the same service. Each call goes to the host with fewer calls in
+     * flight out of two random ones. A host is left out for 30 seconds after 5 consecutive I/O failures or 5xx
+     * responses, unless every host is left out.
+     */
+    public static final class LoadBalancer {
+        private static final int EJECT_AFTER_FAILURES = 5;
+
+        private static final long EJECTION_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+        private final Client client;
+
+        private volatile Host[] hosts = new Host[0];
+
+        /**
+         * @param client shared by every host
+         * @param endpointUrls base URLs of the hosts
+         */
+        public LoadBalancer(Client client, List<String> endpointUrls) {
+            this.client = client;
+            update(endpointUrls);
+        }
+
+        /**
+         * Replaces the hosts, such as when service discovery reports a change. Hosts still listed keep their
+         * calls in flight and ejection state.
+         *
+         * @param endpointUrls base URLs of the hosts
+         */
+        public synchronized void update(List<String> endpointUrls) {
+            if (endpointUrls.isEmpty()) {
+                throw new IllegalArgumentException("at least one endpoint url required");
+            }
+            Map<String, Host> current = new HashMap<String, Host>();
+            for (Host host : hosts) {
+                current.put(host.url, host);
+            }
+            Host[] updated = new Host[endpointUrls.size()];
+            for (int i = 0; i < updated.length; i++) {
+                String url = endpointUrls.get(i);
+                Host host = current.get(url);
+                updated[i] = host != null ? host : new Host(url, client.target(url));
+            }
+            hosts = updated;
+        }
+
+        Host pick() {
+            Host[] current = hosts;
+            Host host = current[0];
+            if (current.length > 1) {
+                long now = System.nanoTime();
+                int first = (int) (Math.random() * current.length);
+                int second = (int) (Math.random() * (current.length - 1));
+                Host a = current[first];
+                Host b = current[second >= first ? second + 1 : second];
+                if (a.available(now) != b.available(now)) {
+                    host = a.available(now) ? a : b;
+                } else if (a.available(now)) {
+                    host = a.outstanding.get() <= b.outstanding.get() ? a : b;
+                } else {
+                    host = null;
+                    for (Host candidate : current) {
+                        if (candidate.available(now) && (host == null || candidate.outstanding.get() < host.outstanding.get())) {
+                            host = candidate;
+                        }
+                    }
+                    if (host == null) {
+                        host = a.outstanding.get() <= b.outstanding.get() ? a : b;
+                    }
+                }
+            }
+            host.outstanding.incrementAndGet();
+            return host;
+        }
+
+        /**
+         * @param status of the Response a call returned or dropped, which never throws on a 5xx, else 0
+         * @param failure what the call threw, null on success
+         */
+        void release(Host host, int status, RuntimeException failure) {
+            host.outstanding.decrementAndGet();
+            if (failure instanceof WebApplicationException) {
+                status = ((WebApplicationException) failure).getResponse().getStatus();
+            }
+            if (!(failure instanceof ProcessingException || status >= 500)) {
+                host.failures.set(0);
+            } else if (host.failures.incrementAndGet() >= EJECT_AFTER_FAILURES) {
+                host.failures.set(0);
+                host.ejectedUntil = System.nanoTime() + EJECTION_NANOS;
+                host.ejected = true;
+            }
+        }
+
+        static final class Host {
+            private final String url;
+
+            final WebTarget base;
+
+            private final AtomicInteger outstanding = new AtomicInteger();
+
+            private final AtomicInteger failures = new AtomicInteger();
+
+            private volatile boolean ejected;
+
+            private volatile long ejectedUntil;
+
+            private Host(String url, WebTarget base) {
+                this.url = url;
+                this.base = base;
+            }
+
+            private boolean available(long now) {
+                return !ejected || now - ejectedUntil >= 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package io.github.yeagy.jaxrs;
+
+import java.util.concurrent.Future;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.WebTarget;
+
+public class ExampleClassEndpointAsyncClient {
+    private final WebTarget base;
+
+    private final WebTarget classClassKeyMoreMethodKeyTarget;
+
+    public ExampleClassEndpointAsyncClient(Client client, String endpointUrl) {
+        base = client.target(endpointUrl);
+        classClassKeyMoreMethodKeyTarget = base.path("class/{classKey}/more/{methodKey}");
+    }
+
+    public Future<Example> findExample(String classHeader, String classKey, long classQuery, String methodKey) {
+        return classClassKeyMoreMethodKeyTarget.resolveTemplate("classKey", classKey)
+                .resolveTemplate("methodKey", methodKey)
+                .queryParam("classQuery", classQuery)
+                .request("application/json", "application/xml")
+                .header("classHeader", classHeader)
+                .async()
+                .get(Example.class);
+    }
+}
@@ -0,0 +1,127 @@
+package io.github.yeagy.jaxrs;
+
+import java.util.List;
+import java.util.Set;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.Cookie;
+import javax.ws.rs.core.Form;
+import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.Response;
+
+public class ExampleEndpointClient implements ExampleEndpoint {
+    private static final GenericType<List<Example>> LIST_EXAMPLE_TYPE = new GenericType<List<Example>>(){};
+
+    private final WebTarget base;
+
+    private final WebTarget exampleTarget;
+
+    private final WebTarget exampleExampleKeyTarget;
+
+    private final WebTarget exampleExampleKeyTextBeanKeyTarget;
+
+    private final WebTarget exampleExampleKeyTextSubKeyTarget;
+
+    public ExampleEndpointClient(Client client, String endpointUrl) {
+        base = client.target(endpointUrl);
+        exampleTarget = base.path("example");
+        exampleExampleKeyTarget = base.path("example/{exampleKey}");
+        exampleExampleKeyTextBeanKeyTarget = base.path("example/{exampleKey}/text/{beanKey}");
+        exampleExampleKeyTextSubKeyTarget = base.path("example/{exampleKey}/text/{subKey}");
+    }
+
+    @Override
+    public void create(Example entity) {
+        exampleTarget.request("application/json")
+                .post(Entity.entity(entity, "application/json"));
+    }
+
+    @Override
+    public void delete(String exampleKey) {
+        exampleExampleKeyTarget.resolveTemplate("exampleKey", exampleKey)
+                .request("application/json")
+                .delete();
+    }
+
+    @Override
+    public Example find(String exampleKey) {
+        return exampleExampleKeyTarget.resolveTemplate("exampleKey", exampleKey)
+                .request("application/json")
+                .get(Example.class);
+    }
+
+    @Override
+    public List<Example> findAll() {
+        return exampleTarget.request("application/json")
+                .get(LIST_EXAMPLE_TYPE);
+    }
+
+    @Override
+    public Response findBeanParams(String exampleKey, ExampleBeanParam beanParam) {
+        return exampleExampleKeyTextBeanKeyTarget.resolveTemplate("exampleKey", exampleKey)
+                .resolveTemplate("beanKey", beanParam.getBeanPath())
+                .queryParam("fieldQuery", beanParam.fieldQuery)
+                .matrixParam("constructorMatrix", beanParam.getConstructorMatrix())
+                .request("application/json")
+                .get();
+    }
+
+    @Override
+    public Example findKitchenSink(String exampleKey, String headParam, String modParam, String subKey, String mtxParam, String otherParam, Cookie cookieParam, Example context) {
+        return exampleExampleKeyTextSubKeyTarget.resolveTemplate("exampleKey", exampleKey)
+                .resolveTemplate("subKey", subKey)
+                .queryParam("modParam", modParam)
+                .matrixParam("mtxParam", mtxParam)
+                .queryParam("otherParam", otherParam)
+                .request("application/json")
+                .header("headParam", headParam)
+                .cookie(cookieParam)
+                .get(Example.class);
+    }
+
+    @Override
+    public Example nonJaxrsMethod(String param0, long param1) {
+        return null;
+    }
+
+    @Override
+    public void postFormParams(String exampleKey, String soloParam, long longParam, Integer integerParam, List<String> listParams, Set<Integer> setParams) {
+        MultivaluedHashMap<String, String> mmap = new MultivaluedHashMap<String, String>();
+        mmap.add("soloParam", soloParam);
+        mmap.add("longParam", Long.toString(longParam));
+        mmap.add("integerParam", integerParam != null ? integerParam.toString() : null);
+        mmap.addAll("listParams", listParams);
+        for (Integer setParams_i : setParams) {
+            mmap.add("setParams", setParams_i != null ? setParams_i.toString() : null);
+        }
+        Form entity = new Form(mmap);
+        exampleExampleKeyTarget.resolveTemplate("exampleKey", exampleKey)
+                .request("application/json")
+                .post(Entity.entity(entity, "application/x-www-form-urlencoded"));
+    }
+
+    @Override
+    public List<Example> postGenericReturn(Example entity) {
+        return exampleTarget.request("application/json")
+                .post(Entity.entity(entity, "application/json"), LIST_EXAMPLE_TYPE);
+    }
+
+    @Override
+    public Example postKitchenSink(String exampleKey, String modParam, String subKey, String otherParam, Example entity) {
+        return exampleExampleKeyTextSubKeyTarget.resolveTemplate("exampleKey", exampleKey)
+                .resolveTemplate("subKey", subKey)
+                .queryParam("modParam", modParam)
+                .queryParam("otherParam", otherParam)
+                .request("application/json")
+                .post(Entity.entity(entity, "application/json"), Example.class);
+    }
+
+    @Override
+    public void replace(String exampleKey, Example entity) {
+        exampleExampleKeyTarget.resolveTemplate("exampleKey", exampleKey)
+                .request("application/json")
+                .put(Entity.entity(entity, "application/json"));
+    }
+}
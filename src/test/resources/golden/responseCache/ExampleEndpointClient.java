@@ -0,0 +1,310 @@
+package io.github.yeagy.jaxrs;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.ClientErrorException;
+import javax.ws.rs.ForbiddenException;
+import javax.ws.rs.InternalServerErrorException;
+import javax.ws.rs.NotAcceptableException;
+import javax.ws.rs.NotAuthorizedException;
+import javax.ws.rs.NotFoundException;
+import javax.ws.rs.NotSupportedException;
+import javax.ws.rs.RedirectionException;
+import javax.ws.rs.ServerErrorException;
+import javax.ws.rs.ServiceUnavailableException;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.Invocation;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.Cookie;
+import javax.ws.rs.core.Form;
+import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.Response;
+
+public class ExampleEndpointClient implements ExampleEndpoint {
+    private static final GenericType<List<Example>> LIST_EXAMPLE_TYPE = new GenericType<List<Example>>(){};
+
+    private final WebTarget base;
+
+    private final ResponseCache responseCache;
+
+    public ExampleEndpointClient(Client client, String endpointUrl) {
+        this(client, endpointUrl, new ResponseCache(ResponseCache.DEFAULT_MAX_ENTRIES));
+    }
+
+    /**
+     * @param responseCache may be shared with other clients
+     */
+    public ExampleEndpointClient(Client client, String endpointUrl, ResponseCache responseCache) {
+        this.responseCache = responseCache;
+        base = client.target(endpointUrl);
+    }
+
+    @Override
+    public void create(Example entity) {
+        base.path("example")
+                .request("application/json")
+                .post(Entity.entity(entity, "application/json"));
+    }
+
+    @Override
+    public void delete(String exampleKey) {
+        base.path("example")
+                .path(exampleKey)
+                .request("application/json")
+                .delete();
+    }
+
+    @Override
+    public Example find(String exampleKey) {
+        final WebTarget target = base.path("example")
+                .path(exampleKey);
+        final List<Object> key = Arrays.<Object>asList("find", target.getUri());
+        return responseCache.get(key, target.request("application/json"), Example.class);
+    }
+
+    @Override
+    public List<Example> findAll() {
+        final WebTarget target = base.path("example");
+        final List<Object> key = Arrays.<Object>asList("findAll", target.getUri());
+        return responseCache.get(key, target.request("application/json"), LIST_EXAMPLE_TYPE);
+    }
+
+    @Override
+    public Response findBeanParams(String exampleKey, ExampleBeanParam beanParam) {
+        return base.path("example")
+                .path(exampleKey)
+                .path("text")
+                .path(beanParam.getBeanPath())
+                .queryParam("fieldQuery", beanParam.fieldQuery)
+                .matrixParam("constructorMatrix", beanParam.getConstructorMatrix())
+                .request("application/json")
+                .get();
+    }
+
+    @Override
+    public Example findKitchenSink(String exampleKey, String headParam, String modParam, String subKey, String mtxParam, String otherParam, Cookie cookieParam, Example context) {
+        final WebTarget target = base.path("example")
+                .path(exampleKey)
+                .path("text")
+                .path(subKey)
+                .queryParam("modParam", modParam)
+                .matrixParam("mtxParam", mtxParam)
+                .queryParam("otherParam", otherParam);
+        final List<Object> key = Arrays.<Object>asList("findKitchenSink", target.getUri(), headParam, cookieParam);
+        return responseCache.get(key, target.request("application/json")
+                .header("headParam", headParam)
+                .cookie(cookieParam), Example.class);
+    }
+
+    @Override
+    public Example nonJaxrsMethod(String param0, long param1) {
+        return null;
+    }
+
+    @Override
+    public void postFormParams(String exampleKey, String soloParam, long longParam, Integer integerParam, List<String> listParams, Set<Integer> setParams) {
+        MultivaluedHashMap<String, String> mmap = new MultivaluedHashMap<String, String>();
+        mmap.add("soloParam", soloParam);
+        mmap.add("longParam", Long.toString(longParam));
+        mmap.add("integerParam", integerParam != null ? integerParam.toString() : null);
+        mmap.addAll("listParams", listParams);
+        for (Integer setParams_i : setParams) {
+            mmap.add("setParams", setParams_i != null ? setParams_i.toString() : null);
+        }
+        Form entity = new Form(mmap);
+        base.path("example")
+                .path(exampleKey)
+                .request("application/json")
+                .post(Entity.entity(entity, "application/x-www-form-urlencoded"));
+    }
+
+    @Override
+    public List<Example> postGenericReturn(Example entity) {
+        return base.path("example")
+                .request("application/json")
+                .post(Entity.entity(entity, "application/json"), LIST_EXAMPLE_TYPE);
+    }
+
+    @Override
+    public Example postKitchenSink(String exampleKey, String modParam, String subKey, String otherParam, Example entity) {
+        return base.path("example")
+                .path(exampleKey)
+                .path("text")
+                .path(subKey)
+                .queryParam("modParam", modParam)
+                .queryParam("otherParam", otherParam)
+                .request("application/json")
+                .post(Entity.entity(entity, "application/json"), Example.class);
+    }
+
+    @Override
+    public void replace(String exampleKey, Example entity) {
+        base.path("example")
+                .path(exampleKey)
+                .request("application/json")
+                .put(Entity.entity(entity, "application/json"));
+    }
+
+    /**
+     * Least recently used cache of GET results, revalidated once stale.
+     */
+    public static final class ResponseCache {
+        public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+        private final Map<List<Object>, CachedResult> results;
+
+        /**
+         * @param maxEntries most results kept before the least recently used is dropped
+         */
+        public ResponseCache(final int maxEntries) {
+            results = new LinkedHashMap<List<Object>, CachedResult>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<List<Object>, CachedResult> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+
+        public void clear() {
+            synchronized (results) {
+                results.clear();
+            }
+        }
+
+        <T> T get(List<Object> key, Invocation.Builder request, Class<T> type) {
+            return get(key, request, type, null);
+        }
+
+        <T> T get(List<Object> key, Invocation.Builder request, GenericType<T> type) {
+            return get(key, request, null, type);
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> T get(List<Object> key, Invocation.Builder request, Class<T> rawType, GenericType<T> genericType) {
+            CachedResult cached;
+            synchronized (results) {
+                cached = results.get(key);
+            }
+            if (cached != null) {
+                if (cached.expires - System.nanoTime() > 0) {
+                    return (T) cached.entity;
+                }
+                if (cached.etag != null) {
+                    request.header(HttpHeaders.IF_NONE_MATCH, cached.etag);
+                }
+                if (cached.lastModified != null) {
+                    request.header(HttpHeaders.IF_MODIFIED_SINCE, cached.lastModified);
+                }
+            }
+            Response response = request.get();
+            if (cached != null && response.getStatus() == Response.Status.NOT_MODIFIED.getStatusCode()) {
+                response.close();
+                store(key, cached.entity, response, cached);
+                return (T) cached.entity;
+            }
+            if (response.getStatusInfo().getFamily() != Response.Status.Family.SUCCESSFUL) {
+                throw exception(response);
+            }
+            T entity = rawType != null ? response.readEntity(rawType) : response.readEntity(genericType);
+            store(key, entity, response, null);
+            return entity;
+        }
+
+        /**
+         * @param revalidated result a 304 response refreshes, which keeps its validators unless new ones are sent
+         */
+        private void store(List<Object> key, Object entity, Response response, CachedResult revalidated) {
+            boolean store = !"*".equals(response.getHeaderString(HttpHeaders.VARY));
+            long maxAge = 0;
+            boolean noCache = false;
+            String cacheControl = response.getHeaderString(HttpHeaders.CACHE_CONTROL);
+            if (cacheControl != null) {
+                for (String part : cacheControl.split(",")) {
+                    String directive = part.trim().toLowerCase(Locale.ROOT);
+                    if (directive.equals("no-store")) {
+                        store = false;
+                    } else if (directive.equals("no-cache")) {
+                        noCache = true;
+                    } else if (directive.startsWith("max-age=")) {
+                        try {
+                            maxAge = Long.parseLong(directive.substring(8));
+                        } catch (NumberFormatException e) {
+                            maxAge = 0;
+                        }
+                    }
+                }
+            }
+            String etag = response.getHeaderString(HttpHeaders.ETAG);
+            String lastModified = response.getHeaderString(HttpHeaders.LAST_MODIFIED);
+            if (revalidated != null && etag == null && lastModified == null) {
+                etag = revalidated.etag;
+                lastModified = revalidated.lastModified;
+            }
+            long freshFor = noCache ? 0 : TimeUnit.SECONDS.toNanos(maxAge);
+            synchronized (results) {
+                if (store && (freshFor > 0 || etag != null || lastModified != null)) {
+                    results.put(key, new CachedResult(entity, etag, lastModified, System.nanoTime() + freshFor));
+                } else {
+                    results.remove(key);
+                }
+            }
+        }
+
+        private static WebApplicationException exception(Response response) {
+            switch (response.getStatus()) {
+                case 400:
+                    return new BadRequestException(response);
+                case 401:
+                    return new NotAuthorizedException(response);
+                case 403:
+                    return new ForbiddenException(response);
+                case 404:
+                    return new NotFoundException(response);
+                case 406:
+                    return new NotAcceptableException(response);
+                case 415:
+                    return new NotSupportedException(response);
+                case 500:
+                    return new InternalServerErrorException(response);
+                case 503:
+                    return new ServiceUnavailableException(response);
+            }
+            Response.Status.Family family = response.getStatusInfo().getFamily();
+            if (family == Response.Status.Family.REDIRECTION) {
+                return new RedirectionException(response);
+            } else if (family == Response.Status.Family.CLIENT_ERROR) {
+                return new ClientErrorException(response);
+            } else if (family == Response.Status.Family.SERVER_ERROR) {
+                return new ServerErrorException(response);
+            }
+            return new WebApplicationException(response);
+        }
+
+        private static final class CachedResult {
+            private final Object entity;
+
+            private final String etag;
+
+            private final String lastModified;
+
+            private final long expires;
+
+            CachedResult(Object entity, String etag, String lastModified, long expires) {
+                this.entity = entity;
+                this.etag = etag;
+                this.lastModified = lastModified;
+                this.expires = expires;
+            }
+        }
+    }
+}
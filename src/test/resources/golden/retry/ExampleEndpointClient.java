@@ -0,0 +1,444 @@
+package io.github.yeagy.jaxrs;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.Cookie;
+import javax.ws.rs.core.Form;
+import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.Response;
+
+public class ExampleEndpointClient implements ExampleEndpoint {
+    private static final GenericType<List<Example>> LIST_EXAMPLE_TYPE = new GenericType<List<Example>>(){};
+
+    private final WebTarget base;
+
+    private final RetryPolicy retryPolicy;
+
+    public ExampleEndpointClient(Client client, String endpointUrl) {
+        this(client, endpointUrl, RetryPolicy.NONE);
+    }
+
+    /**
+     * @param retryPolicy applied to GET, HEAD, OPTIONS, PUT and DELETE calls, POST and PATCH are never retried
+     */
+    public ExampleEndpointClient(Client client, String endpointUrl, RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        base = client.target(endpointUrl);
+    }
+
+    @Override
+    public void create(Example entity) {
+        base.path("example")
+                .request("application/json")
+                .post(Entity.entity(entity, "application/json"));
+    }
+
+    @Override
+    public void delete(final String exampleKey) {
+        Response response = retryPolicy.forMethod("delete").call(new Callable<Response>() {
+            @Override
+            public Response call() {
+                Response response = base.path("example")
+                        .path(exampleKey)
+                        .request("application/json")
+                        .delete();
+                return response;
+            }
+        });
+        response.close();
+    }
+
+    @Override
+    public Example find(final String exampleKey) {
+        return retryPolicy.forMethod("find").call(new Callable<Example>() {
+            @Override
+            public Example call() {
+                return base.path("example")
+                        .path(exampleKey)
+                        .request("application/json")
+                        .get(Example.class);
+            }
+        });
+    }
+
+    @Override
+    public List<Example> findAll() {
+        return retryPolicy.forMethod("findAll").call(new Callable<List<Example>>() {
+            @Override
+            public List<Example> call() {
+                return base.path("example")
+                        .request("application/json")
+                        .get(LIST_EXAMPLE_TYPE);
+            }
+        });
+    }
+
+    @Override
+    public Response findBeanParams(final String exampleKey, final ExampleBeanParam beanParam) {
+        return retryPolicy.forMethod("findBeanParams").call(new Callable<Response>() {
+            @Override
+            public Response call() {
+                return base.path("example")
+                        .path(exampleKey)
+                        .path("text")
+                        .path(beanParam.getBeanPath())
+                        .queryParam("fieldQuery", beanParam.fieldQuery)
+                        .matrixParam("constructorMatrix", beanParam.getConstructorMatrix())
+                        .request("application/json")
+                        .get();
+            }
+        });
+    }
+
+    @Override
+    public Example findKitchenSink(final String exampleKey, final String headParam, final String modParam, final String subKey, final String mtxParam, final String otherParam, final Cookie cookieParam, final Example context) {
+        return retryPolicy.forMethod("findKitchenSink").call(new Callable<Example>() {
+            @Override
+            public Example call() {
+                return base.path("example")
+                        .path(exampleKey)
+                        .path("text")
+                        .path(subKey)
+                        .queryParam("modParam", modParam)
+                        .matrixParam("mtxParam", mtxParam)
+                        .queryParam("otherParam", otherParam)
+                        .request("application/json")
+                        .header("headParam", headParam)
+                        .cookie(cookieParam)
+                        .get(Example.class);
+            }
+        });
+    }
+
+    @Override
+    public Example nonJaxrsMethod(String param0, long param1) {
+        return null;
+    }
+
+    @Override
+    public void postFormParams(String exampleKey, String soloParam, long longParam, Integer integerParam, List<String> listParams, Set<Integer> setParams) {
+        MultivaluedHashMap<String, String> mmap = new MultivaluedHashMap<String, String>();
+        mmap.add("soloParam", soloParam);
+        mmap.add("longParam", Long.toString(longParam));
+        mmap.add("integerParam", integerParam != null ? integerParam.toString() : null);
+        mmap.addAll("listParams", listParams);
+        for (Integer setParams_i : setParams) {
+            mmap.add("setParams", setParams_i != null ? setParams_i.toString() : null);
+        }
+        Form entity = new Form(mmap);
+        base.path("example")
+                .path(exampleKey)
+                .request("application/json")
+                .post(Entity.entity(entity, "application/x-www-form-urlencoded"));
+    }
+
+    @Override
+    public List<Example> postGenericReturn(Example entity) {
+        return base.path("example")
+                .request("application/json")
+                .post(Entity.entity(entity, "application/json"), LIST_EXAMPLE_TYPE);
+    }
+
+    @Override
+    public Example postKitchenSink(String exampleKey, String modParam, String subKey, String otherParam, Example entity) {
+        return base.path("example")
+                .path(exampleKey)
+                .path("text")
+                .path(subKey)
+                .queryParam("modParam", modParam)
+                .queryParam("otherParam", otherParam)
+                .request("application/json")
+                .post(Entity.entity(entity, "application/json"), Example.class);
+    }
+
+    @Override
+    public void replace(final String exampleKey, final Example entity) {
+        Response response = retryPolicy.forMethod("replace").call(new Callable<Response>() {
+            @Override
+            public Response call() {
+                Response response = base.path("example")
+                        .path(exampleKey)
+                        .request("application/json")
+                        .put(Entity.entity(entity, "application/json"));
+                return response;
+            }
+        });
+        response.close();
+    }
+
+    /**
+     * Retries and hedging of idempotent calls. I/O failures and 502, 503 and 504 responses are retried after a
+     * random delay of up to the backoff, doubled for every attempt, while the retry budget lasts. Every call adds
+     * the budget ratio to the budget, which starts full at 10, and every retry or hedge takes one from it.
+     */
+    public static final class RetryPolicy {
+        public static final RetryPolicy NONE = new RetryPolicy(1, 0, 0, 0);
+
+        private static final double MAX_BUDGET = 10;
+
+        private static final int LATENCY_SAMPLES = 128;
+
+        private static final int HEDGE_DELAY_INTERVAL = 32;
+
+        private final int maxAttempts;
+
+        private final long backoffMillis;
+
+        private final long maxBackoffMillis;
+
+        private final double budgetRatio;
+
+        private final double hedgePercentile;
+
+        private final ExecutorService hedgeExecutor;
+
+        private final Map<String, RetryPolicy> byMethod;
+
+        private final long[] latencies = new long[LATENCY_SAMPLES];
+
+        private int latencyCount;
+
+        private int nextLatency;
+
+        private volatile long hedgeDelayNanos = Long.MAX_VALUE;
+
+        private double budget = MAX_BUDGET;
+
+        /**
+         * @param maxAttempts attempts per call, the first included
+         * @param backoffMillis longest delay before the first retry
+         * @param maxBackoffMillis longest delay before any retry
+         * @param budgetRatio retries and hedges allowed per call on average, such as 0.1, so retries cannot
+         * multiply the load on a struggling server
+         */
+        public RetryPolicy(int maxAttempts, long backoffMillis, long maxBackoffMillis, double budgetRatio) {
+            this(maxAttempts, backoffMillis, maxBackoffMillis, budgetRatio, 0, null, Collections.<String, RetryPolicy>emptyMap());
+        }
+
+        private RetryPolicy(int maxAttempts, long backoffMillis, long maxBackoffMillis, double budgetRatio, double hedgePercentile, ExecutorService hedgeExecutor, Map<String, RetryPolicy> byMethod) {
+            this.maxAttempts = maxAttempts;
+            this.backoffMillis = backoffMillis;
+            this.maxBackoffMillis = maxBackoffMillis;
+            this.budgetRatio = budgetRatio;
+            this.hedgePercentile = hedgePercentile;
+            this.hedgeExecutor = hedgeExecutor;
+            this.byMethod = byMethod;
+        }
+
+        /**
+         * @param percentile latency percentile of recent attempts, such as 95, after which a second attempt is
+         * sent and whichever succeeds first is taken. Calls are not hedged until 32 attempts were timed.
+         * @param executor runs the attempts of hedged calls
+         * @return copy of this policy that also hedges
+         */
+        public RetryPolicy hedged(double percentile, ExecutorService executor) {
+            return new RetryPolicy(maxAttempts, backoffMillis, maxBackoffMillis, budgetRatio, percentile, executor, byMethod);
+        }
+
+        /**
+         * @param method client method name
+         * @param policy used for the method instead of this one
+         * @return copy of this policy with the override
+         */
+        public RetryPolicy withMethod(String method, RetryPolicy policy) {
+            Map<String, RetryPolicy> policies = new HashMap<String, RetryPolicy>(byMethod);
+            policies.put(method, policy);
+            return new RetryPolicy(maxAttempts, backoffMillis, maxBackoffMillis, budgetRatio, hedgePercentile, hedgeExecutor, policies);
+        }
+
+        RetryPolicy forMethod(String method) {
+            RetryPolicy policy = byMethod.get(method);
+            return policy != null ? policy : this;
+        }
+
+        <T> T call(Callable<T> call) {
+            if (maxAttempts <= 1 && hedgeExecutor == null) {
+                return invoke(call);
+            }
+            synchronized (this) {
+                budget = Math.min(budget + budgetRatio, MAX_BUDGET);
+            }
+            for (int attempt = 1; ; attempt++) {
+                T result;
+                try {
+                    result = hedgeExecutor != null ? hedge(call) : timed(call);
+                } catch (RuntimeException e) {
+                    boolean retryable = e instanceof ProcessingException || (e instanceof WebApplicationException && retryable(((WebApplicationException) e).getResponse().getStatus()));
+                    if (attempt >= maxAttempts || !retryable || !withdraw()) {
+                        throw e;
+                    }
+                    close(e);
+                    backoff(attempt);
+                    continue;
+                }
+                if (result instanceof Response && attempt < maxAttempts && retryable(((Response) result).getStatus()) && withdraw()) {
+                    close(result);
+                    backoff(attempt);
+                    continue;
+                }
+                return result;
+            }
+        }
+
+        /**
+         * Runs a second attempt once the first takes longer than the hedge delay, taking the first success.
+         * Attempts finishing after the call returned, and failures superseded by another outcome, close their response.
+         */
+        @SuppressWarnings("unchecked")
+        private <T> T hedge(final Callable<T> call) {
+            final BlockingQueue<Outcome> outcomes = new LinkedBlockingQueue<Outcome>();
+            final AtomicBoolean decided = new AtomicBoolean();
+            Runnable attempt = new Runnable() {
+                @Override
+                public void run() {
+                    Outcome outcome = new Outcome();
+                    try {
+                        outcome.result = timed(call);
+                    } catch (RuntimeException e) {
+                        outcome.failure = e;
+                    }
+                    synchronized (outcomes) {
+                        if (!decided.get()) {
+                            outcomes.add(outcome);
+                            return;
+                        }
+                    }
+                    close(outcome.result);
+                    close(outcome.failure);
+                }
+            };
+            hedgeExecutor.execute(attempt);
+            int pending = 1;
+            RuntimeException failure = null;
+            try {
+                Outcome outcome = outcomes.poll(hedgeDelayNanos, TimeUnit.NANOSECONDS);
+                if (outcome == null && withdraw()) {
+                    try {
+                        hedgeExecutor.execute(attempt);
+                        pending++;
+                    } catch (RejectedExecutionException e) {
+                        //carry on with the first attempt alone
+                    }
+                }
+                while (true) {
+                    if (outcome == null) {
+                        outcome = outcomes.take();
+                    }
+                    pending--;
+                    if (outcome.failure == null) {
+                        close(failure);
+                        return (T) outcome.result;
+                    }
+                    if (failure == null) {
+                        failure = outcome.failure;
+                    } else {
+                        close(outcome.failure);
+                    }
+                    if (pending == 0) {
+                        throw failure;
+                    }
+                    outcome = null;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ProcessingException(e);
+            } finally {
+                synchronized (outcomes) {
+                    decided.set(true);
+                    for (Outcome late : outcomes) {
+                        close(late.result);
+                        close(late.failure);
+                    }
+                }
+            }
+        }
+
+        private <T> T timed(Callable<T> call) {
+            if (hedgeExecutor == null) {
+                return invoke(call);
+            }
+            long start = System.nanoTime();
+            T result = invoke(call);
+            record(System.nanoTime() - start);
+            return result;
+        }
+
+        private synchronized void record(long nanos) {
+            latencies[nextLatency] = nanos;
+            nextLatency = (nextLatency + 1) % LATENCY_SAMPLES;
+            if (++latencyCount % HEDGE_DELAY_INTERVAL == 0) {
+                long[] sorted = Arrays.copyOf(latencies, Math.min(latencyCount, LATENCY_SAMPLES));
+                Arrays.sort(sorted);
+                int index = (int) Math.ceil(hedgePercentile / 100 * sorted.length) - 1;
+                hedgeDelayNanos = sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+                latencyCount = Math.min(latencyCount, LATENCY_SAMPLES);
+            }
+        }
+
+        private synchronized boolean withdraw() {
+            if (budget < 1) {
+                return false;
+            }
+            budget -= 1;
+            return true;
+        }
+
+        private void backoff(int attempt) {
+            long limit = Math.min(maxBackoffMillis, backoffMillis << Math.min(attempt - 1, 20));
+            try {
+                Thread.sleep((long) (Math.random() * limit));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ProcessingException(e);
+            }
+        }
+
+        private static boolean retryable(int status) {
+            return status == 502 || status == 503 || status == 504;
+        }
+
+        private static <T> T invoke(Callable<T> call) {
+            try {
+                return call.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new ProcessingException(e);
+            }
+        }
+
+        /**
+         * Closes a Response result, or the Response of a WebApplicationException failure.
+         */
+        private static void close(Object outcome) {
+            if (outcome instanceof Response) {
+                ((Response) outcome).close();
+            } else if (outcome instanceof WebApplicationException) {
+                ((WebApplicationException) outcome).getResponse().close();
+            }
+        }
+
+        private static final class Outcome {
+            private Object result;
+
+            private RuntimeException failure;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package io.github.yeagy.jaxrs;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.Cookie;
+import javax.ws.rs.core.Form;
+import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.Response;
+
+public class ExampleEndpointClient implements ExampleEndpoint {
+    private static final GenericType<List<Example>> LIST_EXAMPLE_TYPE = new GenericType<List<Example>>(){};
+
+    private final WebTarget base;
+
+    private final SingleFlight singleFlight = new SingleFlight();
+
+    public ExampleEndpointClient(Client client, String endpointUrl) {
+        base = client.target(endpointUrl);
+    }
+
+    @Override
+    public void create(Example entity) {
+        base.path("example")
+                .request("application/json")
+                .post(Entity.entity(entity, "application/json"));
+    }
+
+    @Override
+    public void delete(String exampleKey) {
+        base.path("example")
+                .path(exampleKey)
+                .request("application/json")
+                .delete();
+    }
+
+    @Override
+    public Example find(final String exampleKey) {
+        final WebTarget target = base.path("example")
+                .path(exampleKey);
+        final List<Object> key = Arrays.<Object>asList("find", target.getUri());
+        return singleFlight.call(key, new Callable<Example>() {
+            @Override
+            public Example call() {
+                return target.request("application/json")
+                        .get(Example.class);
+            }
+        });
+    }
+
+    @Override
+    public List<Example> findAll() {
+        final WebTarget target = base.path("example");
+        final List<Object> key = Arrays.<Object>asList("findAll", target.getUri());
+        return singleFlight.call(key, new Callable<List<Example>>() {
+            @Override
+            public List<Example> call() {
+                return target.request("application/json")
+                        .get(LIST_EXAMPLE_TYPE);
+            }
+        });
+    }
+
+    @Override
+    public Response findBeanParams(String exampleKey, ExampleBeanParam beanParam) {
+        return base.path("example")
+                .path(exampleKey)
+                .path("text")
+                .path(beanParam.getBeanPath())
+                .queryParam("fieldQuery", beanParam.fieldQuery)
+                .matrixParam("constructorMatrix", beanParam.getConstructorMatrix())
+                .request("application/json")
+                .get();
+    }
+
+    @Override
+    public Example findKitchenSink(final String exampleKey, final String headParam, final String modParam, final String subKey, final String mtxParam, final String otherParam, final Cookie cookieParam, final Example context) {
+        final WebTarget target = base.path("example")
+                .path(exampleKey)
+                .path("text")
+                .path(subKey)
+                .queryParam("modParam", modParam)
+                .matrixParam("mtxParam", mtxParam)
+                .queryParam("otherParam", otherParam);
+        final List<Object> key = Arrays.<Object>asList("findKitchenSink", target.getUri(), headParam, cookieParam);
+        return singleFlight.call(key, new Callable<Example>() {
+            @Override
+            public Example call() {
+                return target.request("application/json")
+                        .header("headParam", headParam)
+                        .cookie(cookieParam)
+                        .get(Example.class);
+            }
+        });
+    }
+
+    @Override
+    public Example nonJaxrsMethod(String param0, long param1) {
+        return null;
+    }
+
+    @Override
+    public void postFormParams(String exampleKey, String soloParam, long longParam, Integer integerParam, List<String> listParams, Set<Integer> setParams) {
+        MultivaluedHashMap<String, String> mmap = new MultivaluedHashMap<String, String>();
+        mmap.add("soloParam", soloParam);
+        mmap.add("longParam", Long.toString(longParam));
+        mmap.add("integerParam", integerParam != null ? integerParam.toString() : null);
+        mmap.addAll("listParams", listParams);
+        for (Integer setParams_i : setParams) {
+            mmap.add("setParams", setParams_i != null ? setParams_i.toString() : null);
+        }
+        Form entity = new Form(mmap);
+        base.path("example")
+                .path(exampleKey)
+                .request("application/json")
+                .post(Entity.entity(entity, "application/x-www-form-urlencoded"));
+    }
+
+    @Override
+    public List<Example> postGenericReturn(Example entity) {
+        return base.path("example")
+                .request("application/json")
+                .post(Entity.entity(entity, "application/json"), LIST_EXAMPLE_TYPE);
+    }
+
+    @Override
+    public Example postKitchenSink(String exampleKey, String modParam, String subKey, String otherParam, Example entity) {
+        return base.path("example")
+                .path(exampleKey)
+                .path("text")
+                .path(subKey)
+                .queryParam("modParam", modParam)
+                .queryParam("otherParam", otherParam)
+                .request("application/json")
+                .post(Entity.entity(entity, "application/json"), Example.class);
+    }
+
+    @Override
+    public void replace(String exampleKey, Example entity) {
+        base.path("example")
+                .path(exampleKey)
+                .request("application/json")
+                .put(Entity.entity(entity, "application/json"));
+    }
+
+    private static final class SingleFlight {
+        private final ConcurrentMap<List<Object>, FutureTask<?>> calls = new ConcurrentHashMap<List<Object>, FutureTask<?>>();
+
+        @SuppressWarnings("unchecked")
+        <T> T call(List<Object> key, Callable<T> call) {
+            FutureTask<T> task = new FutureTask<T>(call);
+            FutureTask<?> inFlight = calls.putIfAbsent(key, task);
+            if (inFlight == null) {
+                try {
+                    task.run();
+                } finally {
+                    calls.remove(key, task);
+                }
+                inFlight = task;
+            }
+            try {
+                return (T) inFlight.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ProcessingException(e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw new ProcessingException(e.getCause());
+            }
+        }
+    }
+}
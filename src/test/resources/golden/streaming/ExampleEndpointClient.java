@@ -0,0 +1,178 @@
+package io.github.yeagy.jaxrs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Set;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.Cookie;
+import javax.ws.rs.core.Form;
+import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.Response;
+
+public class ExampleEndpointClient implements ExampleEndpoint {
+    private static final GenericType<List<Example>> LIST_EXAMPLE_TYPE = new GenericType<List<Example>>(){};
+
+    private final WebTarget base;
+
+    public ExampleEndpointClient(Client client, String endpointUrl) {
+        base = client.target(endpointUrl);
+    }
+
+    @Override
+    public void create(Example entity) {
+        base.path("example")
+                .request("application/json")
+                .post(Entity.entity(entity, "application/json"));
+    }
+
+    @Override
+    public void delete(String exampleKey) {
+        base.path("example")
+                .path(exampleKey)
+                .request("application/json")
+                .delete();
+    }
+
+    @Override
+    public Example find(String exampleKey) {
+        return base.path("example")
+                .path(exampleKey)
+                .request("application/json")
+                .get(Example.class);
+    }
+
+    @Override
+    public List<Example> findAll() {
+        return base.path("example")
+                .request("application/json")
+                .get(LIST_EXAMPLE_TYPE);
+    }
+
+    /**
+     * Streaming variant of {@link #findAll}, for responses too large to decode at once.
+     *
+     * @param reader reads the response body as it arrives
+     * @return what the reader returns
+     * @throws IOException error reading the response body
+     */
+    public <R> R findAllStream(StreamReader<R> reader) throws IOException {
+        InputStream body = base.path("example")
+                .request("application/json")
+                .get(InputStream.class);
+        try {
+            return reader.read(body);
+        } finally {
+            body.close();
+        }
+    }
+
+    @Override
+    public Response findBeanParams(String exampleKey, ExampleBeanParam beanParam) {
+        return base.path("example")
+                .path(exampleKey)
+                .path("text")
+                .path(beanParam.getBeanPath())
+                .queryParam("fieldQuery", beanParam.fieldQuery)
+                .matrixParam("constructorMatrix", beanParam.getConstructorMatrix())
+                .request("application/json")
+                .get();
+    }
+
+    @Override
+    public Example findKitchenSink(String exampleKey, String headParam, String modParam, String subKey, String mtxParam, String otherParam, Cookie cookieParam, Example context) {
+        return base.path("example")
+                .path(exampleKey)
+                .path("text")
+                .path(subKey)
+                .queryParam("modParam", modParam)
+                .matrixParam("mtxParam", mtxParam)
+                .queryParam("otherParam", otherParam)
+                .request("application/json")
+                .header("headParam", headParam)
+                .cookie(cookieParam)
+                .get(Example.class);
+    }
+
+    @Override
+    public Example nonJaxrsMethod(String param0, long param1) {
+        return null;
+    }
+
+    @Override
+    public void postFormParams(String exampleKey, String soloParam, long longParam, Integer integerParam, List<String> listParams, Set<Integer> setParams) {
+        MultivaluedHashMap<String, String> mmap = new MultivaluedHashMap<String, String>();
+        mmap.add("soloParam", soloParam);
+        mmap.add("longParam", Long.toString(longParam));
+        mmap.add("integerParam", integerParam != null ? integerParam.toString() : null);
+        mmap.addAll("listParams", listParams);
+        for (Integer setParams_i : setParams) {
+            mmap.add("setParams", setParams_i != null ? setParams_i.toString() : null);
+        }
+        Form entity = new Form(mmap);
+        base.path("example")
+                .path(exampleKey)
+                .request("application/json")
+                .post(Entity.entity(entity, "application/x-www-form-urlencoded"));
+    }
+
+    @Override
+    public List<Example> postGenericReturn(Example entity) {
+        return base.path("example")
+                .request("application/json")
+                .post(Entity.entity(entity, "application/json"), LIST_EXAMPLE_TYPE);
+    }
+
+    /**
+     * Streaming variant of {@link #postGenericReturn}, for responses too large to decode at once.
+     *
+     * @param reader reads the response body as it arrives
+     * @return what the reader returns
+     * @throws IOException error reading the response body
+     */
+    public <R> R postGenericReturnStream(Example entity, StreamReader<R> reader) throws IOException {
+        InputStream body = base.path("example")
+                .request("application/json")
+                .post(Entity.entity(entity, "application/json"), InputStream.class);
+        try {
+            return reader.read(body);
+        } finally {
+            body.close();
+        }
+    }
+
+    @Override
+    public Example postKitchenSink(String exampleKey, String modParam, String subKey, String otherParam, Example entity) {
+        return base.path("example")
+                .path(exampleKey)
+                .path("text")
+                .path(subKey)
+                .queryParam("modParam", modParam)
+                .queryParam("otherParam", otherParam)
+                .request("application/json")
+                .post(Entity.entity(entity, "application/json"), Example.class);
+    }
+
+    @Override
+    public void replace(String exampleKey, Example entity) {
+        base.path("example")
+                .path(exampleKey)
+                .request("application/json")
+                .put(Entity.entity(entity, "application/json"));
+    }
+
+    /**
+     * Reads a response body as it arrives.
+     */
+    public interface StreamReader<R> {
+        /**
+         * @param body undecoded response body, closed by the client once this returns
+         * @return result of the call
+         * @throws IOException error reading the body
+         */
+        R read(InputStream body) throws IOException;
+    }
+}
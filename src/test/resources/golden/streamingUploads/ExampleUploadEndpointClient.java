@@ -0,0 +1,66 @@
+package io.github.yeagy.jaxrs;
+
+import java.io.File;
+import java.io.InputStream;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.StreamingOutput;
+
+public class ExampleUploadEndpointClient implements ExampleUploadEndpoint {
+    private final WebTarget base;
+
+    public ExampleUploadEndpointClient(Client client, String endpointUrl) {
+        base = client.target(endpointUrl);
+    }
+
+    @Override
+    public void replace(String name, InputStream entity) {
+        base.path("upload")
+                .path(name)
+                .request("application/json")
+                .property("jersey.config.client.request.entity.processing", "CHUNKED")
+                .put(Entity.entity(entity, "application/octet-stream"));
+    }
+
+    public void replace(String name, File entity) {
+        base.path("upload")
+                .path(name)
+                .request("application/json")
+                .property("jersey.config.client.request.entity.processing", "CHUNKED")
+                .put(Entity.entity(entity, "application/octet-stream"));
+    }
+
+    public void replace(String name, StreamingOutput entity) {
+        base.path("upload")
+                .path(name)
+                .request("application/json")
+                .property("jersey.config.client.request.entity.processing", "CHUNKED")
+                .put(Entity.entity(entity, "application/octet-stream"));
+    }
+
+    @Override
+    public Example upload(String name, InputStream entity) {
+        return base.path("upload")
+                .path(name)
+                .request("application/json")
+                .property("jersey.config.client.request.entity.processing", "CHUNKED")
+                .post(Entity.entity(entity, "application/octet-stream"), Example.class);
+    }
+
+    public Example upload(String name, File entity) {
+        return base.path("upload")
+                .path(name)
+                .request("application/json")
+                .property("jersey.config.client.request.entity.processing", "CHUNKED")
+                .post(Entity.entity(entity, "application/octet-stream"), Example.class);
+    }
+
+    public Example upload(String name, StreamingOutput entity) {
+        return base.path("upload")
+                .path(name)
+                .request("application/json")
+                .property("jersey.config.client.request.entity.processing", "CHUNKED")
+                .post(Entity.entity(entity, "application/octet-stream"), Example.class);
+    }
+}
@@ -0,0 +1,52 @@
+package io.github.yeagy.jaxrs;
+
+import java.util.concurrent.Future;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.Form;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.Response;
+
+public class ExampleVerbEndpointAsyncClient {
+    private final WebTarget base;
+
+    public ExampleVerbEndpointAsyncClient(Client client, String endpointUrl) {
+        base = client.target(endpointUrl);
+    }
+
+    public Future<Response> allowed() {
+        return base.path("verb")
+                .request("application/json")
+                .async()
+                .method("OPTIONS");
+    }
+
+    public Future<Response> exists(String key) {
+        return base.path("verb")
+                .path(key)
+                .request("application/json")
+                .async()
+                .method("HEAD");
+    }
+
+    public Future<Example> patch(String key, Example entity) {
+        return base.path("verb")
+                .path(key)
+                .request("application/json")
+                .async()
+                .method("PATCH", Entity.entity(entity, "application/json"), Example.class);
+    }
+
+    public void rename(String key, String name) {
+        MultivaluedHashMap<String, String> mmap = new MultivaluedHashMap<String, String>();
+        mmap.add("name", name);
+        Form entity = new Form(mmap);
+        base.path("verb")
+                .path(key)
+                .path("name")
+                .request("application/json")
+                .async()
+                .method("PATCH", Entity.entity(entity, "application/x-www-form-urlencoded"));
+    }
+}
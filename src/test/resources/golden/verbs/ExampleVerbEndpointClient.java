@@ -0,0 +1,51 @@
+package io.github.yeagy.jaxrs;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.Form;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.Response;
+
+public class ExampleVerbEndpointClient implements ExampleVerbEndpoint {
+    private final WebTarget base;
+
+    public ExampleVerbEndpointClient(Client client, String endpointUrl) {
+        base = client.target(endpointUrl);
+    }
+
+    @Override
+    public Response allowed() {
+        return base.path("verb")
+                .request("application/json")
+                .method("OPTIONS");
+    }
+
+    @Override
+    public Response exists(String key) {
+        return base.path("verb")
+                .path(key)
+                .request("application/json")
+                .method("HEAD");
+    }
+
+    @Override
+    public Example patch(String key, Example entity) {
+        return base.path("verb")
+                .path(key)
+                .request("application/json")
+                .method("PATCH", Entity.entity(entity, "application/json"), Example.class);
+    }
+
+    @Override
+    public void rename(String key, String name) {
+        MultivaluedHashMap<String, String> mmap = new MultivaluedHashMap<String, String>();
+        mmap.add("name", name);
+        Form entity = new Form(mmap);
+        base.path("verb")
+                .path(key)
+                .path("name")
+                .request("application/json")
+                .method("PATCH", Entity.entity(entity, "application/x-www-form-urlencoded"));
+    }
+}